@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.benchmark.flow;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import cascading.flow.BatchedCounters;
+import cascading.flow.FlowProcess;
+import cascading.flow.SliceCounters;
+import cascading.flow.StepCounters;
+import cascading.flow.hadoop.HadoopFlowProcess;
+import cascading.flow.local.LocalFlowProcess;
+import cascading.flow.local.LocalFlowStep;
+import cascading.management.state.ClientState;
+import cascading.stats.local.LocalStepStats;
+import org.apache.hadoop.mapred.Counters;
+import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.Reporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of a single {@link FlowProcess#increment(Enum, long)}, as made per tuple by the stream stages,
+ * against the local step stats and a Hadoop {@link Counters} backed Reporter, with and without
+ * {@link BatchedCounters}. A batch size of 1 disables batching.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CounterBenchmark
+  {
+  /** A Reporter incrementing Hadoop Counters, as the task Reporter does. */
+  static class CountersReporter implements Reporter
+    {
+    final Counters counters = new Counters();
+
+    @Override
+    public void setStatus( String status )
+      {
+      }
+
+    @Override
+    public Counters.Counter getCounter( Enum<?> name )
+      {
+      return counters.findCounter( name );
+      }
+
+    @Override
+    public Counters.Counter getCounter( String group, String name )
+      {
+      return counters.findCounter( group, name );
+      }
+
+    @Override
+    public void incrCounter( Enum<?> key, long amount )
+      {
+      counters.incrCounter( key, amount );
+      }
+
+    @Override
+    public void incrCounter( String group, String counter, long amount )
+      {
+      counters.incrCounter( group, counter, amount );
+      }
+
+    @Override
+    public InputSplit getInputSplit() throws UnsupportedOperationException
+      {
+      throw new UnsupportedOperationException();
+      }
+
+    @Override
+    public float getProgress()
+      {
+      return 0;
+      }
+
+    @Override
+    public void progress()
+      {
+      }
+    }
+
+  @Param({"local", "hadoop"})
+  String platform;
+
+  @Param({"1", "1000"})
+  int batchSize;
+
+  FlowProcess flowProcess;
+
+  @Setup
+  public void setup()
+    {
+    if( platform.equals( "local" ) )
+      {
+      Properties properties = new Properties();
+
+      properties.setProperty( BatchedCounters.COUNTER_BATCH_SIZE, Integer.toString( batchSize ) );
+
+      LocalFlowProcess localProcess = new LocalFlowProcess( properties );
+
+      localProcess.setStepStats( new LocalStepStats( new LocalFlowStep( "benchmark", 1 ), ClientState.NULL ) );
+      localProcess.enableCounterBatching();
+
+      flowProcess = localProcess;
+      }
+    else
+      {
+      JobConf jobConf = new JobConf();
+
+      jobConf.setInt( BatchedCounters.COUNTER_BATCH_SIZE, batchSize );
+
+      HadoopFlowProcess hadoopProcess = new HadoopFlowProcess( jobConf );
+
+      hadoopProcess.setReporter( new CountersReporter() );
+      hadoopProcess.enableCounterBatching();
+
+      flowProcess = hadoopProcess;
+      }
+    }
+
+  @TearDown
+  public void tearDown()
+    {
+    if( flowProcess instanceof LocalFlowProcess )
+      ( (LocalFlowProcess) flowProcess ).flushCounters();
+    else
+      ( (HadoopFlowProcess) flowProcess ).flushCounters();
+    }
+
+  @Benchmark
+  public void increment()
+    {
+    flowProcess.increment( StepCounters.Tuples_Read, 1 );
+    }
+
+  @Benchmark
+  public void incrementTwoGroups()
+    {
+    flowProcess.increment( StepCounters.Tuples_Read, 1 );
+    flowProcess.increment( SliceCounters.Tuples_Read, 1 );
+    }
+  }
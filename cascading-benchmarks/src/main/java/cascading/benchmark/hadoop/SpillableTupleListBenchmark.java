@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.benchmark.hadoop;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import cascading.benchmark.util.BenchmarkData;
+import cascading.tuple.Tuple;
+import cascading.tuple.hadoop.TupleSerialization;
+import cascading.tuple.hadoop.collect.HadoopSpillableTupleList;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.DefaultCodec;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures filling a {@link HadoopSpillableTupleList} past its spill threshold, and then reading every
+ * tuple back through the spill files and the in memory remainder, with spills written inline or in the
+ * background, and tuples held in memory as objects or compact serialized bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpillableTupleListBenchmark
+  {
+  @Param({"100000"})
+  int numRecords;
+
+  @Param({"10000"})
+  int threshold;
+
+  @Param({"true", "false"})
+  boolean compress;
+
+  @Param({"0", "2"})
+  int asyncBuffers;
+
+  @Param({"false", "true"})
+  boolean compact;
+
+  List<Tuple> records;
+  TupleSerialization tupleSerialization;
+  CompressionCodec codec;
+
+  @Setup
+  public void setup()
+    {
+    JobConf jobConf = new JobConf();
+
+    records = BenchmarkData.records( numRecords, 1000 );
+    tupleSerialization = new TupleSerialization( jobConf );
+    codec = compress ? ReflectionUtils.newInstance( DefaultCodec.class, jobConf ) : null;
+    }
+
+  @Benchmark
+  public void spillAndRead( Blackhole blackhole )
+    {
+    HadoopSpillableTupleList list = new HadoopSpillableTupleList( threshold, tupleSerialization, codec );
+
+    list.setAsyncSpill( asyncBuffers );
+    list.setCompact( compact );
+
+    for( Tuple record : records )
+      list.add( record );
+
+    for( Tuple tuple : list )
+      blackhole.consume( tuple );
+
+    list.clear();
+    }
+  }
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.benchmark.hadoop;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import cascading.benchmark.util.BenchmarkData;
+import cascading.tuple.Tuple;
+import cascading.tuple.hadoop.TupleSerialization;
+import cascading.tuple.hadoop.TupleSerializationProps;
+import cascading.tuple.hadoop.util.OrderedTupleComparator;
+import cascading.tuple.hadoop.util.TupleComparator;
+import cascading.tuple.io.OrderedTuple;
+import cascading.tuple.io.TypedTuple;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.serializer.Deserializer;
+import org.apache.hadoop.io.serializer.Serializer;
+import org.apache.hadoop.mapred.JobConf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link TupleSerialization} round trips of a full record, and the raw byte comparisons
+ * {@link TupleComparator} performs on serialized grouping keys during the map side sort, against the same keys
+ * serialized as {@link OrderedTuple} and compared by {@link OrderedTupleComparator}.
+ * <p/>
+ * The typed round trip writes the same record as a {@link TypedTuple}, against the declared types of
+ * {@link BenchmarkData#RECORD_FIELDS}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TupleSerializationBenchmark
+  {
+  static final int NUM_KEYS = 1024;
+
+  Tuple record;
+
+  DataOutputBuffer outputBuffer;
+  DataInputBuffer inputBuffer;
+  Serializer<Tuple> serializer;
+  Deserializer<Tuple> deserializer;
+  Tuple reuse;
+
+  Serializer<Tuple> typedSerializer;
+  Deserializer<Tuple> typedDeserializer;
+  Tuple typedReuse;
+
+  TupleComparator comparator;
+  byte[] keyBytes;
+  int[] keyOffsets;
+  int[] keyLengths;
+
+  OrderedTupleComparator orderedComparator;
+  byte[] orderedKeyBytes;
+  int[] orderedKeyOffsets;
+  int[] orderedKeyLengths;
+
+  int next = 0;
+
+  @Setup
+  public void setup() throws IOException
+    {
+    JobConf jobConf = new JobConf();
+    TupleSerialization serialization = new TupleSerialization( jobConf );
+
+    List<Tuple> records = BenchmarkData.records( NUM_KEYS, NUM_KEYS / 4 );
+    record = records.get( 0 );
+
+    outputBuffer = new DataOutputBuffer();
+    inputBuffer = new DataInputBuffer();
+    serializer = serialization.getSerializer( Tuple.class );
+    serializer.open( outputBuffer );
+    deserializer = serialization.getDeserializer( Tuple.class );
+    deserializer.open( inputBuffer );
+    reuse = new Tuple();
+
+    jobConf.set( TupleSerializationProps.VALUE_TYPES, "java.lang.Long,java.lang.String,java.lang.String,java.lang.String,java.lang.Double,java.lang.String" );
+    typedSerializer = serialization.getSerializer( TypedTuple.class );
+    typedSerializer.open( outputBuffer );
+    typedDeserializer = serialization.getDeserializer( TypedTuple.class );
+    typedDeserializer.open( inputBuffer );
+    typedReuse = new TypedTuple();
+
+    keyOffsets = new int[ NUM_KEYS ];
+    keyLengths = new int[ NUM_KEYS ];
+    keyBytes = serializeKeys( serialization.getSerializer( Tuple.class ), records, keyOffsets, keyLengths );
+
+    orderedKeyOffsets = new int[ NUM_KEYS ];
+    orderedKeyLengths = new int[ NUM_KEYS ];
+    orderedKeyBytes = serializeKeys( serialization.getSerializer( OrderedTuple.class ), records, orderedKeyOffsets, orderedKeyLengths );
+
+    comparator = new TupleComparator();
+    comparator.setConf( jobConf );
+
+    orderedComparator = new OrderedTupleComparator();
+    }
+
+  // serialize group keys of the form [key, id] back to back, as they would be in the sort buffer
+  private static byte[] serializeKeys( Serializer<Tuple> keySerializer, List<Tuple> records, int[] offsets, int[] lengths ) throws IOException
+    {
+    DataOutputBuffer keysBuffer = new DataOutputBuffer();
+    keySerializer.open( keysBuffer );
+
+    for( int i = 0; i < NUM_KEYS; i++ )
+      {
+      Tuple key = new Tuple( records.get( i ).getObject( 1 ), records.get( i ).getObject( 0 ) );
+
+      offsets[ i ] = keysBuffer.getLength();
+      keySerializer.serialize( key );
+      lengths[ i ] = keysBuffer.getLength() - offsets[ i ];
+      }
+
+    return keysBuffer.getData();
+    }
+
+  @Benchmark
+  public int serialize() throws IOException
+    {
+    outputBuffer.reset();
+    serializer.serialize( record );
+
+    return outputBuffer.getLength();
+    }
+
+  @Benchmark
+  public Tuple serializeDeserialize() throws IOException
+    {
+    outputBuffer.reset();
+    serializer.serialize( record );
+
+    inputBuffer.reset( outputBuffer.getData(), outputBuffer.getLength() );
+
+    return deserializer.deserialize( reuse );
+    }
+
+  @Benchmark
+  public Tuple serializeDeserializeTyped() throws IOException
+    {
+    outputBuffer.reset();
+    typedSerializer.serialize( record );
+
+    inputBuffer.reset( outputBuffer.getData(), outputBuffer.getLength() );
+
+    return typedDeserializer.deserialize( typedReuse );
+    }
+
+  @Benchmark
+  public int compareRawKeys()
+    {
+    int lhs = next;
+    int rhs = ( next * 31 + 7 ) & ( NUM_KEYS - 1 );
+
+    next = ( next + 1 ) & ( NUM_KEYS - 1 );
+
+    return comparator.compare( keyBytes, keyOffsets[ lhs ], keyLengths[ lhs ], keyBytes, keyOffsets[ rhs ], keyLengths[ rhs ] );
+    }
+
+  @Benchmark
+  public int compareOrderedKeys()
+    {
+    int lhs = next;
+    int rhs = ( next * 31 + 7 ) & ( NUM_KEYS - 1 );
+
+    next = ( next + 1 ) & ( NUM_KEYS - 1 );
+
+    return orderedComparator.compare( orderedKeyBytes, orderedKeyOffsets[ lhs ], orderedKeyLengths[ lhs ], orderedKeyBytes, orderedKeyOffsets[ rhs ], orderedKeyLengths[ rhs ] );
+    }
+  }
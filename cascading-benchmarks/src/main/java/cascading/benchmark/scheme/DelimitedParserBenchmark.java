@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.benchmark.scheme;
+
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import cascading.benchmark.util.BenchmarkData;
+import cascading.scheme.util.DelimitedParser;
+import cascading.scheme.util.ScanningDelimitedParser;
+import cascading.tuple.Fields;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link DelimitedParser#parseLine(String)}, splitting, unquoting, and coercing one line of
+ * delimited text into typed values, with and without a quote character.
+ * <p/>
+ * The parseBytes benchmark measures parsing a line as read by the Hadoop TextDelimited, decoding it first unless
+ * using {@link ScanningDelimitedParser}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DelimitedParserBenchmark
+  {
+  static final int NUM_LINES = 1024;
+  static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+  @Param({"none", "\""})
+  String quote;
+
+  @Param({"true", "false"})
+  boolean typed;
+
+  @Param({"false", "true"})
+  boolean scanning;
+
+  DelimitedParser parser;
+  String[] lines;
+  byte[][] bytes;
+  int next = 0;
+
+  @Setup
+  public void setup()
+    {
+    String quoteChar = quote.equals( "none" ) ? null : quote;
+    Fields fields = typed ? BenchmarkData.RECORD_FIELDS : BenchmarkData.RECORD_FIELDS.applyTypes( (Type[]) null );
+
+    if( scanning )
+      parser = new ScanningDelimitedParser( ",", quoteChar, null, true, true, fields, fields );
+    else
+      parser = new DelimitedParser( ",", quoteChar, null, true, true, fields, fields );
+
+    List<String> lineList = BenchmarkData.lines( BenchmarkData.records( NUM_LINES, 100 ), ",", quoteChar );
+    lines = lineList.toArray( new String[ lineList.size() ] );
+    bytes = new byte[ NUM_LINES ][];
+
+    for( int i = 0; i < NUM_LINES; i++ )
+      bytes[ i ] = lines[ i ].getBytes( UTF_8 );
+    }
+
+  @Benchmark
+  public Object[] parseLine()
+    {
+    String line = lines[ next ];
+
+    next = ( next + 1 ) & ( NUM_LINES - 1 );
+
+    return parser.parseLine( line );
+    }
+  
+  @Benchmark
+  public Object[] parseBytes()
+    {
+    byte[] line = bytes[ next ];
+
+    next = ( next + 1 ) & ( NUM_LINES - 1 );
+
+    if( scanning )
+      return ( (ScanningDelimitedParser) parser ).parseLine( line, 0, line.length, UTF_8 );
+
+    return parser.parseLine( new String( line, 0, line.length, UTF_8 ) );
+    }
+  }
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.benchmark.stream;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import cascading.benchmark.util.BenchmarkData;
+import cascading.benchmark.util.LocalStepHarness;
+import cascading.benchmark.util.TupleListTap;
+import cascading.flow.FlowDef;
+import cascading.flow.local.planner.LocalStepRunner;
+import cascading.operation.Identity;
+import cascading.operation.Insert;
+import cascading.pipe.Each;
+import cascading.pipe.Pipe;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures pushing tuples through a chain of {@link cascading.flow.stream.FunctionEachStage} instances, each
+ * appending a value to the stream, followed by a narrowing {@link Identity}.
+ * <p/>
+ * The functions are intentionally trivial so the cost measured is the stage and tuple handling overhead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EachChainBenchmark
+  {
+  @Param({"100000"})
+  int numRecords;
+
+  @Param({"1", "4", "8"})
+  int chainLength;
+
+  LocalStepHarness harness;
+  LocalStepRunner runner;
+
+  @Setup(Level.Trial)
+  public void setupTrial()
+    {
+    List<Tuple> records = BenchmarkData.records( numRecords, 1000 );
+
+    TupleListTap source = new TupleListTap( "source", BenchmarkData.RECORD_FIELDS, records );
+    TupleListTap sink = new TupleListTap( "sink", Fields.ALL );
+
+    Pipe pipe = new Pipe( "chain" );
+
+    for( int i = 0; i < chainLength; i++ )
+      pipe = new Each( pipe, new Insert( new Fields( "inserted" + i ), i ), Fields.ALL );
+
+    pipe = new Each( pipe, new Fields( "id", "key", "amount" ), new Identity(), Fields.RESULTS );
+
+    harness = new LocalStepHarness( FlowDef.flowDef().addSource( pipe, source ).addTailSink( pipe, sink ) );
+    }
+
+  @Setup(Level.Invocation)
+  public void setupInvocation()
+    {
+    runner = harness.newRunner();
+    }
+
+  @Benchmark
+  public void receiveChain() throws Exception
+    {
+    LocalStepHarness.run( runner );
+    }
+  }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.benchmark.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import cascading.benchmark.util.BenchmarkData;
+import cascading.tuple.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building the key index of the accumulated side of an in-memory splice gate, see
+ * {@link cascading.flow.stream.MemorySpliceGate#createKeySet()}.
+ * <p/>
+ * {@code sorted} is the synchronized TreeSet previously used by every gate, {@code hashed} the concurrent hash set
+ * used now. {@link #build()} is the HashJoin case, where keys are never sorted, {@link #buildAndSort()} the GroupBy
+ * and CoGroup case, where the hashed keys are sorted once when emitted.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyIndexBenchmark
+  {
+  @Param({"100000"})
+  int numRecords;
+
+  @Param({"10000", "100000"})
+  int numKeys;
+
+  @Param({"sorted", "hashed"})
+  String keyIndex;
+
+  List<Tuple> keys;
+  Comparator<Tuple> comparator;
+
+  @Setup
+  public void setup()
+    {
+    List<Tuple> records = BenchmarkData.records( numRecords, numKeys );
+
+    keys = new ArrayList<Tuple>( records.size() );
+
+    for( Tuple record : records )
+      keys.add( record.get( new int[]{1} ) );
+
+    comparator = new Comparator<Tuple>()
+    {
+    @Override
+    public int compare( Tuple lhs, Tuple rhs )
+      {
+      return lhs.compareTo( rhs );
+      }
+    };
+    }
+
+  private Set<Tuple> createKeySet()
+    {
+    if( keyIndex.equals( "sorted" ) )
+      return Collections.synchronizedSet( new TreeSet<Tuple>( comparator ) );
+
+    return Collections.newSetFromMap( new ConcurrentHashMap<Tuple, Boolean>() );
+    }
+
+  private Set<Tuple> fill()
+    {
+    Set<Tuple> set = createKeySet();
+
+    for( Tuple key : keys )
+      set.add( key );
+
+    return set;
+    }
+
+  @Benchmark
+  public Set<Tuple> build()
+    {
+    return fill();
+    }
+
+  @Benchmark
+  public Tuple[] buildAndSort()
+    {
+    Set<Tuple> set = fill();
+    Tuple[] sorted = set.toArray( new Tuple[ set.size() ] );
+
+    if( keyIndex.equals( "hashed" ) )
+      Arrays.sort( sorted, comparator );
+
+    return sorted;
+    }
+  }
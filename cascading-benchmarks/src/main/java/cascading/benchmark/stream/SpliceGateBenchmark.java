@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.benchmark.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import cascading.benchmark.util.BenchmarkData;
+import cascading.benchmark.util.LocalStepHarness;
+import cascading.benchmark.util.TupleListTap;
+import cascading.flow.FlowDef;
+import cascading.flow.local.planner.LocalStepRunner;
+import cascading.pipe.CoGroup;
+import cascading.pipe.GroupBy;
+import cascading.pipe.HashJoin;
+import cascading.pipe.Pipe;
+import cascading.pipe.joiner.InnerJoin;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the in-memory local mode splice gates, {@link cascading.flow.local.stream.LocalGroupByGate},
+ * {@link cascading.flow.stream.MemoryCoGroupGate}, and {@link cascading.flow.stream.MemoryHashJoinGate},
+ * from accumulating the incoming tuples through emitting every group or join result downstream.
+ * <p/>
+ * The accumulated side of the HashJoin is one tenth of the streamed side.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpliceGateBenchmark
+  {
+  public static final Fields RHS_FIELDS = new Fields( "rhs_id", "rhs_key", "rhs_country", "rhs_device", "rhs_amount", "rhs_text" );
+
+  @Param({"100000"})
+  int numRecords;
+
+  @Param({"10000", "100000"})
+  int numKeys;
+
+  @Param({"GroupBy", "CoGroup", "HashJoin"})
+  String splice;
+
+  LocalStepHarness harness;
+  LocalStepRunner runner;
+
+  @Setup(Level.Trial)
+  public void setupTrial()
+    {
+    List<Tuple> lhsRecords = BenchmarkData.records( numRecords, numKeys );
+
+    TupleListTap lhsSource = new TupleListTap( "lhs", BenchmarkData.RECORD_FIELDS, lhsRecords );
+    TupleListTap sink = new TupleListTap( "sink", Fields.ALL );
+
+    Pipe lhs = new Pipe( "lhs" );
+    Pipe rhs = new Pipe( "rhs" );
+
+    FlowDef flowDef = FlowDef.flowDef().addSource( lhs, lhsSource );
+
+    Pipe tail;
+
+    if( splice.equals( "GroupBy" ) )
+      {
+      tail = new GroupBy( lhs, new Fields( "key" ) );
+      }
+    else
+      {
+      boolean isHashJoin = splice.equals( "HashJoin" );
+      List<Tuple> rhsRecords = BenchmarkData.records( isHashJoin ? numRecords / 10 : numRecords, numKeys );
+
+      flowDef.addSource( rhs, new TupleListTap( "rhs", RHS_FIELDS, new ArrayList<Tuple>( rhsRecords ) ) );
+
+      if( isHashJoin )
+        tail = new HashJoin( lhs, new Fields( "key" ), rhs, new Fields( "rhs_key" ), new InnerJoin() );
+      else
+        tail = new CoGroup( lhs, new Fields( "key" ), rhs, new Fields( "rhs_key" ), new InnerJoin() );
+      }
+
+    harness = new LocalStepHarness( flowDef.addTailSink( tail, sink ) );
+    }
+
+  @Setup(Level.Invocation)
+  public void setupInvocation()
+    {
+    runner = harness.newRunner();
+    }
+
+  @Benchmark
+  public void accumulateAndEmit() throws Exception
+    {
+    LocalStepHarness.run( runner );
+    }
+  }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.benchmark.tuple;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import cascading.benchmark.util.BenchmarkData;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of selecting values from a {@link Tuple} or {@link TupleEntry} by field name, which
+ * every {@link cascading.pipe.Each} and {@link cascading.pipe.Every} pays when resolving argument selectors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TupleSelectionBenchmark
+  {
+  Fields declared;
+  Fields selector;
+  int[] pos;
+  Tuple tuple;
+  TupleEntry entry;
+
+  @Setup
+  public void setup()
+    {
+    declared = BenchmarkData.RECORD_FIELDS;
+    selector = new Fields( "key", "amount" );
+    pos = declared.getPos( selector );
+    tuple = BenchmarkData.record( new Random( BenchmarkData.SEED ), 0, 100 );
+    entry = new TupleEntry( declared, tuple );
+    }
+
+  @Benchmark
+  public int[] fieldsGetPos()
+    {
+    return declared.getPos( selector );
+    }
+
+  @Benchmark
+  public Tuple tupleGetByPos()
+    {
+    return tuple.get( pos );
+    }
+
+  @Benchmark
+  public Tuple tupleGetBySelector()
+    {
+    return tuple.get( declared, selector );
+    }
+
+  @Benchmark
+  public Tuple entrySelectTuple()
+    {
+    return entry.selectTuple( selector );
+    }
+
+  @Benchmark
+  public Tuple entrySelectTupleCopy()
+    {
+    return entry.selectTupleCopy( selector );
+    }
+
+  @Benchmark
+  public Object entryGetObjectByName()
+    {
+    return entry.getObject( "amount" );
+    }
+  }
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.benchmark.tuple;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import cascading.benchmark.util.BenchmarkData;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.util.TupleViews;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures creating, resetting, and reading through the narrow and composite {@link TupleViews} used by the
+ * stream stages to avoid copying values between pipes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TupleViewsBenchmark
+  {
+  int[] narrowPos;
+  Tuple lhs;
+  Tuple rhs;
+  Tuple narrow;
+  Tuple composite;
+
+  @Setup
+  public void setup()
+    {
+    Random random = new Random( BenchmarkData.SEED );
+    Fields declared = BenchmarkData.RECORD_FIELDS;
+
+    narrowPos = declared.getPos( new Fields( "key", "country", "amount" ) );
+    lhs = BenchmarkData.record( random, 0, 100 );
+    rhs = BenchmarkData.record( random, 1, 100 );
+
+    narrow = TupleViews.createNarrow( narrowPos );
+    composite = TupleViews.createComposite( declared, declared );
+    }
+
+  @Benchmark
+  public Tuple createNarrow()
+    {
+    return TupleViews.createNarrow( narrowPos, lhs );
+    }
+
+  @Benchmark
+  public void resetAndReadNarrow( Blackhole blackhole )
+    {
+    TupleViews.reset( narrow, lhs );
+
+    for( int i = 0; i < narrow.size(); i++ )
+      blackhole.consume( narrow.getObject( i ) );
+    }
+
+  @Benchmark
+  public Tuple createComposite()
+    {
+    return TupleViews.createComposite( lhs, rhs );
+    }
+
+  @Benchmark
+  public void resetAndReadComposite( Blackhole blackhole )
+    {
+    TupleViews.reset( composite, lhs, rhs );
+
+    for( int i = 0; i < composite.size(); i++ )
+      blackhole.consume( composite.getObject( i ) );
+    }
+
+  @Benchmark
+  public void iterateComposite( Blackhole blackhole )
+    {
+    TupleViews.reset( composite, lhs, rhs );
+
+    for( Object value : composite )
+      blackhole.consume( value );
+    }
+
+  @Benchmark
+  public Tuple copyComposite()
+    {
+    TupleViews.reset( composite, lhs, rhs );
+
+    return new Tuple( composite );
+    }
+  }
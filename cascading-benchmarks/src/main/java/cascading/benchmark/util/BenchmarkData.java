@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.benchmark.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+
+/**
+ * Class BenchmarkData creates repeatable synthetic data sets for the benchmarks in this module.
+ * <p/>
+ * All data is derived from a fixed seed so results are comparable across runs and revisions.
+ */
+public class BenchmarkData
+  {
+  public static final long SEED = 0x5EEDL;
+
+  /** The default declared fields of a generated record, a mix of low and high cardinality columns. */
+  public static final Fields RECORD_FIELDS = new Fields( "id", "key", "country", "device", "amount", "text" )
+    .applyTypes( Long.class, String.class, String.class, String.class, Double.class, String.class );
+
+  private static final String[] COUNTRIES = {"us", "de", "fr", "jp", "br", "in", "gb", "ca"};
+  private static final String[] DEVICES = {"desktop", "mobile", "tablet"};
+
+  public static List<Tuple> records( int size, int numKeys )
+    {
+    Random random = new Random( SEED );
+    List<Tuple> tuples = new ArrayList<Tuple>( size );
+
+    for( int i = 0; i < size; i++ )
+      tuples.add( record( random, i, numKeys ) );
+
+    return tuples;
+    }
+
+  public static Tuple record( Random random, long id, int numKeys )
+    {
+    return new Tuple(
+      id,
+      "key-" + random.nextInt( numKeys ),
+      COUNTRIES[ random.nextInt( COUNTRIES.length ) ],
+      DEVICES[ random.nextInt( DEVICES.length ) ],
+      random.nextDouble() * 1000,
+      "some free form text " + random.nextInt()
+    );
+    }
+
+  /**
+   * Method lines returns the given records joined by the given delimiter, optionally quoting the free form text column.
+   *
+   * @param records   of type List<Tuple>
+   * @param delimiter of type String
+   * @param quote     of type String, may be null
+   * @return List<String>
+   */
+  public static List<String> lines( List<Tuple> records, String delimiter, String quote )
+    {
+    List<String> lines = new ArrayList<String>( records.size() );
+
+    for( Tuple record : records )
+      {
+      StringBuilder builder = new StringBuilder();
+
+      for( int i = 0; i < record.size(); i++ )
+        {
+        if( i != 0 )
+          builder.append( delimiter );
+
+        boolean isQuoted = quote != null && i == record.size() - 1;
+
+        if( isQuoted )
+          builder.append( quote );
+
+        builder.append( record.getObject( i ) );
+
+        if( isQuoted )
+          builder.append( quote );
+        }
+
+      lines.add( builder.toString() );
+      }
+
+    return lines;
+    }
+  }
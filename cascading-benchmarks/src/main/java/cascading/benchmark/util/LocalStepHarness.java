@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.benchmark.util;
+
+import java.util.Map;
+import java.util.Properties;
+
+import cascading.flow.Flow;
+import cascading.flow.FlowDef;
+import cascading.flow.local.LocalFlowConnector;
+import cascading.flow.local.LocalFlowProcess;
+import cascading.flow.local.LocalFlowStep;
+import cascading.flow.local.planner.LocalStepRunner;
+import cascading.management.state.ClientState;
+import cascading.stats.local.LocalStepStats;
+
+/**
+ * Class LocalStepHarness plans a local mode {@link Flow} once, and then allows its single step to be executed
+ * repeatedly without paying for planning, flow startup, or stats polling on each run.
+ * <p/>
+ * Each call to {@link #newRunner()} creates a fresh stream graph, so gates and stages start out empty.
+ */
+public class LocalStepHarness
+  {
+  private final LocalFlowStep step;
+  private final LocalFlowProcess flowProcess;
+
+  public LocalStepHarness( FlowDef flowDef )
+    {
+    this( flowDef, new Properties() );
+    }
+
+  public LocalStepHarness( FlowDef flowDef, Map<Object, Object> properties )
+    {
+    Flow flow = new LocalFlowConnector( properties ).connect( flowDef );
+
+    if( flow.getFlowSteps().size() != 1 )
+      throw new IllegalStateException( "local flows are expected to have a single step, found: " + flow.getFlowSteps().size() );
+
+    Properties config = new Properties();
+    config.putAll( properties );
+
+    this.step = (LocalFlowStep) flow.getFlowSteps().get( 0 );
+    this.flowProcess = new LocalFlowProcess( step.getInitializedConfig( new LocalFlowProcess( config ), config ) );
+    this.flowProcess.setStepStats( new LocalStepStats( step, ClientState.NULL ) );
+    }
+
+  public LocalStepRunner newRunner()
+    {
+    return new LocalStepRunner( flowProcess, step );
+    }
+
+  public static void run( LocalStepRunner runner ) throws Exception
+    {
+    Throwable throwable = runner.call();
+
+    if( throwable instanceof Exception )
+      throw (Exception) throwable;
+
+    if( throwable != null )
+      throw new RuntimeException( throwable );
+    }
+  }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class BatchedCounters accumulates {@link Enum} counter increments per thread, in primitive slots indexed by the
+ * ordinal of the counter, and hands them to {@link #flushIncrement(Enum, long)} once a thread made
+ * {@link #COUNTER_BATCH_SIZE} increments, and when {@link #flush()} is called.
+ * <p/>
+ * Batching is opt-in, by setting {@link #COUNTER_BATCH_SIZE} above 1. A {@link FlowProcess} batching its counters must
+ * be flushed once the work is done, or the values reported lag behind. Each thread only locks its own slots, so
+ * increments are not contended.
+ */
+public abstract class BatchedCounters
+  {
+  /** The number of increments a thread accumulates before they are flushed, 1 by default, which disables batching. */
+  public static final String COUNTER_BATCH_SIZE = "cascading.flow.counter.batch.size";
+
+  public static final int DEFAULT_COUNTER_BATCH_SIZE = 1;
+
+  private static class Values
+    {
+    final Enum[] counters;
+    final long[] amounts;
+
+    Values( Class<? extends Enum> type )
+      {
+      counters = type.getEnumConstants();
+      amounts = new long[ counters.length ];
+      }
+    }
+
+  private static class Slots
+    {
+    final Map<Class, Values> values = new IdentityHashMap<Class, Values>();
+    Class lastType;
+    Values lastValues;
+    int pending;
+    }
+
+  private final int batchSize;
+  private final List<Slots> allSlots = new ArrayList<Slots>();
+  private final ThreadLocal<Slots> threadSlots = new ThreadLocal<Slots>()
+  {
+  @Override
+  protected Slots initialValue()
+    {
+    Slots slots = new Slots();
+
+    synchronized( allSlots )
+      {
+      allSlots.add( slots );
+      }
+
+    return slots;
+    }
+  };
+
+  public static int getCounterBatchSize( FlowProcess flowProcess )
+    {
+    Integer value = flowProcess.getIntegerProperty( COUNTER_BATCH_SIZE );
+
+    if( value == null )
+      return DEFAULT_COUNTER_BATCH_SIZE;
+
+    return value;
+    }
+
+  protected BatchedCounters( int batchSize )
+    {
+    this.batchSize = batchSize;
+    }
+
+  public int getBatchSize()
+    {
+    return batchSize;
+    }
+
+  public void increment( Enum counter, long amount )
+    {
+    Slots slots = threadSlots.get();
+
+    synchronized( slots )
+      {
+      Class type = counter.getDeclaringClass();
+
+      if( type != slots.lastType )
+        {
+        Values values = slots.values.get( type );
+
+        if( values == null )
+          {
+          values = new Values( counter.getDeclaringClass() );
+          slots.values.put( type, values );
+          }
+
+        slots.lastType = type;
+        slots.lastValues = values;
+        }
+
+      slots.lastValues.amounts[ counter.ordinal() ] += amount;
+
+      if( ++slots.pending >= batchSize )
+        flush( slots );
+      }
+    }
+
+  /** Method flush hands the increments accumulated by all threads to {@link #flushIncrement(Enum, long)}. */
+  public void flush()
+    {
+    List<Slots> current;
+
+    synchronized( allSlots )
+      {
+      current = new ArrayList<Slots>( allSlots );
+      }
+
+    for( Slots slots : current )
+      {
+      synchronized( slots )
+        {
+        flush( slots );
+        }
+      }
+    }
+
+  private void flush( Slots slots )
+    {
+    slots.pending = 0;
+
+    for( Values values : slots.values.values() )
+      {
+      long[] amounts = values.amounts;
+
+      for( int i = 0; i < amounts.length; i++ )
+        {
+        if( amounts[ i ] == 0 )
+          continue;
+
+        long amount = amounts[ i ];
+
+        amounts[ i ] = 0;
+
+        flushIncrement( values.counters[ i ], amount );
+        }
+      }
+    }
+
+  /**
+   * Method flushIncrement adds the given amount to the underlying counter.
+   *
+   * @param counter of type Enum
+   * @param amount  of type long
+   */
+  protected abstract void flushIncrement( Enum counter, long amount );
+  }
@@ -40,12 +40,16 @@ public class FlowProps extends Props
   public static final String JOB_POLLING_INTERVAL = "cascading.flow.job.pollinginterval";
   public static final String MAX_CONCURRENT_STEPS = "cascading.flow.maxconcurrentsteps";
   public static final String STOP_JOBS_ON_EXIT = "cascading.flow.stopjobsonexit"; // create a stop flows on exit for AppConfig
+  public static final String PROJECT_SOURCE_FIELDS = "cascading.flow.source.projection";
+  public static final String PUSHDOWN_SOURCE_FILTERS = "cascading.flow.source.pushdown";
 
   String defaultTupleElementComparator = null;
   boolean preserveTemporaryFiles = false;
   int jobPollingInterval = 5000;
   int maxConcurrentSteps = 0;
   boolean stopJobsOnExit = true;
+  boolean projectSourceFields = true;
+  boolean pushdownSourceFilters = true;
 
   /**
    * Sets a default {@link java.util.Comparator} to be used if no Comparator can be found for the class via the
@@ -116,6 +120,32 @@ public class FlowProps extends Props
     properties.put( STOP_JOBS_ON_EXIT, Boolean.toString( stopJobsOnExit ) );
     }
 
+  /**
+   * Property projectSourceFields tells the planner to present each source {@link cascading.scheme.Scheme} with the
+   * subset of its fields actually read downstream, see
+   * {@link cascading.scheme.Scheme#getRequiredSourceFields(FlowProcess)}. Defaults to {@code true}.
+   *
+   * @param properties          of type Map
+   * @param projectSourceFields of type boolean
+   */
+  public static void setProjectSourceFields( Map<Object, Object> properties, boolean projectSourceFields )
+    {
+    properties.put( PROJECT_SOURCE_FIELDS, Boolean.toString( projectSourceFields ) );
+    }
+
+  /**
+   * Property pushdownSourceFilters tells the planner to offer the {@link cascading.operation.Filter}s immediately
+   * following a source to its {@link cascading.scheme.Scheme}, if it implements
+   * {@link cascading.scheme.FilterPushdown}. Defaults to {@code true}.
+   *
+   * @param properties            of type Map
+   * @param pushdownSourceFilters of type boolean
+   */
+  public static void setPushdownSourceFilters( Map<Object, Object> properties, boolean pushdownSourceFilters )
+    {
+    properties.put( PUSHDOWN_SOURCE_FILTERS, Boolean.toString( pushdownSourceFilters ) );
+    }
+
   /**
    * Creates a new FlowProps instance.
    *
@@ -228,6 +258,44 @@ public class FlowProps extends Props
     return this;
     }
 
+  public boolean isProjectSourceFields()
+    {
+    return projectSourceFields;
+    }
+
+  /**
+   * Property projectSourceFields tells the planner to present each source {@link cascading.scheme.Scheme} with the
+   * subset of its fields actually read downstream, see
+   * {@link cascading.scheme.Scheme#getRequiredSourceFields(FlowProcess)}. Defaults to {@code true}.
+   *
+   * @param projectSourceFields of type boolean
+   */
+  public FlowProps setProjectSourceFields( boolean projectSourceFields )
+    {
+    this.projectSourceFields = projectSourceFields;
+
+    return this;
+    }
+
+  public boolean isPushdownSourceFilters()
+    {
+    return pushdownSourceFilters;
+    }
+
+  /**
+   * Property pushdownSourceFilters tells the planner to offer the {@link cascading.operation.Filter}s immediately
+   * following a source to its {@link cascading.scheme.Scheme}, if it implements
+   * {@link cascading.scheme.FilterPushdown}. Defaults to {@code true}.
+   *
+   * @param pushdownSourceFilters of type boolean
+   */
+  public FlowProps setPushdownSourceFilters( boolean pushdownSourceFilters )
+    {
+    this.pushdownSourceFilters = pushdownSourceFilters;
+
+    return this;
+    }
+
   @Override
   protected void addPropertiesTo( Properties properties )
     {
@@ -236,5 +304,7 @@ public class FlowProps extends Props
     setJobPollingInterval( properties, jobPollingInterval );
     setMaxConcurrentSteps( properties, maxConcurrentSteps );
     setStopJobsOnExit( properties, stopJobsOnExit );
+    setProjectSourceFields( properties, projectSourceFields );
+    setPushdownSourceFilters( properties, pushdownSourceFilters );
     }
   }
@@ -40,19 +40,26 @@ import cascading.flow.Flow;
 import cascading.flow.FlowElement;
 import cascading.flow.FlowException;
 import cascading.flow.FlowProcess;
+import cascading.flow.FlowProps;
 import cascading.flow.FlowStep;
 import cascading.flow.FlowStepListener;
 import cascading.management.CascadingServices;
 import cascading.management.state.ClientState;
+import cascading.operation.Filter;
 import cascading.operation.Operation;
+import cascading.pipe.Each;
 import cascading.pipe.Group;
 import cascading.pipe.HashJoin;
 import cascading.pipe.Merge;
 import cascading.pipe.Operator;
 import cascading.pipe.Pipe;
 import cascading.property.ConfigDef;
+import cascading.scheme.FilterPushdown;
+import cascading.scheme.Scheme;
+import cascading.scheme.util.SourceFilters;
 import cascading.stats.FlowStepStats;
 import cascading.tap.Tap;
+import cascading.tuple.Fields;
 import cascading.util.Util;
 import org.jgrapht.GraphPath;
 import org.jgrapht.Graphs;
@@ -238,6 +245,115 @@ public abstract class BaseFlowStep<Config> implements Serializable, FlowStep<Con
     return graph;
     }
 
+  /**
+   * Method getRequiredSourcePositions returns the positions of the given source Tap's Scheme source fields that may
+   * be read within this step, joined by commas, as presented by {@link Scheme#REQUIRED_SOURCE_FIELDS}. An empty
+   * String is returned if all fields may be read.
+   * <p/>
+   * Steps with traps always read all fields, as a trap captures the whole incoming tuple.
+   *
+   * @param source of type Tap
+   * @return String
+   */
+  protected String getRequiredSourcePositions( Tap source )
+    {
+    if( flow != null && "false".equalsIgnoreCase( flow.getProperty( FlowProps.PROJECT_SOURCE_FIELDS ) ) )
+      return "";
+
+    if( !getTraps().isEmpty() || source.getScheme() == null )
+      return "";
+
+    Fields schemeFields = source.getScheme().getSourceFields();
+    Fields requiredFields = ElementGraphs.findRequiredSourceFields( graph, source );
+
+    if( requiredFields.isAll() || !schemeFields.isDefined() )
+      return "";
+
+    Set<Comparable> required = new HashSet<Comparable>();
+
+    for( Comparable field : requiredFields )
+      required.add( field );
+
+    List<Integer> positions = new ArrayList<Integer>();
+
+    for( int i = 0; i < schemeFields.size(); i++ )
+      {
+      if( required.contains( schemeFields.get( i ) ) )
+        positions.add( i );
+      }
+
+    if( positions.size() == schemeFields.size() )
+      return "";
+
+    return Util.join( positions, "," );
+    }
+
+  /**
+   * Method getSourceFilters returns the {@link Filter}s immediately following the given source Tap that its
+   * {@link FilterPushdown} Scheme accepted, serialized as presented by {@link Scheme#SOURCE_FILTERS}. An empty
+   * String is returned if there are none.
+   * <p/>
+   * Filters are offered in order, stopping at the first one that is refused or may have side effects, so every
+   * Filter seen by a downstream Each is given the same Tuples it would have been without pushdown.
+   *
+   * @param source of type Tap
+   * @return String
+   */
+  protected String getSourceFilters( Tap source )
+    {
+    if( flow != null && "false".equalsIgnoreCase( flow.getProperty( FlowProps.PUSHDOWN_SOURCE_FILTERS ) ) )
+      return "";
+
+    if( !getTraps().isEmpty() || !( source.getScheme() instanceof FilterPushdown ) )
+      return "";
+
+    FilterPushdown pushdown = (FilterPushdown) source.getScheme();
+    Fields schemeFields = source.getScheme().getSourceFields();
+
+    if( !schemeFields.isDefined() )
+      return "";
+
+    SourceFilters sourceFilters = new SourceFilters();
+
+    for( Each each : ElementGraphs.findSourceFilters( graph, source ) )
+      {
+      Filter filter = each.getFilter();
+      Fields argumentFields = graph.outgoingEdgesOf( each ).iterator().next().getArgumentsDeclarator();
+      int[] positions = getSchemePositions( schemeFields, argumentFields );
+
+      if( !SourceFilters.isPushable( filter ) || positions == null || !pushdown.acceptSourceFilter( filter, argumentFields ) )
+        break;
+
+      sourceFilters.addFilter( filter, argumentFields, positions );
+      }
+
+    if( sourceFilters.isEmpty() )
+      return "";
+
+    return sourceFilters.serialize();
+    }
+
+  /** returns the positions of the given named fields within the scheme fields, or null if any is not found */
+  private static int[] getSchemePositions( Fields schemeFields, Fields fields )
+    {
+    if( fields == null || !fields.isDefined() || fields.isNone() )
+      return null;
+
+    int[] positions = new int[ fields.size() ];
+
+    for( int i = 0; i < fields.size(); i++ )
+      {
+      Comparable field = fields.get( i );
+
+      if( !( field instanceof String ) || !schemeFields.contains( new Fields( field ) ) )
+        return null;
+
+      positions[ i ] = schemeFields.getPos( field );
+      }
+
+    return positions;
+    }
+
   @Override
   public Group getGroup()
     {
@@ -22,14 +22,26 @@ package cascading.flow.planner;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import cascading.flow.FlowElement;
+import cascading.pipe.Each;
 import cascading.pipe.Group;
+import cascading.pipe.Operator;
+import cascading.pipe.Pipe;
 import cascading.pipe.Splice;
+import cascading.pipe.joiner.InnerJoin;
+import cascading.pipe.joiner.Joiner;
+import cascading.pipe.joiner.LeftJoin;
+import cascading.pipe.joiner.MixedJoin;
+import cascading.pipe.joiner.OuterJoin;
+import cascading.pipe.joiner.RightJoin;
 import cascading.tap.Tap;
+import cascading.tuple.Fields;
 import org.jgrapht.GraphPath;
 import org.jgrapht.Graphs;
 import org.jgrapht.alg.KShortestPaths;
@@ -221,4 +233,189 @@ public class ElementGraphs
 
     return results;
     }
+
+  /**
+   * Method findRequiredSourceFields returns the fields of the given source Tap that may be read by any element
+   * downstream of it in the given resolved graph, or {@link Fields#ALL} if that cannot be determined.
+   * <p/>
+   * Field names are accumulated from every argument, grouping, and sorting selector, and from the fields written
+   * by any downstream Tap. Anything that may rename or inspect fields without selecting them, like positional fields,
+   * Splice declared fields, or a custom {@link Joiner}, is assumed to read all fields.
+   *
+   * @param graph  of type SimpleDirectedGraph<FlowElement, Scope>
+   * @param source of type Tap
+   * @return Fields
+   */
+  public static Fields findRequiredSourceFields( SimpleDirectedGraph<FlowElement, Scope> graph, Tap source )
+    {
+    if( !graph.containsVertex( source ) || graph.outDegreeOf( source ) == 0 )
+      return Fields.ALL;
+
+    Fields sourceFields = graph.outgoingEdgesOf( source ).iterator().next().getOutValuesFields();
+
+    if( sourceFields == null || !isNamed( sourceFields ) || sourceFields.isNone() )
+      return Fields.ALL;
+
+    Set<Comparable> names = findRequiredNames( graph, source, new HashMap<FlowElement, Set<Comparable>>() );
+
+    if( names == null )
+      return Fields.ALL;
+
+    List<Comparable> required = new ArrayList<Comparable>();
+
+    for( Comparable field : sourceFields )
+      {
+      if( names.contains( field ) )
+        required.add( field );
+      }
+
+    if( required.size() == sourceFields.size() )
+      return Fields.ALL;
+
+    return new Fields( required.toArray( new Comparable[ required.size() ] ) );
+    }
+
+  /**
+   * Method findSourceFilters returns, in order, the {@link Each} Filters every Tuple from the given source Tap must
+   * pass through before reaching any other element, skipping plain {@link Pipe} instances.
+   *
+   * @param graph  of type SimpleDirectedGraph<FlowElement, Scope>
+   * @param source of type Tap
+   * @return List<Each>
+   */
+  public static List<Each> findSourceFilters( SimpleDirectedGraph<FlowElement, Scope> graph, Tap source )
+    {
+    List<Each> filters = new ArrayList<Each>();
+
+    if( !graph.containsVertex( source ) )
+      return filters;
+
+    FlowElement current = source;
+
+    while( graph.outDegreeOf( current ) == 1 )
+      {
+      FlowElement next = graph.getEdgeTarget( graph.outgoingEdgesOf( current ).iterator().next() );
+
+      if( graph.inDegreeOf( next ) != 1 )
+        break;
+
+      if( next instanceof Each && ( (Each) next ).isFilter() )
+        filters.add( (Each) next );
+      else if( next.getClass() != Pipe.class )
+        break;
+
+      current = next;
+      }
+
+    return filters;
+    }
+
+  /** returns the names read by the given element and all its successors, or null if any may read all fields */
+  private static Set<Comparable> findRequiredNames( SimpleDirectedGraph<FlowElement, Scope> graph, FlowElement element, Map<FlowElement, Set<Comparable>> cache )
+    {
+    if( cache.containsKey( element ) )
+      return cache.get( element );
+
+    Set<Comparable> names = new HashSet<Comparable>();
+
+    if( element instanceof Tap && graph.inDegreeOf( element ) != 0 )
+      {
+      for( Scope scope : graph.incomingEdgesOf( element ) )
+        names = addNames( names, scope.getIncomingTapFields() );
+      }
+    else if( element instanceof Tap || element instanceof Pipe )
+      {
+      Set<Scope> outgoingScopes = graph.outgoingEdgesOf( element );
+
+      if( outgoingScopes.isEmpty() )
+        names = null;
+
+      for( Scope scope : outgoingScopes )
+        {
+        Set<Comparable> successorNames = findRequiredNames( graph, graph.getEdgeTarget( scope ), cache );
+
+        if( successorNames == null )
+          names = null;
+        else if( names != null )
+          names.addAll( successorNames );
+        }
+
+      if( names != null && !outgoingScopes.isEmpty() )
+        names = addSelectorNames( names, element, outgoingScopes.iterator().next() );
+      }
+    else
+      {
+      names = null;
+      }
+
+    cache.put( element, names );
+
+    return names;
+    }
+
+  private static Set<Comparable> addSelectorNames( Set<Comparable> names, FlowElement element, Scope outgoingScope )
+    {
+    if( element instanceof Operator )
+      return addNames( names, outgoingScope.getArgumentsSelector() );
+
+    if( !( element instanceof Splice ) )
+      return names;
+
+    Splice splice = (Splice) element;
+
+    if( splice.getJoinDeclaredFields() != null || splice.getNumSelfJoins() != 0 || !isProjectingJoiner( splice.getJoiner() ) )
+      return null;
+
+    if( outgoingScope.getKeySelectors() != null )
+      {
+      for( Fields fields : outgoingScope.getKeySelectors().values() )
+        names = addNames( names, fields );
+      }
+
+    if( outgoingScope.getSortingSelectors() != null )
+      {
+      for( Fields fields : outgoingScope.getSortingSelectors().values() )
+        names = addNames( names, fields );
+      }
+
+    return names;
+    }
+
+  private static boolean isProjectingJoiner( Joiner joiner )
+    {
+    if( joiner == null )
+      return true;
+
+    Class<? extends Joiner> type = joiner.getClass();
+
+    return type == InnerJoin.class || type == OuterJoin.class || type == LeftJoin.class || type == RightJoin.class || type == MixedJoin.class;
+    }
+
+  private static Set<Comparable> addNames( Set<Comparable> names, Fields fields )
+    {
+    if( names == null || fields == null || !isNamed( fields ) )
+      return null;
+
+    for( Comparable field : fields )
+      names.add( field );
+
+    return names;
+    }
+
+  private static boolean isNamed( Fields fields )
+    {
+    if( fields.isNone() )
+      return true;
+
+    if( !fields.isDefined() )
+      return false;
+
+    for( Comparable field : fields )
+      {
+      if( !( field instanceof String ) )
+        return false;
+      }
+
+    return true;
+    }
   }
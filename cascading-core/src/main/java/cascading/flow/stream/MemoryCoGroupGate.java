@@ -22,15 +22,12 @@ package cascading.flow.stream;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
 
 import cascading.flow.FlowProcess;
 import cascading.pipe.Splice;
 import cascading.tuple.Tuple;
 import cascading.tuple.TupleEntry;
-import cascading.tuple.Tuples;
+import cascading.tuple.collect.Spillable;
 
 /**
  *
@@ -76,71 +73,39 @@ public class MemoryCoGroupGate extends MemorySpliceGate
     next.start( this );
 
     Collection<Tuple>[] collections = new Collection[ orderedPrevious.length ];
-    Iterator<Tuple> keyIterator = keys.iterator();
+    Tuple[] sortedKeys = drainSortedKeys();
 
-    Set<Tuple> seenNulls = new HashSet<Tuple>();
-
-    while( keyIterator.hasNext() )
+    for( int k = 0; k < sortedKeys.length; k++ )
       {
-      Tuple keysTuple = keyIterator.next();
+      Tuple keysTuple = sortedKeys[ k ];
 
-      keyIterator.remove();
+      sortedKeys[ k ] = null;
 
-      // provides sql like semantics
-      if( nullsAreNotEqual && Tuples.frequency( keysTuple, null ) != 0 )
+      // drain the keys and keyValues collections to preserve memory
+      for( int i = 0; i < keyValues.length; i++ )
         {
-        if( seenNulls.contains( keysTuple ) )
-          continue;
-
-        seenNulls.add( keysTuple );
-
-        for( int i = 0; i < keyValues.length; i++ )
-          {
-          Collection<Tuple> values = keyValues[ i ].remove( keysTuple );
-
-          if( values == null )
-            continue;
+        collections[ i ] = keyValues[ i ].remove( keysTuple );
 
-          for( int j = 0; j < keyValues.length; j++ )
-            collections[ j ] = Collections.EMPTY_LIST;
-
-          collections[ i ] = values;
-
-          push( collections, keysTuple );
-          }
+        if( collections[ i ] == null )
+          collections[ i ] = Collections.EMPTY_LIST;
         }
-      else
-        {
-        // drain the keys and keyValues collections to preserve memory
-        for( int i = 0; i < keyValues.length; i++ )
-          {
-          collections[ i ] = keyValues[ i ].remove( keysTuple );
 
-          if( collections[ i ] == null )
-            collections[ i ] = Collections.EMPTY_LIST;
-          }
+      // a key with nulls may be seen again once its values are drained, and is then skipped
+      joinGroup( keysTuple, collections );
 
-        push( collections, keysTuple );
+      // drained collections are no longer held by a table, so release them here
+      for( Collection<Tuple> collection : collections )
+        {
+        if( collection instanceof Spillable )
+          collection.clear();
         }
       }
 
-    keys = createKeySet();
+    releaseKeyValues();
     keyValues = createKeyValuesArray();
 
     count.set( numIncomingPaths );
 
     next.complete( this );
     }
-
-  private void push( Collection<Tuple>[] collections, Tuple keysTuple )
-    {
-    closure.reset( collections );
-
-    keyEntry.setTuple( closure.getGroupTuple( keysTuple ) );
-
-    // create Closure type here
-    tupleEntryIterator.reset( splice.getJoiner().getIterator( closure ) );
-
-    next.receive( this, grouping );
-    }
   }
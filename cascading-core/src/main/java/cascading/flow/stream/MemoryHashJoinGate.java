@@ -24,23 +24,74 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
+import cascading.flow.BloomFilterCounters;
 import cascading.flow.FlowProcess;
 import cascading.pipe.HashJoin;
+import cascading.pipe.HashJoinProps;
+import cascading.pipe.joiner.InnerJoin;
 import cascading.tuple.Tuple;
 import cascading.tuple.TupleEntry;
+import cascading.tuple.collect.MemorySpillStrategy;
+import cascading.tuple.collect.OffHeapTupleMap;
+import cascading.tuple.collect.Spillable;
+import cascading.util.BloomFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- *
+ * MemoryHashJoinGate accumulates all but the left most (streamed) side of a {@link HashJoin}, and joins each
+ * streamed tuple as it arrives.
+ * <p/>
+ * If {@link HashJoinProps#OFF_HEAP} is enabled for the join, the accumulated sides are held in
+ * {@link OffHeapTupleMap} instances created by {@link #createOffHeapTupleMap()}. Only sub-classes returning true
+ * from {@link #isOffHeapSupported()} support off heap tables, otherwise the property is ignored with a warning.
+ * <p/>
+ * If {@link HashJoinProps#SPILL_THRESHOLD} is set, accumulated keys are hashed into partitions. Once the estimated
+ * size of the accumulated tuples exceeds the threshold, the largest partition is moved to collections created by
+ * {@link #createSpillCollection()}, typically spilling to disk, and all later tuples for that partition, accumulated
+ * or streamed, follow it. After the streamed side completes, each spilled partition is loaded and joined in turn.
+ * Only sub-classes returning true from {@link #isSpillSupported()} support spilling.
+ * <p/>
+ * A spilled partition whose accumulated tuples still exceed the threshold is re-partitioned with a new hash, up to
+ * {@link #MAX_REPARTITION_DEPTH} times, before it is loaded. All the accumulated values of a single key must still
+ * fit into memory, so a heavily skewed key may not be spilled away.
+ * <p/>
+ * If {@link HashJoinProps#BLOOM_FILTER} is enabled, a {@link BloomFilter} per accumulated side is built from its
+ * keys when the first streamed tuple arrives, and streamed keys that cannot match skip the key index and table probes.
  */
 public class MemoryHashJoinGate extends MemorySpliceGate
   {
   private static final Logger LOG = LoggerFactory.getLogger( MemoryHashJoinGate.class );
 
+  /** The number of times a spilled partition may be re-partitioned before it is loaded regardless of size. */
+  public static final int MAX_REPARTITION_DEPTH = 3;
+
+  public enum HybridSpill
+    {
+      Num_Partitions_Spilled, Num_Accumulated_Tuples_Spilled, Num_Streamed_Tuples_Spilled, Estimated_Bytes_Spilled,
+      Num_Partitions_Repartitioned
+    }
+
   protected CountDownLatch latch;
+  protected boolean offHeap;
+
+  private long spillThreshold;
+  private int numPartitions;
+  private long residentBytes;
+  private long[] partitionBytes;
+  private long[] spilledBytes;
+  private boolean[] spilledPartitions;
+  private Collection<Tuple>[][] accumulatedSpills;
+  private Collection<Tuple>[] streamedSpills;
+
+  private boolean bloomFilter;
+  private boolean allMustMatch;
+  private BloomFilter[] bloomFilters;
+  private long numFiltered;
 
   private Collection<Tuple>[] collections;
   private ArrayList<Tuple> streamedCollection;
@@ -59,6 +110,46 @@ public class MemoryHashJoinGate extends MemorySpliceGate
     latch = new CountDownLatch( numIncomingPaths - 1 );
     }
 
+  @Override
+  public void initialize()
+    {
+    super.initialize();
+
+    offHeap = HashJoinProps.isOffHeap( flowProcess );
+
+    if( offHeap && !isOffHeapSupported() )
+      {
+      LOG.warn( "off heap join tables are not supported by: {}, using heap tables", getClass().getName() );
+      offHeap = false;
+      }
+
+    if( offHeap && groupHasher != null )
+      {
+      LOG.warn( "off heap join tables do not support custom key comparators or hashers, using heap tables" );
+      offHeap = false;
+      }
+
+    spillThreshold = HashJoinProps.getSpillThreshold( flowProcess );
+
+    if( spillThreshold > 0 && !isSpillSupported() )
+      {
+      LOG.warn( "hash join spilling is not supported by: {}, ignoring spill threshold", getClass().getName() );
+      spillThreshold = 0;
+      }
+
+    if( spillThreshold > 0 && offHeap )
+      {
+      LOG.warn( "off heap join tables do not support spilling, ignoring spill threshold" );
+      spillThreshold = 0;
+      }
+
+    if( spillThreshold > 0 )
+      numPartitions = HashJoinProps.getSpillPartitions( flowProcess );
+
+    bloomFilter = HashJoinProps.isBloomFilter( flowProcess );
+    allMustMatch = splice.getJoiner() instanceof InnerJoin; // otherwise unmatched streamed tuples are still joined
+    }
+
   @Override
   public void prepare()
     {
@@ -68,6 +159,9 @@ public class MemoryHashJoinGate extends MemorySpliceGate
     collections = new Collection[ orderedPrevious.length ];
     collections[ 0 ] = streamedCollection;
 
+    if( spillThreshold > 0 )
+      resetPartitions();
+
     if( nullsAreNotEqual )
       LOG.warn( "HashJoin does not fully support key comparators where null values are not treated equal" );
     }
@@ -77,32 +171,127 @@ public class MemoryHashJoinGate extends MemorySpliceGate
     {
     int pos = posMap.get( previous );
 
-    Tuple incomingTuple = pos != 0 ? incomingEntry.getTupleCopy() : incomingEntry.getTuple();
+    // off heap tables serialize the tuple, so no copy is necessary
+    Tuple incomingTuple = pos != 0 && !offHeap ? incomingEntry.getTupleCopy() : incomingEntry.getTuple();
     Tuple keyTuple = keyBuilder[ pos ].makeResult( incomingTuple, null ); // view in incomingTuple
 
     keyTuple = getDelegatedTuple( keyTuple );
 
     if( pos != 0 )
       {
-      keys.add( keyTuple );
-      keyValues[ pos ].get( keyTuple ).add( incomingTuple ); // always a copy
+      if( spillThreshold > 0 )
+        {
+        accumulatePartitioned( pos, keyTuple, incomingTuple );
+        return;
+        }
+
+      if( !offHeap ) // off heap tables track unmatched keys
+        keys.add( keyTuple );
+
+      keyValues[ pos ].get( keyTuple ).add( incomingTuple ); // always a copy, or serialized
       return;
       }
 
     waitOnLatch();
 
-    keys.remove( keyTuple );
+    if( spillThreshold > 0 )
+      {
+      int partition = partitionFor( keyTuple );
+
+      if( spilledPartitions[ partition ] )
+        {
+        getSpillCollection( streamedSpills, partition ).add( incomingEntry.getTupleCopy() );
+        flowProcess.increment( HybridSpill.Num_Streamed_Tuples_Spilled, 1 );
+        return;
+        }
+      }
+
+    if( bloomFilter )
+      {
+      if( bloomFilters == null )
+        buildBloomFilters();
+
+      if( !mightMatch( keyTuple ) )
+        {
+        numFiltered++;
+
+        if( allMustMatch )
+          return;
+
+        streamedCollection.set( 0, incomingTuple );
+
+        performJoinWith( keyTuple, false );
+        return;
+        }
+      }
+
+    if( !offHeap )
+      keys.remove( keyTuple );
 
     streamedCollection.set( 0, incomingTuple ); // no need to copy, temp setting
 
     performJoinWith( keyTuple );
     }
 
+  private void buildBloomFilters()
+    {
+    double falsePositiveRate = HashJoinProps.getBloomFilterFPP( flowProcess );
+
+    bloomFilters = new BloomFilter[ keyValues.length ];
+
+    for( int i = 1; i < keyValues.length; i++ )
+      {
+      bloomFilters[ i ] = BloomFilter.create( keyValues[ i ].size(), falsePositiveRate );
+
+      for( Tuple keyTuple : keyValues[ i ].keySet() )
+        bloomFilters[ i ].add( keyTuple.hashCode() ); // honors any hasher, as the key is delegated
+      }
+
+    LOG.info( "built hash join bloom filters, size of first: {}, bits: {}", keyValues.length > 1 ? keyValues[ 1 ].size() : 0, keyValues.length > 1 ? bloomFilters[ 1 ].getNumBits() : 0 );
+    }
+
+  private boolean mightMatch( Tuple keyTuple )
+    {
+    int hash = keyTuple.hashCode();
+
+    for( int i = 1; i < bloomFilters.length; i++ )
+      {
+      boolean contains = bloomFilters[ i ].mightContain( hash );
+
+      if( allMustMatch && !contains )
+        return false;
+
+      if( !allMustMatch && contains )
+        return true;
+      }
+
+    return allMustMatch;
+    }
+
   private void performJoinWith( Tuple keyTuple )
+    {
+    performJoinWith( keyTuple, true );
+    }
+
+  private void performJoinWith( Tuple keyTuple, boolean probe )
     {
     // never replace the first array, pos == 0
     for( int i = 1; i < keyValues.length; i++ )
       {
+      if( !probe )
+        {
+        collections[ i ] = Collections.EMPTY_LIST;
+        continue;
+        }
+
+      if( offHeap )
+        {
+        Collection<Tuple> values = ( (OffHeapTupleMap) keyValues[ i ] ).probe( keyTuple );
+
+        collections[ i ] = values != null ? values : Collections.EMPTY_LIST;
+        continue;
+        }
+
       // if key does not exist, #get will create an empty array list,
       // and store the key, which is not a copy
       if( keyValues[ i ].containsKey( keyTuple ) )
@@ -129,8 +318,28 @@ public class MemoryHashJoinGate extends MemorySpliceGate
 
     collections[ 0 ] = Collections.EMPTY_LIST;
 
-    for( Tuple keyTuple : keys )
-      performJoinWith( keyTuple );
+    if( offHeap )
+      completeOffHeap();
+    else
+      {
+      for( Tuple keyTuple : keys )
+        performJoinWith( keyTuple );
+      }
+
+    if( spillThreshold > 0 )
+      {
+      joinSpilledPartitions();
+      resetPartitions();
+      }
+
+    if( bloomFilters != null )
+      {
+      flowProcess.increment( BloomFilterCounters.Tuples_Filtered, numFiltered );
+      bloomFilters = null;
+      numFiltered = 0;
+      }
+
+    releaseKeyValues();
 
     keys = createKeySet();
     keyValues = createKeyValuesArray();
@@ -138,6 +347,365 @@ public class MemoryHashJoinGate extends MemorySpliceGate
     super.complete( previous );
     }
 
+  private void completeOffHeap()
+    {
+    // joining an unmatched key probes, and so marks, the key in every table, preventing duplicates
+    for( int i = 1; i < keyValues.length; i++ )
+      {
+      Iterator<Tuple> iterator = ( (OffHeapTupleMap) keyValues[ i ] ).unmatchedKeys();
+
+      while( iterator.hasNext() )
+        performJoinWith( iterator.next() );
+      }
+
+    if( LOG.isDebugEnabled() )
+      {
+      for( int i = 1; i < keyValues.length; i++ )
+        LOG.debug( "off heap join table: {}, held bytes: {}", i, ( (OffHeapTupleMap) keyValues[ i ] ).getAllocatedBytes() );
+      }
+    }
+
+  private void resetPartitions()
+    {
+    residentBytes = 0;
+    partitionBytes = new long[ numPartitions ];
+    spilledBytes = new long[ numPartitions ];
+    spilledPartitions = new boolean[ numPartitions ];
+    accumulatedSpills = new Collection[ orderedPrevious.length ][];
+    streamedSpills = new Collection[ numPartitions ];
+
+    for( int i = 1; i < orderedPrevious.length; i++ )
+      accumulatedSpills[ i ] = new Collection[ numPartitions ];
+    }
+
+  private int partitionFor( Tuple keyTuple )
+    {
+    return partitionFor( keyTuple, 0 );
+    }
+
+  /** Each depth re-mixes the key hash, so keys of one partition spread over the partitions of the next depth. */
+  private int partitionFor( Tuple keyTuple, int depth )
+    {
+    int hash = keyTuple.hashCode(); // honors any hasher, as the key is delegated
+
+    for( int i = 0; i < depth; i++ )
+      {
+      hash += 0x9e3779b9;
+      hash ^= hash >>> 16;
+      hash *= 0x85ebca6b;
+      hash ^= hash >>> 13;
+      hash *= 0xc2b2ae35;
+      hash ^= hash >>> 16;
+      }
+
+    return ( hash & Integer.MAX_VALUE ) % numPartitions;
+    }
+
+  private synchronized void accumulatePartitioned( int pos, Tuple keyTuple, Tuple incomingTuple )
+    {
+    int partition = partitionFor( keyTuple );
+
+    if( spilledPartitions[ partition ] )
+      {
+      getSpillCollection( accumulatedSpills[ pos ], partition ).add( incomingTuple );
+      spilledBytes[ partition ] += MemorySpillStrategy.estimateSize( incomingTuple );
+      flowProcess.increment( HybridSpill.Num_Accumulated_Tuples_Spilled, 1 );
+      return;
+      }
+
+    keys.add( keyTuple );
+    keyValues[ pos ].get( keyTuple ).add( incomingTuple );
+
+    long size = MemorySpillStrategy.estimateSize( incomingTuple );
+
+    partitionBytes[ partition ] += size;
+    residentBytes += size;
+
+    while( residentBytes > spillThreshold )
+      {
+      if( !spillLargestPartition() )
+        break;
+      }
+    }
+
+  private boolean spillLargestPartition()
+    {
+    int largest = -1;
+
+    for( int i = 0; i < numPartitions; i++ )
+      {
+      if( !spilledPartitions[ i ] && partitionBytes[ i ] > 0 && ( largest == -1 || partitionBytes[ i ] > partitionBytes[ largest ] ) )
+        largest = i;
+      }
+
+    if( largest == -1 )
+      return false;
+
+    LOG.info( "spilling hash join partition: {}, estimated bytes: {}, resident bytes: {}", new Object[]{largest, partitionBytes[ largest ], residentBytes} );
+
+    spilledPartitions[ largest ] = true;
+
+    long numTuples = 0;
+
+    for( int pos = 1; pos < keyValues.length; pos++ )
+      {
+      Iterator<Map.Entry<Tuple, Collection<Tuple>>> iterator = keyValues[ pos ].entrySet().iterator();
+
+      while( iterator.hasNext() )
+        {
+        Map.Entry<Tuple, Collection<Tuple>> entry = iterator.next();
+
+        if( partitionFor( entry.getKey() ) != largest )
+          continue;
+
+        Collection<Tuple> spill = getSpillCollection( accumulatedSpills[ pos ], largest );
+
+        for( Tuple tuple : entry.getValue() )
+          {
+          spill.add( tuple );
+          numTuples++;
+          }
+
+        iterator.remove();
+        }
+      }
+
+    Iterator<Tuple> keyIterator = keys.iterator();
+
+    while( keyIterator.hasNext() )
+      {
+      if( partitionFor( keyIterator.next() ) == largest )
+        keyIterator.remove();
+      }
+
+    flowProcess.increment( HybridSpill.Num_Partitions_Spilled, 1 );
+    flowProcess.increment( HybridSpill.Num_Accumulated_Tuples_Spilled, numTuples );
+    flowProcess.increment( HybridSpill.Estimated_Bytes_Spilled, partitionBytes[ largest ] );
+
+    residentBytes -= partitionBytes[ largest ];
+    spilledBytes[ largest ] += partitionBytes[ largest ];
+    partitionBytes[ largest ] = 0;
+
+    return true;
+    }
+
+  private Collection<Tuple> getSpillCollection( Collection<Tuple>[] spills, int partition )
+    {
+    if( spills[ partition ] == null )
+      {
+      spills[ partition ] = createSpillCollection();
+
+      if( spills[ partition ] instanceof Spillable )
+        ( (Spillable) spills[ partition ] ).setGrouping( new Tuple( partition ) );
+      }
+
+    return spills[ partition ];
+    }
+
+  /** Joins each spilled partition in turn. */
+  private void joinSpilledPartitions()
+    {
+    for( int partition = 0; partition < numPartitions; partition++ )
+      {
+      if( !spilledPartitions[ partition ] )
+        continue;
+
+      Collection<Tuple>[] accumulated = new Collection[ orderedPrevious.length ];
+
+      for( int pos = 1; pos < accumulated.length; pos++ )
+        accumulated[ pos ] = accumulatedSpills[ pos ][ partition ];
+
+      joinSpilledPartition( partition, 0, accumulated, streamedSpills[ partition ], spilledBytes[ partition ] );
+      }
+    }
+
+  private void joinSpilledPartition( int partition, int depth, Collection<Tuple>[] accumulated, Collection<Tuple> streamed, long bytes )
+    {
+    if( bytes > spillThreshold )
+      {
+      if( depth < MAX_REPARTITION_DEPTH )
+        {
+        repartition( depth, accumulated, streamed );
+        return;
+        }
+
+      LOG.warn( "hash join partition: {}, estimated bytes: {}, exceeds spill threshold after {} re-partitions", new Object[]{partition, bytes, depth} );
+      }
+
+    LOG.info( "joining spilled hash join partition: {}, depth: {}", partition, depth );
+
+    releaseKeyValues();
+
+    keys = createKeySet();
+    keyValues = createKeyValuesArray();
+
+    for( int pos = 1; pos < keyValues.length; pos++ )
+      {
+      Collection<Tuple> spill = accumulated[ pos ];
+
+      if( spill == null )
+        continue;
+
+      for( Tuple tuple : spill )
+        {
+        tuple = new Tuple( tuple ); // spill files are read into a reused tuple
+        Tuple keyTuple = getDelegatedTuple( keyBuilder[ pos ].makeResult( tuple, null ) );
+
+        keys.add( keyTuple );
+        keyValues[ pos ].get( keyTuple ).add( tuple );
+        }
+
+      spill.clear();
+      }
+
+    if( streamed != null )
+      {
+      collections[ 0 ] = streamedCollection;
+
+      for( Tuple tuple : streamed )
+        {
+        Tuple keyTuple = getDelegatedTuple( keyBuilder[ 0 ].makeResult( tuple, null ) );
+
+        keys.remove( keyTuple );
+        streamedCollection.set( 0, tuple );
+
+        performJoinWith( keyTuple );
+        }
+
+      streamed.clear();
+      collections[ 0 ] = Collections.EMPTY_LIST;
+      }
+
+    for( Tuple keyTuple : keys )
+      performJoinWith( keyTuple );
+    }
+
+  /** Splits an over threshold spilled partition by the hash of the next depth, and joins each part in turn. */
+  private void repartition( int depth, Collection<Tuple>[] accumulated, Collection<Tuple> streamed )
+    {
+    Collection<Tuple>[][] accumulatedParts = new Collection[ accumulated.length ][];
+    Collection<Tuple>[] streamedParts = new Collection[ numPartitions ];
+    long[] partBytes = new long[ numPartitions ];
+
+    for( int pos = 1; pos < accumulated.length; pos++ )
+      {
+      accumulatedParts[ pos ] = new Collection[ numPartitions ];
+
+      if( accumulated[ pos ] == null )
+        continue;
+
+      for( Tuple tuple : accumulated[ pos ] )
+        {
+        int part = partitionFor( getDelegatedTuple( keyBuilder[ pos ].makeResult( tuple, null ) ), depth + 1 );
+
+        getSpillCollection( accumulatedParts[ pos ], part ).add( tuple );
+        partBytes[ part ] += MemorySpillStrategy.estimateSize( tuple );
+        }
+
+      accumulated[ pos ].clear();
+      }
+
+    if( streamed != null )
+      {
+      for( Tuple tuple : streamed )
+        {
+        int part = partitionFor( getDelegatedTuple( keyBuilder[ 0 ].makeResult( tuple, null ) ), depth + 1 );
+
+        getSpillCollection( streamedParts, part ).add( tuple );
+        }
+
+      streamed.clear();
+      }
+
+    flowProcess.increment( HybridSpill.Num_Partitions_Repartitioned, 1 );
+
+    for( int part = 0; part < numPartitions; part++ )
+      {
+      Collection<Tuple>[] accumulatedPart = new Collection[ accumulated.length ];
+      boolean isEmpty = streamedParts[ part ] == null;
+
+      for( int pos = 1; pos < accumulated.length; pos++ )
+        {
+        accumulatedPart[ pos ] = accumulatedParts[ pos ][ part ];
+        isEmpty &= accumulatedPart[ pos ] == null;
+        }
+
+      if( !isEmpty )
+        joinSpilledPartition( part, depth + 1, accumulatedPart, streamedParts[ part ], partBytes[ part ] );
+      }
+    }
+
+  /**
+   * Method createSpillCollection returns a new platform specific collection, typically a
+   * {@link cascading.tuple.collect.SpillableTupleList}, to hold the tuples of a spilled partition.
+   *
+   * @return a Collection
+   */
+  protected Collection<Tuple> createSpillCollection()
+    {
+    throw new UnsupportedOperationException( "hash join spilling is not supported by: " + getClass().getName() );
+    }
+
+  /**
+   * Method isSpillSupported returns true if this gate can create spill collections, see
+   * {@link #createSpillCollection()}. If false, the spill threshold is ignored.
+   *
+   * @return boolean
+   */
+  public boolean isSpillSupported()
+    {
+    return false;
+    }
+
+  @Override
+  protected Map<Tuple, Collection<Tuple>> createTupleMap()
+    {
+    if( offHeap )
+      return createOffHeapTupleMap();
+
+    return createHeapTupleMap();
+    }
+
+  protected Map<Tuple, Collection<Tuple>> createHeapTupleMap()
+    {
+    return super.createTupleMap();
+    }
+
+  /**
+   * Method createOffHeapTupleMap returns a new platform specific {@link OffHeapTupleMap} instance.
+   *
+   * @return an OffHeapTupleMap
+   */
+  protected OffHeapTupleMap createOffHeapTupleMap()
+    {
+    throw new UnsupportedOperationException( "off heap join tables are not supported by: " + getClass().getName() );
+    }
+
+  /**
+   * Method isOffHeapSupported returns true if this gate can create off heap join tables, see
+   * {@link #createOffHeapTupleMap()}. If false, heap tables are used.
+   *
+   * @return boolean
+   */
+  public boolean isOffHeapSupported()
+    {
+    return false;
+    }
+
+  /**
+   * Method isAccumulatedFrom returns true if the given previous Duct feeds an accumulated side of this join, not the
+   * streamed side. Only valid once prepared.
+   *
+   * @param previous of type Duct
+   * @return boolean
+   */
+  public boolean isAccumulatedFrom( Duct previous )
+    {
+    Integer pos = posMap.get( previous );
+
+    return pos != null && pos != 0;
+    }
+
   protected void waitOnLatch()
     {
     try
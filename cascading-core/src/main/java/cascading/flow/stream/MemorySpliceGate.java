@@ -21,6 +21,7 @@
 package cascading.flow.stream;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -28,7 +29,8 @@ import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import cascading.flow.FlowProcess;
@@ -36,7 +38,10 @@ import cascading.flow.FlowProps;
 import cascading.flow.planner.Scope;
 import cascading.pipe.Splice;
 import cascading.tuple.Fields;
+import cascading.tuple.Hasher;
 import cascading.tuple.Tuple;
+import cascading.tuple.Tuples;
+import cascading.tuple.collect.Spillable;
 import cascading.tuple.util.TupleBuilder;
 import cascading.tuple.util.TupleHasher;
 import org.slf4j.Logger;
@@ -56,12 +61,14 @@ public abstract class MemorySpliceGate extends SpliceGate
   protected Comparator<Tuple>[] groupComparators;
   protected Comparator<Tuple>[] valueComparators;
   protected TupleHasher groupHasher;
+  protected boolean orderedKeys;
   protected boolean nullsAreNotEqual;
 
   protected Set<Tuple> keys;
   protected Map<Tuple, Collection<Tuple>>[] keyValues;
 
   protected MemoryCoGroupClosure closure;
+  private Collection<Tuple>[] nullCollections;
 
   protected int numIncomingPaths;
 
@@ -148,12 +155,33 @@ public abstract class MemorySpliceGate extends SpliceGate
 
     Comparator[] hashers = TupleHasher.merge( compareFields );
     groupHasher = defaultComparator != null || !TupleHasher.isNull( hashers ) ? new TupleHasher( defaultComparator, hashers ) : null;
+    orderedKeys = hasComparatorsWithoutHashers( defaultComparator, compareFields );
 
     keys = createKeySet();
 
     count.set( numIncomingPaths ); // the number of paths incoming
     }
 
+  private static boolean hasComparatorsWithoutHashers( Comparator defaultComparator, Fields[] compareFields )
+    {
+    if( defaultComparator != null && !( defaultComparator instanceof Hasher ) )
+      return true;
+
+    for( Fields fields : compareFields )
+      {
+      if( fields == null )
+        continue;
+
+      for( Comparator comparator : fields.getComparators() )
+        {
+        if( comparator != null && !( comparator instanceof Hasher ) )
+          return true;
+        }
+      }
+
+    return false;
+    }
+
   private boolean areNullsEqual()
     {
     try
@@ -173,6 +201,7 @@ public abstract class MemorySpliceGate extends SpliceGate
     {
     super.prepare();
 
+    releaseKeyValues();
     keyValues = createKeyValuesArray();
 
     makePosMap( posMap );
@@ -198,9 +227,38 @@ public abstract class MemorySpliceGate extends SpliceGate
     };
     }
 
+  /**
+   * Method createKeySet returns the index of observed keys. The index is hashed, not ordered, as only grouping gates
+   * need their keys in order, and those sort once when emitting via {@link #drainSortedKeys()}.
+   * <p/>
+   * If a grouping comparator is not also a {@link Hasher}, key equality is only defined by the comparator, so the
+   * index is ordered by it instead.
+   *
+   * @return of type Set
+   */
   protected Set<Tuple> createKeySet()
     {
-    return Collections.synchronizedSet( new TreeSet<Tuple>( getKeyComparator() ) );
+    if( orderedKeys )
+      return new ConcurrentSkipListSet<Tuple>( getKeyComparator() );
+
+    return Collections.newSetFromMap( new ConcurrentHashMap<Tuple, Boolean>() );
+    }
+
+  /**
+   * Method drainSortedKeys returns all the observed keys sorted by the key comparator, and replaces the key index
+   * with an empty one. Callers should null out each element as it is consumed to preserve memory.
+   *
+   * @return of type Tuple[]
+   */
+  protected Tuple[] drainSortedKeys()
+    {
+    Tuple[] sorted = keys.toArray( new Tuple[ keys.size() ] );
+
+    keys = createKeySet();
+
+    Arrays.sort( sorted, getKeyComparator() );
+
+    return sorted;
     }
 
   /**
@@ -225,6 +283,52 @@ public abstract class MemorySpliceGate extends SpliceGate
     return valueMap;
     }
 
+  /**
+   * Method releaseKeyValues clears the {@link Spillable} collections of the current tables, see
+   * {@link #releaseTable(java.util.Map)}. Called before the tables are replaced or discarded.
+   */
+  protected void releaseKeyValues()
+    {
+    if( keyValues == null )
+      return;
+
+    for( Map<Tuple, Collection<Tuple>> table : keyValues )
+      releaseTable( table );
+    }
+
+  /**
+   * Method releaseTable clears every {@link Spillable} collection held by the given table, releasing any retained
+   * memory they account for and deleting their spill files. Other collections are simply left to the gc.
+   *
+   * @param table of type Map
+   */
+  public static void releaseTable( Map<Tuple, Collection<Tuple>> table )
+    {
+    if( table == null )
+      return;
+
+    for( Collection<Tuple> values : table.values() )
+      {
+      if( !( values instanceof Spillable ) )
+        continue;
+
+      values.clear();
+      }
+    }
+
+  @Override
+  public void cleanup()
+    {
+    try
+      {
+      releaseKeyValues();
+      }
+    finally
+      {
+      super.cleanup();
+      }
+    }
+
   protected Map<Tuple, Collection<Tuple>> createTupleMap()
     {
     return new HashMap<Tuple, Collection<Tuple>>()
@@ -246,6 +350,51 @@ public abstract class MemorySpliceGate extends SpliceGate
     };
     }
 
+  /**
+   * Method joinGroup pushes the given grouping and its values, one collection per incoming side, to the joiner.
+   * <p/>
+   * If null key values are not treated as equal, and the grouping contains a null, the values from each side are
+   * joined independently, providing SQL like semantics.
+   *
+   * @param groupTuple  the grouping key
+   * @param collections the values of each side, empty if none
+   */
+  protected void joinGroup( Tuple groupTuple, Collection<Tuple>[] collections )
+    {
+    if( !nullsAreNotEqual || Tuples.frequency( groupTuple, null ) == 0 )
+      {
+      pushGroup( collections, groupTuple );
+      return;
+      }
+
+    if( nullCollections == null || nullCollections.length != collections.length )
+      nullCollections = new Collection[ collections.length ];
+
+    for( int i = 0; i < collections.length; i++ )
+      {
+      if( collections[ i ].isEmpty() )
+        continue;
+
+      for( int j = 0; j < collections.length; j++ )
+        nullCollections[ j ] = Collections.EMPTY_LIST;
+
+      nullCollections[ i ] = collections[ i ];
+
+      pushGroup( nullCollections, groupTuple );
+      }
+    }
+
+  private void pushGroup( Collection<Tuple>[] collections, Tuple groupTuple )
+    {
+    closure.reset( collections );
+
+    keyEntry.setTuple( closure.getGroupTuple( groupTuple ) );
+
+    tupleEntryIterator.reset( splice.getJoiner().getIterator( closure ) );
+
+    next.receive( this, grouping );
+    }
+
   /**
    * This allows the tuple to honor the hasher and comparators, if any
    *
@@ -134,7 +134,7 @@ public abstract class StepStreamGraph extends StreamGraph
       if( everyElement.isBuffer() )
         rhsDuct = new BufferEveryWindow( flowProcess, everyElement );
       else if( everyElement.isAggregator() )
-        rhsDuct = new AggregatorEveryStage( flowProcess, everyElement );
+        rhsDuct = createAggregatorEveryStage( everyElement );
       else if( everyElement.isGroupAssertion() )
         rhsDuct = new GroupAssertionEveryStage( flowProcess, everyElement );
       else
@@ -168,6 +168,11 @@ public abstract class StepStreamGraph extends StreamGraph
     return new SinkStage( flowProcess, element );
     }
 
+  protected Duct createAggregatorEveryStage( Every every )
+    {
+    return new AggregatorEveryStage( flowProcess, every );
+    }
+
   protected abstract Gate createCoGroupGate( CoGroup element );
 
   protected abstract Gate createGroupByGate( GroupBy element );
@@ -64,6 +64,9 @@ public abstract class ExtentBase extends BaseOperation<Tuple[]> implements Aggre
 
   public Collection<Tuple> getIgnoreTuples()
     {
+    if( ignoreTuples == null )
+      return Collections.<Tuple>emptySet();
+
     return Collections.unmodifiableCollection( ignoreTuples );
     }
 
@@ -90,6 +90,9 @@ public abstract class ExtremaBase extends BaseOperation<ExtremaBase.Context> imp
 
   public Collection getIgnoreValues()
     {
+    if( ignoreValues == null )
+      return Collections.emptySet();
+
     return Collections.unmodifiableCollection( ignoreValues );
     }
 
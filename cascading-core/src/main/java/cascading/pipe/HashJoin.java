@@ -59,6 +59,8 @@ import cascading.tuple.Fields;
  * <p/>
  * If spills are happening, consider increasing the spill thresholds, see {@link cascading.tuple.collect.SpillableTupleMap}.
  * <p/>
+ * Large right hand side streams may instead be held serialized outside of the Java heap, see {@link HashJoinProps}.
+ * <p/>
  * <p/>
  * If one of the right hand side streams starts larger than memory but is filtered (likely by a
  * {@link cascading.operation.Filter} implementation) down to the point it fits into memory, it may be useful to use
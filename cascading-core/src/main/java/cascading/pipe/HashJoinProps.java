@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.pipe;
+
+import java.util.Properties;
+
+import cascading.flow.FlowProcess;
+import cascading.property.Props;
+
+/**
+ * Class HashJoinProps is a fluent helper class for setting {@link HashJoin} specific properties.
+ * <p/>
+ * Properties may be set for all HashJoin instances through a {@link cascading.flow.FlowConnector}, or for a single
+ * join instance via {@link #setProperties(cascading.property.ConfigDef)} on {@link HashJoin#getConfigDef()}.
+ * <p/>
+ * When the off heap join table is enabled, the accumulated (right hand side) streams are serialized into direct
+ * memory, see {@link cascading.tuple.collect.OffHeapTupleMap}. Note the JVM must be allowed enough direct memory,
+ * see {@code -XX:MaxDirectMemorySize}.
+ * <p/>
+ * When a spill threshold is set, the join degrades to a hybrid hash join once the estimated size of the accumulated
+ * tuples exceeds the threshold. Keys are hashed into partitions, and the largest partitions are moved to disk along
+ * with any streamed tuples that fall into them. Spilled partitions are joined one at a time after the streamed side
+ * completes, see {@link cascading.flow.stream.MemoryHashJoinGate}.
+ * <p/>
+ * When the Bloom filter is enabled, a {@link cascading.util.BloomFilter} of the accumulated keys is built before
+ * the first streamed tuple is joined. Streamed tuples whose key cannot match are then skipped outright by an
+ * {@link cascading.pipe.joiner.InnerJoin}, or joined without probing the accumulated sides by any other joiner.
+ */
+public class HashJoinProps extends Props
+  {
+  /**
+   * Whether the accumulated sides are stored in an off heap join table, off by default.
+   *
+   * @see Boolean#parseBoolean(String)
+   */
+  public static final String OFF_HEAP = "cascading.hashjoin.offheap";
+
+  /** The size in bytes of each block of direct memory allocated by an off heap join table. */
+  public static final String OFF_HEAP_BLOCK_SIZE = "cascading.hashjoin.offheap.blocksize";
+
+  /** The initial number of key slots in the index of an off heap join table. */
+  public static final String OFF_HEAP_CAPACITY = "cascading.hashjoin.offheap.capacity";
+
+  /**
+   * The estimated number of bytes of accumulated tuples to hold in memory before partitions are spilled to disk.
+   * A value of 0 (the default) disables spilling.
+   */
+  public static final String SPILL_THRESHOLD = "cascading.hashjoin.spill.threshold";
+
+  /** The number of partitions keys are hashed into when spilling is enabled. */
+  public static final String SPILL_PARTITIONS = "cascading.hashjoin.spill.partitions";
+
+  /**
+   * Whether streamed tuples are pre-filtered against a Bloom filter of the accumulated keys, off by default.
+   *
+   * @see Boolean#parseBoolean(String)
+   */
+  public static final String BLOOM_FILTER = "cascading.hashjoin.bloomfilter";
+
+  /** The false positive probability the Bloom filter is sized for. */
+  public static final String BLOOM_FILTER_FPP = "cascading.hashjoin.bloomfilter.fpp";
+
+  public static final boolean defaultOffHeap = false;
+  public static final int defaultOffHeapBlockSize = 1024 * 1024;
+  public static final int defaultOffHeapCapacity = 16 * 1024;
+  public static final long defaultSpillThreshold = 0;
+  public static final int defaultSpillPartitions = 32;
+  public static final boolean defaultBloomFilter = false;
+  public static final double defaultBloomFilterFPP = 0.01;
+
+  boolean offHeap = defaultOffHeap;
+  int offHeapBlockSize = defaultOffHeapBlockSize;
+  int offHeapCapacity = defaultOffHeapCapacity;
+  long spillThreshold = defaultSpillThreshold;
+  int spillPartitions = defaultSpillPartitions;
+  boolean bloomFilter = defaultBloomFilter;
+  double bloomFilterFPP = defaultBloomFilterFPP;
+
+  public static boolean isOffHeap( FlowProcess flowProcess )
+    {
+    String value = (String) flowProcess.getProperty( OFF_HEAP );
+
+    if( value == null || value.length() == 0 )
+      return defaultOffHeap;
+
+    return Boolean.parseBoolean( value );
+    }
+
+  public static int getOffHeapBlockSize( FlowProcess flowProcess )
+    {
+    return getInt( flowProcess, OFF_HEAP_BLOCK_SIZE, defaultOffHeapBlockSize );
+    }
+
+  public static int getOffHeapCapacity( FlowProcess flowProcess )
+    {
+    return getInt( flowProcess, OFF_HEAP_CAPACITY, defaultOffHeapCapacity );
+    }
+
+  public static long getSpillThreshold( FlowProcess flowProcess )
+    {
+    String value = (String) flowProcess.getProperty( SPILL_THRESHOLD );
+
+    if( value == null || value.length() == 0 )
+      return defaultSpillThreshold;
+
+    return Long.parseLong( value );
+    }
+
+  public static int getSpillPartitions( FlowProcess flowProcess )
+    {
+    return getInt( flowProcess, SPILL_PARTITIONS, defaultSpillPartitions );
+    }
+
+  public static boolean isBloomFilter( FlowProcess flowProcess )
+    {
+    String value = (String) flowProcess.getProperty( BLOOM_FILTER );
+
+    if( value == null || value.length() == 0 )
+      return defaultBloomFilter;
+
+    return Boolean.parseBoolean( value );
+    }
+
+  public static double getBloomFilterFPP( FlowProcess flowProcess )
+    {
+    String value = (String) flowProcess.getProperty( BLOOM_FILTER_FPP );
+
+    if( value == null || value.length() == 0 )
+      return defaultBloomFilterFPP;
+
+    return Double.parseDouble( value );
+    }
+
+  private static int getInt( FlowProcess flowProcess, String key, int defaultValue )
+    {
+    String value = (String) flowProcess.getProperty( key );
+
+    if( value == null || value.length() == 0 )
+      return defaultValue;
+
+    return Integer.parseInt( value );
+    }
+
+  /**
+   * Creates a new HashJoinProps instance.
+   *
+   * @return HashJoinProps instance
+   */
+  public static HashJoinProps hashJoinProps()
+    {
+    return new HashJoinProps();
+    }
+
+  public HashJoinProps()
+    {
+    }
+
+  public boolean isOffHeap()
+    {
+    return offHeap;
+    }
+
+  /**
+   * Method setOffHeap sets whether the accumulated sides of a join are stored serialized in direct memory
+   * instead of as objects on the heap.
+   * <p/>
+   * Off heap tables are only used if the join keys rely on the default equality of their values, custom
+   * key comparators or hashers fall back to the heap.
+   *
+   * @param offHeap of type boolean
+   * @return this
+   */
+  public HashJoinProps setOffHeap( boolean offHeap )
+    {
+    this.offHeap = offHeap;
+
+    return this;
+    }
+
+  public int getOffHeapBlockSize()
+    {
+    return offHeapBlockSize;
+    }
+
+  /**
+   * Method setOffHeapBlockSize sets the size in bytes of each block of direct memory allocated by an off heap table.
+   *
+   * @param offHeapBlockSize of type int
+   * @return this
+   */
+  public HashJoinProps setOffHeapBlockSize( int offHeapBlockSize )
+    {
+    this.offHeapBlockSize = offHeapBlockSize;
+
+    return this;
+    }
+
+  public int getOffHeapCapacity()
+    {
+    return offHeapCapacity;
+    }
+
+  /**
+   * Method setOffHeapCapacity sets the initial number of key slots in the index of an off heap table.
+   *
+   * @param offHeapCapacity of type int
+   * @return this
+   */
+  public HashJoinProps setOffHeapCapacity( int offHeapCapacity )
+    {
+    this.offHeapCapacity = offHeapCapacity;
+
+    return this;
+    }
+
+  public long getSpillThreshold()
+    {
+    return spillThreshold;
+    }
+
+  /**
+   * Method setSpillThreshold sets the estimated number of bytes of accumulated tuples to hold in memory before
+   * partitions of the join are spilled to disk. Disabled (0) by default.
+   * <p/>
+   * Spilling is not supported by off heap join tables.
+   *
+   * @param spillThreshold of type long
+   * @return this
+   */
+  public HashJoinProps setSpillThreshold( long spillThreshold )
+    {
+    this.spillThreshold = spillThreshold;
+
+    return this;
+    }
+
+  public int getSpillPartitions()
+    {
+    return spillPartitions;
+    }
+
+  /**
+   * Method setSpillPartitions sets the number of partitions keys are hashed into when spilling is enabled.
+   * <p/>
+   * Each spilled partition must fit in memory when it is joined.
+   *
+   * @param spillPartitions of type int
+   * @return this
+   */
+  public HashJoinProps setSpillPartitions( int spillPartitions )
+    {
+    this.spillPartitions = spillPartitions;
+
+    return this;
+    }
+
+  public boolean isBloomFilter()
+    {
+    return bloomFilter;
+    }
+
+  /**
+   * Method setBloomFilter sets whether streamed tuples are pre-filtered against a Bloom filter of the accumulated
+   * keys.
+   * <p/>
+   * This benefits selective joins, where most streamed tuples have no match.
+   *
+   * @param bloomFilter of type boolean
+   * @return this
+   */
+  public HashJoinProps setBloomFilter( boolean bloomFilter )
+    {
+    this.bloomFilter = bloomFilter;
+
+    return this;
+    }
+
+  public double getBloomFilterFPP()
+    {
+    return bloomFilterFPP;
+    }
+
+  /**
+   * Method setBloomFilterFPP sets the false positive probability the Bloom filter is sized for.
+   *
+   * @param bloomFilterFPP of type double
+   * @return this
+   */
+  public HashJoinProps setBloomFilterFPP( double bloomFilterFPP )
+    {
+    this.bloomFilterFPP = bloomFilterFPP;
+
+    return this;
+    }
+
+  @Override
+  protected void addPropertiesTo( Properties properties )
+    {
+    properties.setProperty( OFF_HEAP, Boolean.toString( offHeap ) );
+    properties.setProperty( OFF_HEAP_BLOCK_SIZE, Integer.toString( offHeapBlockSize ) );
+    properties.setProperty( OFF_HEAP_CAPACITY, Integer.toString( offHeapCapacity ) );
+    properties.setProperty( SPILL_THRESHOLD, Long.toString( spillThreshold ) );
+    properties.setProperty( SPILL_PARTITIONS, Integer.toString( spillPartitions ) );
+    properties.setProperty( BLOOM_FILTER, Boolean.toString( bloomFilter ) );
+    properties.setProperty( BLOOM_FILTER_FPP, Double.toString( bloomFilterFPP ) );
+    }
+  }
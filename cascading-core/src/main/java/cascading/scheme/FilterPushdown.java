@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cascading.scheme;
+
+import cascading.operation.Filter;
+import cascading.tuple.Fields;
+
+/**
+ * FilterPushdown is implemented by a {@link Scheme} able to evaluate {@link Filter}s while reading, before building
+ * the Tuples they would remove.
+ * <p/>
+ * During planning, each {@link cascading.pipe.Each} Filter immediately following a source is offered in turn, until
+ * one is refused. Accepted Filters are available at runtime from {@link Scheme#getSourceFilters(cascading.flow.FlowProcess)}.
+ * The Each remains in the Flow, so only Filters without side effects are ever offered.
+ */
+public interface FilterPushdown
+  {
+  /**
+   * Method acceptSourceFilter returns true if this Scheme will evaluate the given Filter over the given
+   * argument fields, all of which are source fields of this Scheme.
+   *
+   * @param filter         of type Filter
+   * @param argumentFields of type Fields
+   * @return boolean
+   */
+  boolean acceptSourceFilter( Filter filter, Fields argumentFields );
+  }
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.Serializable;
 
 import cascading.flow.FlowProcess;
+import cascading.scheme.util.SourceFilters;
 import cascading.tap.Tap;
 import cascading.tuple.Fields;
 import cascading.tuple.Tuple;
@@ -58,9 +59,18 @@ import cascading.util.Traceable;
  * Note that setting numSinkParts does not force the planner to insert a final Reduce operation in the job, so
  * numSinkParts may be ignored entirely if the final job is Map only. To force the Flow to have a final Reduce,
  * add a {@link cascading.pipe.GroupBy} to the assembly before sinking.
+ * <p/>
+ * When sourcing within a Flow, {@link #getRequiredSourceFields(cascading.flow.FlowProcess)} returns the positions of
+ * the source fields actually read downstream, allowing a Scheme to skip parsing the rest. Schemes implementing
+ * {@link FilterPushdown} may also retrieve the Filters they accepted from {@link #getSourceFilters(cascading.flow.FlowProcess)}.
  */
 public abstract class Scheme<Config, Input, Output, SourceContext, SinkContext> implements Serializable, Traceable
   {
+  /** Property set by the planner on each source, see {@link #getRequiredSourceFields(cascading.flow.FlowProcess)} */
+  public static final String REQUIRED_SOURCE_FIELDS = "cascading.scheme.source.required";
+  /** Property set by the planner on each source, see {@link #getSourceFilters(cascading.flow.FlowProcess)} */
+  public static final String SOURCE_FILTERS = "cascading.scheme.source.filters";
+
   /** Field sinkFields */
   Fields sinkFields = Fields.ALL;
   /** Field sourceFields */
@@ -264,6 +274,49 @@ public abstract class Scheme<Config, Input, Output, SourceContext, SinkContext>
       setSourceFields( fields );
     }
 
+  /**
+   * Method getRequiredSourceFields returns the positions of the source fields read downstream of this Scheme in the
+   * current flow step, or {@link Fields#ALL} if any field may be read.
+   * <p/>
+   * The planner sets this value in the properties given to
+   * {@link #sourceConfInit(cascading.flow.FlowProcess, cascading.tap.Tap, Object)}, so it is only available within a
+   * running Flow, never when a Tap is opened directly. A Scheme may leave the remaining values null instead of parsing
+   * or coercing them, but must still return Tuples of the full source width.
+   *
+   * @param flowProcess of type FlowProcess
+   * @return Fields
+   */
+  public Fields getRequiredSourceFields( FlowProcess<Config> flowProcess )
+    {
+    String positions = flowProcess.getStringProperty( REQUIRED_SOURCE_FIELDS );
+
+    if( positions == null || positions.isEmpty() )
+      return Fields.ALL;
+
+    String[] split = positions.split( "," );
+    Comparable[] fields = new Comparable[ split.length ];
+
+    for( int i = 0; i < split.length; i++ )
+      fields[ i ] = Integer.valueOf( split[ i ] );
+
+    return new Fields( fields );
+    }
+
+  /**
+   * Method getSourceFilters returns the Filters pushed down into this Scheme in the current flow step, or null if
+   * there are none.
+   * <p/>
+   * Like {@link #getRequiredSourceFields(cascading.flow.FlowProcess)}, this is only available within a running Flow,
+   * and only to a Scheme implementing {@link FilterPushdown}. Each call returns a new instance.
+   *
+   * @param flowProcess of type FlowProcess
+   * @return SourceFilters
+   */
+  public SourceFilters getSourceFilters( FlowProcess<Config> flowProcess )
+    {
+    return SourceFilters.deserialize( flowProcess.getStringProperty( SOURCE_FILTERS ) );
+    }
+
   /**
    * Method retrieveSinkFields notifies a Scheme when it is appropriate to dynamically
    * update the fields it sources. By default the current declared fields are returned.
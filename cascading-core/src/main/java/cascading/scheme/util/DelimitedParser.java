@@ -270,6 +270,9 @@ public class DelimitedParser implements Serializable
       {
       for( int i = 0; i < split.length; i++ )
         {
+        if( split[ i ] == null )
+          continue;
+
         split[ i ] = cleanPattern.matcher( (String) split[ i ] ).replaceAll( "$1" );
         split[ i ] = escapePattern.matcher( (String) split[ i ] ).replaceAll( quote );
         }
@@ -277,7 +280,7 @@ public class DelimitedParser implements Serializable
 
     for( int i = 0; i < split.length; i++ )
       {
-      if( ( (String) split[ i ] ).isEmpty() )
+      if( split[ i ] != null && ( (String) split[ i ] ).isEmpty() )
         split[ i ] = null;
       }
 
@@ -345,6 +348,95 @@ public class DelimitedParser implements Serializable
     return coerceParsedLine( line, split );
     }
 
+  /**
+   * Method parseLine parses the given line, but only cleans and coerces the fields flagged in the given
+   * {@code required} array, the remaining values are returned as null. A null array parses every field,
+   * see {@link #createRequired(cascading.tuple.Fields)}.
+   *
+   * @param line     of type String
+   * @param required of type boolean[]
+   * @return Object[]
+   */
+  public Object[] parseLine( String line, boolean[] required )
+    {
+    if( required == null )
+      return parseLine( line );
+
+    return parseSplitLine( line, onlyParseLine( line ), required );
+    }
+
+  /**
+   * Method splitLine returns the raw, uncleaned values of the given line, to be completed by
+   * {@link #parseSplitLine(String, Object[], boolean[])}. This allows a few fields to be inspected before
+   * parsing the rest, without splitting the line twice.
+   *
+   * @param line of type String
+   * @return Object[]
+   */
+  public Object[] splitLine( String line )
+    {
+    return onlyParseLine( line );
+    }
+
+  /**
+   * Method parseSplitLine cleans and coerces the fields flagged in the given {@code required} array of the
+   * values returned by {@link #splitLine(String)}, the remaining values are returned as null. The given
+   * {@code split} array may be modified, so pass a copy if it will be parsed again.
+   *
+   * @param line     of type String
+   * @param split    of type Object[]
+   * @param required of type boolean[]
+   * @return Object[]
+   */
+  public Object[] parseSplitLine( String line, Object[] split, boolean[] required )
+    {
+    if( required == null )
+      return coerceParsedLine( line, cleanParsedLine( split ) );
+
+    skipUnrequired( split, required );
+
+    split = cleanParsedLine( split );
+
+    return skipUnrequired( coerceParsedLine( line, split ), required );
+    }
+
+  private static Object[] skipUnrequired( Object[] split, boolean[] required )
+    {
+    for( int i = 0; i < split.length && i < required.length; i++ )
+      {
+      if( !required[ i ] )
+        split[ i ] = null;
+      }
+
+    return split;
+    }
+
+  /**
+   * Method createRequired returns an array flagging the source field positions in the given positional
+   * {@code requiredFields}, or null if every field must be parsed, see
+   * {@link cascading.scheme.Scheme#getRequiredSourceFields(cascading.flow.FlowProcess)}.
+   *
+   * @param requiredFields of type Fields
+   * @return boolean[]
+   */
+  public boolean[] createRequired( Fields requiredFields )
+    {
+    if( requiredFields == null || !requiredFields.isDefined() || sourceFields == null || !sourceFields.isDefined() || numValues == 0 )
+      return null;
+
+    boolean[] required = new boolean[ numValues ];
+
+    for( Comparable field : requiredFields )
+      {
+      int pos = (Integer) field;
+
+      if( pos >= 0 && pos < numValues )
+        required[ pos ] = true;
+      }
+
+    return required;
+    }
+
   protected Object[] cleanParsedLine( Object[] split )
     {
     return cleanSplit( split, cleanPattern, escapePattern, quote );
@@ -0,0 +1,491 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cascading.scheme.util;
+
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import cascading.tuple.Fields;
+import cascading.tuple.coerce.Coercions;
+import cascading.tuple.type.CoercibleType;
+
+/**
+ * Class ScanningDelimitedParser is a {@link DelimitedParser} that splits and unquotes each line in a single pass,
+ * instead of applying the split, clean, and escape regular expressions.
+ * <p/>
+ * Results, including the strict and safe behaviors, are identical to those of DelimitedParser. As with the split
+ * expression, a delimiter only separates two values if it is followed by an even number of quote characters.
+ * <p/>
+ * Lines read as bytes, see {@link #parseLine(byte[], int, int, java.nio.charset.Charset)}, encoded as UTF-8, US-ASCII,
+ * or ISO-8859-1 are scanned without first being decoded if the delimiter and quote are ASCII, and int and long values
+ * are parsed directly from the bytes.
+ * Lines failing to parse or coerce are handed to DelimitedParser so any exception or trapped value is unchanged.
+ * <p/>
+ * If the quote is more than one character, or either the quote or delimiter contains characters with a meaning in
+ * a regular expression that DelimitedParser does not escape, all lines are parsed by DelimitedParser.
+ */
+public class ScanningDelimitedParser extends DelimitedParser
+  {
+  /** Field REGEX_CHARS are the characters not scanned for as a quote, or escaped in a delimiter */
+  static final String REGEX_CHARS = "\\^$.|?*+()[]{}-&";
+
+  private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+  private static final Charset US_ASCII = Charset.forName( "US-ASCII" );
+  private static final Charset ISO_8859_1 = Charset.forName( "ISO-8859-1" );
+
+  /** Field scannable is false if lines must be parsed with the regular expressions */
+  private boolean scannable;
+  /** Field quoteChar */
+  private char quoteChar;
+  /** Field delimiterBytes is null if the delimiter or quote is not ASCII */
+  private byte[] delimiterBytes;
+
+  public ScanningDelimitedParser( String delimiter, String quote, Class[] types )
+    {
+    super( delimiter, quote, types );
+    }
+
+  public ScanningDelimitedParser( String delimiter, String quote, Class[] types, boolean strict, boolean safe )
+    {
+    super( delimiter, quote, types, strict, safe );
+    }
+
+  public ScanningDelimitedParser( String delimiter, String quote, FieldTypeResolver fieldTypeResolver )
+    {
+    super( delimiter, quote, fieldTypeResolver );
+    }
+
+  public ScanningDelimitedParser( String delimiter, String quote, Class[] types, boolean strict, boolean safe, FieldTypeResolver fieldTypeResolver )
+    {
+    super( delimiter, quote, types, strict, safe, fieldTypeResolver );
+    }
+
+  public ScanningDelimitedParser( String delimiter, String quote, Class[] types, boolean strict, boolean safe, Fields sourceFields, Fields sinkFields )
+    {
+    super( delimiter, quote, types, strict, safe, sourceFields, sinkFields );
+    }
+
+  public ScanningDelimitedParser( String delimiter, String quote, Class[] types, boolean strict, boolean safe, Fields sourceFields, Fields sinkFields, FieldTypeResolver fieldTypeResolver )
+    {
+    super( delimiter, quote, types, strict, safe, sourceFields, sinkFields, fieldTypeResolver );
+    }
+
+  @Override
+  public void reset( String delimiter, String quote, Type[] types, boolean strict, boolean safe, Fields sourceFields, Fields sinkFields, FieldTypeResolver fieldTypeResolver )
+    {
+    super.reset( delimiter, quote, types, strict, safe, sourceFields, sinkFields, fieldTypeResolver );
+
+    scannable = isScannable( this.delimiter, this.quote );
+    quoteChar = this.quote == null ? 0 : this.quote.charAt( 0 );
+    delimiterBytes = null;
+
+    if( quoteChar > 127 ) // a non ASCII quote may span several bytes
+      return;
+
+    for( int i = 0; i < this.delimiter.length(); i++ )
+      {
+      if( this.delimiter.charAt( i ) > 127 )
+        return;
+      }
+
+    delimiterBytes = new byte[ this.delimiter.length() ];
+
+    for( int i = 0; i < delimiterBytes.length; i++ )
+      delimiterBytes[ i ] = (byte) this.delimiter.charAt( i );
+    }
+
+  private static boolean isScannable( String delimiter, String quote )
+    {
+    if( delimiter.indexOf( '{' ) != -1 || delimiter.indexOf( '}' ) != -1 )
+      return false;
+
+    if( quote == null )
+      return true;
+
+    return quote.length() == 1 && REGEX_CHARS.indexOf( quote.charAt( 0 ) ) == -1 && delimiter.indexOf( quote.charAt( 0 ) ) == -1;
+    }
+
+  @Override
+  public String[] createSplit( String value, Pattern splitPattern, int limit )
+    {
+    if( !scannable || splitPattern != this.splitPattern || limit > 0 )
+      return super.createSplit( value, splitPattern, limit );
+
+    int[] bounds = new int[ 2 * Math.max( numValues, 8 ) ];
+    int count = 0;
+    int length = value.length();
+    int delimiterLength = delimiter.length();
+    char first = delimiter.charAt( 0 );
+    int remaining = 0; // quotes at or after the current position
+
+    if( quote != null )
+      {
+      for( int i = 0; i < length; i++ )
+        {
+        if( value.charAt( i ) == quoteChar )
+          remaining++;
+        }
+      }
+
+    int start = 0;
+    int i = 0;
+
+    while( i <= length - delimiterLength )
+      {
+      char current = value.charAt( i );
+
+      if( current == first && ( remaining & 1 ) == 0 && value.startsWith( delimiter, i ) )
+        {
+        bounds = addBounds( bounds, count++, start, i );
+        i += delimiterLength;
+        start = i;
+        continue;
+        }
+
+      if( current == quoteChar && quote != null )
+        remaining--;
+
+      i++;
+      }
+
+    if( count == 0 ) // as Pattern#split, never trims a line without a delimiter
+      return new String[]{value};
+
+    bounds = addBounds( bounds, count++, start, length );
+    count = trimBounds( bounds, count, limit );
+
+    String[] split = new String[ count ];
+
+    for( int j = 0; j < count; j++ )
+      split[ j ] = value.substring( bounds[ 2 * j ], bounds[ 2 * j + 1 ] );
+
+    return split;
+    }
+
+  @Override
+  public Object[] cleanSplit( Object[] split, Pattern cleanPattern, Pattern escapePattern, String quote )
+    {
+    if( !scannable || cleanPattern != this.cleanPattern || escapePattern != this.escapePattern )
+      return super.cleanSplit( split, cleanPattern, escapePattern, quote );
+
+    for( int i = 0; i < split.length; i++ )
+      {
+      if( split[ i ] == null )
+        continue;
+
+      String value = cleanField( (String) split[ i ] );
+
+      split[ i ] = value.isEmpty() ? null : value;
+      }
+
+    return split;
+    }
+
+  private String cleanField( String value )
+    {
+    if( quote == null || value.indexOf( quoteChar ) == -1 )
+      return value;
+
+    if( hasLineTerminator( value ) ) // not matched by . in the clean pattern
+      return escapePattern.matcher( cleanPattern.matcher( value ).replaceAll( "$1" ) ).replaceAll( quote );
+
+    int start = 0;
+    int end = value.length();
+
+    if( end >= 2 && value.charAt( 0 ) == quoteChar && value.charAt( end - 1 ) == quoteChar )
+      {
+      start++;
+      end--;
+      }
+
+    int escape = start;
+
+    while( escape < end - 1 && ( value.charAt( escape ) != quoteChar || value.charAt( escape + 1 ) != quoteChar ) )
+      escape++;
+
+    if( escape >= end - 1 )
+      return value.substring( start, end );
+
+    StringBuilder builder = new StringBuilder( end - start );
+
+    builder.append( value, start, escape );
+
+    for( int i = escape; i < end; i++ )
+      {
+      char current = value.charAt( i );
+
+      builder.append( current );
+
+      if( current == quoteChar && i + 1 < end && value.charAt( i + 1 ) == quoteChar )
+        i++;
+      }
+
+    return builder.toString();
+    }
+
+  private static boolean hasLineTerminator( String value )
+    {
+    for( int i = 0; i < value.length(); i++ )
+      {
+      char current = value.charAt( i );
+
+      if( current == '\n' || current == '\r' || current == '\u0085' || current == '\u2028' || current == '\u2029' )
+        return true;
+      }
+
+    return false;
+    }
+
+  /**
+   * Method parseLine parses the given line of encoded text, see {@link #parseLine(String)}.
+   *
+   * @param bytes   of type byte[]
+   * @param offset  of type int
+   * @param length  of type int
+   * @param charset of type Charset
+   * @return Object[]
+   */
+  public Object[] parseLine( byte[] bytes, int offset, int length, Charset charset )
+    {
+    return parseLine( bytes, offset, length, charset, null );
+    }
+
+  /**
+   * Method parseLine parses the given line of encoded text, only decoding the fields flagged in the given
+   * {@code required} array, see {@link #parseLine(String, boolean[])}.
+   *
+   * @param bytes    of type byte[]
+   * @param offset   of type int
+   * @param length   of type int
+   * @param charset  of type Charset
+   * @param required of type boolean[]
+   * @return Object[]
+   */
+  public Object[] parseLine( byte[] bytes, int offset, int length, Charset charset, boolean[] required )
+    {
+    return parseLine( bytes, offset, length, charset, scanLine( bytes, offset, length, charset ), required );
+    }
+
+  /**
+   * Method scanLine returns the start and end offsets of each value in the given line of encoded text, so that the
+   * line may be parsed more than once, see {@link #parseLine(byte[], int, int, java.nio.charset.Charset, int[], boolean[])}.
+   * Returns null if the line can only be parsed after being decoded.
+   *
+   * @param bytes   of type byte[]
+   * @param offset  of type int
+   * @param length  of type int
+   * @param charset of type Charset
+   * @return int[]
+   */
+  public int[] scanLine( byte[] bytes, int offset, int length, Charset charset )
+    {
+    if( !scannable || delimiterBytes == null || !isAsciiCompatible( charset ) )
+      return null;
+
+    int[] bounds = new int[ 2 * ( numValues == 0 ? 8 : numValues ) ];
+    int count = 0;
+    int end = offset + length;
+    int delimiterLength = delimiterBytes.length;
+    byte first = delimiterBytes[ 0 ];
+    byte quoteByte = (byte) quoteChar;
+    int remaining = 0;
+
+    if( quote != null )
+      {
+      for( int i = offset; i < end; i++ )
+        {
+        if( bytes[ i ] == quoteByte )
+          remaining++;
+        }
+      }
+
+    int start = offset;
+    int i = offset;
+
+    while( i <= end - delimiterLength )
+      {
+      byte current = bytes[ i ];
+
+      if( current == first && ( remaining & 1 ) == 0 && startsWith( bytes, i, delimiterBytes ) )
+        {
+        bounds = addBounds( bounds, count++, start, i );
+        i += delimiterLength;
+        start = i;
+        continue;
+        }
+
+      if( current == quoteByte && quote != null )
+        remaining--;
+
+      i++;
+      }
+
+    bounds = addBounds( bounds, count++, start, end );
+
+    if( count != 1 )
+      count = trimBounds( bounds, count, numValues == 0 ? 0 : -1 );
+
+    if( numValues != 0 && count != numValues ) // let the super class pad or fail the line
+      return null;
+
+    return bounds.length == 2 * count ? bounds : Arrays.copyOf( bounds, 2 * count );
+    }
+
+  /**
+   * Method parseLine parses the given line of encoded text, split at the given bounds as returned by
+   * {@link #scanLine(byte[], int, int, java.nio.charset.Charset)}, only decoding the fields flagged in the given
+   * {@code required} array. If bounds is null, the line is decoded and parsed by {@link #parseLine(String, boolean[])}.
+   *
+   * @param bytes    of type byte[]
+   * @param offset   of type int
+   * @param length   of type int
+   * @param charset  of type Charset
+   * @param bounds   of type int[]
+   * @param required of type boolean[]
+   * @return Object[]
+   */
+  public Object[] parseLine( byte[] bytes, int offset, int length, Charset charset, int[] bounds, boolean[] required )
+    {
+    if( bounds == null )
+      return parseLine( new String( bytes, offset, length, charset ), required );
+
+    int count = bounds.length / 2;
+    Object[] result = new Object[ count ];
+
+    for( int j = 0; j < count; j++ )
+      {
+      if( required != null && j < required.length && !required[ j ] )
+        continue;
+
+      int fieldStart = bounds[ 2 * j ];
+      int fieldEnd = bounds[ 2 * j + 1 ];
+      CoercibleType coercible = types == null ? null : coercibles[ j ];
+
+      if( fieldStart != fieldEnd && isIntegral( coercible ) )
+        {
+        long parsed = parseDigits( bytes, fieldStart, fieldEnd, coercible == Coercions.INTEGER || coercible == Coercions.INTEGER_OBJECT ? 9 : 18 );
+
+        if( parsed != Long.MIN_VALUE )
+          {
+          if( coercible == Coercions.LONG || coercible == Coercions.LONG_OBJECT )
+            result[ j ] = parsed;
+          else
+            result[ j ] = (int) parsed;
+
+          continue;
+          }
+        }
+
+      String value = fieldStart == fieldEnd ? "" : cleanField( new String( bytes, fieldStart, fieldEnd - fieldStart, charset ) );
+
+      result[ j ] = value.isEmpty() ? null : value;
+
+      if( coercible == null )
+        continue;
+
+      try
+        {
+        result[ j ] = coercible.canonical( result[ j ] );
+        }
+      catch( Exception exception )
+        {
+        return parseLine( new String( bytes, offset, length, charset ), required ); // traps or logs the whole line
+        }
+      }
+
+    return result;
+    }
+
+  private static boolean isAsciiCompatible( Charset charset )
+    {
+    return UTF_8.equals( charset ) || US_ASCII.equals( charset ) || ISO_8859_1.equals( charset );
+    }
+
+  private static boolean isIntegral( CoercibleType coercible )
+    {
+    return coercible == Coercions.INTEGER || coercible == Coercions.INTEGER_OBJECT || coercible == Coercions.LONG || coercible == Coercions.LONG_OBJECT;
+    }
+
+  /** Returns Long.MIN_VALUE if the bytes are not an optional minus sign followed by up to maxDigits ASCII digits. */
+  private static long parseDigits( byte[] bytes, int start, int end, int maxDigits )
+    {
+    boolean negative = bytes[ start ] == '-';
+
+    if( negative )
+      start++;
+
+    if( start == end || end - start > maxDigits )
+      return Long.MIN_VALUE;
+
+    long value = 0;
+
+    for( int i = start; i < end; i++ )
+      {
+      int digit = bytes[ i ] - '0';
+
+      if( digit < 0 || digit > 9 )
+        return Long.MIN_VALUE;
+
+      value = value * 10 + digit;
+      }
+
+    return negative ? -value : value;
+    }
+
+  private static boolean startsWith( byte[] bytes, int offset, byte[] prefix )
+    {
+    for( int i = 1; i < prefix.length; i++ )
+      {
+      if( bytes[ offset + i ] != prefix[ i ] )
+        return false;
+      }
+
+    return true;
+    }
+
+  private static int[] addBounds( int[] bounds, int index, int start, int end )
+    {
+    if( 2 * index + 1 >= bounds.length )
+      {
+      int[] grown = new int[ bounds.length * 2 ];
+      System.arraycopy( bounds, 0, grown, 0, bounds.length );
+      bounds = grown;
+      }
+
+    bounds[ 2 * index ] = start;
+    bounds[ 2 * index + 1 ] = end;
+
+    return bounds;
+    }
+
+  /** As Pattern#split, a limit of zero removes trailing empty values. */
+  private static int trimBounds( int[] bounds, int count, int limit )
+    {
+    if( limit != 0 )
+      return count;
+
+    while( count > 0 && bounds[ 2 * count - 2 ] == bounds[ 2 * count - 1 ] )
+      count--;
+
+    return count;
+    }
+  }
@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cascading.scheme.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import cascading.CascadingException;
+import cascading.flow.FlowProcess;
+import cascading.operation.ConcreteCall;
+import cascading.operation.Filter;
+import cascading.operation.expression.ExpressionFilter;
+import cascading.operation.filter.FilterNotNull;
+import cascading.operation.filter.FilterNull;
+import cascading.operation.regex.RegexFilter;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+
+/**
+ * Class SourceFilters holds the {@link Filter}s pushed down by the planner into a source
+ * {@link cascading.scheme.FilterPushdown} Scheme, along with the source field positions of their arguments.
+ * <p/>
+ * A Scheme should call {@link #prepare(FlowProcess)} once before reading, {@link #isRemove(FlowProcess, Object[])}
+ * with the values of at least {@link #getArgumentPositions()} for every record, and {@link #cleanup(FlowProcess)}
+ * when done.
+ */
+public class SourceFilters implements Serializable
+  {
+  private final List<Filter> filters = new ArrayList<Filter>();
+  private final List<Fields> argumentFields = new ArrayList<Fields>();
+  private final List<int[]> positions = new ArrayList<int[]>();
+
+  private transient ConcreteCall[] calls;
+
+  /**
+   * Method isPushable returns true if the given Filter has no side effects and depends only on its arguments, so
+   * may be safely evaluated by a Scheme in addition to its {@link cascading.pipe.Each}.
+   *
+   * @param filter of type Filter
+   * @return boolean
+   */
+  public static boolean isPushable( Filter filter )
+    {
+    Class type = filter.getClass();
+
+    return type == RegexFilter.class || type == FilterNull.class || type == FilterNotNull.class || type == ExpressionFilter.class;
+    }
+
+  /**
+   * Method deserialize returns the SourceFilters encoded by {@link #serialize()}, or null if the given value is
+   * null or empty.
+   *
+   * @param value of type String
+   * @return SourceFilters
+   */
+  public static SourceFilters deserialize( String value )
+    {
+    if( value == null || value.isEmpty() )
+      return null;
+
+    byte[] bytes = new byte[ value.length() / 2 ];
+
+    for( int i = 0; i < bytes.length; i++ )
+      bytes[ i ] = (byte) Integer.parseInt( value.substring( 2 * i, 2 * i + 2 ), 16 );
+
+    try
+      {
+      ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( bytes ) );
+
+      try
+        {
+        return (SourceFilters) in.readObject();
+        }
+      finally
+        {
+        in.close();
+        }
+      }
+    catch( IOException exception )
+      {
+      throw new CascadingException( "unable to deserialize source filters", exception );
+      }
+    catch( ClassNotFoundException exception )
+      {
+      throw new CascadingException( "unable to deserialize source filters", exception );
+      }
+    }
+
+  public SourceFilters()
+    {
+    }
+
+  /**
+   * Method addFilter adds the given Filter, evaluated over the given argument fields found at the given positions
+   * of the source fields.
+   *
+   * @param filter         of type Filter
+   * @param argumentFields of type Fields
+   * @param positions      of type int[]
+   */
+  public void addFilter( Filter filter, Fields argumentFields, int[] positions )
+    {
+    if( argumentFields.size() != positions.length )
+      throw new IllegalArgumentException( "argument fields and positions must be the same size" );
+
+    this.filters.add( filter );
+    this.argumentFields.add( argumentFields );
+    this.positions.add( positions );
+    }
+
+  public boolean isEmpty()
+    {
+    return filters.isEmpty();
+    }
+
+  public List<Filter> getFilters()
+    {
+    return filters;
+    }
+
+  /**
+   * Method getArgumentPositions returns the positions of every source field read by the held Filters.
+   *
+   * @return Fields
+   */
+  public Fields getArgumentPositions()
+    {
+    Set<Integer> union = new TreeSet<Integer>();
+
+    for( int[] pos : positions )
+      {
+      for( int i : pos )
+        union.add( i );
+      }
+
+    return new Fields( union.toArray( new Integer[ union.size() ] ) );
+    }
+
+  public void prepare( FlowProcess flowProcess )
+    {
+    calls = new ConcreteCall[ filters.size() ];
+
+    for( int i = 0; i < calls.length; i++ )
+      {
+      Fields fields = argumentFields.get( i );
+
+      calls[ i ] = new ConcreteCall( fields );
+      calls[ i ].setArguments( new TupleEntry( fields, Tuple.size( fields.size() ) ) );
+
+      filters.get( i ).prepare( flowProcess, calls[ i ] );
+      }
+    }
+
+  /**
+   * Method isRemove returns true if any held Filter removes the record with the given source values.
+   *
+   * @param flowProcess of type FlowProcess
+   * @param values      of type Object[]
+   * @return boolean
+   */
+  public boolean isRemove( FlowProcess flowProcess, Object[] values )
+    {
+    for( int i = 0; i < calls.length; i++ )
+      {
+      int[] pos = positions.get( i );
+      Tuple tuple = calls[ i ].getArguments().getTuple();
+
+      for( int j = 0; j < pos.length; j++ )
+        tuple.set( j, values[ pos[ j ] ] );
+
+      if( filters.get( i ).isRemove( flowProcess, calls[ i ] ) )
+        return true;
+      }
+
+    return false;
+    }
+
+  public void cleanup( FlowProcess flowProcess )
+    {
+    if( calls == null )
+      return;
+
+    for( int i = 0; i < calls.length; i++ )
+      filters.get( i ).cleanup( flowProcess, calls[ i ] );
+
+    calls = null;
+    }
+
+  /**
+   * Method serialize returns these SourceFilters as a String suitable for a configuration property.
+   *
+   * @return String
+   */
+  public String serialize()
+    {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    try
+      {
+      ObjectOutputStream out = new ObjectOutputStream( bytes );
+
+      out.writeObject( this );
+      out.close();
+      }
+    catch( IOException exception )
+      {
+      throw new CascadingException( "unable to serialize source filters", exception );
+      }
+
+    StringBuilder hex = new StringBuilder( 2 * bytes.size() );
+
+    for( byte b : bytes.toByteArray() )
+      hex.append( Character.forDigit( ( b & 0xF0 ) >> 4, 16 ) ).append( Character.forDigit( b & 0x0F, 16 ) );
+
+    return hex.toString();
+    }
+  }
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tuple.collect;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleException;
+import cascading.tuple.io.TupleInputStream;
+import cascading.tuple.io.TupleOutputStream;
+
+/**
+ * Class CompactTupleBuffer holds tuples serialized into chunked byte arrays, using the {@link TupleOutputStream}
+ * and {@link TupleInputStream} of the owning {@link SpillableTupleList}. Tuples are deserialized lazily on iteration.
+ * <p/>
+ * Because the encoding is identical to that of a spill file, spilling is a copy of the chunks.
+ * <p/>
+ * Chunks start at {@link #MIN_CHUNK_SIZE} bytes and double in size up to {@link #CHUNK_SIZE}, so the many small
+ * buffers of a per key map stay small. Released full size chunks are pooled JVM wide, up to
+ * {@link #MAX_POOLED_CHUNKS}, to reduce allocation and GC churn.
+ */
+class CompactTupleBuffer
+  {
+  static final int MIN_CHUNK_SIZE = 256;
+  static final int CHUNK_SIZE = 64 * 1024;
+  static final int MAX_POOLED_CHUNKS = 64;
+
+  private static final Queue<byte[]> pool = new ConcurrentLinkedQueue<byte[]>();
+  private static final AtomicInteger poolSize = new AtomicInteger();
+
+  private final SpillableTupleList owner;
+  private final List<byte[]> chunks = new ArrayList<byte[]>();
+  private final ChunkOutputStream chunkOutputStream = new ChunkOutputStream();
+
+  private TupleOutputStream tupleOutputStream;
+  private int position = 0; // position in the last chunk
+  private long filled = 0; // bytes held by all but the last chunk
+  private long capacity = 0; // bytes allocated by all chunks
+  private int size = 0;
+
+  private static byte[] acquire( int length )
+    {
+    if( length < CHUNK_SIZE )
+      return new byte[ length ];
+
+    byte[] chunk = pool.poll();
+
+    if( chunk == null )
+      return new byte[ CHUNK_SIZE ];
+
+    poolSize.decrementAndGet();
+
+    return chunk;
+    }
+
+  private static void release( byte[] chunk )
+    {
+    if( chunk.length != CHUNK_SIZE )
+      return;
+
+    if( poolSize.incrementAndGet() > MAX_POOLED_CHUNKS )
+      {
+      poolSize.decrementAndGet();
+      return;
+      }
+
+    pool.offer( chunk );
+    }
+
+  CompactTupleBuffer( SpillableTupleList owner )
+    {
+    this.owner = owner;
+    }
+
+  /**
+   * Method add serializes the given tuple into this buffer.
+   *
+   * @param tuple the tuple to add
+   * @return the number of bytes newly allocated to hold the tuple
+   */
+  long add( Tuple tuple )
+    {
+    long start = capacity;
+
+    try
+      {
+      if( tupleOutputStream == null )
+        tupleOutputStream = owner.createTupleOutputStream( chunkOutputStream );
+
+      tupleOutputStream.writeTuple( tuple );
+      }
+    catch( IOException exception )
+      {
+      throw new TupleException( "unable to write tuple to compact buffer", exception );
+      }
+
+    size++;
+
+    return capacity - start;
+    }
+
+  int size()
+    {
+    return size;
+    }
+
+  /**
+   * Method getByteSize returns the number of bytes written to this buffer.
+   *
+   * @return long
+   */
+  long getByteSize()
+    {
+    return filled + position;
+    }
+
+  /**
+   * Method getCapacity returns the number of bytes allocated by this buffer.
+   *
+   * @return long
+   */
+  long getCapacity()
+    {
+    return capacity;
+    }
+
+  /**
+   * Method writeTo copies the serialized tuples to the given stream, without the leading count.
+   *
+   * @param outputStream the stream to write to
+   * @throws IOException
+   */
+  void writeTo( OutputStream outputStream ) throws IOException
+    {
+    for( int i = 0; i < chunks.size(); i++ )
+      {
+      byte[] chunk = chunks.get( i );
+
+      outputStream.write( chunk, 0, i == chunks.size() - 1 ? position : chunk.length );
+      }
+    }
+
+  Iterator<Tuple> iterator()
+    {
+    final int count = size;
+    final TupleInputStream tupleInputStream = owner.createTupleInputStream( new ChunkInputStream() );
+
+    return new Iterator<Tuple>()
+    {
+    Tuple tuple = new Tuple();
+    int read = 0;
+
+    @Override
+    public boolean hasNext()
+      {
+      return read < count;
+      }
+
+    @Override
+    public Tuple next()
+      {
+      try
+        {
+        return tupleInputStream.readTuple( tuple );
+        }
+      catch( IOException exception )
+        {
+        throw new TupleException( "unable to read next tuple from compact buffer containing: " + count + " tuples, successfully read tuples: " + read, exception );
+        }
+      finally
+        {
+        read++;
+        }
+      }
+
+    @Override
+    public void remove()
+      {
+      throw new UnsupportedOperationException( "remove is not supported" );
+      }
+    };
+    }
+
+  /** Method clear releases all chunks back to the pool, this buffer may be reused. */
+  void clear()
+    {
+    if( tupleOutputStream != null )
+      {
+      try
+        {
+        tupleOutputStream.close();
+        }
+      catch( IOException exception )
+        {
+        // ignore
+        }
+
+      tupleOutputStream = null;
+      }
+
+    for( byte[] chunk : chunks )
+      release( chunk );
+
+    chunks.clear();
+    position = 0;
+    filled = 0;
+    capacity = 0;
+    size = 0;
+    }
+
+  private class ChunkOutputStream extends OutputStream
+    {
+    @Override
+    public void write( int b )
+      {
+      if( isFull() )
+        nextChunk();
+
+      chunks.get( chunks.size() - 1 )[ position++ ] = (byte) b;
+      }
+
+    @Override
+    public void write( byte[] bytes, int offset, int length )
+      {
+      while( length > 0 )
+        {
+        if( isFull() )
+          nextChunk();
+
+        byte[] chunk = chunks.get( chunks.size() - 1 );
+        int count = Math.min( length, chunk.length - position );
+
+        System.arraycopy( bytes, offset, chunk, position, count );
+
+        position += count;
+        offset += count;
+        length -= count;
+        }
+      }
+
+    private boolean isFull()
+      {
+      return chunks.isEmpty() || position == chunks.get( chunks.size() - 1 ).length;
+      }
+
+    private void nextChunk()
+      {
+      int length = MIN_CHUNK_SIZE;
+
+      if( !chunks.isEmpty() )
+        {
+        length = chunks.get( chunks.size() - 1 ).length;
+        filled += length;
+        length = Math.min( length * 2, CHUNK_SIZE );
+        }
+
+      chunks.add( acquire( length ) );
+      capacity += length;
+      position = 0;
+      }
+    }
+
+  /** Class ChunkInputStream reads the chunks as they were at the time of creation. */
+  private class ChunkInputStream extends InputStream
+    {
+    private final long limit = getByteSize();
+    private long offset = 0;
+    private int chunkIndex = 0;
+    private int chunkOffset = 0;
+
+    @Override
+    public int read()
+      {
+      if( offset == limit )
+        return -1;
+
+      byte[] chunk = currentChunk();
+      byte b = chunk[ chunkOffset++ ];
+
+      offset++;
+
+      return b & 0xFF;
+      }
+
+    @Override
+    public int read( byte[] bytes, int off, int len )
+      {
+      if( len == 0 )
+        return 0;
+
+      if( offset == limit )
+        return -1;
+
+      byte[] chunk = currentChunk();
+      int count = (int) Math.min( Math.min( len, chunk.length - chunkOffset ), limit - offset );
+
+      System.arraycopy( chunk, chunkOffset, bytes, off, count );
+
+      chunkOffset += count;
+      offset += count;
+
+      return count;
+      }
+
+    private byte[] currentChunk()
+      {
+      byte[] chunk = chunks.get( chunkIndex );
+
+      if( chunkOffset < chunk.length )
+        return chunk;
+
+      chunkOffset = 0;
+
+      return chunks.get( ++chunkIndex );
+      }
+
+    @Override
+    public int available()
+      {
+      return (int) Math.min( Integer.MAX_VALUE, limit - offset );
+      }
+    }
+  }
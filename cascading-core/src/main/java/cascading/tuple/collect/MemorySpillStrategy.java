@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tuple.collect;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import cascading.flow.FlowProcess;
+import cascading.tuple.Tuple;
+
+/**
+ * Class MemorySpillStrategy is a {@link Spillable.SpillStrategy} that spills by estimated retained bytes instead of
+ * by tuple count.
+ * <p/>
+ * A {@link SpillableTupleList} using this strategy tracks the estimated number of bytes it retains in memory. The
+ * list will spill when it alone retains more than the list memory threshold, if any, or when all lists using a
+ * MemorySpillStrategy in this JVM together retain more than the configured fraction of the max heap. In the later
+ * case, only lists retaining at least one percent of the budget will spill, preventing many tiny spill files.
+ * <p/>
+ * Retained sizes are estimates only, they assume a 64 bit JVM and count the common JDK types, all other types are
+ * charged a fixed size.
+ * <p/>
+ * Use the {@link SpillableProps} fluent helper class to set properties.
+ *
+ * @see SpillableProps#SPILL_MEMORY_FRACTION
+ * @see SpillableProps#LIST_MEMORY_THRESHOLD
+ */
+public class MemorySpillStrategy implements Spillable.SpillStrategy
+  {
+  /** Field globalRetained is the total bytes retained by all lists in this JVM using this strategy. */
+  private static final AtomicLong globalRetained = new AtomicLong();
+
+  private final long listThreshold;
+  private final long globalThreshold;
+  private final long minSpillSize;
+
+  public static float getMemoryFraction( FlowProcess flowProcess, float defaultValue )
+    {
+    String value = (String) flowProcess.getProperty( SpillableProps.SPILL_MEMORY_FRACTION );
+
+    if( value == null || value.length() == 0 )
+      return defaultValue;
+
+    return Float.parseFloat( value );
+    }
+
+  public static long getListMemoryThreshold( FlowProcess flowProcess, long defaultValue )
+    {
+    String value = (String) flowProcess.getProperty( SpillableProps.LIST_MEMORY_THRESHOLD );
+
+    if( value == null || value.length() == 0 )
+      return defaultValue;
+
+    return Long.parseLong( value );
+    }
+
+  /**
+   * Method getSpillStrategy returns a new MemorySpillStrategy if a memory fraction or list memory threshold has been
+   * set, otherwise null, in which case the tuple count thresholds should be honored.
+   *
+   * @param flowProcess of type FlowProcess
+   * @return a MemorySpillStrategy or null
+   */
+  public static MemorySpillStrategy getSpillStrategy( FlowProcess flowProcess )
+    {
+    float fraction = getMemoryFraction( flowProcess, SpillableProps.defaultSpillMemoryFraction );
+    long listThreshold = getListMemoryThreshold( flowProcess, SpillableProps.defaultListMemoryThreshold );
+
+    if( fraction <= 0 && listThreshold <= 0 )
+      return null;
+
+    return new MemorySpillStrategy( fraction, listThreshold );
+    }
+
+  /**
+   * Method getGlobalRetained returns the estimated number of bytes currently retained by all lists using a
+   * MemorySpillStrategy.
+   *
+   * @return long
+   */
+  public static long getGlobalRetained()
+    {
+    return globalRetained.get();
+    }
+
+  /**
+   * Constructor MemorySpillStrategy creates a new MemorySpillStrategy instance.
+   *
+   * @param fraction      the fraction of the max heap all lists may retain, 0 disables the global budget
+   * @param listThreshold the number of bytes a single list may retain, 0 disables the per list budget
+   */
+  public MemorySpillStrategy( float fraction, long listThreshold )
+    {
+    this.listThreshold = listThreshold;
+    this.globalThreshold = fraction <= 0 ? 0 : (long) ( Runtime.getRuntime().maxMemory() * (double) fraction );
+    this.minSpillSize = globalThreshold / 100;
+    }
+
+  public long getListThreshold()
+    {
+    return listThreshold;
+    }
+
+  public long getGlobalThreshold()
+    {
+    return globalThreshold;
+    }
+
+  @Override
+  public boolean doSpill( Spillable spillable, int size )
+    {
+    if( size == 0 || !( spillable instanceof SpillableTupleList ) )
+      return false;
+
+    long retained = ( (SpillableTupleList) spillable ).getRetainedSize();
+
+    if( listThreshold > 0 && retained >= listThreshold )
+      return true;
+
+    return globalThreshold > 0 && retained >= minSpillSize && globalRetained.get() >= globalThreshold;
+    }
+
+  @Override
+  public String getSpillReason( Spillable spillable )
+    {
+    long retained = spillable instanceof SpillableTupleList ? ( (SpillableTupleList) spillable ).getRetainedSize() : 0;
+
+    if( listThreshold > 0 && retained >= listThreshold )
+      return "met list memory threshold: " + listThreshold + " bytes, retained: " + retained;
+
+    return "met global memory threshold: " + globalThreshold + " bytes, retained: " + globalRetained.get();
+    }
+
+  /**
+   * Method retain is called by a {@link SpillableTupleList} when the given bytes are added to memory.
+   *
+   * @param bytes the estimated bytes
+   */
+  protected void retain( long bytes )
+    {
+    globalRetained.addAndGet( bytes );
+    }
+
+  /**
+   * Method release is called by a {@link SpillableTupleList} when the given bytes are spilled or cleared.
+   *
+   * @param bytes the estimated bytes
+   */
+  protected void release( long bytes )
+    {
+    globalRetained.addAndGet( -bytes );
+    }
+
+  /**
+   * Method estimateSize returns the approximate number of heap bytes retained by the given tuple.
+   *
+   * @param tuple the tuple to measure
+   * @return the estimated size in bytes
+   */
+  public static long estimateSize( Tuple tuple )
+    {
+    List<Object> elements = Tuple.elements( tuple );
+    long size = 56 + 8L * elements.size(); // tuple, list, array headers and references
+
+    for( int i = 0; i < elements.size(); i++ )
+      size += estimateElementSize( elements.get( i ) );
+
+    return size;
+    }
+
+  /**
+   * Method estimateSize returns the approximate number of heap bytes retained by the given tuple elements.
+   *
+   * @param elements the elements to measure
+   * @return the estimated size in bytes
+   */
+  public static long estimateSize( Object[] elements )
+    {
+    long size = 16 + 8L * elements.length; // array header and references
+
+    for( Object element : elements )
+      size += estimateElementSize( element );
+
+    return size;
+    }
+
+  private static long estimateElementSize( Object element )
+    {
+    if( element == null )
+      return 0;
+
+    if( element instanceof String )
+      return 56 + 2L * ( (String) element ).length(); // String and char[] headers
+
+    if( element instanceof Tuple )
+      return estimateSize( (Tuple) element );
+
+    return 24; // boxed primitives, and a guess for all else
+    }
+  }
@@ -0,0 +1,644 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tuple.collect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleException;
+import cascading.tuple.io.TupleInputStream;
+import cascading.tuple.io.TupleOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * OffHeapTupleMap is a Map that allows for multiple values per key, where all keys and values are held serialized
+ * in blocks of direct memory, outside of the Java heap.
+ * <p/>
+ * Keys are located through an open addressing (linear probing) index, also held in direct memory, so an
+ * accumulated join table of any size adds little to the live heap and to GC pause times. Values are deserialized
+ * lazily on iteration.
+ * <p/>
+ * Keys are considered equal if their serialized forms are equal. This is consistent with {@link Tuple#equals(Object)}
+ * but not with custom comparators or hashers, so this map must not be used with them.
+ * <p/>
+ * As with a {@link SpillableTupleMap}, calling {@link #get(Object)} with an unknown key adds the key with an
+ * empty collection of values. {@link #probe(Tuple)} should be used for lookups.
+ * <p/>
+ * This class is not thread safe. The map may be read by other threads once all values have been added, if
+ * the handoff is properly synchronized.
+ * <p/>
+ * This class is used by the {@link cascading.pipe.HashJoin} pipe, see {@link cascading.pipe.HashJoinProps}.
+ */
+public abstract class OffHeapTupleMap extends AbstractMap<Tuple, Collection<Tuple>>
+  {
+  private static final Logger LOG = LoggerFactory.getLogger( OffHeapTupleMap.class );
+
+  // key record, keys are linked in insertion order, values are linked per key
+  private static final int KEY_NEXT = 0;
+  private static final int KEY_FIRST = 8;
+  private static final int KEY_LAST = 16;
+  private static final int KEY_COUNT = 24;
+  private static final int KEY_MATCHED = 28;
+  private static final int KEY_LENGTH = 29;
+  private static final int KEY_HEADER = 33;
+
+  // value record
+  private static final int VALUE_NEXT = 0;
+  private static final int VALUE_LENGTH = 8;
+  private static final int VALUE_HEADER = 12;
+
+  // index slot
+  private static final int SLOT_HASH = 0;
+  private static final int SLOT_ADDRESS = 4;
+  private static final int SLOT_SIZE = 12;
+
+  private static final int MAX_CAPACITY = 1 << 27;
+
+  private final int initialCapacity;
+  private final int blockSize;
+
+  /** An address is the 1 based block number in the upper, and the block offset in the lower 32 bits, 0 is null. */
+  private final List<ByteBuffer> blocks = new ArrayList<ByteBuffer>();
+  private ByteBuffer block; // current block, its position is the append offset
+  private ByteBuffer index;
+  private int capacity;
+
+  private int size = 0;
+  private long numValues = 0;
+  private long firstKey = 0;
+  private long lastKey = 0;
+  private long allocated = 0;
+
+  private final BytesOutputStream bytesOutputStream = new BytesOutputStream();
+  private final BlockInputStream blockInputStream = new BlockInputStream();
+  private TupleOutputStream tupleOutputStream;
+  private TupleInputStream tupleInputStream;
+  private final Values probed = new Values( 0 );
+
+  protected OffHeapTupleMap( int initialCapacity, int blockSize )
+    {
+    this.initialCapacity = capacityFor( initialCapacity );
+    this.blockSize = blockSize;
+
+    createIndex();
+    }
+
+  private static int capacityFor( int initialCapacity )
+    {
+    int capacity = 16;
+
+    while( capacity < initialCapacity && capacity < MAX_CAPACITY )
+      capacity <<= 1;
+
+    return capacity;
+    }
+
+  protected abstract TupleOutputStream createTupleOutputStream( OutputStream outputStream );
+
+  protected abstract TupleInputStream createTupleInputStream( InputStream inputStream );
+
+  /**
+   * Method getNumValues returns the number of values held across all keys.
+   *
+   * @return the numValues (type long) of this OffHeapTupleMap object.
+   */
+  public long getNumValues()
+    {
+    return numValues;
+    }
+
+  /**
+   * Method getAllocatedBytes returns the number of bytes of direct memory held by this map.
+   *
+   * @return the allocatedBytes (type long) of this OffHeapTupleMap object.
+   */
+  public long getAllocatedBytes()
+    {
+    return allocated;
+    }
+
+  @Override
+  public int size()
+    {
+    return size;
+    }
+
+  @Override
+  public boolean containsKey( Object key )
+    {
+    return key instanceof Tuple && find( (Tuple) key, false ) != 0;
+    }
+
+  @Override
+  public Collection<Tuple> get( Object key )
+    {
+    return new Values( find( (Tuple) key, true ) );
+    }
+
+  /**
+   * Method probe returns the values of the given key, or null if the key is not present. The key is marked as
+   * matched, see {@link #unmatchedKeys()}.
+   * <p/>
+   * The returned collection is reused by the next call.
+   *
+   * @param key of type Tuple
+   * @return Collection<Tuple>
+   */
+  public Collection<Tuple> probe( Tuple key )
+    {
+    long address = find( key, false );
+
+    if( address == 0 )
+      return null;
+
+    blockOf( address ).put( offsetOf( address ) + KEY_MATCHED, (byte) 1 );
+
+    probed.address = address;
+
+    return probed;
+    }
+
+  /**
+   * Method unmatchedKeys returns an Iterator over all keys, in insertion order, never returned by
+   * {@link #probe(Tuple)}. A key probed during iteration will be skipped if not yet reached.
+   *
+   * @return Iterator<Tuple>
+   */
+  public Iterator<Tuple> unmatchedKeys()
+    {
+    return new Iterator<Tuple>()
+    {
+    long current = firstKey;
+
+    @Override
+    public boolean hasNext()
+      {
+      while( current != 0 && blockOf( current ).get( offsetOf( current ) + KEY_MATCHED ) != 0 )
+        current = nextKey( current );
+
+      return current != 0;
+      }
+
+    @Override
+    public Tuple next()
+      {
+      if( !hasNext() )
+        throw new NoSuchElementException();
+
+      long address = current;
+
+      current = nextKey( address );
+
+      return readKey( address );
+      }
+
+    @Override
+    public void remove()
+      {
+      throw new UnsupportedOperationException( "remove is not supported" );
+      }
+    };
+    }
+
+  @Override
+  public Set<Map.Entry<Tuple, Collection<Tuple>>> entrySet()
+    {
+    return new AbstractSet<Map.Entry<Tuple, Collection<Tuple>>>()
+    {
+    @Override
+    public Iterator<Map.Entry<Tuple, Collection<Tuple>>> iterator()
+      {
+      return new Iterator<Map.Entry<Tuple, Collection<Tuple>>>()
+      {
+      long current = firstKey;
+
+      @Override
+      public boolean hasNext()
+        {
+        return current != 0;
+        }
+
+      @Override
+      public Map.Entry<Tuple, Collection<Tuple>> next()
+        {
+        if( current == 0 )
+          throw new NoSuchElementException();
+
+        long address = current;
+
+        current = nextKey( address );
+
+        return new SimpleImmutableEntry<Tuple, Collection<Tuple>>( readKey( address ), new Values( address ) );
+        }
+
+      @Override
+      public void remove()
+        {
+        throw new UnsupportedOperationException( "remove is not supported" );
+        }
+      };
+      }
+
+    @Override
+    public int size()
+      {
+      return size;
+      }
+    };
+    }
+
+  /** Method clear releases all blocks of direct memory to the garbage collector. */
+  @Override
+  public void clear()
+    {
+    blocks.clear();
+    block = null;
+    size = 0;
+    numValues = 0;
+    firstKey = 0;
+    lastKey = 0;
+    allocated = 0;
+
+    createIndex();
+    }
+
+  private void createIndex()
+    {
+    capacity = initialCapacity;
+    index = ByteBuffer.allocateDirect( capacity * SLOT_SIZE );
+    allocated += index.capacity();
+    }
+
+  private long find( Tuple key, boolean create )
+    {
+    int length = serialize( key );
+    byte[] bytes = bytesOutputStream.getBuffer();
+    int hash = hash( bytes, length );
+    int mask = capacity - 1;
+    int slot = hash & mask;
+
+    while( true )
+      {
+      int position = slot * SLOT_SIZE;
+      long address = index.getLong( position + SLOT_ADDRESS );
+
+      if( address == 0 )
+        break;
+
+      if( index.getInt( position + SLOT_HASH ) == hash && keyEquals( address, bytes, length ) )
+        return address;
+
+      slot = ( slot + 1 ) & mask;
+      }
+
+    if( !create )
+      return 0;
+
+    long address = append( KEY_HEADER + length );
+
+    block.putLong( 0 ); // next
+    block.putLong( 0 ); // first
+    block.putLong( 0 ); // last
+    block.putInt( 0 ); // count
+    block.put( (byte) 0 ); // matched
+    block.putInt( length );
+    block.put( bytes, 0, length );
+
+    if( lastKey == 0 )
+      firstKey = address;
+    else
+      blockOf( lastKey ).putLong( offsetOf( lastKey ) + KEY_NEXT, address );
+
+    lastKey = address;
+
+    int position = slot * SLOT_SIZE;
+
+    index.putInt( position + SLOT_HASH, hash );
+    index.putLong( position + SLOT_ADDRESS, address );
+
+    if( ++size > capacity / 4 * 3 )
+      resize();
+
+    return address;
+    }
+
+  private void addValue( long keyAddress, Tuple value )
+    {
+    int length = serialize( value );
+    long address = append( VALUE_HEADER + length );
+
+    block.putLong( 0 ); // next
+    block.putInt( length );
+    block.put( bytesOutputStream.getBuffer(), 0, length );
+
+    ByteBuffer keyBlock = blockOf( keyAddress );
+    int keyOffset = offsetOf( keyAddress );
+    long last = keyBlock.getLong( keyOffset + KEY_LAST );
+
+    if( last == 0 )
+      keyBlock.putLong( keyOffset + KEY_FIRST, address );
+    else
+      blockOf( last ).putLong( offsetOf( last ) + VALUE_NEXT, address );
+
+    keyBlock.putLong( keyOffset + KEY_LAST, address );
+    keyBlock.putInt( keyOffset + KEY_COUNT, keyBlock.getInt( keyOffset + KEY_COUNT ) + 1 );
+
+    numValues++;
+    }
+
+  private void resize()
+    {
+    if( capacity == MAX_CAPACITY )
+      throw new TupleException( "off heap tuple map cannot hold more than: " + MAX_CAPACITY / 4 * 3 + " keys" );
+
+    int newCapacity = capacity << 1;
+    int mask = newCapacity - 1;
+    ByteBuffer newIndex = ByteBuffer.allocateDirect( newCapacity * SLOT_SIZE );
+
+    for( int i = 0; i < capacity; i++ )
+      {
+      long address = index.getLong( i * SLOT_SIZE + SLOT_ADDRESS );
+
+      if( address == 0 )
+        continue;
+
+      int hash = index.getInt( i * SLOT_SIZE + SLOT_HASH );
+      int slot = hash & mask;
+
+      while( newIndex.getLong( slot * SLOT_SIZE + SLOT_ADDRESS ) != 0 )
+        slot = ( slot + 1 ) & mask;
+
+      newIndex.putInt( slot * SLOT_SIZE + SLOT_HASH, hash );
+      newIndex.putLong( slot * SLOT_SIZE + SLOT_ADDRESS, address );
+      }
+
+    allocated += newIndex.capacity() - index.capacity();
+    index = newIndex;
+    capacity = newCapacity;
+    }
+
+  /** Makes room for a record in the current block, and returns the address the record will be written at. */
+  private long append( int recordSize )
+    {
+    if( block == null || block.remaining() < recordSize )
+      {
+      block = ByteBuffer.allocateDirect( Math.max( blockSize, recordSize ) );
+      blocks.add( block );
+      allocated += block.capacity();
+
+      if( LOG.isDebugEnabled() )
+        LOG.debug( "allocated off heap block: {}, total bytes: {}", blocks.size(), allocated );
+      }
+
+    return ( (long) blocks.size() << 32 ) | block.position();
+    }
+
+  private boolean keyEquals( long address, byte[] bytes, int length )
+    {
+    ByteBuffer buffer = blockOf( address );
+    int offset = offsetOf( address );
+
+    if( buffer.getInt( offset + KEY_LENGTH ) != length )
+      return false;
+
+    offset += KEY_HEADER;
+
+    for( int i = 0; i < length; i++ )
+      {
+      if( buffer.get( offset + i ) != bytes[ i ] )
+        return false;
+      }
+
+    return true;
+    }
+
+  private long nextKey( long address )
+    {
+    return blockOf( address ).getLong( offsetOf( address ) + KEY_NEXT );
+    }
+
+  private Tuple readKey( long address )
+    {
+    ByteBuffer buffer = blockOf( address );
+    int offset = offsetOf( address );
+
+    return deserialize( buffer, offset + KEY_HEADER, buffer.getInt( offset + KEY_LENGTH ) );
+    }
+
+  private ByteBuffer blockOf( long address )
+    {
+    return blocks.get( (int) ( address >>> 32 ) - 1 );
+    }
+
+  private static int offsetOf( long address )
+    {
+    return (int) address;
+    }
+
+  private static int hash( byte[] bytes, int length )
+    {
+    int hash = 1;
+
+    for( int i = 0; i < length; i++ )
+      hash = 31 * hash + bytes[ i ];
+
+    // spread the low bits, the index is a power of two
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+
+    return hash;
+    }
+
+  private int serialize( Tuple tuple )
+    {
+    bytesOutputStream.reset();
+
+    try
+      {
+      if( tupleOutputStream == null )
+        tupleOutputStream = createTupleOutputStream( bytesOutputStream );
+
+      tupleOutputStream.writeTuple( tuple );
+      tupleOutputStream.flush();
+      }
+    catch( IOException exception )
+      {
+      throw new TupleException( "unable to serialize tuple", exception );
+      }
+
+    return bytesOutputStream.size();
+    }
+
+  private Tuple deserialize( ByteBuffer buffer, int offset, int length )
+    {
+    blockInputStream.reset( buffer, offset, offset + length );
+
+    try
+      {
+      if( tupleInputStream == null )
+        tupleInputStream = createTupleInputStream( blockInputStream );
+
+      return tupleInputStream.readTuple();
+      }
+    catch( IOException exception )
+      {
+      throw new TupleException( "unable to deserialize tuple", exception );
+      }
+    }
+
+  /** Class Values is a view on the values of a single key. */
+  private class Values extends AbstractCollection<Tuple>
+    {
+    long address;
+
+    Values( long address )
+      {
+      this.address = address;
+      }
+
+    @Override
+    public int size()
+      {
+      return blockOf( address ).getInt( offsetOf( address ) + KEY_COUNT );
+      }
+
+    @Override
+    public boolean add( Tuple tuple )
+      {
+      addValue( address, tuple );
+
+      return true;
+      }
+
+    @Override
+    public Iterator<Tuple> iterator()
+      {
+      final long first = blockOf( address ).getLong( offsetOf( address ) + KEY_FIRST );
+
+      return new Iterator<Tuple>()
+      {
+      long current = first;
+
+      @Override
+      public boolean hasNext()
+        {
+        return current != 0;
+        }
+
+      @Override
+      public Tuple next()
+        {
+        if( current == 0 )
+          throw new NoSuchElementException();
+
+        ByteBuffer buffer = blockOf( current );
+        int offset = offsetOf( current );
+
+        current = buffer.getLong( offset + VALUE_NEXT );
+
+        return deserialize( buffer, offset + VALUE_HEADER, buffer.getInt( offset + VALUE_LENGTH ) );
+        }
+
+      @Override
+      public void remove()
+        {
+        throw new UnsupportedOperationException( "remove is not supported" );
+        }
+      };
+      }
+    }
+
+  private static class BytesOutputStream extends ByteArrayOutputStream
+    {
+    BytesOutputStream()
+      {
+      super( 256 );
+      }
+
+    byte[] getBuffer()
+      {
+      return buf;
+      }
+    }
+
+  /** Class BlockInputStream reads a single record from a block. */
+  private static class BlockInputStream extends InputStream
+    {
+    ByteBuffer buffer;
+    int position;
+    int limit;
+
+    void reset( ByteBuffer buffer, int position, int limit )
+      {
+      this.buffer = buffer;
+      this.position = position;
+      this.limit = limit;
+      }
+
+    @Override
+    public int read()
+      {
+      if( position == limit )
+        return -1;
+
+      return buffer.get( position++ ) & 0xFF;
+      }
+
+    @Override
+    public int read( byte[] bytes, int offset, int length )
+      {
+      if( length == 0 )
+        return 0;
+
+      if( position == limit )
+        return -1;
+
+      length = Math.min( length, limit - position );
+
+      for( int i = 0; i < length; i++ )
+        bytes[ offset + i ] = buffer.get( position++ );
+
+      return length;
+      }
+
+    @Override
+    public int available()
+      {
+      return limit - position;
+      }
+    }
+  }
@@ -33,6 +33,7 @@ import cascading.util.Util;
  *
  * @see SpillableTupleList
  * @see SpillableTupleMap
+ * @see MemorySpillStrategy
  */
 public class SpillableProps extends Props
   {
@@ -46,12 +47,38 @@ public class SpillableProps extends Props
   /** A comma delimited list of possible codecs to try. This is platform dependent. */
   public static final String SPILL_CODECS = "cascading.spill.codecs";
 
+  /**
+   * The number of full buffers a spillable list may hand to a background writer before blocking. When set, spill
+   * files are also read ahead in the background. A value of 0 (the default) spills inline.
+   */
+  public static final String SPILL_ASYNC_BUFFERS = "cascading.spill.async.buffers";
+
+  /**
+   * Whether spillable lists hold their in memory tuples serialized in compact byte array chunks instead of as
+   * objects, off by default.
+   *
+   * @see Boolean#parseBoolean(String)
+   */
+  public static final String LIST_COMPACT = "cascading.spill.list.compact";
+
   /** Number of tuples to hold in memory before spilling them to disk. */
   public static final String LIST_THRESHOLD = "cascading.spill.list.threshold";
 
   /** The total number of tuple values (not keys) to attempt to keep in memory. */
   public static final String MAP_THRESHOLD = "cascading.spill.map.threshold";
 
+  /**
+   * The fraction of the max heap all spillable lists may retain in memory before the largest of them begin to spill,
+   * for example {@code 0.3}. Disabled by default.
+   * <p/>
+   * If set, or if {@link #LIST_MEMORY_THRESHOLD} is set, a {@link MemorySpillStrategy} is used instead of the tuple
+   * count thresholds.
+   */
+  public static final String SPILL_MEMORY_FRACTION = "cascading.spill.memory.fraction";
+
+  /** Estimated number of bytes a single spillable list may retain in memory before spilling. Disabled by default. */
+  public static final String LIST_MEMORY_THRESHOLD = "cascading.spill.list.memory.threshold";
+
   /**
    * The initial hash map capacity.
    *
@@ -66,21 +93,33 @@ public class SpillableProps extends Props
    */
   public static final String MAP_LOADFACTOR = "cascading.spill.map.loadfactor";
 
+  public static final int defaultSpillAsyncBuffers = 0;
+
   public static final int defaultListThreshold = 10 * 1000;
+  public static final boolean defaultListCompact = false;
 
   public static final int defaultMapThreshold = 10 * 1000;
+
+  public static final float defaultSpillMemoryFraction = 0;
+  public static final long defaultListMemoryThreshold = 0;
   public static final int defaultMapInitialCapacity = 100 * 1000;
   public static final float defaultMapLoadFactor = 0.75f;
 
   boolean compressSpill = true;
   List<String> codecs = new ArrayList<String>();
 
+  int spillAsyncBuffers = defaultSpillAsyncBuffers;
+
   int listSpillThreshold = defaultListThreshold;
+  boolean listCompact = defaultListCompact;
 
   int mapSpillThreshold = defaultMapThreshold;
   int mapInitialCapacity = defaultMapInitialCapacity;
   float mapLoadFactor = defaultMapLoadFactor;
 
+  float spillMemoryFraction = defaultSpillMemoryFraction;
+  long listMemoryThreshold = defaultListMemoryThreshold;
+
   /**
    * Creates a new SpillableProps instance.
    *
@@ -163,6 +202,27 @@ public class SpillableProps extends Props
     return this;
     }
 
+  public int getSpillAsyncBuffers()
+    {
+    return spillAsyncBuffers;
+    }
+
+  /**
+   * Method setSpillAsyncBuffers sets the number of full buffers that may be written to disk in the background
+   * while new tuples are accepted. Disabled (0) by default.
+   * <p/>
+   * Each pending buffer holds up to a full threshold of tuples in memory.
+   *
+   * @param spillAsyncBuffers of type int
+   * @return this
+   */
+  public SpillableProps setSpillAsyncBuffers( int spillAsyncBuffers )
+    {
+    this.spillAsyncBuffers = spillAsyncBuffers;
+
+    return this;
+    }
+
   public int getListSpillThreshold()
     {
     return listSpillThreshold;
@@ -181,6 +241,26 @@ public class SpillableProps extends Props
     return this;
     }
 
+  public boolean isListCompact()
+    {
+    return listCompact;
+    }
+
+  /**
+   * Method setListCompact sets whether tuples held in memory are serialized into compact byte array chunks.
+   * <p/>
+   * This trades the cost of serializing and deserializing each tuple for much less per tuple memory overhead.
+   *
+   * @param listCompact of type boolean
+   * @return this
+   */
+  public SpillableProps setListCompact( boolean listCompact )
+    {
+    this.listCompact = listCompact;
+
+    return this;
+    }
+
   public int getMapSpillThreshold()
     {
     return mapSpillThreshold;
@@ -237,6 +317,47 @@ public class SpillableProps extends Props
     return this;
     }
 
+  public float getSpillMemoryFraction()
+    {
+    return spillMemoryFraction;
+    }
+
+  /**
+   * Method setSpillMemoryFraction sets the fraction of the max heap all spillable lists may retain before spilling.
+   * <p/>
+   * Setting a value greater than zero replaces the tuple count thresholds with a {@link MemorySpillStrategy}.
+   *
+   * @param spillMemoryFraction of type float
+   * @return this
+   */
+  public SpillableProps setSpillMemoryFraction( float spillMemoryFraction )
+    {
+    this.spillMemoryFraction = spillMemoryFraction;
+
+    return this;
+    }
+
+  public long getListMemoryThreshold()
+    {
+    return listMemoryThreshold;
+    }
+
+  /**
+   * Method setListMemoryThreshold sets the estimated number of bytes a single spillable list may retain before
+   * spilling.
+   * <p/>
+   * Setting a value greater than zero replaces the tuple count thresholds with a {@link MemorySpillStrategy}.
+   *
+   * @param listMemoryThreshold of type long
+   * @return this
+   */
+  public SpillableProps setListMemoryThreshold( long listMemoryThreshold )
+    {
+    this.listMemoryThreshold = listMemoryThreshold;
+
+    return this;
+    }
+
   @Override
   protected void addPropertiesTo( Properties properties )
     {
@@ -248,10 +369,15 @@ public class SpillableProps extends Props
       }
 
     properties.setProperty( SPILL_COMPRESS, Boolean.toString( compressSpill ) );
+    properties.setProperty( SPILL_ASYNC_BUFFERS, Integer.toString( spillAsyncBuffers ) );
     properties.setProperty( LIST_THRESHOLD, Integer.toString( listSpillThreshold ) );
+    properties.setProperty( LIST_COMPACT, Boolean.toString( listCompact ) );
 
     properties.setProperty( MAP_THRESHOLD, Integer.toString( mapSpillThreshold ) );
     properties.setProperty( MAP_CAPACITY, Integer.toString( mapInitialCapacity ) );
     properties.setProperty( MAP_LOADFACTOR, Float.toString( mapLoadFactor ) );
+
+    properties.setProperty( SPILL_MEMORY_FRACTION, Float.toString( spillMemoryFraction ) );
+    properties.setProperty( LIST_MEMORY_THRESHOLD, Long.toString( listMemoryThreshold ) );
     }
   }
@@ -20,15 +20,25 @@
 
 package cascading.tuple.collect;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.Flushable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import cascading.flow.FlowProcess;
 import cascading.tuple.Tuple;
@@ -45,6 +55,15 @@ import org.slf4j.LoggerFactory;
  * {@code threshold} is met.
  * <p/>
  * Using a {@code threshold } of -1 will disable the spill, all values will remain in memory.
+ * <p/>
+ * If async spilling is enabled, see {@link #setAsyncSpill(int)}, a full buffer is handed to a background writer
+ * and a new buffer continues to accept tuples. Adding blocks only if the given number of buffers are still being
+ * written. Bytes held by a buffer still count against a {@link MemorySpillStrategy} until written. When iterating,
+ * the first block of the next spill file is read ahead in the background.
+ * <p/>
+ * If compact buffering is enabled, see {@link #setCompact(boolean)}, tuples held in memory are serialized into
+ * growing byte array chunks instead of being retained as objects, and are deserialized on iteration. The allocated
+ * chunk capacity, not the serialized size, counts against a {@link MemorySpillStrategy}.
  * <p.></p.>
  * This class is used by the {@link cascading.pipe.CoGroup} pipe, to set properties specific to a given
  * CoGroup instance, see the {@link cascading.pipe.CoGroup#getConfigDef()} method.
@@ -74,6 +93,52 @@ public abstract class SpillableTupleList implements Collection<Tuple>, Spillable
   @Deprecated
   public static final String SPILL_CODECS = SpillableProps.SPILL_CODECS;
 
+  public static boolean isCompact( FlowProcess flowProcess, boolean defaultValue )
+    {
+    String value = (String) flowProcess.getProperty( SpillableProps.LIST_COMPACT );
+
+    if( value == null || value.length() == 0 )
+      return defaultValue;
+
+    return Boolean.parseBoolean( value );
+    }
+
+  public static int getAsyncBuffers( FlowProcess flowProcess, int defaultValue )
+    {
+    String value = (String) flowProcess.getProperty( SpillableProps.SPILL_ASYNC_BUFFERS );
+
+    if( value == null || value.length() == 0 )
+      return defaultValue;
+
+    return Integer.parseInt( value );
+    }
+
+  /** Field spillExecutor is shared by all lists, threads are created on demand and expire when idle */
+  private static ExecutorService spillExecutor;
+
+  private static synchronized ExecutorService getSpillExecutor()
+    {
+    if( spillExecutor == null )
+      {
+      spillExecutor = Executors.newCachedThreadPool( new ThreadFactory()
+      {
+      int count = 0;
+
+      @Override
+      public synchronized Thread newThread( Runnable runnable )
+        {
+        Thread thread = new Thread( runnable, "spillable-tuple-list-" + count++ );
+
+        thread.setDaemon( true );
+
+        return thread;
+        }
+      } );
+      }
+
+    return spillExecutor;
+    }
+
   public static int getThreshold( FlowProcess flowProcess, int defaultValue )
     {
     String value = (String) flowProcess.getProperty( SpillableProps.LIST_THRESHOLD );
@@ -128,18 +193,29 @@ public abstract class SpillableTupleList implements Collection<Tuple>, Spillable
 
 
   private SpillStrategy spillStrategy;
+  /** Field memorySpillStrategy is set if the spillStrategy requires retained sizes to be tracked */
+  private MemorySpillStrategy memorySpillStrategy;
 
   /** Field files */
   private List<File> files = Collections.EMPTY_LIST; // lazy init if we do a spill
   /** Field current */
-  private final List<Object[]> current = new LinkedList<Object[]>();
+  private List<Object[]> current = new LinkedList<Object[]>();
+  /** Field compact replaces current if compact buffering is enabled */
+  private CompactTupleBuffer compact;
   /** Field size */
   private int size = 0;
+  /** Field retainedSize is the estimated bytes held in memory, only tracked by a MemorySpillStrategy */
+  private long retainedSize = 0;
   /** Fields listener */
   private SpillListener spillListener = SpillListener.NULL;
 
   private Tuple group;
 
+  /** Field asyncBuffers is the number of buffers that may be written in the background, 0 if spilling inline */
+  private int asyncBuffers = 0;
+  /** Field pendingSpills are the background writes, in spill order */
+  private LinkedList<Future<Long>> pendingSpills;
+
   protected SpillableTupleList( final int threshold )
     {
     this( new SpillStrategy()
@@ -161,7 +237,7 @@ public abstract class SpillableTupleList implements Collection<Tuple>, Spillable
 
   protected SpillableTupleList( SpillStrategy spillStrategy )
     {
-    this.spillStrategy = spillStrategy;
+    setSpillStrategy( spillStrategy );
     }
 
   @Override
@@ -179,7 +255,86 @@ public abstract class SpillableTupleList implements Collection<Tuple>, Spillable
   @Override
   public void setSpillStrategy( SpillStrategy spillStrategy )
     {
+    releaseRetained();
+
     this.spillStrategy = spillStrategy;
+    this.memorySpillStrategy = spillStrategy instanceof MemorySpillStrategy ? (MemorySpillStrategy) spillStrategy : null;
+    }
+
+  /**
+   * Method getRetainedSize returns the estimated number of bytes held in memory by this list. Only tracked
+   * if the current spill strategy is a {@link MemorySpillStrategy}, otherwise returns zero.
+   *
+   * @return long
+   */
+  public long getRetainedSize()
+    {
+    return retainedSize;
+    }
+
+  private void releaseRetained()
+    {
+    if( memorySpillStrategy != null && retainedSize != 0 )
+      memorySpillStrategy.release( retainedSize );
+
+    retainedSize = 0;
+    }
+
+  /**
+   * Method setAsyncSpill enables spilling in the background. Up to {@code asyncBuffers} full buffers may be pending
+   * a write before {@link #add(cascading.tuple.Tuple)} blocks. A value of 0 disables async spilling.
+   *
+   * @param asyncBuffers of type int
+   */
+  public void setAsyncSpill( int asyncBuffers )
+    {
+    awaitSpills( 0 );
+
+    this.asyncBuffers = Math.max( 0, asyncBuffers );
+
+    if( this.asyncBuffers != 0 && pendingSpills == null )
+      pendingSpills = new LinkedList<Future<Long>>();
+    }
+
+  public boolean isAsyncSpill()
+    {
+    return asyncBuffers != 0;
+    }
+
+  /**
+   * Method setCompact enables holding in memory tuples as serialized bytes. Must be called before any tuples are
+   * added, and is ignored if the sub-class does not support in memory streams, see
+   * {@link #createTupleOutputStream(java.io.OutputStream)}.
+   *
+   * @param compact of type boolean
+   */
+  public void setCompact( boolean compact )
+    {
+    if( size != 0 )
+      throw new IllegalStateException( "compact must be set before adding tuples" );
+
+    if( !compact )
+      {
+      this.compact = null;
+      return;
+      }
+
+    if( this.compact != null )
+      return;
+
+    TupleOutputStream probe = createTupleOutputStream( new ByteArrayOutputStream() );
+
+    if( probe == null )
+      return;
+
+    closeSilent( probe );
+
+    this.compact = new CompactTupleBuffer( this );
+    }
+
+  public boolean isCompact()
+    {
+    return compact != null;
     }
 
   @Override
@@ -199,6 +354,7 @@ public abstract class SpillableTupleList implements Collection<Tuple>, Spillable
     int fileIndex = 0;
     private Iterator<Tuple> lastIterator;
     private Iterator<Tuple> iterator;
+    private Future<ReadAhead> readAhead;
 
     private SpilledListIterator()
       {
@@ -212,16 +368,28 @@ public abstract class SpillableTupleList implements Collection<Tuple>, Spillable
         closeSilent( (Closeable) iterator );
 
       if( fileIndex < files.size() )
-        iterator = getIteratorFor( files.get( fileIndex++ ) );
+        iterator = getIteratorFor( fileIndex++ );
       else
         iterator = lastIterator;
       }
 
-    private Iterator<Tuple> getIteratorFor( File file )
+    private Iterator<Tuple> getIteratorFor( int index )
       {
       spillListener.notifyReadSpillBegin( SpillableTupleList.this );
 
-      return createIterator( createTupleInputStream( file ) );
+      Iterator<Tuple> result;
+
+      if( readAhead != null )
+        result = createIterator( getResult( readAhead ) );
+      else
+        result = createIterator( createTupleInputStream( files.get( index ) ) );
+
+      readAhead = null;
+
+      if( isAsyncSpill() && index + 1 < files.size() )
+        readAhead = readAsync( files.get( index + 1 ) );
+
+      return result;
       }
 
     public boolean hasNext()
@@ -268,7 +436,31 @@ public abstract class SpillableTupleList implements Collection<Tuple>, Spillable
     {
     doSpill(); // spill if we break over the threshold
 
-    current.add( Tuple.elements( tuple ).toArray( new Object[ tuple.size() ] ) );
+    if( compact != null )
+      {
+      long bytes = compact.add( tuple );
+
+      if( memorySpillStrategy != null )
+        {
+        retainedSize += bytes;
+        memorySpillStrategy.retain( bytes );
+        }
+      }
+    else
+      {
+      Object[] elements = Tuple.elements( tuple ).toArray( new Object[ tuple.size() ] );
+
+      current.add( elements );
+
+      if( memorySpillStrategy != null )
+        {
+        long bytes = MemorySpillStrategy.estimateSize( elements );
+
+        retainedSize += bytes;
+        memorySpillStrategy.retain( bytes );
+        }
+      }
+
     size++;
 
     return true;
@@ -283,41 +475,194 @@ public abstract class SpillableTupleList implements Collection<Tuple>, Spillable
   @Override
   public boolean isEmpty()
     {
-    return files.isEmpty() && current.size() == 0;
+    return files.isEmpty() && currentSize() == 0;
+    }
+
+  private int currentSize()
+    {
+    return compact != null ? compact.size() : current.size();
     }
 
   private final boolean doSpill()
     {
-    if( !spillStrategy.doSpill( this, current.size() ) )
+    if( !spillStrategy.doSpill( this, currentSize() ) )
       return false;
 
     long start = System.currentTimeMillis();
-    spillListener.notifyWriteSpillBegin( this, current.size(), spillStrategy.getSpillReason( this ) );
+    spillListener.notifyWriteSpillBegin( this, currentSize(), spillStrategy.getSpillReason( this ) );
 
     File file = createTempFile();
-    TupleOutputStream dataOutputStream = createTupleOutputStream( file );
 
-    try
+    if( isAsyncSpill() )
       {
-      writeList( dataOutputStream, current );
+      spillAsync( file );
       }
-    finally
+    else
       {
-      flushSilent( dataOutputStream );
-      closeSilent( dataOutputStream );
-      }
+      writeFile( file, current, compact );
 
-    spillListener.notifyWriteSpillEnd( this, System.currentTimeMillis() - start );
+      spillListener.notifyWriteSpillEnd( this, System.currentTimeMillis() - start );
+
+      current.clear();
+
+      if( compact != null )
+        compact.clear();
+
+      releaseRetained();
+      }
 
     if( files == Collections.EMPTY_LIST )
       files = new LinkedList<File>();
 
     files.add( file );
-    current.clear();
 
     return true;
     }
 
+  private void spillAsync( final File file )
+    {
+    awaitSpills( asyncBuffers - 1 ); // bounds the number of buffers held in memory
+
+    final List<Object[]> buffer = current;
+    final CompactTupleBuffer compactBuffer = compact;
+
+    // the buffer stays charged to the global budget until written, but no longer to this list
+    final MemorySpillStrategy bufferStrategy = memorySpillStrategy;
+    final long bufferBytes = retainedSize;
+
+    retainedSize = 0;
+    current = new LinkedList<Object[]>();
+
+    if( compact != null )
+      compact = new CompactTupleBuffer( this );
+
+    pendingSpills.add( getSpillExecutor().submit( new Callable<Long>()
+    {
+    @Override
+    public Long call() throws Exception
+      {
+      long start = System.currentTimeMillis();
+
+      try
+        {
+        writeFile( file, buffer, compactBuffer );
+
+        if( compactBuffer != null )
+          compactBuffer.clear();
+        }
+      finally
+        {
+        if( bufferStrategy != null && bufferBytes != 0 )
+          bufferStrategy.release( bufferBytes );
+        }
+
+      return System.currentTimeMillis() - start;
+      }
+    } ) );
+    }
+
+  /**
+   * Method awaitSpills blocks until no more than the given number of background writes are pending.
+   *
+   * @param maxPending of type int
+   */
+  private void awaitSpills( int maxPending )
+    {
+    if( pendingSpills == null )
+      return;
+
+    while( pendingSpills.size() > Math.max( 0, maxPending ) )
+      spillListener.notifyWriteSpillEnd( this, getResult( pendingSpills.removeFirst() ) );
+    }
+
+  /** Holds an open spill file and the first block of its tuples, read in the background */
+  private static class ReadAhead
+    {
+    final TupleInputStream tupleInputStream;
+    final long size;
+    final List<Tuple> block;
+
+    ReadAhead( TupleInputStream tupleInputStream, long size, List<Tuple> block )
+      {
+      this.tupleInputStream = tupleInputStream;
+      this.size = size;
+      this.block = block;
+      }
+    }
+
+  /** Opens the given file and reads up to one block of tuples, {@link CompactTupleBuffer#CHUNK_SIZE} estimated bytes */
+  private Future<ReadAhead> readAsync( final File file )
+    {
+    return getSpillExecutor().submit( new Callable<ReadAhead>()
+    {
+    @Override
+    public ReadAhead call() throws Exception
+      {
+      TupleInputStream tupleInputStream = createTupleInputStream( file );
+
+      try
+        {
+        long size = tupleInputStream.readLong();
+        List<Tuple> block = new ArrayList<Tuple>();
+        long bytes = 0;
+
+        while( block.size() < size && bytes < CompactTupleBuffer.CHUNK_SIZE )
+          {
+          Tuple tuple = tupleInputStream.readTuple();
+
+          block.add( tuple );
+          bytes += MemorySpillStrategy.estimateSize( tuple );
+          }
+
+        return new ReadAhead( tupleInputStream, size, block );
+        }
+      catch( Exception exception )
+        {
+        closeSilent( tupleInputStream );
+
+        throw exception;
+        }
+      }
+    } );
+    }
+
+  private static <V> V getResult( Future<V> future )
+    {
+    try
+      {
+      return future.get();
+      }
+    catch( InterruptedException exception )
+      {
+      throw new TupleException( "interrupted waiting on spill", exception );
+      }
+    catch( ExecutionException exception )
+      {
+      if( exception.getCause() instanceof TupleException )
+        throw (TupleException) exception.getCause();
+
+      throw new TupleException( "failed performing spill", exception.getCause() );
+      }
+    }
+
+  private void writeFile( File file, List<Object[]> list, CompactTupleBuffer compactBuffer )
+    {
+    TupleOutputStream dataOutputStream = createTupleOutputStream( file );
+
+    try
+      {
+      if( compactBuffer != null )
+        writeCompact( dataOutputStream, compactBuffer );
+      else
+        writeList( dataOutputStream, list );
+      }
+    finally
+      {
+      flushSilent( dataOutputStream );
+      closeSilent( dataOutputStream );
+      }
+    }
+
   private void flushSilent( Flushable flushable )
     {
     try
@@ -357,8 +702,49 @@ public abstract class SpillableTupleList implements Collection<Tuple>, Spillable
       }
     }
 
+  private void writeCompact( TupleOutputStream dataOutputStream, CompactTupleBuffer compactBuffer )
+    {
+    try
+      {
+      dataOutputStream.writeLong( compactBuffer.size() );
+
+      compactBuffer.writeTo( dataOutputStream ); // same encoding as writeElementArray
+      }
+    catch( IOException exception )
+      {
+      throw new TupleException( "unable to write tuple collection to file output stream", exception );
+      }
+    }
+
   protected abstract TupleOutputStream createTupleOutputStream( File file );
 
+  /**
+   * Method createTupleOutputStream returns a TupleOutputStream writing to the given stream, used to hold tuples
+   * in memory in compact form. Sub-classes returning null, the default, do not support compact buffering.
+   * <p/>
+   * The encoding must be identical to the one used by {@link #createTupleOutputStream(java.io.File)}.
+   *
+   * @param outputStream of type OutputStream
+   * @return a TupleOutputStream or null
+   */
+  protected TupleOutputStream createTupleOutputStream( OutputStream outputStream )
+    {
+    return null;
+    }
+
+  /**
+   * Method createTupleInputStream returns a TupleInputStream reading from the given stream, used to read tuples
+   * held in memory in compact form.
+   *
+   * @param inputStream of type InputStream
+   * @return a TupleInputStream or null
+   * @see #createTupleOutputStream(java.io.OutputStream)
+   */
+  protected TupleInputStream createTupleInputStream( InputStream inputStream )
+    {
+    return null;
+    }
+
   private Iterator<Tuple> createIterator( final TupleInputStream tupleInputStream )
     {
     final long size;
@@ -372,6 +758,15 @@ public abstract class SpillableTupleList implements Collection<Tuple>, Spillable
       throw new TupleException( "unable to read 'size' of collection from file input stream", exception );
       }
 
+    return createIterator( new ReadAhead( tupleInputStream, size, Collections.<Tuple>emptyList() ) );
+    }
+
+  private Iterator<Tuple> createIterator( ReadAhead readAhead )
+    {
+    final TupleInputStream tupleInputStream = readAhead.tupleInputStream;
+    final long size = readAhead.size;
+    final List<Tuple> block = readAhead.block;
+
     return new CloseableIterator<Tuple>()
     {
     Tuple tuple = new Tuple();
@@ -388,6 +783,9 @@ public abstract class SpillableTupleList implements Collection<Tuple>, Spillable
       {
       try
         {
+        if( count < block.size() )
+          return block.get( (int) count );
+
         return tupleInputStream.readTuple( tuple );
         }
       catch( IOException exception )
@@ -434,14 +832,29 @@ public abstract class SpillableTupleList implements Collection<Tuple>, Spillable
   @Override
   public void clear()
     {
+    awaitSpills( 0 );
+
+    for( File file : files )
+      {
+      if( !file.delete() )
+        LOG.warn( "unable to delete spill file: {}", file );
+      }
+
     files.clear();
     current.clear();
+
+    if( compact != null )
+      compact.clear();
+
+    releaseRetained();
     size = 0;
     }
 
   @Override
   public Iterator<Tuple> iterator()
     {
+    awaitSpills( 0 );
+
     if( files.isEmpty() )
       return asTupleIterator();
 
@@ -450,6 +863,9 @@ public abstract class SpillableTupleList implements Collection<Tuple>, Spillable
 
   private Iterator<Tuple> asTupleIterator()
     {
+    if( compact != null )
+      return compact.iterator();
+
     final Tuple tuple = TupleViews.createObjectArray();
     final Iterator<Object[]> iterator = current.iterator();
 
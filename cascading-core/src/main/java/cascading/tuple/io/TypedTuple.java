@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tuple.io;
+
+import cascading.tuple.Tuple;
+
+/**
+ * Class TypedTuple marks a grouping values Tuple that is serialized against a schema of declared field types known
+ * to both sides of the shuffle, instead of with a type token per element. Used internally for grouping.
+ */
+public class TypedTuple extends Tuple
+  {
+  /** Constructor TypedTuple creates a new TypedTuple instance. */
+  public TypedTuple()
+    {
+    }
+
+  /**
+   * Constructor TypedTuple creates a new TypedTuple instance sharing the elements of the given Tuple.
+   *
+   * @param tuple of type Tuple
+   */
+  public TypedTuple( Tuple tuple )
+    {
+    super( Tuple.elements( tuple ) ); // pass it in to prevent one being allocated
+    }
+  }
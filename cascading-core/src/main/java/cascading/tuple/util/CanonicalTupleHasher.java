@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tuple.util;
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Hasher;
+
+/**
+ * Class CanonicalTupleHasher is a {@link TupleHasher} hashing numbers by their value, so that, for example, an
+ * Integer and a Long of equal value have the same hash. As with TupleHasher, the {@link Hasher} of a key field
+ * comparator, or of the default comparator, is used instead where given.
+ * <p/>
+ * Use it where hashes of keys read by different pipes, possibly of different types, must agree, as with a
+ * {@link cascading.util.BloomFilter} of join keys.
+ */
+public class CanonicalTupleHasher extends TupleHasher
+  {
+  private static final Hasher CANONICAL = new CanonicalHasher();
+
+  public CanonicalTupleHasher( Comparator defaultComparator, Fields... keyFields )
+    {
+    Hasher defaultHasher = CANONICAL;
+
+    if( defaultComparator instanceof Hasher )
+      defaultHasher = (Hasher) defaultComparator;
+
+    initializeHashers( defaultHasher, merge( keyFields ) );
+    }
+
+  private static class CanonicalHasher implements Hasher<Object>, Serializable
+    {
+    @Override
+    public int hashCode( Object value )
+      {
+      if( value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte )
+        return hashLong( ( (Number) value ).longValue() );
+
+      if( value instanceof Double || value instanceof Float )
+        {
+        double number = ( (Number) value ).doubleValue();
+
+        if( number == (long) number )
+          return hashLong( (long) number );
+
+        long bits = Double.doubleToLongBits( number );
+
+        return (int) ( bits ^ bits >>> 32 );
+        }
+
+      return value.hashCode();
+      }
+
+    private static int hashLong( long value )
+      {
+      return (int) ( value ^ value >>> 32 );
+      }
+    }
+  }
@@ -99,6 +99,18 @@ public class TupleHasher implements Serializable
     if( defaultComparator instanceof Hasher )
       defaultHasher = (Hasher) defaultComparator;
 
+    initializeHashers( defaultHasher, comparators );
+    }
+
+  /**
+   * Method initializeHashers uses the Hasher of every given comparator implementing {@link Hasher}, and the given
+   * default Hasher for the other positions.
+   *
+   * @param defaultHasher of type Hasher
+   * @param comparators   of type Comparator[]
+   */
+  protected void initializeHashers( Hasher defaultHasher, Comparator[] comparators )
+    {
     hashers = new Hasher[ comparators.length ];
 
     for( int i = 0; i < comparators.length; i++ )
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Class BloomFilter is a simple Bloom filter over 32 bit hash codes, typically the {@link Object#hashCode()} of a
+ * {@link cascading.tuple.Tuple} key.
+ * <p/>
+ * A negative result from {@link #mightContain(int)} means the value was never added. A positive result may be
+ * a false positive, at roughly the probability the filter was sized for.
+ * <p/>
+ * Each probe position is derived from the given hash code by double hashing, so values with equal hash codes
+ * are not distinguished.
+ */
+public final class BloomFilter implements Serializable
+  {
+  private final long[] bits;
+  private final long numBits;
+  private final int numHashes;
+
+  /**
+   * Method create returns a new BloomFilter sized for the given number of values and false positive probability.
+   *
+   * @param expectedValues of type long
+   * @param falsePositiveRate of type double, between 0 and 1 exclusive
+   * @return BloomFilter
+   */
+  public static BloomFilter create( long expectedValues, double falsePositiveRate )
+    {
+    if( falsePositiveRate <= 0 || falsePositiveRate >= 1 )
+      throw new IllegalArgumentException( "false positive rate must be between 0 and 1, got: " + falsePositiveRate );
+
+    expectedValues = Math.max( expectedValues, 1 );
+
+    double ln2 = Math.log( 2 );
+    long numBits = (long) Math.ceil( -expectedValues * Math.log( falsePositiveRate ) / ( ln2 * ln2 ) );
+    int numHashes = (int) Math.max( 1, Math.round( (double) numBits / expectedValues * ln2 ) );
+
+    return new BloomFilter( Math.max( numBits, 64 ), numHashes );
+    }
+
+  /**
+   * Method readFrom reads a BloomFilter written by {@link #writeTo(java.io.DataOutput)}.
+   *
+   * @param input of type DataInput
+   * @return BloomFilter
+   * @throws IOException
+   */
+  public static BloomFilter readFrom( DataInput input ) throws IOException
+    {
+    long numBits = input.readLong();
+    int numHashes = input.readInt();
+
+    BloomFilter filter = new BloomFilter( numBits, numHashes );
+
+    for( int i = 0; i < filter.bits.length; i++ )
+      filter.bits[ i ] = input.readLong();
+
+    return filter;
+    }
+
+  public BloomFilter( long numBits, int numHashes )
+    {
+    if( numBits <= 0 || numHashes <= 0 )
+      throw new IllegalArgumentException( "number of bits and hashes must be positive" );
+
+    this.bits = new long[ (int) ( ( numBits + 63 ) / 64 ) ];
+    this.numBits = (long) bits.length * 64;
+    this.numHashes = numHashes;
+    }
+
+  public long getNumBits()
+    {
+    return numBits;
+    }
+
+  public int getNumHashes()
+    {
+    return numHashes;
+    }
+
+  public void add( int hash )
+    {
+    long hash1 = mix( hash );
+    long hash2 = mix( hash1 ) | 1; // odd, so all positions differ
+
+    for( int i = 0; i < numHashes; i++ )
+      {
+      long bit = ( ( hash1 + i * hash2 ) & Long.MAX_VALUE ) % numBits;
+
+      bits[ (int) ( bit >>> 6 ) ] |= 1L << bit;
+      }
+    }
+
+  public boolean mightContain( int hash )
+    {
+    long hash1 = mix( hash );
+    long hash2 = mix( hash1 ) | 1;
+
+    for( int i = 0; i < numHashes; i++ )
+      {
+      long bit = ( ( hash1 + i * hash2 ) & Long.MAX_VALUE ) % numBits;
+
+      if( ( bits[ (int) ( bit >>> 6 ) ] & ( 1L << bit ) ) == 0 )
+        return false;
+      }
+
+    return true;
+    }
+
+  /**
+   * Method merge adds all values of the given filter to this filter. Both must have been created with the same sizes.
+   *
+   * @param filter of type BloomFilter
+   */
+  public void merge( BloomFilter filter )
+    {
+    if( filter.numBits != numBits || filter.numHashes != numHashes )
+      throw new IllegalArgumentException( "cannot merge bloom filters of different sizes" );
+
+    for( int i = 0; i < bits.length; i++ )
+      bits[ i ] |= filter.bits[ i ];
+    }
+
+  public void writeTo( DataOutput output ) throws IOException
+    {
+    output.writeLong( numBits );
+    output.writeInt( numHashes );
+
+    for( long word : bits )
+      output.writeLong( word );
+    }
+
+  // the 64 bit finalizer of MurmurHash3
+  private static long mix( long value )
+    {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb93fe53bb9f3L;
+    value ^= value >>> 33;
+
+    return value;
+    }
+  }
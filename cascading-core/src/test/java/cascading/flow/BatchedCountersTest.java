@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import cascading.CascadingTestCase;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class BatchedCountersTest extends CascadingTestCase
+  {
+  static class MapCounters extends BatchedCounters
+    {
+    final Map<SliceCounters, Long> slice = new EnumMap<SliceCounters, Long>( SliceCounters.class );
+    final Map<StepCounters, Long> step = new EnumMap<StepCounters, Long>( StepCounters.class );
+    int flushed = 0;
+
+    MapCounters( int batchSize )
+      {
+      super( batchSize );
+      }
+
+    @Override
+    protected synchronized void flushIncrement( Enum counter, long amount )
+      {
+      flushed++;
+
+      if( counter instanceof SliceCounters )
+        slice.put( (SliceCounters) counter, get( slice, counter ) + amount );
+      else
+        step.put( (StepCounters) counter, get( step, counter ) + amount );
+      }
+
+    synchronized long get( Map<? extends Enum, Long> map, Enum counter )
+      {
+      Long value = map.get( counter );
+
+      return value == null ? 0 : value;
+      }
+    }
+
+  @Test
+  public void testDisabledByDefault()
+    {
+    assertEquals( 1, BatchedCounters.getCounterBatchSize( FlowProcess.NULL ) );
+    }
+
+  @Test
+  public void testBatching()
+    {
+    MapCounters counters = new MapCounters( 3 );
+
+    counters.increment( SliceCounters.Tuples_Read, 2 );
+    counters.increment( StepCounters.Tuples_Read, 1 );
+
+    assertEquals( 0, counters.flushed );
+
+    counters.increment( SliceCounters.Tuples_Read, 3 );
+
+    assertEquals( 5, counters.get( counters.slice, SliceCounters.Tuples_Read ) );
+    assertEquals( 1, counters.get( counters.step, StepCounters.Tuples_Read ) );
+    assertEquals( 2, counters.flushed );
+
+    counters.increment( SliceCounters.Tuples_Written, 7 );
+    counters.flush();
+    counters.flush();
+
+    assertEquals( 7, counters.get( counters.slice, SliceCounters.Tuples_Written ) );
+    assertEquals( 3, counters.flushed );
+    }
+
+  @Test
+  public void testThreads() throws InterruptedException
+    {
+    final MapCounters counters = new MapCounters( 100 );
+    Thread[] threads = new Thread[ 4 ];
+
+    for( int i = 0; i < threads.length; i++ )
+      {
+      threads[ i ] = new Thread()
+      {
+      @Override
+      public void run()
+        {
+        for( int j = 0; j < 1050; j++ )
+          counters.increment( StepCounters.Tuples_Written, 1 );
+        }
+      };
+
+      threads[ i ].start();
+      }
+
+    for( Thread thread : threads )
+      thread.join();
+
+    counters.flush();
+
+    assertEquals( 4 * 1050, counters.get( counters.step, StepCounters.Tuples_Written ) );
+    }
+  }
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cascading.scheme.util;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Random;
+
+import cascading.CascadingTestCase;
+import cascading.tuple.Fields;
+import org.junit.Test;
+
+/**
+ * Verifies ScanningDelimitedParser returns the same values, or fails the same way, as DelimitedParser.
+ */
+public class ScanningDelimitedParserTest extends CascadingTestCase
+  {
+  private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+  private static final String[] LINES = {
+    "", ",", ",,", "a", "a,", ",a", "a,b,c", "a,b,c,", "1,-2,3", "\"a,b\",c,d", "\"a\"\"b\",\"\",\"\"\"\"",
+    "\"a,b,c", "a\"b,c,d", "\"\",\"\",\"\"", "12345678901,-,+1", "été,ü,中", "\"a\nb\",c,d",
+    "\"a \",b,c", "a||b||c", "a|||b||c", "\"a||b\"||c||d", "'a,b',c,d"
+  };
+
+  private static final String ALPHABET = "ab1-,\"'| é\n";
+
+  public ScanningDelimitedParserTest()
+    {
+    }
+
+  @Test
+  public void testUntyped()
+    {
+    Fields fields = new Fields( "a", "b", "c" );
+
+    for( String delimiter : new String[]{",", "||", "|"} )
+      {
+      for( String quote : new String[]{null, "\"", "'"} )
+        {
+        for( boolean strict : new boolean[]{true, false} )
+          assertSame( delimiter, quote, null, strict, true, fields );
+        }
+      }
+    }
+
+  @Test
+  public void testTyped()
+    {
+    Class[] types = {Integer.class, long.class, String.class};
+    Fields fields = new Fields( "a", "b", "c" ).applyTypes( types );
+
+    for( String quote : new String[]{null, "\""} )
+      {
+      for( boolean strict : new boolean[]{true, false} )
+        {
+        for( boolean safe : new boolean[]{true, false} )
+          assertSame( ",", quote, types, strict, safe, fields );
+        }
+      }
+    }
+
+  @Test
+  public void testAll()
+    {
+    for( String quote : new String[]{null, "\""} )
+      assertSame( ",", quote, null, false, true, Fields.ALL );
+    }
+
+  @Test
+  public void testNotScannable()
+    {
+    assertSame( "}", null, null, false, true, Fields.ALL );
+    assertSame( ",", ".", null, false, true, Fields.ALL );
+    }
+
+  @Test
+  public void testNonAsciiQuote()
+    {
+    // the low byte of \u012C is a comma, and that of \u00A7 is also the second byte of \u00E7 in UTF-8
+    for( String quote : new String[]{"\u00A7", "\u012C"} )
+      {
+      DelimitedParser expected = new DelimitedParser( ",", quote, null, false, true, Fields.ALL, Fields.ALL );
+      ScanningDelimitedParser actual = new ScanningDelimitedParser( ",", quote, null, false, true, Fields.ALL, Fields.ALL );
+
+      for( String line : new String[]{"a,b,c", "\u00E7,b,c", "Qa,bQ,c", "\u00E7Q,Q,c"} )
+        assertSame( expected, actual, line.replace( "Q", quote ) );
+      }
+    }
+
+  @Test
+  public void testRequired()
+    {
+    Class[] types = {Integer.class, long.class, String.class};
+    Fields fields = new Fields( "a", "b", "c" ).applyTypes( types );
+
+    DelimitedParser parser = new DelimitedParser( ",", "\"", types, true, false, fields, fields );
+    ScanningDelimitedParser scanning = new ScanningDelimitedParser( ",", "\"", types, true, false, fields, fields );
+
+    assertNull( parser.createRequired( Fields.ALL ) );
+
+    boolean[] required = parser.createRequired( new Fields( 2 ) );
+
+    assertTrue( Arrays.equals( new boolean[]{false, false, true}, required ) );
+
+    String line = "x,\"y\",\"a,b\"";
+    Object[] expected = new Object[]{null, null, "a,b"};
+
+    assertTrue( Arrays.equals( expected, parser.parseLine( line, required ) ) );
+    assertTrue( Arrays.equals( expected, scanning.parseLine( line, required ) ) );
+    assertTrue( Arrays.equals( expected, parser.parseSplitLine( line, parser.splitLine( line ), required ) ) );
+
+    byte[] bytes = line.getBytes( UTF_8 );
+
+    assertTrue( Arrays.equals( expected, scanning.parseLine( bytes, 0, bytes.length, UTF_8, required ) ) );
+
+    int[] bounds = scanning.scanLine( bytes, 0, bytes.length, UTF_8 );
+
+    assertTrue( Arrays.equals( new int[]{0, 1, 2, 5, 6, 11}, bounds ) );
+    assertTrue( Arrays.equals( expected, scanning.parseLine( bytes, 0, bytes.length, UTF_8, bounds, required ) ) );
+
+    try
+      {
+      parser.parseLine( line );
+      fail( "did not coerce unread field" );
+      }
+    catch( Exception exception )
+      {
+      // ignore
+      }
+    }
+
+  private void assertSame( String delimiter, String quote, Class[] types, boolean strict, boolean safe, Fields fields )
+    {
+    DelimitedParser expected = new DelimitedParser( delimiter, quote, types, strict, safe, fields, fields );
+    ScanningDelimitedParser actual = new ScanningDelimitedParser( delimiter, quote, types, strict, safe, fields, fields );
+
+    for( String line : LINES )
+      assertSame( expected, actual, line.replace( ",", delimiter ) );
+
+    Random random = new Random( 1 );
+
+    for( int i = 0; i < 2000; i++ )
+      {
+      StringBuilder line = new StringBuilder();
+      int length = random.nextInt( 16 );
+
+      for( int j = 0; j < length; j++ )
+        line.append( ALPHABET.charAt( random.nextInt( ALPHABET.length() ) ) );
+
+      assertSame( expected, actual, line.toString() );
+      }
+    }
+
+  private void assertSame( DelimitedParser expected, ScanningDelimitedParser actual, String line )
+    {
+    String expectedResult = parse( expected, line );
+    String message = "line: [" + line + "] with: " + actual.getDelimiter() + " " + actual.getQuote();
+
+    assertEquals( message, expectedResult, parse( actual, line ) );
+
+    byte[] bytes = ( "xx" + line ).getBytes( UTF_8 );
+
+    assertEquals( message, expectedResult, parseBytes( actual, bytes ) );
+    }
+
+  private String parse( DelimitedParser parser, String line )
+    {
+    try
+      {
+      return Arrays.deepToString( parser.parseLine( line ) );
+      }
+    catch( Exception exception )
+      {
+      return exception.getClass().getName() + ": " + exception.getMessage();
+      }
+    }
+
+  private String parseBytes( ScanningDelimitedParser parser, byte[] bytes )
+    {
+    try
+      {
+      return Arrays.deepToString( parser.parseLine( bytes, 2, bytes.length - 2, UTF_8 ) );
+      }
+    catch( Exception exception )
+      {
+      return exception.getClass().getName() + ": " + exception.getMessage();
+      }
+    }
+  }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package cascading.scheme.util;
+
+import cascading.CascadingTestCase;
+import cascading.flow.FlowProcess;
+import cascading.operation.expression.ExpressionFilter;
+import cascading.operation.filter.FilterNull;
+import cascading.operation.filter.Limit;
+import cascading.operation.regex.RegexFilter;
+import cascading.tuple.Fields;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class SourceFiltersTest extends CascadingTestCase
+  {
+  public SourceFiltersTest()
+    {
+    }
+
+  @Test
+  public void testPushable()
+    {
+    assertTrue( SourceFilters.isPushable( new RegexFilter( "^f" ) ) );
+    assertTrue( SourceFilters.isPushable( new FilterNull() ) );
+    assertTrue( SourceFilters.isPushable( new ExpressionFilter( "a > 1", long.class ) ) );
+    assertFalse( SourceFilters.isPushable( new Limit( 1 ) ) );
+    }
+
+  @Test
+  public void testRemove()
+    {
+    SourceFilters filters = new SourceFilters();
+
+    filters.addFilter( new RegexFilter( "^f" ), new Fields( "b" ), new int[]{1} );
+    filters.addFilter( new ExpressionFilter( "c > 10", long.class ), new Fields( "c" ).applyTypes( long.class ), new int[]{2} );
+
+    assertNull( SourceFilters.deserialize( "" ) );
+
+    filters = SourceFilters.deserialize( filters.serialize() );
+
+    assertEquals( 2, filters.getFilters().size() );
+    assertEquals( new Fields( 1, 2 ), filters.getArgumentPositions() );
+
+    filters.prepare( FlowProcess.NULL );
+
+    assertFalse( filters.isRemove( FlowProcess.NULL, new Object[]{null, "foo", 1L} ) );
+    assertTrue( filters.isRemove( FlowProcess.NULL, new Object[]{null, "bar", 1L} ) );
+    assertTrue( filters.isRemove( FlowProcess.NULL, new Object[]{null, "foo", 11L} ) );
+
+    filters.cleanup( FlowProcess.NULL );
+    }
+  }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import cascading.CascadingTestCase;
+import cascading.tuple.Tuple;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class BloomFilterTest extends CascadingTestCase
+  {
+  public BloomFilterTest()
+    {
+    }
+
+  @Test
+  public void testBloomFilter() throws Exception
+    {
+    int numValues = 10000;
+    BloomFilter filter = BloomFilter.create( numValues, 0.01 );
+
+    for( int i = 0; i < numValues; i++ )
+      filter.add( new Tuple( i, "key" ).hashCode() );
+
+    for( int i = 0; i < numValues; i++ )
+      assertTrue( "missing value: " + i, filter.mightContain( new Tuple( i, "key" ).hashCode() ) );
+
+    int falsePositives = 0;
+
+    for( int i = numValues; i < numValues * 2; i++ )
+      {
+      if( filter.mightContain( new Tuple( i, "key" ).hashCode() ) )
+        falsePositives++;
+      }
+
+    assertTrue( "too many false positives: " + falsePositives, falsePositives < numValues * 0.02 );
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    filter.writeTo( new DataOutputStream( bytes ) );
+
+    BloomFilter read = BloomFilter.readFrom( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) );
+
+    assertEquals( filter.getNumBits(), read.getNumBits() );
+    assertEquals( filter.getNumHashes(), read.getNumHashes() );
+
+    for( int i = 0; i < numValues * 2; i++ )
+      assertEquals( filter.mightContain( i ), read.mightContain( i ) );
+    }
+
+  @Test
+  public void testMerge()
+    {
+    BloomFilter lhs = BloomFilter.create( 100, 0.01 );
+    BloomFilter rhs = BloomFilter.create( 100, 0.01 );
+
+    lhs.add( 1 );
+    rhs.add( 2 );
+
+    lhs.merge( rhs );
+
+    assertTrue( lhs.mightContain( 1 ) );
+    assertTrue( lhs.mightContain( 2 ) );
+    }
+  }
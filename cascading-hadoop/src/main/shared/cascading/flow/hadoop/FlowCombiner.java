@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.hadoop;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import cascading.flow.hadoop.util.PartialAggregate;
+import cascading.tuple.Tuple;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.MapReduceBase;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.Reducer;
+import org.apache.hadoop.mapred.Reporter;
+
+/**
+ * Class FlowCombiner is the Hadoop combiner implementation, it merges the partial aggregates of a
+ * {@link cascading.pipe.GroupBy} before they are shuffled. See {@link HadoopGroupByProps}.
+ */
+public class FlowCombiner extends MapReduceBase implements Reducer<Tuple, Tuple, Tuple, Tuple>
+  {
+  private List<PartialAggregate> partials;
+  private Tuple result;
+
+  /** Constructor FlowCombiner creates a new FlowCombiner instance. */
+  public FlowCombiner()
+    {
+    }
+
+  @Override
+  public void configure( JobConf jobConf )
+    {
+    super.configure( jobConf );
+
+    partials = HadoopGroupByProps.getCombinerPartials( jobConf );
+    result = Tuple.size( PartialAggregate.getWidth( partials ) ); // serialized on collect, so safe to reuse
+    }
+
+  public void reduce( Tuple key, Iterator<Tuple> values, OutputCollector<Tuple, Tuple> output, Reporter reporter ) throws IOException
+    {
+    for( PartialAggregate partial : partials )
+      partial.start();
+
+    while( values.hasNext() )
+      {
+      Tuple value = values.next();
+
+      for( PartialAggregate partial : partials )
+        partial.merge( value );
+      }
+
+    for( PartialAggregate partial : partials )
+      partial.write( result );
+
+    output.collect( key, result );
+    }
+  }
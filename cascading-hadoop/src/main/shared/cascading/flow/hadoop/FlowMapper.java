@@ -21,7 +21,21 @@
 package cascading.flow.hadoop;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import cascading.CascadingException;
 import cascading.flow.FlowException;
@@ -29,10 +43,16 @@ import cascading.flow.FlowSession;
 import cascading.flow.FlowStep;
 import cascading.flow.SliceCounters;
 import cascading.flow.hadoop.planner.HadoopFlowStepJob;
+import cascading.flow.hadoop.stream.HadoopGroupGate;
 import cascading.flow.hadoop.stream.HadoopMapStreamGraph;
+import cascading.flow.hadoop.stream.HadoopMemoryJoinGate;
+import cascading.flow.hadoop.util.BufferedReporter;
 import cascading.flow.hadoop.util.HadoopUtil;
+import cascading.flow.hadoop.util.SharedRecordReader;
 import cascading.flow.stream.Duct;
 import cascading.flow.stream.ElementDuct;
+import cascading.flow.stream.Gate;
+import cascading.flow.stream.MemoryHashJoinGate;
 import cascading.flow.stream.SourceStage;
 import cascading.tap.Tap;
 import org.apache.hadoop.mapred.JobConf;
@@ -54,7 +74,14 @@ public class FlowMapper implements MapRunnable
   private HadoopMapStreamGraph streamGraph;
   /** Field currentProcess */
   private HadoopFlowProcess currentProcess;
-
+  /** Field hasTraps */
+  private boolean hasTraps;
+  /** Field threadGraphs holds the additional copies of the stream graph, if run by several threads */
+  private List<HadoopMapStreamGraph> threadGraphs;
+  /** Field threadProcesses */
+  private List<HadoopFlowProcess> threadProcesses;
+  /** Field threadReporters */
+  private List<BufferedReporter> threadReporters;
 
   /** Constructor FlowMapper creates a new FlowMapper instance. */
   public FlowMapper()
@@ -72,6 +99,7 @@ public class FlowMapper implements MapRunnable
       LOG.info( "child jvm opts: {}", jobConf.get( "mapred.child.java.opts", "" ) );
 
       currentProcess = new HadoopFlowProcess( new FlowSession(), jobConf, true );
+      currentProcess.enableCounterBatching();
 
       String stepState = jobConf.getRaw( "cascading.flow.step" );
 
@@ -91,6 +119,13 @@ public class FlowMapper implements MapRunnable
 
       for( Tap trap : step.getMapperTraps().values() )
         LOG.info( "trapping to: " + trap );
+
+      hasTraps = !step.getMapperTraps().isEmpty();
+
+      int threads = HadoopMapperProps.getMapperThreads( jobConf );
+
+      if( threads > 1 )
+        initThreadGraphs( jobConf, stepState, step, threads );
       }
     catch( Throwable throwable )
       {
@@ -103,31 +138,69 @@ public class FlowMapper implements MapRunnable
       }
     }
 
+  private void initThreadGraphs( JobConf jobConf, String stepState, HadoopFlowStep step, int threads ) throws IOException
+    {
+    if( streamGraph.getHeads().size() != 1 || !step.getMapperTraps().isEmpty() )
+      {
+      LOG.warn( "ignoring {} mapper threads, map side has accumulated sources or traps", threads );
+      return;
+      }
+
+    // each copy opens its own sink taps, only the group gates share the synchronized output collector
+    for( Duct tail : streamGraph.getTails() )
+      {
+      if( !( tail instanceof HadoopGroupGate ) )
+        {
+        LOG.warn( "ignoring {} mapper threads, map side writes to a sink", threads );
+        return;
+        }
+      }
+
+    LOG.info( "running map side with threads: {}", threads );
+
+    threadGraphs = new ArrayList<HadoopMapStreamGraph>( threads - 1 );
+    threadProcesses = new ArrayList<HadoopFlowProcess>( threads - 1 );
+
+    for( int i = 1; i < threads; i++ )
+      {
+      JobConf threadConf = HadoopUtil.copyJobConf( jobConf );
+      HadoopFlowStep threadStep = deserializeBase64( stepState, threadConf, HadoopFlowStep.class );
+      Tap threadSource = threadStep.getTapForID( threadStep.getSources(), threadConf.get( "cascading.step.source" ) );
+      HadoopFlowProcess threadProcess = new HadoopFlowProcess( new FlowSession(), threadConf, true );
+
+      threadProcesses.add( threadProcess );
+      threadGraphs.add( new HadoopMapStreamGraph( threadProcess, threadStep, threadSource ) );
+      }
+    }
+
   @Override
   public void run( RecordReader input, OutputCollector output, Reporter reporter ) throws IOException
     {
     currentProcess.setReporter( reporter );
     currentProcess.increment( SliceCounters.Process_Begin_Time, System.currentTimeMillis() );
+
+    if( threadGraphs != null )
+      output = new SynchronizedOutputCollector( output );
+
     currentProcess.setOutputCollector( output );
 
     streamGraph.prepare();
 
+    if( threadGraphs != null )
+      prepareThreadGraphs( output, reporter );
+
     SourceStage streamedHead = streamGraph.getStreamedHead();
-    Iterator<Duct> iterator = streamGraph.getHeads().iterator();
 
     try
       {
       try
         {
-        while( iterator.hasNext() )
-          {
-          Duct next = iterator.next();
-
-          if( next != streamedHead )
-            ( (SourceStage) next ).run( null );
-          }
+        runAccumulatedHeads( streamedHead );
 
-        streamedHead.run( input );
+        if( threadGraphs == null )
+          streamedHead.run( input );
+        else
+          runThreaded( input );
         }
       catch( OutOfMemoryError error )
         {
@@ -153,14 +226,365 @@ public class FlowMapper implements MapRunnable
       try
         {
         streamGraph.cleanup();
+
+        if( threadGraphs != null )
+          cleanupThreadGraphs();
         }
       finally
         {
         currentProcess.increment( SliceCounters.Process_End_Time, System.currentTimeMillis() );
+        currentProcess.flushCounters();
         }
       }
     }
 
+  private void prepareThreadGraphs( OutputCollector output, Reporter reporter )
+    {
+    threadReporters = new ArrayList<BufferedReporter>( threadGraphs.size() );
+
+    for( int i = 0; i < threadGraphs.size(); i++ )
+      {
+      HadoopFlowProcess threadProcess = threadProcesses.get( i );
+      BufferedReporter threadReporter = new BufferedReporter( reporter );
+
+      threadReporters.add( threadReporter );
+      threadProcess.setReporter( threadReporter );
+      threadProcess.setOutputCollector( output );
+
+      threadGraphs.get( i ).prepare();
+      }
+    }
+
+  private void cleanupThreadGraphs()
+    {
+    try
+      {
+      for( HadoopMapStreamGraph threadGraph : threadGraphs )
+        threadGraph.cleanup();
+      }
+    finally
+      {
+      for( BufferedReporter threadReporter : threadReporters )
+        threadReporter.flush();
+      }
+    }
+
+  /**
+   * Runs every copy of the stream graph on its own thread, all reading from the input in turn. If a thread fails, the
+   * others stop reading, and the first failure is rethrown once they are all done.
+   */
+  private void runThreaded( RecordReader input ) throws Throwable
+    {
+    List<SourceStage> heads = new ArrayList<SourceStage>();
+
+    heads.add( streamGraph.getStreamedHead() );
+
+    for( HadoopMapStreamGraph threadGraph : threadGraphs )
+      heads.add( threadGraph.getStreamedHead() );
+
+    SharedRecordReader sharedInput = new SharedRecordReader( input );
+    ExecutorService executor = Executors.newFixedThreadPool( heads.size() );
+    CompletionService<Void> completion = new ExecutorCompletionService<Void>( executor );
+    Throwable failure = null;
+
+    try
+      {
+      for( SourceStage head : heads )
+        completion.submit( new HeadRunner( Collections.singletonList( head ), sharedInput ) );
+
+      for( int i = 0; i < heads.size(); i++ )
+        {
+        try
+          {
+          completion.take().get();
+          }
+        catch( ExecutionException exception )
+          {
+          sharedInput.stop();
+
+          if( failure == null )
+            failure = exception.getCause();
+          }
+        }
+      }
+    finally
+      {
+      executor.shutdownNow();
+      }
+
+    if( failure != null )
+      throw failure;
+    }
+
+  /**
+   * Runs the accumulated heads, the HashJoin tributaries, before the streamed head is run. Heads only meeting on the
+   * accumulated sides of the joins are run concurrently.
+   */
+  private void runAccumulatedHeads( SourceStage streamedHead ) throws Throwable
+    {
+    List<SourceStage> heads = new ArrayList<SourceStage>();
+
+    for( Duct head : streamGraph.getHeads() )
+      {
+      if( head != streamedHead )
+        heads.add( (SourceStage) head );
+      }
+
+    Map<SourceStage, Duct> joinPrevious = new IdentityHashMap<SourceStage, Duct>();
+    Map<SourceStage, String> sourceKeys = new IdentityHashMap<SourceStage, String>();
+
+    if( HadoopMapperProps.isAccumulatedCache( currentProcess.getJobConf() ) )
+      acquireCachedTables( heads, joinPrevious, sourceKeys );
+
+    readAccumulatedHeads( heads );
+
+    for( SourceStage head : heads )
+      {
+      if( joinPrevious.containsKey( head ) )
+        ( (HadoopMemoryJoinGate) streamGraph.findAllNextFor( joinPrevious.get( head ) )[ 0 ] ).cacheTable( joinPrevious.get( head ), sourceKeys.get( head ) );
+      }
+    }
+
+  /**
+   * Installs the join tables previous tasks of this JVM cached for the given heads, removing the heads found. The
+   * other heads flowing straight into a join are recorded so their tables can be cached once read.
+   */
+  private void acquireCachedTables( List<SourceStage> heads, Map<SourceStage, Duct> joinPrevious, Map<SourceStage, String> sourceKeys )
+    {
+    Iterator<SourceStage> iterator = heads.iterator();
+
+    while( iterator.hasNext() )
+      {
+      SourceStage head = iterator.next();
+      Duct previous = findJoinPrevious( head );
+      String sourceKey = previous == null ? null : getSourceKey( (Tap) head.getFlowElement() );
+
+      if( sourceKey == null )
+        continue;
+
+      HadoopMemoryJoinGate gate = (HadoopMemoryJoinGate) streamGraph.findAllNextFor( previous )[ 0 ];
+
+      if( gate.acquireCachedTable( previous, sourceKey ) )
+        {
+        gate.complete( previous ); // as if the head had been read
+        iterator.remove();
+        continue;
+        }
+
+      joinPrevious.put( head, previous );
+      sourceKeys.put( head, sourceKey );
+      }
+    }
+
+  /** Returns the Duct before the join the given head flows straight into, without branches or merges, or null. */
+  private Duct findJoinPrevious( SourceStage head )
+    {
+    Duct current = head;
+
+    while( true )
+      {
+      Duct[] allNext = streamGraph.findAllNextFor( current );
+
+      if( allNext.length != 1 )
+        return null;
+
+      if( allNext[ 0 ] instanceof HadoopMemoryJoinGate )
+        return ( (HadoopMemoryJoinGate) allNext[ 0 ] ).isAccumulatedFrom( current ) ? current : null;
+
+      if( allNext[ 0 ] instanceof Gate || streamGraph.findAllPreviousFor( allNext[ 0 ] ).length != 1 )
+        return null;
+
+      current = allNext[ 0 ];
+      }
+    }
+
+  private String getSourceKey( Tap source )
+    {
+    try
+      {
+      return source.getIdentifier() + "@" + source.getModifiedTime( currentProcess.getJobConf() );
+      }
+    catch( IOException exception )
+      {
+      LOG.warn( "unable to get modified time of: {}, not caching its join table", source, exception );
+      return null;
+      }
+    }
+
+  private void readAccumulatedHeads( List<SourceStage> heads ) throws Throwable
+    {
+    List<List<SourceStage>> groups = groupAccumulatedHeads( heads );
+    int threads = Math.min( HadoopMapperProps.getAccumulatedThreads( currentProcess.getJobConf() ), groups.size() );
+
+    if( threads <= 1 )
+      {
+      for( SourceStage head : heads )
+        head.run( null );
+
+      return;
+      }
+
+    LOG.info( "reading {} accumulated sources with threads: {}", heads.size(), threads );
+
+    ExecutorService executor = Executors.newFixedThreadPool( threads );
+
+    try
+      {
+      List<Future<Void>> futures = new ArrayList<Future<Void>>();
+
+      for( List<SourceStage> group : groups )
+        futures.add( executor.submit( new HeadRunner( group, null ) ) );
+
+      await( futures );
+      }
+    finally
+      {
+      executor.shutdownNow();
+      }
+    }
+
+  /**
+   * Groups the given heads reaching a common element before the accumulated side of a join, they must be run in turn.
+   * Returns a single group if the heads cannot be run concurrently at all.
+   */
+  private List<List<SourceStage>> groupAccumulatedHeads( List<SourceStage> heads )
+    {
+    if( heads.size() < 2 || hasTraps ) // trap collectors are shared
+      return Collections.singletonList( heads );
+
+    int[] parents = new int[ heads.size() ];
+    Map<Duct, Integer> owners = new IdentityHashMap<Duct, Integer>();
+
+    for( int i = 0; i < heads.size(); i++ )
+      {
+      parents[ i ] = i;
+
+      LinkedList<Duct> pending = new LinkedList<Duct>();
+
+      pending.add( heads.get( i ) );
+
+      while( !pending.isEmpty() )
+        {
+        Duct current = pending.removeFirst();
+
+        for( Duct next : streamGraph.findAllNextFor( current ) )
+          {
+          if( next instanceof MemoryHashJoinGate )
+            {
+            if( !( (MemoryHashJoinGate) next ).isAccumulatedFrom( current ) ) // streams into a join of other heads
+              return Collections.singletonList( heads );
+
+            continue;
+            }
+
+          Integer owner = owners.get( next );
+
+          if( owner == null )
+            {
+            owners.put( next, i );
+            pending.add( next );
+            }
+          else if( findRoot( parents, owner ) != findRoot( parents, i ) )
+            {
+            parents[ findRoot( parents, owner ) ] = findRoot( parents, i );
+            }
+          }
+        }
+      }
+
+    Map<Integer, List<SourceStage>> groups = new LinkedHashMap<Integer, List<SourceStage>>();
+
+    for( int i = 0; i < heads.size(); i++ )
+      {
+      int root = findRoot( parents, i );
+
+      if( !groups.containsKey( root ) )
+        groups.put( root, new ArrayList<SourceStage>() );
+
+      groups.get( root ).add( heads.get( i ) );
+      }
+
+    return new ArrayList<List<SourceStage>>( groups.values() );
+    }
+
+  private static int findRoot( int[] parents, int index )
+    {
+    while( parents[ index ] != index )
+      index = parents[ index ];
+
+    return index;
+    }
+
+  /** Waits for all the futures, rethrowing the first failure. */
+  private static void await( List<Future<Void>> futures ) throws Throwable
+    {
+    for( Future<Void> future : futures )
+      {
+      try
+        {
+        future.get();
+        }
+      catch( ExecutionException exception )
+        {
+        throw exception.getCause();
+        }
+      }
+    }
+
+  /** Class HeadRunner runs the given heads in turn, on a thread of its own. */
+  private static class HeadRunner implements Callable<Void>
+    {
+    private final List<SourceStage> heads;
+    private final Object input;
+
+    HeadRunner( List<SourceStage> heads, Object input )
+      {
+      this.heads = heads;
+      this.input = input;
+      }
+
+    @Override
+    public Void call() throws Exception
+      {
+      try
+        {
+        for( SourceStage head : heads )
+          head.run( input );
+        }
+      catch( Exception exception )
+        {
+        throw exception;
+        }
+      catch( Error error )
+        {
+        throw error;
+        }
+      catch( Throwable throwable )
+        {
+        throw new FlowException( "internal error during mapper execution", throwable );
+        }
+
+      return null;
+      }
+    }
+
+  /** Class SynchronizedOutputCollector serializes the writes of the mapper threads to the task output. */
+  private static class SynchronizedOutputCollector implements OutputCollector
+    {
+    private final OutputCollector output;
+
+    SynchronizedOutputCollector( OutputCollector output )
+      {
+      this.output = output;
+      }
+
+    @Override
+    public synchronized void collect( Object key, Object value ) throws IOException
+      {
+      output.collect( key, value );
+      }
+    }
+
   /**
    * Report the error to HadoopFlowStepJob if we are running in Hadoops local mode.
    * @param throwable The throwable that was thrown.
@@ -79,6 +79,7 @@ public class FlowReducer extends MapReduceBase implements Reducer
       LOG.info( "child jvm opts: {}", jobConf.get( "mapred.child.java.opts", "" ) );
 
       currentProcess = new HadoopFlowProcess( new FlowSession(), jobConf, false );
+      currentProcess.enableCounterBatching();
 
       timedIterator = new TimedIterator( currentProcess, SliceCounters.Read_Duration, SliceCounters.Tuples_Read );
 
@@ -168,7 +169,10 @@ public class FlowReducer extends MapReduceBase implements Reducer
     finally
       {
       if( currentProcess != null )
+        {
         currentProcess.increment( SliceCounters.Process_End_Time, System.currentTimeMillis() );
+        currentProcess.flushCounters();
+        }
       }
     }
 
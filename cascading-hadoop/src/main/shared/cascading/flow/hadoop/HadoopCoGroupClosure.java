@@ -51,7 +51,7 @@ public class HadoopCoGroupClosure extends HadoopGroupByClosure
 
   public enum Spill
     {
-      Num_Spills_Written, Num_Spills_Read, Num_Tuples_Spilled, Duration_Millis_Written
+      Num_Spills_Written, Num_Spills_Read, Num_Tuples_Spilled, Duration_Millis_Written, Estimated_Bytes_Spilled
     }
 
   private class SpillListener implements Spillable.SpillListener
@@ -87,6 +87,9 @@ public class HadoopCoGroupClosure extends HadoopGroupByClosure
 
       flowProcess.increment( Spill.Num_Spills_Written, 1 );
       flowProcess.increment( Spill.Num_Tuples_Spilled, spillSize );
+
+      if( spillable instanceof SpillableTupleList ) // only non-zero if spilling by memory
+        flowProcess.increment( Spill.Estimated_Bytes_Spilled, ( (SpillableTupleList) spillable ).getRetainedSize() );
       }
 
     @Override
@@ -193,6 +196,13 @@ public class HadoopCoGroupClosure extends HadoopGroupByClosure
       }
     }
 
+  /** Method clear releases the values held for the current grouping, including any spilled to disk. */
+  public void clear()
+    {
+    for( Collection<Tuple> collection : collections )
+      collection.clear();
+    }
+
   private void clearGroups()
     {
     for( Collection<Tuple> collection : collections )
@@ -269,25 +279,30 @@ public class HadoopCoGroupClosure extends HadoopGroupByClosure
     return new Iterator<Tuple>()
     {
     IndexTuple value = current;
+    Tuple spare = null;
 
     @Override
     public boolean hasNext()
       {
+      if( value == null && values.hasNext() ) // advance lazily, the deserializer may reuse the last value
+        value = values.next();
+
       return value != null;
       }
 
     @Override
     public Tuple next()
       {
-      if( value == null && !values.hasNext() )
+      if( !hasNext() )
         throw new NoSuchElementException();
 
       Tuple result = value.getTuple();
 
-      if( values.hasNext() )
-        value = values.next();
-      else
-        value = null;
+      // joiners look ahead while holding the last result, so a reusing deserializer
+      // refills the result before it, see TupleSerializationProps#setReuseValues
+      value.setTuple( spare );
+      spare = result;
+      value = null;
 
       return result;
       }
@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.hadoop;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+import cascading.flow.FlowException;
+import cascading.flow.FlowProcess;
+import cascading.flow.hadoop.util.HadoopUtil;
+import cascading.property.Props;
+import cascading.tuple.Tuple;
+
+/**
+ * Class HadoopCoGroupProps is a fluent helper class for setting Hadoop specific {@link cascading.pipe.CoGroup}
+ * properties. Set them on {@link cascading.pipe.CoGroup#getStepConfigDef()} via
+ * {@link #setProperties(cascading.property.ConfigDef)}.
+ * <p/>
+ * If a Bloom filter path is given, the file is shipped to all map tasks via the distributed cache, and tuples from
+ * the named pipes whose grouping key is not in the filter are dropped before the shuffle. The filter is typically
+ * written ahead of time from the smaller side of the join, see
+ * {@link cascading.flow.hadoop.util.HadoopUtil#createBloomFilter(org.apache.hadoop.mapred.JobConf, cascading.tap.Tap, cascading.tuple.Fields, long, double)}.
+ * <p/>
+ * Only pipes on the inner side of the join may be filtered, for example either side of an
+ * {@link cascading.pipe.joiner.InnerJoin}, or the right side of a {@link cascading.pipe.joiner.LeftJoin}. Keys are
+ * hashed by a {@link cascading.tuple.util.CanonicalTupleHasher}, honoring the grouping {@link cascading.tuple.Hasher}
+ * comparators, and hashing numbers of equal value alike whatever their type.
+ * <p/>
+ * If a skewed pipe is given, the tuples of that pipe having a hot key are spread round robin over several reducers,
+ * and the tuples of every other pipe having that key are replicated to each of those reducers, so no single reducer
+ * receives all of a hot key. Hot keys are either given, or sampled from the source of the skewed pipe just before
+ * the job is submitted, any key seen more often than the threshold fraction of all samples is hot.
+ * <p/>
+ * Skew handling requires every pipe but the skewed one to be joined as an inner side, for example any
+ * {@link cascading.pipe.joiner.InnerJoin}, or a {@link cascading.pipe.joiner.LeftJoin} with the left pipe skewed.
+ * Other joiners, self joins, and custom grouping hashers are not supported.
+ */
+public class HadoopCoGroupProps extends Props
+  {
+  /** The path of a serialized {@link cascading.util.BloomFilter} of join keys. */
+  public static final String BLOOM_FILTER_PATH = "cascading.cogroup.bloomfilter.path";
+
+  /**
+   * Comma separated names of the incoming pipes to filter. If not set, all pipes of an
+   * {@link cascading.pipe.joiner.InnerJoin} are filtered.
+   */
+  public static final String BLOOM_FILTER_PIPES = "cascading.cogroup.bloomfilter.pipes";
+
+  /** The name of the incoming pipe whose hot keys are spread across reducers. */
+  public static final String SKEW_PIPE = "cascading.cogroup.skew.pipe";
+
+  /** The serialized hot keys, see {@link #setSkewKeys(cascading.tuple.Tuple...)}. */
+  public static final String SKEW_KEYS = "cascading.cogroup.skew.keys";
+
+  /** Whether the hot keys are sampled from the source of the skewed pipe, false by default. */
+  public static final String SKEW_SAMPLE = "cascading.cogroup.skew.sample";
+
+  /** The fraction of samples above which a key is hot, 0.05 by default. */
+  public static final String SKEW_THRESHOLD = "cascading.cogroup.skew.threshold";
+
+  /** The number of reducers each hot key is spread over, by default all reducers. */
+  public static final String SKEW_FANOUT = "cascading.cogroup.skew.fanout";
+
+  public static final float DEFAULT_SKEW_THRESHOLD = 0.05f;
+
+  String bloomFilterPath;
+  String bloomFilterPipes;
+  String skewPipe;
+  List<Tuple> skewKeys;
+  Boolean skewSample;
+  Float skewThreshold;
+  Integer skewFanout;
+
+  public static String getBloomFilterPath( FlowProcess flowProcess )
+    {
+    String value = (String) flowProcess.getProperty( BLOOM_FILTER_PATH );
+
+    if( value == null || value.length() == 0 )
+      return null;
+
+    return value;
+    }
+
+  public static String[] getBloomFilterPipes( FlowProcess flowProcess )
+    {
+    String value = (String) flowProcess.getProperty( BLOOM_FILTER_PIPES );
+
+    if( value == null || value.length() == 0 )
+      return null;
+
+    return value.split( "," );
+    }
+
+  public static String getSkewPipe( FlowProcess flowProcess )
+    {
+    String value = (String) flowProcess.getProperty( SKEW_PIPE );
+
+    if( value == null || value.length() == 0 )
+      return null;
+
+    return value;
+    }
+
+  public static List<Tuple> getSkewKeys( FlowProcess flowProcess )
+    {
+    return decodeKeys( (String) flowProcess.getProperty( SKEW_KEYS ) );
+    }
+
+  public static int getSkewFanout( FlowProcess flowProcess, int numReducers )
+    {
+    String value = (String) flowProcess.getProperty( SKEW_FANOUT );
+
+    if( value == null || value.length() == 0 )
+      return numReducers;
+
+    return Math.min( Integer.parseInt( value ), numReducers );
+    }
+
+  /**
+   * Method encodeKeys returns the given keys as a String property value.
+   *
+   * @param keys of type Collection<Tuple>
+   * @return String
+   */
+  public static String encodeKeys( Collection<Tuple> keys )
+    {
+    try
+      {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream outputStream = new ObjectOutputStream( bytes );
+
+      outputStream.writeObject( new ArrayList<Tuple>( keys ) );
+      outputStream.close();
+
+      return HadoopUtil.encodeBytes( bytes.toByteArray() );
+      }
+    catch( IOException exception )
+      {
+      throw new FlowException( "unable to serialize skew keys, keys must be serializable", exception );
+      }
+    }
+
+  /**
+   * Method decodeKeys returns the keys of the given String property value, or an empty List.
+   *
+   * @param value of type String
+   * @return List<Tuple>
+   */
+  public static List<Tuple> decodeKeys( String value )
+    {
+    if( value == null || value.length() == 0 )
+      return new ArrayList<Tuple>();
+
+    try
+      {
+      ObjectInputStream inputStream = new ObjectInputStream( new ByteArrayInputStream( HadoopUtil.decodeBytes( value ) ) );
+
+      try
+        {
+        return (List<Tuple>) inputStream.readObject();
+        }
+      finally
+        {
+        inputStream.close();
+        }
+      }
+    catch( Exception exception )
+      {
+      throw new FlowException( "unable to deserialize skew keys", exception );
+      }
+    }
+
+  /**
+   * Creates a new HadoopCoGroupProps instance.
+   *
+   * @return HadoopCoGroupProps instance
+   */
+  public static HadoopCoGroupProps hadoopCoGroupProps()
+    {
+    return new HadoopCoGroupProps();
+    }
+
+  public HadoopCoGroupProps()
+    {
+    }
+
+  public String getBloomFilterPath()
+    {
+    return bloomFilterPath;
+    }
+
+  /**
+   * Method setBloomFilterPath sets the path of a serialized Bloom filter of join keys to pre-filter tuples with.
+   *
+   * @param bloomFilterPath of type String
+   * @return this
+   */
+  public HadoopCoGroupProps setBloomFilterPath( String bloomFilterPath )
+    {
+    this.bloomFilterPath = bloomFilterPath;
+
+    return this;
+    }
+
+  public String getBloomFilterPipes()
+    {
+    return bloomFilterPipes;
+    }
+
+  /**
+   * Method setBloomFilterPipes sets the names of the incoming pipes to filter.
+   *
+   * @param bloomFilterPipes of type String...
+   * @return this
+   */
+  public HadoopCoGroupProps setBloomFilterPipes( String... bloomFilterPipes )
+    {
+    StringBuilder builder = new StringBuilder();
+
+    for( String pipe : bloomFilterPipes )
+      {
+      if( builder.length() != 0 )
+        builder.append( "," );
+
+      builder.append( pipe );
+      }
+
+    this.bloomFilterPipes = builder.toString();
+
+    return this;
+    }
+
+  public String getSkewPipe()
+    {
+    return skewPipe;
+    }
+
+  /**
+   * Method setSkewPipe sets the name of the incoming pipe whose hot keys are spread across reducers.
+   *
+   * @param skewPipe of type String
+   * @return this
+   */
+  public HadoopCoGroupProps setSkewPipe( String skewPipe )
+    {
+    this.skewPipe = skewPipe;
+
+    return this;
+    }
+
+  public List<Tuple> getSkewKeys()
+    {
+    return skewKeys;
+    }
+
+  /**
+   * Method setSkewKeys sets the known hot keys of the skewed pipe.
+   *
+   * @param skewKeys of type Tuple...
+   * @return this
+   */
+  public HadoopCoGroupProps setSkewKeys( Tuple... skewKeys )
+    {
+    this.skewKeys = Arrays.asList( skewKeys );
+
+    return this;
+    }
+
+  public Boolean getSkewSample()
+    {
+    return skewSample;
+    }
+
+  /**
+   * Method setSkewSample sets whether hot keys are sampled from the source of the skewed pipe.
+   *
+   * @param skewSample of type boolean
+   * @return this
+   */
+  public HadoopCoGroupProps setSkewSample( boolean skewSample )
+    {
+    this.skewSample = skewSample;
+
+    return this;
+    }
+
+  public Float getSkewThreshold()
+    {
+    return skewThreshold;
+    }
+
+  /**
+   * Method setSkewThreshold sets the fraction of samples above which a key is hot.
+   *
+   * @param skewThreshold of type float
+   * @return this
+   */
+  public HadoopCoGroupProps setSkewThreshold( float skewThreshold )
+    {
+    this.skewThreshold = skewThreshold;
+
+    return this;
+    }
+
+  public Integer getSkewFanout()
+    {
+    return skewFanout;
+    }
+
+  /**
+   * Method setSkewFanout sets the number of reducers each hot key is spread over.
+   *
+   * @param skewFanout of type int
+   * @return this
+   */
+  public HadoopCoGroupProps setSkewFanout( int skewFanout )
+    {
+    this.skewFanout = skewFanout;
+
+    return this;
+    }
+
+  @Override
+  protected void addPropertiesTo( Properties properties )
+    {
+    if( bloomFilterPath != null )
+      properties.setProperty( BLOOM_FILTER_PATH, bloomFilterPath );
+
+    if( bloomFilterPipes != null )
+      properties.setProperty( BLOOM_FILTER_PIPES, bloomFilterPipes );
+
+    if( skewPipe != null )
+      properties.setProperty( SKEW_PIPE, skewPipe );
+
+    if( skewKeys != null )
+      properties.setProperty( SKEW_KEYS, encodeKeys( skewKeys ) );
+
+    if( skewSample != null )
+      properties.setProperty( SKEW_SAMPLE, skewSample.toString() );
+
+    if( skewThreshold != null )
+      properties.setProperty( SKEW_THRESHOLD, skewThreshold.toString() );
+
+    if( skewFanout != null )
+      properties.setProperty( SKEW_FANOUT, skewFanout.toString() );
+    }
+  }
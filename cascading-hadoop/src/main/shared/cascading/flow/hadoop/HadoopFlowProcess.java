@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.Set;
 
 import cascading.CascadingException;
+import cascading.flow.BatchedCounters;
 import cascading.flow.FlowProcess;
 import cascading.flow.FlowSession;
 import cascading.flow.hadoop.util.HadoopUtil;
@@ -62,6 +63,8 @@ public class HadoopFlowProcess extends FlowProcess<JobConf>
   Reporter reporter = Reporter.NULL;
   /** Field outputCollector */
   private OutputCollector outputCollector;
+  /** Field counters, batches the counter increments if enabled */
+  private BatchedCounters counters;
 
   public HadoopFlowProcess()
     {
@@ -101,6 +104,7 @@ public class HadoopFlowProcess extends FlowProcess<JobConf>
     this.jobConf = jobConf;
     this.isMapper = flowProcess.isMapper();
     this.reporter = flowProcess.getReporter();
+    this.counters = flowProcess.counters;
     }
 
   @Override
@@ -239,10 +243,42 @@ public class HadoopFlowProcess extends FlowProcess<JobConf>
     getReporter().progress();
     }
 
+  /**
+   * Method enableCounterBatching makes this instance, and the instances later copied from it, batch their counter
+   * increments per thread if {@link BatchedCounters#COUNTER_BATCH_SIZE} is set above 1. The batches are added to the Reporter of this instance when
+   * full, and by {@link #flushCounters()}, which must be called once the task is done.
+   */
+  public void enableCounterBatching()
+    {
+    int batchSize = BatchedCounters.getCounterBatchSize( this );
+
+    if( batchSize <= 1 )
+      return;
+
+    counters = new BatchedCounters( batchSize )
+    {
+    @Override
+    protected void flushIncrement( Enum counter, long amount )
+      {
+      getReporter().incrCounter( counter, amount );
+      }
+    };
+    }
+
+  /** Method flushCounters adds all the batched counter increments to the Reporter, if batching is enabled. */
+  public void flushCounters()
+    {
+    if( counters != null )
+      counters.flush();
+    }
+
   @Override
   public void increment( Enum counter, long amount )
     {
-    getReporter().incrCounter( counter, amount );
+    if( counters != null )
+      counters.increment( counter, amount );
+    else
+      getReporter().incrCounter( counter, amount );
     }
 
   @Override
@@ -21,30 +21,40 @@
 package cascading.flow.hadoop;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import cascading.CascadingException;
+import cascading.flow.FlowElement;
 import cascading.flow.FlowException;
 import cascading.flow.FlowProcess;
 import cascading.flow.hadoop.planner.HadoopFlowStepJob;
 import cascading.flow.hadoop.util.HadoopUtil;
+import cascading.flow.hadoop.util.PartialAggregate;
 import cascading.flow.planner.BaseFlowStep;
 import cascading.flow.planner.FlowStepJob;
 import cascading.flow.planner.PlatformInfo;
 import cascading.flow.planner.Scope;
+import cascading.pipe.GroupBy;
+import cascading.pipe.Pipe;
 import cascading.property.ConfigDef;
+import cascading.scheme.Scheme;
 import cascading.tap.Tap;
 import cascading.tap.hadoop.io.MultiInputFormat;
 import cascading.tap.hadoop.util.Hadoop18TapUtil;
 import cascading.tap.hadoop.util.TempHfs;
 import cascading.tuple.Fields;
 import cascading.tuple.Tuple;
+import cascading.tuple.coerce.Coercions;
 import cascading.tuple.hadoop.TupleSerialization;
+import cascading.tuple.hadoop.TupleSerializationProps;
+import cascading.tuple.hadoop.io.TypedTupleSerializer;
 import cascading.tuple.hadoop.util.CoGroupingComparator;
 import cascading.tuple.hadoop.util.CoGroupingPartitioner;
 import cascading.tuple.hadoop.util.GroupingComparator;
@@ -52,11 +62,15 @@ import cascading.tuple.hadoop.util.GroupingPartitioner;
 import cascading.tuple.hadoop.util.GroupingSortingComparator;
 import cascading.tuple.hadoop.util.GroupingSortingPartitioner;
 import cascading.tuple.hadoop.util.IndexTupleCoGroupingComparator;
+import cascading.tuple.hadoop.util.OrderedTupleComparator;
+import cascading.tuple.hadoop.util.TotalOrderPartitioner;
 import cascading.tuple.hadoop.util.ReverseGroupingSortingComparator;
 import cascading.tuple.hadoop.util.ReverseTupleComparator;
 import cascading.tuple.hadoop.util.TupleComparator;
 import cascading.tuple.io.IndexTuple;
+import cascading.tuple.io.OrderedTuple;
 import cascading.tuple.io.TuplePair;
+import cascading.tuple.io.TypedTuple;
 import cascading.util.Util;
 import cascading.util.Version;
 import org.apache.hadoop.filecache.DistributedCache;
@@ -108,6 +122,12 @@ public class HadoopFlowStep extends BaseFlowStep<JobConf>
 
     initFromProcessConfigDef( conf );
 
+    String bloomFilterPath = conf.get( HadoopCoGroupProps.BLOOM_FILTER_PATH );
+
+    // ship the filter to the map tasks of a CoGroup
+    if( bloomFilterPath != null && getGroup() != null && !getGroup().isGroupBy() )
+      DistributedCache.addCacheFile( new Path( bloomFilterPath ).toUri(), conf );
+
     if( getSink().getScheme().getNumSinkParts() != 0 )
       {
       // if no reducer, set num map tasks to control parts
@@ -161,6 +181,34 @@ public class HadoopFlowStep extends BaseFlowStep<JobConf>
         // no need to supply a reverse comparator, only equality is checked
         conf.setOutputValueGroupingComparator( GroupingComparator.class );
         }
+
+      if( isOrderedKeys( conf ) )
+        {
+        conf.setMapOutputKeyClass( OrderedTuple.class );
+        conf.setOutputKeyComparatorClass( OrderedTupleComparator.class );
+        }
+
+      if( getGroup().isGroupBy() && HadoopGroupByProps.isTotalOrder( conf ) )
+        {
+        conf.setPartitionerClass( TotalOrderPartitioner.class );
+        conf.setBoolean( TotalOrderPartitioner.REVERSED, getGroup().isSortReversed() );
+        }
+
+      List<PartialAggregate> partials = getCombinerPartials( conf );
+
+      if( partials != null )
+        {
+        conf.set( HadoopGroupByProps.COMBINER_PARTIALS, pack( partials, conf ) );
+        conf.setCombinerClass( FlowCombiner.class );
+        }
+
+      String valueTypes = partials == null ? getTypedValues( conf ) : null;
+
+      if( valueTypes != null )
+        {
+        conf.set( TupleSerializationProps.VALUE_TYPES, valueTypes );
+        conf.setMapOutputValueClass( TypedTuple.class );
+        }
       }
 
     // perform last so init above will pass to tasks
@@ -293,6 +341,194 @@ public class HadoopFlowStep extends BaseFlowStep<JobConf>
       }
     }
 
+  private boolean isOrderedKeys( JobConf conf )
+    {
+    if( !conf.getBoolean( TupleSerializationProps.ORDERED_KEYS, false ) )
+      return false;
+
+    if( !getGroup().isGroupBy() || getGroup().isSorted() || getGroup().isSortReversed() )
+      return false;
+
+    if( TupleSerialization.getDefaultComparator( conf ) != null )
+      return false;
+
+    for( Fields fields : getGroup().getKeySelectors().values() )
+      {
+      if( fields.hasComparators() )
+        return false;
+      }
+
+    return true;
+    }
+
+  /**
+   * Method initTotalOrder samples the grouping keys of the streamed sources and sets the split points used by the
+   * {@link TotalOrderPartitioner}. It is called just before the job is submitted, so that any temporary sources
+   * written by previous steps exist.
+   * <p/>
+   * Sampled values must be of the same type as the keys seen by the partitioner, so nothing is sampled unless every
+   * incoming pipe reads its grouping fields unchanged from a source, through plain {@link Pipe} instances only.
+   *
+   * @param conf of type JobConf
+   * @throws IOException
+   */
+  public void initTotalOrder( JobConf conf ) throws IOException
+    {
+    if( conf.getPartitionerClass() != TotalOrderPartitioner.class )
+      return;
+
+    Map<Tap, Fields> sources = new HashMap<Tap, Fields>();
+
+    for( Scope scope : getPreviousScopes( getGroup() ) )
+      {
+      Fields keyFields = getGroup().getKeySelectors().get( scope.getName() );
+      Tap source = findSourceFor( scope );
+
+      if( source == null || !source.getSourceFields().contains( keyFields ) )
+        {
+        logWarn( "unable to sample total order keys of pipe: " + scope.getName() + ", grouping fields not read unchanged from a source" );
+        return;
+        }
+
+      sources.put( source, keyFields );
+      }
+
+    int numSamples = HadoopGroupByProps.getTotalOrderSamples( conf ) / sources.size();
+    int maxSplits = HadoopGroupByProps.getTotalOrderSampleSplits( conf );
+    List<Tuple> samples = new ArrayList<Tuple>();
+
+    for( Map.Entry<Tap, Fields> entry : sources.entrySet() )
+      samples.addAll( HadoopUtil.sampleKeys( conf, entry.getKey(), entry.getValue(), numSamples, maxSplits ) );
+
+    int numSplitPoints = TotalOrderPartitioner.setSplitPoints( conf, samples, conf.getNumReduceTasks() );
+
+    logInfo( "sampled total order keys: " + samples.size() + ", split points: " + numSplitPoints + ", reducers: " + conf.getNumReduceTasks() );
+    }
+
+  /**
+   * Method initSkewKeys samples the grouping keys of the source of the skewed pipe of a CoGroup, and adds the keys
+   * seen more often than the skew threshold to the hot keys, see {@link HadoopCoGroupProps}. It is called just before
+   * the job is submitted, so that any temporary sources written by previous steps exist.
+   *
+   * @param conf of type JobConf
+   * @throws IOException
+   */
+  public void initSkewKeys( JobConf conf ) throws IOException
+    {
+    String skewPipe = conf.get( HadoopCoGroupProps.SKEW_PIPE );
+
+    if( getGroup() == null || getGroup().isGroupBy() || skewPipe == null || !conf.getBoolean( HadoopCoGroupProps.SKEW_SAMPLE, false ) )
+      return;
+
+    Fields keyFields = getGroup().getKeySelectors().get( skewPipe );
+    Tap source = findSourceFor( skewPipe );
+
+    if( keyFields == null || source == null || !source.getSourceFields().contains( keyFields ) )
+      {
+      logWarn( "unable to sample skewed keys of pipe: " + skewPipe + ", grouping fields not declared by its source" );
+      return;
+      }
+
+    int numSamples = HadoopGroupByProps.getTotalOrderSamples( conf );
+    int maxSplits = HadoopGroupByProps.getTotalOrderSampleSplits( conf );
+    float threshold = conf.getFloat( HadoopCoGroupProps.SKEW_THRESHOLD, HadoopCoGroupProps.DEFAULT_SKEW_THRESHOLD );
+
+    List<Tuple> samples = HadoopUtil.sampleKeys( conf, source, keyFields, numSamples, maxSplits );
+    Map<Tuple, Integer> counts = new HashMap<Tuple, Integer>();
+
+    for( Tuple sample : samples )
+      {
+      Integer count = counts.get( sample );
+      counts.put( sample, count == null ? 1 : count + 1 );
+      }
+
+    Set<Tuple> keys = new HashSet<Tuple>( HadoopCoGroupProps.decodeKeys( conf.get( HadoopCoGroupProps.SKEW_KEYS ) ) );
+
+    for( Map.Entry<Tuple, Integer> entry : counts.entrySet() )
+      {
+      if( entry.getValue() > threshold * samples.size() )
+        keys.add( entry.getKey() );
+      }
+
+    conf.set( HadoopCoGroupProps.SKEW_KEYS, HadoopCoGroupProps.encodeKeys( keys ) );
+
+    logInfo( "sampled skewed keys of pipe: " + skewPipe + ", samples: " + samples.size() + ", hot keys: " + keys.size() );
+    }
+
+  private Tap findSourceFor( String pipeName )
+    {
+    for( Scope scope : getPreviousScopes( getGroup() ) )
+      {
+      if( scope.getName().equals( pipeName ) )
+        return findSourceFor( scope );
+      }
+
+    return null;
+    }
+
+  private Tap findSourceFor( Scope scope )
+    {
+    FlowElement element = getGraph().getEdgeSource( scope );
+
+    // walk back through any plain pipes, giving up at any operation or splice
+    while( !( element instanceof Tap ) )
+      {
+      Set<Scope> incoming = getGraph().incomingEdgesOf( element );
+
+      if( element.getClass() != Pipe.class || incoming.size() != 1 )
+        return null;
+
+      element = getGraph().getEdgeSource( incoming.iterator().next() );
+      }
+
+    return (Tap) element;
+    }
+
+  private List<PartialAggregate> getCombinerPartials( JobConf conf )
+    {
+    if( !HadoopGroupByProps.isCombiner( conf ) || !getGroup().isGroupBy() )
+      return null;
+
+    // all incoming values fields of a GroupBy are the same
+    Fields fields = getPreviousScopes( getGroup() ).iterator().next().getIncomingSpliceFields();
+
+    List<PartialAggregate> partials = PartialAggregate.createPartials( getGraph(), (GroupBy) getGroup(), fields );
+
+    if( partials != null )
+      logInfo( "combining map side values of: " + getGroup() + ", with " + partials.size() + " partial aggregates" );
+
+    return partials;
+    }
+
+  private String getTypedValues( JobConf conf )
+    {
+    if( !conf.getBoolean( TupleSerializationProps.TYPED_VALUES, false ) || !getGroup().isGroupBy() )
+      return null;
+
+    // all incoming values fields of a GroupBy are the same
+    Fields fields = getPreviousScopes( getGroup() ).iterator().next().getIncomingSpliceFields();
+
+    if( !fields.isDefined() || !fields.hasTypes() || fields.size() == 0 )
+      return null;
+
+    String[] classNames = new String[ fields.size() ];
+
+    for( int i = 0; i < classNames.length; i++ )
+      {
+      if( !( fields.getType( i ) instanceof Class ) )
+        return null;
+
+      Class type = Coercions.asNonPrimitive( (Class) fields.getType( i ) );
+
+      if( !TypedTupleSerializer.isSupported( type ) )
+        return null;
+
+      classNames[ i ] = type.getName();
+      }
+
+    return Util.join( classNames, "," );
+    }
+
   private void addComparators( JobConf conf, String property, Map<String, Fields> map )
     {
     Iterator<Fields> fieldsIterator = map.values().iterator();
@@ -345,6 +581,8 @@ public class HadoopFlowStep extends BaseFlowStep<JobConf>
       streamedJobs[ i ] = flowProcess.copyConfig( conf );
 
       streamedJobs[ i ].set( "cascading.step.source", Tap.id( tap ) );
+      streamedJobs[ i ].set( Scheme.REQUIRED_SOURCE_FIELDS, getRequiredSourcePositions( tap ) );
+      streamedJobs[ i ].set( Scheme.SOURCE_FILTERS, getSourceFilters( tap ) );
 
       tap.sourceConfInit( flowProcess, streamedJobs[ i ] );
 
@@ -357,6 +595,9 @@ public class HadoopFlowStep extends BaseFlowStep<JobConf>
       {
       JobConf accumulatedJob = flowProcess.copyConfig( conf );
 
+      accumulatedJob.set( Scheme.REQUIRED_SOURCE_FIELDS, getRequiredSourcePositions( tap ) );
+      accumulatedJob.set( Scheme.SOURCE_FILTERS, getSourceFilters( tap ) );
+
       tap.sourceConfInit( flowProcess, accumulatedJob );
 
       Map<String, String> map = flowProcess.diffConfigIntoMap( conf, accumulatedJob );
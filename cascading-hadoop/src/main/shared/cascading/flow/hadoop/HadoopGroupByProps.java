@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.hadoop;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+
+import cascading.flow.FlowException;
+import cascading.flow.hadoop.util.HadoopUtil;
+import cascading.flow.hadoop.util.PartialAggregate;
+import cascading.property.Props;
+import org.apache.hadoop.mapred.JobConf;
+
+/**
+ * Class HadoopGroupByProps is a fluent helper class for setting Hadoop specific {@link cascading.pipe.GroupBy}
+ * properties. Set them on {@link cascading.pipe.GroupBy#getStepConfigDef()} via
+ * {@link #setProperties(cascading.property.ConfigDef)}.
+ * <p/>
+ * If total order is enabled, the grouping keys of the streamed sources of the step are sampled just before the job
+ * is submitted, and the sorted samples are used as split points by a
+ * {@link cascading.tuple.hadoop.util.TotalOrderPartitioner}. Every reducer then receives a contiguous range of keys,
+ * so concatenating the part files in order yields globally sorted output.
+ * <p/>
+ * Keys can only be sampled if the grouping fields are declared by the source and every incoming pipe reaches its
+ * source through plain {@link cascading.pipe.Pipe} instances, typically the GroupBy directly follows the source, or
+ * the temporary file written by the previous step. Otherwise all keys go to the first reducer. Keys must be
+ * {@link java.io.Serializable} to be shipped to the tasks.
+ * <p/>
+ * If combining is enabled, the default, and an unsorted GroupBy is only followed by {@link cascading.operation.aggregator.Sum},
+ * {@link cascading.operation.aggregator.Count}, {@link cascading.operation.aggregator.Average},
+ * {@link cascading.operation.aggregator.Max}, {@link cascading.operation.aggregator.Min} or
+ * {@link cascading.operation.aggregator.First} aggregators, the map side emits partial aggregates instead of the
+ * incoming values, and a {@link FlowCombiner} merges them before they are shuffled. See {@link PartialAggregate}.
+ */
+public class HadoopGroupByProps extends Props
+  {
+  /** Whether the GroupBy output should be totally ordered across all reducers. */
+  public static final String TOTAL_ORDER = "cascading.groupby.totalorder";
+
+  /** The maximum number of keys to sample across all sources, 10,000 by default. */
+  public static final String TOTAL_ORDER_SAMPLES = "cascading.groupby.totalorder.samples";
+
+  /** The maximum number of input splits of each source to sample, 10 by default. */
+  public static final String TOTAL_ORDER_SAMPLE_SPLITS = "cascading.groupby.totalorder.sample.splits";
+
+  /** Whether the values of a GroupBy followed by algebraic aggregators should be combined on the map side, true by default. */
+  public static final String COMBINER = "cascading.groupby.combiner";
+
+  /** The partial aggregates of the combined GroupBy, set by the planner. */
+  public static final String COMBINER_PARTIALS = "cascading.groupby.combiner.partials";
+
+  public static final int DEFAULT_TOTAL_ORDER_SAMPLES = 10000;
+  public static final int DEFAULT_TOTAL_ORDER_SAMPLE_SPLITS = 10;
+
+  Boolean totalOrder;
+  int totalOrderSamples = DEFAULT_TOTAL_ORDER_SAMPLES;
+  int totalOrderSampleSplits = DEFAULT_TOTAL_ORDER_SAMPLE_SPLITS;
+  Boolean combiner;
+
+  public static boolean isTotalOrder( JobConf jobConf )
+    {
+    return jobConf.getBoolean( TOTAL_ORDER, false );
+    }
+
+  public static int getTotalOrderSamples( JobConf jobConf )
+    {
+    return jobConf.getInt( TOTAL_ORDER_SAMPLES, DEFAULT_TOTAL_ORDER_SAMPLES );
+    }
+
+  public static int getTotalOrderSampleSplits( JobConf jobConf )
+    {
+    return jobConf.getInt( TOTAL_ORDER_SAMPLE_SPLITS, DEFAULT_TOTAL_ORDER_SAMPLE_SPLITS );
+    }
+
+  public static boolean isCombiner( JobConf jobConf )
+    {
+    return jobConf.getBoolean( COMBINER, true );
+    }
+
+  public static List<PartialAggregate> getCombinerPartials( JobConf jobConf )
+    {
+    try
+      {
+      return HadoopUtil.deserializeBase64( jobConf.get( COMBINER_PARTIALS ), jobConf, List.class );
+      }
+    catch( IOException exception )
+      {
+      throw new FlowException( "unable to deserialize partial aggregates", exception );
+      }
+    }
+
+  /**
+   * Creates a new HadoopGroupByProps instance.
+   *
+   * @return HadoopGroupByProps instance
+   */
+  public static HadoopGroupByProps hadoopGroupByProps()
+    {
+    return new HadoopGroupByProps();
+    }
+
+  public HadoopGroupByProps()
+    {
+    }
+
+  public Boolean getTotalOrder()
+    {
+    return totalOrder;
+    }
+
+  /**
+   * Method setTotalOrder sets whether the GroupBy output should be totally ordered across all reducers.
+   *
+   * @param totalOrder of type boolean
+   * @return this
+   */
+  public HadoopGroupByProps setTotalOrder( boolean totalOrder )
+    {
+    this.totalOrder = totalOrder;
+
+    return this;
+    }
+
+  public int getTotalOrderSamples()
+    {
+    return totalOrderSamples;
+    }
+
+  /**
+   * Method setTotalOrderSamples sets the maximum number of keys to sample across all sources.
+   *
+   * @param totalOrderSamples of type int
+   * @return this
+   */
+  public HadoopGroupByProps setTotalOrderSamples( int totalOrderSamples )
+    {
+    this.totalOrderSamples = totalOrderSamples;
+
+    return this;
+    }
+
+  public int getTotalOrderSampleSplits()
+    {
+    return totalOrderSampleSplits;
+    }
+
+  /**
+   * Method setTotalOrderSampleSplits sets the maximum number of input splits of each source to sample.
+   *
+   * @param totalOrderSampleSplits of type int
+   * @return this
+   */
+  public HadoopGroupByProps setTotalOrderSampleSplits( int totalOrderSampleSplits )
+    {
+    this.totalOrderSampleSplits = totalOrderSampleSplits;
+
+    return this;
+    }
+
+  public Boolean getCombiner()
+    {
+    return combiner;
+    }
+
+  /**
+   * Method setCombiner sets whether the values of a GroupBy followed by algebraic aggregators should be combined on
+   * the map side.
+   *
+   * @param combiner of type boolean
+   * @return this
+   */
+  public HadoopGroupByProps setCombiner( boolean combiner )
+    {
+    this.combiner = combiner;
+
+    return this;
+    }
+
+  @Override
+  protected void addPropertiesTo( Properties properties )
+    {
+    if( totalOrder != null )
+      properties.setProperty( TOTAL_ORDER, totalOrder.toString() );
+
+    properties.setProperty( TOTAL_ORDER_SAMPLES, Integer.toString( totalOrderSamples ) );
+    properties.setProperty( TOTAL_ORDER_SAMPLE_SPLITS, Integer.toString( totalOrderSampleSplits ) );
+
+    if( combiner != null )
+      properties.setProperty( COMBINER, combiner.toString() );
+    }
+  }
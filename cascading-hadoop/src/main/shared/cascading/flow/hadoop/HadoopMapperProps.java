@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.hadoop;
+
+import java.util.Properties;
+
+import cascading.property.Props;
+import org.apache.hadoop.mapred.JobConf;
+
+/**
+ * Class HadoopMapperProps is a fluent helper class for setting properties of the {@link FlowMapper}.
+ * <p/>
+ * If more than one mapper thread is set, one copy of the map side stream graph is run per thread, every copy reading
+ * records from the input split in turn. Each copy runs up to the GroupBy/CoGroup, writing to the shared output
+ * collector under a lock. Counters incremented by the threads are buffered, and merged into the
+ * task counters when the task completes.
+ * <p/>
+ * The order of the map output is not preserved, and every operation in the map side of the step must tolerate being
+ * run by several threads at once, each copy receiving its own operation instances and contexts. Map only steps, as
+ * every copy would open its own sinks, and steps with traps or accumulated (HashJoin) sources on the map side always
+ * run single threaded.
+ * <p/>
+ * Independently, the accumulated sources of the map side HashJoins are read concurrently by up to the given number of
+ * accumulated threads, before the streamed source is read. Sources sharing any element before reaching the
+ * accumulated side of a join are read in turn by the same thread.
+ * <p/>
+ * If the accumulated cache is enabled, the join tables built from the accumulated sources are kept in memory after
+ * the task completes, and reused by the following tasks of the same step run by a reused JVM, see
+ * {@code mapred.job.reuse.jvm.num.tasks}. A cached table is only reused if the modification time of its source is
+ * unchanged. Only sources flowing straight into a single join are cached, and not if the join is off heap, spills, or
+ * uses custom key comparators.
+ */
+public class HadoopMapperProps extends Props
+  {
+  /** The number of threads running a copy of the map side stream graph, 1 by default. */
+  public static final String MAPPER_THREADS = "cascading.flow.mapper.threads";
+
+  /** The maximum number of threads reading the accumulated sources of the map side HashJoins, 4 by default. */
+  public static final String ACCUMULATED_THREADS = "cascading.flow.mapper.accumulated.threads";
+
+  /** Whether HashJoin accumulated tables should be kept for later tasks run by a reused JVM, false by default. */
+  public static final String ACCUMULATED_CACHE = "cascading.flow.mapper.accumulated.cache";
+
+  public static final int DEFAULT_MAPPER_THREADS = 1;
+  public static final int DEFAULT_ACCUMULATED_THREADS = 4;
+
+  int mapperThreads = DEFAULT_MAPPER_THREADS;
+  int accumulatedThreads = DEFAULT_ACCUMULATED_THREADS;
+  Boolean accumulatedCache;
+
+  public static int getMapperThreads( JobConf jobConf )
+    {
+    return jobConf.getInt( MAPPER_THREADS, DEFAULT_MAPPER_THREADS );
+    }
+
+  public static int getAccumulatedThreads( JobConf jobConf )
+    {
+    return jobConf.getInt( ACCUMULATED_THREADS, DEFAULT_ACCUMULATED_THREADS );
+    }
+
+  public static boolean isAccumulatedCache( JobConf jobConf )
+    {
+    return jobConf.getBoolean( ACCUMULATED_CACHE, false );
+    }
+
+  /**
+   * Creates a new HadoopMapperProps instance.
+   *
+   * @return HadoopMapperProps instance
+   */
+  public static HadoopMapperProps hadoopMapperProps()
+    {
+    return new HadoopMapperProps();
+    }
+
+  public HadoopMapperProps()
+    {
+    }
+
+  public int getMapperThreads()
+    {
+    return mapperThreads;
+    }
+
+  /**
+   * Method setMapperThreads sets the number of threads running a copy of the map side stream graph.
+   *
+   * @param mapperThreads of type int
+   * @return this
+   */
+  public HadoopMapperProps setMapperThreads( int mapperThreads )
+    {
+    this.mapperThreads = mapperThreads;
+
+    return this;
+    }
+
+  public int getAccumulatedThreads()
+    {
+    return accumulatedThreads;
+    }
+
+  /**
+   * Method setAccumulatedThreads sets the maximum number of threads reading the accumulated sources of the map side
+   * HashJoins. A value of 1 reads them in turn.
+   *
+   * @param accumulatedThreads of type int
+   * @return this
+   */
+  public HadoopMapperProps setAccumulatedThreads( int accumulatedThreads )
+    {
+    this.accumulatedThreads = accumulatedThreads;
+
+    return this;
+    }
+
+  public Boolean getAccumulatedCache()
+    {
+    return accumulatedCache;
+    }
+
+  /**
+   * Method setAccumulatedCache sets whether HashJoin accumulated tables should be kept for later tasks run by a
+   * reused JVM.
+   *
+   * @param accumulatedCache of type boolean
+   * @return this
+   */
+  public HadoopMapperProps setAccumulatedCache( boolean accumulatedCache )
+    {
+    this.accumulatedCache = accumulatedCache;
+
+    return this;
+    }
+
+  @Override
+  protected void addPropertiesTo( Properties properties )
+    {
+    properties.setProperty( MAPPER_THREADS, Integer.toString( mapperThreads ) );
+    properties.setProperty( ACCUMULATED_THREADS, Integer.toString( accumulatedThreads ) );
+
+    if( accumulatedCache != null )
+      properties.setProperty( ACCUMULATED_CACHE, accumulatedCache.toString() );
+    }
+  }
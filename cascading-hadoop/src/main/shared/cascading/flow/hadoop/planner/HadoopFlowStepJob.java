@@ -104,6 +104,9 @@ public class HadoopFlowStepJob extends FlowStepJob<JobConf>
 
   protected void internalNonBlockingStart() throws IOException
     {
+    ( (HadoopFlowStep) flowStep ).initTotalOrder( currentConf );
+    ( (HadoopFlowStep) flowStep ).initSkewKeys( currentConf );
+
     jobClient = new JobClient( currentConf );
     runningJob = jobClient.submitJob( currentConf );
 
@@ -20,30 +20,71 @@
 
 package cascading.flow.hadoop.stream;
 
+import java.io.IOException;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import cascading.CascadingException;
+import cascading.flow.BloomFilterCounters;
+import cascading.flow.FlowException;
 import cascading.flow.FlowProcess;
+import cascading.flow.FlowProcessWrapper;
 import cascading.flow.SliceCounters;
 import cascading.flow.hadoop.HadoopCoGroupClosure;
+import cascading.flow.hadoop.HadoopCoGroupProps;
+import cascading.flow.hadoop.HadoopFlowProcess;
+import cascading.flow.hadoop.util.HadoopUtil;
 import cascading.flow.stream.Duct;
 import cascading.flow.stream.DuctException;
 import cascading.flow.stream.SpliceGate;
 import cascading.flow.stream.StreamGraph;
 import cascading.pipe.CoGroup;
+import cascading.pipe.joiner.InnerJoin;
+import cascading.pipe.joiner.Joiner;
+import cascading.pipe.joiner.LeftJoin;
+import cascading.pipe.joiner.RightJoin;
+import cascading.tuple.Fields;
 import cascading.tuple.Tuple;
 import cascading.tuple.TupleEntry;
+import cascading.tuple.hadoop.TupleSerialization;
+import cascading.tuple.hadoop.util.CoGroupingPartitioner;
 import cascading.tuple.io.IndexTuple;
 import cascading.tuple.io.TuplePair;
+import cascading.tuple.util.CanonicalTupleHasher;
+import cascading.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- *
+ * HadoopCoGroupGate emits the incoming tuples of a {@link CoGroup} to the shuffle on the map side, and joins
+ * them on the reduce side.
+ * <p/>
+ * On the map side, tuples may be dropped early if their key is not in a {@link BloomFilter}, and tuples with a hot
+ * key may be salted or replicated to spread the key over several reducers, see {@link HadoopCoGroupProps}.
  */
 public class HadoopCoGroupGate extends HadoopGroupGate
   {
+  private static final Logger LOG = LoggerFactory.getLogger( HadoopCoGroupGate.class );
+
   private final Map<Duct, Integer> posMap = new IdentityHashMap<Duct, Integer>();
 
+  public enum Skew
+    {
+      Tuples_Salted, Tuples_Replicated
+    }
+
+  private BloomFilter bloomFilter;
+  private CanonicalTupleHasher bloomHasher;
+  private boolean[] filteredPositions;
+
+  private Set<Tuple> skewKeys;
+  private int skewPos = -1;
+  private int skewFanout;
+  private int nextSalt;
+
   public HadoopCoGroupGate( FlowProcess flowProcess, CoGroup coGroup, SpliceGate.Role role )
     {
     super( flowProcess, coGroup, role );
@@ -68,16 +109,43 @@ public class HadoopCoGroupGate extends HadoopGroupGate
     else
       makePosMap( posMap );
 
+    if( role == Role.sink )
+      {
+      initBloomFilter();
+      initSkew();
+      }
+
     if( grouping != null && splice.getJoinDeclaredFields() != null && splice.getJoinDeclaredFields().isNone() )
       grouping.joinerClosure = closure;
     }
 
+  @Override
+  public void cleanup()
+    {
+    try
+      {
+      if( closure instanceof HadoopCoGroupClosure )
+        ( (HadoopCoGroupClosure) closure ).clear();
+      }
+    finally
+      {
+      super.cleanup();
+      }
+    }
+
   @Override
   public void receive( Duct previous, TupleEntry incomingEntry )
     {
     Integer pos = posMap.get( previous );
 
     Tuple groupTuple = keyBuilder[ pos ].makeResult( incomingEntry.getTuple(), null );
+
+    if( bloomFilter != null && filteredPositions[ pos ] && !bloomFilter.mightContain( bloomHasher.hashCode( groupTuple ) ) )
+      {
+      flowProcess.increment( BloomFilterCounters.Tuples_Filtered, 1 );
+      return;
+      }
+
     Tuple sortTuple = sortFields == null ? null : sortBuilder[ pos ].makeResult( incomingEntry.getTuple(), null );
     Tuple valuesTuple = valuesBuilder[ pos ].makeResult( incomingEntry.getTuple(), null );
 
@@ -85,6 +153,12 @@ public class HadoopCoGroupGate extends HadoopGroupGate
 
     try
       {
+      if( skewKeys != null && skewKeys.contains( groupTuple ) )
+        {
+        collectSkewed( pos, groupKey, valuesTuple );
+        return;
+        }
+
       collector.collect( new IndexTuple( pos, groupKey ), new IndexTuple( pos, valuesTuple ) );
       flowProcess.increment( SliceCounters.Tuples_Written, 1 );
       }
@@ -102,6 +176,132 @@ public class HadoopCoGroupGate extends HadoopGroupGate
       }
     }
 
+  private void collectSkewed( int pos, Tuple groupKey, Tuple valuesTuple ) throws IOException
+    {
+    IndexTuple value = new IndexTuple( pos, valuesTuple );
+
+    if( pos == skewPos )
+      {
+      int salt = nextSalt++ % skewFanout + 1;
+
+      collector.collect( new IndexTuple( pos | salt << CoGroupingPartitioner.SALT_SHIFT, groupKey ), value );
+      flowProcess.increment( SliceCounters.Tuples_Written, 1 );
+      flowProcess.increment( Skew.Tuples_Salted, 1 );
+      return;
+      }
+
+    // every salt of the skewed pipe must see this tuple
+    for( int salt = 1; salt <= skewFanout; salt++ )
+      collector.collect( new IndexTuple( pos | salt << CoGroupingPartitioner.SALT_SHIFT, groupKey ), value );
+
+    flowProcess.increment( SliceCounters.Tuples_Written, skewFanout );
+    flowProcess.increment( Skew.Tuples_Replicated, skewFanout );
+    }
+
+  private void initSkew()
+    {
+    String pipe = HadoopCoGroupProps.getSkewPipe( flowProcess );
+
+    if( pipe == null )
+      return;
+
+    List<Tuple> keys = HadoopCoGroupProps.getSkewKeys( flowProcess );
+    HadoopFlowProcess hadoopFlowProcess = (HadoopFlowProcess) FlowProcessWrapper.undelegate( flowProcess );
+
+    skewFanout = HadoopCoGroupProps.getSkewFanout( flowProcess, hadoopFlowProcess.getJobConf().getNumReduceTasks() );
+
+    if( keys.isEmpty() || skewFanout < 2 )
+      return;
+
+    Integer pos = splice.getPipePos().get( pipe );
+
+    if( pos == null )
+      throw new FlowException( "skew pipe: " + pipe + ", not found on: " + splice );
+
+    if( splice.getNumSelfJoins() != 0 )
+      throw new FlowException( "skew handling does not support self joins, on: " + splice );
+
+    for( int i = 0; i < keyFields.length; i++ )
+      {
+      if( keyFields[ i ].hasComparators() )
+        throw new FlowException( "skew handling does not support custom grouping comparators, on: " + splice );
+      }
+
+    if( !isInnerExcept( splice.getJoiner(), pos ) )
+      throw new FlowException( "skew handling requires all pipes but: " + pipe + ", to be inner joined, on: " + splice );
+
+    skewPos = pos;
+    skewKeys = new HashSet<Tuple>( keys );
+
+    LOG.info( "spreading {} skewed keys of pipe: {}, over {} reducers", new Object[]{skewKeys.size(), pipe, skewFanout} );
+    }
+
+  /** Returns true if every pipe but the one at the given position is joined as an inner side. */
+  private boolean isInnerExcept( Joiner joiner, int pos )
+    {
+    if( joiner instanceof InnerJoin )
+      return true;
+
+    if( joiner instanceof LeftJoin )
+      return pos == 0;
+
+    if( joiner instanceof RightJoin )
+      return pos == 1;
+
+    return false;
+    }
+
+  private void initBloomFilter()
+    {
+    String path = HadoopCoGroupProps.getBloomFilterPath( flowProcess );
+
+    if( path == null )
+      return;
+
+    String[] pipes = HadoopCoGroupProps.getBloomFilterPipes( flowProcess );
+    Map<String, Integer> pipePos = splice.getPipePos();
+
+    filteredPositions = new boolean[ orderedPrevious.length ];
+
+    if( pipes == null )
+      {
+      if( !( splice.getJoiner() instanceof InnerJoin ) )
+        throw new FlowException( "bloom filter pipes must be set if the joiner is not an InnerJoin, on: " + splice );
+
+      for( Integer pos : pipePos.values() )
+        filteredPositions[ pos ] = true;
+      }
+    else
+      {
+      for( String pipe : pipes )
+        {
+        Integer pos = pipePos.get( pipe.trim() );
+
+        if( pos == null )
+          throw new FlowException( "bloom filter pipe: " + pipe + ", not found on: " + splice );
+
+        filteredPositions[ pos ] = true;
+        }
+      }
+
+    try
+      {
+      HadoopFlowProcess hadoopFlowProcess = (HadoopFlowProcess) FlowProcessWrapper.undelegate( flowProcess );
+
+      bloomFilter = HadoopUtil.readBloomFilter( hadoopFlowProcess.getJobConf(), path );
+      // the key selectors, not the resolved key fields, hold the comparators
+      Fields[] keySelectors = splice.getKeySelectors().values().toArray( new Fields[ 0 ] );
+
+      bloomHasher = new CanonicalTupleHasher( TupleSerialization.getDefaultComparator( hadoopFlowProcess.getJobConf() ), keySelectors );
+      }
+    catch( IOException exception )
+      {
+      throw new FlowException( "unable to read bloom filter from: " + path, exception );
+      }
+
+    LOG.info( "pre-filtering cogroup with bloom filter: {}, bits: {}", path, bloomFilter.getNumBits() );
+    }
+
   @Override
   protected Tuple unwrapGrouping( Tuple key )
     {
@@ -20,22 +20,37 @@
 
 package cascading.flow.hadoop.stream;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
 import cascading.CascadingException;
 import cascading.flow.FlowProcess;
 import cascading.flow.SliceCounters;
+import cascading.flow.hadoop.HadoopFlowProcess;
 import cascading.flow.hadoop.HadoopGroupByClosure;
+import cascading.flow.hadoop.HadoopGroupByProps;
+import cascading.flow.hadoop.util.PartialAggregate;
 import cascading.flow.stream.Duct;
 import cascading.flow.stream.DuctException;
 import cascading.pipe.GroupBy;
+import cascading.tuple.Fields;
 import cascading.tuple.Tuple;
 import cascading.tuple.TupleEntry;
+import cascading.tuple.io.OrderedTuple;
 import cascading.tuple.io.TuplePair;
+import cascading.tuple.io.TypedTuple;
 
 /**
  *
  */
 public class HadoopGroupByGate extends HadoopGroupGate
   {
+  private boolean orderedKeys;
+  private boolean typedValues;
+  private List<PartialAggregate> partials;
+  private Tuple partialValues;
+
   public HadoopGroupByGate( FlowProcess flowProcess, GroupBy groupBy, Role role )
     {
     super( flowProcess, groupBy, role );
@@ -46,7 +61,19 @@ public class HadoopGroupByGate extends HadoopGroupGate
     {
     super.prepare();
 
-    if( role != Role.sink )
+    // see HadoopFlowStep, set when TupleSerializationProps#ORDERED_KEYS or #TYPED_VALUES apply to this GroupBy
+    orderedKeys = ( (HadoopFlowProcess) flowProcess ).getJobConf().getMapOutputKeyClass() == OrderedTuple.class;
+    typedValues = ( (HadoopFlowProcess) flowProcess ).getJobConf().getMapOutputValueClass() == TypedTuple.class;
+
+    // see HadoopFlowStep, set when HadoopGroupByProps#COMBINER applies to this GroupBy
+    partials = HadoopGroupByProps.getCombinerPartials( ( (HadoopFlowProcess) flowProcess ).getJobConf() );
+
+    if( partials != null )
+      partialValues = Tuple.size( PartialAggregate.getWidth( partials ) );
+
+    if( role != Role.sink && partials != null )
+      closure = new PartialsClosure( flowProcess, keyFields, valuesFields );
+    else if( role != Role.sink )
       closure = new HadoopGroupByClosure( flowProcess, keyFields, valuesFields );
 
     if( grouping != null && splice.getJoinDeclaredFields() != null && splice.getJoinDeclaredFields().isNone() )
@@ -59,10 +86,28 @@ public class HadoopGroupByGate extends HadoopGroupGate
     // always use pos == 0 since all key/value/sort fields are guaranteed to be the same
     Tuple groupTuple = keyBuilder[ 0 ].makeResult( incomingEntry.getTuple(), null );
     Tuple sortTuple = sortFields == null ? null : sortBuilder[ 0 ].makeResult( incomingEntry.getTuple(), null );
-    Tuple valuesTuple = valuesBuilder[ 0 ].makeResult( incomingEntry.getTuple(), null ); // nulls out the dupe values
+    Tuple valuesTuple;
+
+    if( partials == null )
+      {
+      valuesTuple = valuesBuilder[ 0 ].makeResult( incomingEntry.getTuple(), null ); // nulls out the dupe values
+      }
+    else
+      {
+      for( PartialAggregate partial : partials )
+        partial.init( incomingEntry.getTuple(), partialValues );
+
+      valuesTuple = partialValues;
+      }
 
     Tuple groupKey = sortTuple == null ? groupTuple : new TuplePair( groupTuple, sortTuple );
 
+    if( orderedKeys )
+      groupKey = new OrderedTuple( groupTuple );
+
+    if( typedValues )
+      valuesTuple = new TypedTuple( valuesTuple );
+
     try
       {
       collector.collect( groupKey, valuesTuple );
@@ -87,4 +132,31 @@ public class HadoopGroupByGate extends HadoopGroupGate
     {
     return sortFields == null ? key : ( (TuplePair) key ).getLhs();
     }
+
+  /**
+   * Returns the partial aggregates as is, they are merged by {@link HadoopPartialEveryStage}. The value fields are
+   * unknown so the joiner does not view the partials through the declared value fields.
+   */
+  private static class PartialsClosure extends HadoopGroupByClosure
+    {
+    public PartialsClosure( FlowProcess flowProcess, Fields[] groupingFields, Fields[] valueFields )
+      {
+      super( flowProcess, groupingFields, asUnknown( valueFields ) );
+      }
+
+    private static Fields[] asUnknown( Fields[] valueFields )
+      {
+      Fields[] fields = new Fields[ valueFields.length ];
+
+      Arrays.fill( fields, Fields.UNKNOWN );
+
+      return fields;
+      }
+
+    @Override
+    public Iterator getIterator( int pos )
+      {
+      return values;
+      }
+    }
   }
@@ -75,6 +75,8 @@ public abstract class HadoopGroupGate extends SpliceGate
     {
     if( next != null )
       super.complete( previous );
+    else if( collector instanceof MeasuredOutputCollector )
+      ( (MeasuredOutputCollector) collector ).flush();
     }
 
   public void run( Tuple key, Iterator values )
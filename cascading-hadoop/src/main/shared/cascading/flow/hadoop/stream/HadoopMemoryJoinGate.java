@@ -20,24 +20,40 @@
 
 package cascading.flow.hadoop.stream;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import cascading.flow.FlowProcess;
+import cascading.flow.FlowProcessWrapper;
+import cascading.flow.FlowStep;
+import cascading.flow.hadoop.HadoopFlowProcess;
+import cascading.flow.hadoop.HadoopMapperProps;
+import cascading.flow.stream.Duct;
 import cascading.flow.stream.MemoryHashJoinGate;
 import cascading.pipe.HashJoin;
+import cascading.pipe.HashJoinProps;
 import cascading.provider.FactoryLoader;
 import cascading.tuple.Tuple;
+import cascading.tuple.collect.OffHeapTupleMap;
 import cascading.tuple.collect.Spillable;
 import cascading.tuple.collect.SpillableTupleList;
+import cascading.tuple.collect.TupleCollectionFactory;
 import cascading.tuple.collect.TupleMapFactory;
+import cascading.tuple.hadoop.TupleSerialization;
+import cascading.tuple.hadoop.collect.HadoopOffHeapTupleMap;
+import cascading.tuple.hadoop.collect.HadoopTupleCollectionFactory;
 import cascading.tuple.hadoop.collect.HadoopTupleMapFactory;
 import org.apache.hadoop.mapred.JobConf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static cascading.tuple.collect.TupleCollectionFactory.TUPLE_COLLECTION_FACTORY;
 import static cascading.tuple.collect.TupleMapFactory.TUPLE_MAP_FACTORY;
 
 /**
@@ -49,7 +65,12 @@ public class HadoopMemoryJoinGate extends MemoryHashJoinGate
 
   public enum Spill
     {
-      Num_Spills_Written, Num_Spills_Read, Num_Tuples_Spilled, Duration_Millis_Written
+      Num_Spills_Written, Num_Spills_Read, Num_Tuples_Spilled, Duration_Millis_Written, Estimated_Bytes_Spilled
+    }
+
+  public enum TableCache
+    {
+      Num_Tables_Cached, Num_Tables_Reused
     }
 
   private class SpillListener implements Spillable.SpillListener
@@ -83,6 +104,9 @@ public class HadoopMemoryJoinGate extends MemoryHashJoinGate
 
       flowProcess.increment( Spill.Num_Spills_Written, 1 );
       flowProcess.increment( Spill.Num_Tuples_Spilled, spillSize );
+
+      if( spillable instanceof SpillableTupleList ) // only non-zero if spilling by memory
+        flowProcess.increment( Spill.Estimated_Bytes_Spilled, ( (SpillableTupleList) spillable ).getRetainedSize() );
       }
 
     @Override
@@ -100,6 +124,11 @@ public class HadoopMemoryJoinGate extends MemoryHashJoinGate
 
   private final SpillListener spillListener;
   private TupleMapFactory<JobConf> tupleMapFactory;
+  private TupleCollectionFactory<JobConf> tupleCollectionFactory;
+  private boolean cacheTables;
+  private String stepID;
+  private final List<String> cachedKeys = new ArrayList<String>();
+  private final Set<Map<Tuple, Collection<Tuple>>> cachedTables = Collections.newSetFromMap( new IdentityHashMap<Map<Tuple, Collection<Tuple>>, Boolean>() );
 
   public HadoopMemoryJoinGate( FlowProcess<JobConf> flowProcess, HashJoin join )
     {
@@ -112,14 +141,149 @@ public class HadoopMemoryJoinGate extends MemoryHashJoinGate
     this.tupleMapFactory = loader.loadFactoryFrom( flowProcess, TUPLE_MAP_FACTORY, HadoopTupleMapFactory.class );
     }
 
+  @Override
+  public void initialize()
+    {
+    super.initialize();
+
+    JobConf jobConf = getJobConf();
+
+    // cached tables must be plain heap tables, and must not reference this instance through delegated keys
+    cacheTables = HadoopMapperProps.isAccumulatedCache( jobConf ) && !offHeap && groupHasher == null
+      && HashJoinProps.getSpillThreshold( flowProcess ) == 0;
+    stepID = jobConf.get( FlowStep.CASCADING_FLOW_STEP_ID );
+    }
+
+  /**
+   * Method acquireCachedTable installs the table a previous task of this JVM accumulated from the given previous Duct,
+   * if any. If true is returned, the previous Duct must not be run.
+   *
+   * @param previous  of type Duct
+   * @param sourceKey identifies the source and its version
+   * @return boolean
+   */
+  public boolean acquireCachedTable( Duct previous, String sourceKey )
+    {
+    if( !cacheTables )
+      return false;
+
+    String key = getCacheKey( previous, sourceKey );
+    Map<Tuple, Collection<Tuple>> table = JoinTableCache.acquire( stepID, key );
+
+    if( table == null )
+      return false;
+
+    LOG.info( "reusing cached join table: {}, with keys: {}", key, table.size() );
+
+    cachedKeys.add( key );
+    cachedTables.add( table );
+    keyValues[ posMap.get( previous ) ] = table;
+    keys.addAll( table.keySet() );
+
+    flowProcess.increment( TableCache.Num_Tables_Reused, 1 );
+
+    return true;
+    }
+
+  /**
+   * Method cacheTable keeps the table accumulated from the given previous Duct for later tasks of this JVM, unless it
+   * spilled.
+   *
+   * @param previous  of type Duct
+   * @param sourceKey identifies the source and its version
+   */
+  public void cacheTable( Duct previous, String sourceKey )
+    {
+    if( !cacheTables )
+      return;
+
+    String key = getCacheKey( previous, sourceKey );
+    Map<Tuple, Collection<Tuple>> table = keyValues[ posMap.get( previous ) ];
+
+    if( hasSpilled( table ) )
+      {
+      LOG.info( "not caching spilled join table: {}", key );
+      return;
+      }
+
+    if( !JoinTableCache.put( stepID, key, table ) )
+      return;
+
+    LOG.info( "caching join table: {}, with keys: {}", key, table.size() );
+
+    cachedKeys.add( key );
+    cachedTables.add( table );
+
+    flowProcess.increment( TableCache.Num_Tables_Cached, 1 );
+    }
+
+  private String getCacheKey( Duct previous, String sourceKey )
+    {
+    return stepID + ":" + splice.getName() + ":" + posMap.get( previous ) + ":" + sourceKey;
+    }
+
+  private boolean hasSpilled( Map<Tuple, Collection<Tuple>> table )
+    {
+    if( table instanceof Spillable && ( (Spillable) table ).spillCount() != 0 )
+      return true;
+
+    for( Collection<Tuple> values : table.values() )
+      {
+      if( values instanceof Spillable && ( (Spillable) values ).spillCount() != 0 )
+        return true;
+      }
+
+    return false;
+    }
+
+  @Override
+  public void cleanup()
+    {
+    try
+      {
+      super.cleanup();
+      }
+    finally
+      {
+      for( String key : cachedKeys )
+        JoinTableCache.release( key );
+
+      cachedKeys.clear();
+      cachedTables.clear();
+      }
+    }
+
+  @Override
+  protected void releaseKeyValues()
+    {
+    if( keyValues == null )
+      return;
+
+    // cached tables are released by the JoinTableCache when evicted
+    for( Map<Tuple, Collection<Tuple>> table : keyValues )
+      {
+      if( !cachedTables.contains( table ) )
+        releaseTable( table );
+      }
+    }
+
   @Override
   protected Set<Tuple> createKeySet()
     {
+    // comparator ordered keys, or accumulated sides read concurrently by the FlowMapper
+    if( orderedKeys || orderedPrevious.length > 2 && HadoopMapperProps.getAccumulatedThreads( getJobConf() ) > 1 )
+      return super.createKeySet();
+
     return new HashSet<Tuple>(); // does not need to be synchronized, or ordered
     }
 
+  private JobConf getJobConf()
+    {
+    return ( (HadoopFlowProcess) FlowProcessWrapper.undelegate( flowProcess ) ).getJobConf();
+    }
+
   @Override
-  protected Map<Tuple, Collection<Tuple>> createTupleMap()
+  protected Map<Tuple, Collection<Tuple>> createHeapTupleMap()
     {
     Map<Tuple, Collection<Tuple>> map = tupleMapFactory.create( flowProcess );
 
@@ -129,6 +293,41 @@ public class HadoopMemoryJoinGate extends MemoryHashJoinGate
     return map;
     }
 
+  @Override
+  protected Collection<Tuple> createSpillCollection()
+    {
+    if( tupleCollectionFactory == null ) // only loaded if spilling
+      tupleCollectionFactory = FactoryLoader.getInstance().loadFactoryFrom( flowProcess, TUPLE_COLLECTION_FACTORY, HadoopTupleCollectionFactory.class );
+
+    Collection<Tuple> collection = tupleCollectionFactory.create( flowProcess );
+
+    if( collection instanceof Spillable )
+      ( (Spillable) collection ).setSpillListener( spillListener );
+
+    return collection;
+    }
+
+  @Override
+  public boolean isOffHeapSupported()
+    {
+    return true;
+    }
+
+  @Override
+  public boolean isSpillSupported()
+    {
+    return true;
+    }
+
+  @Override
+  protected OffHeapTupleMap createOffHeapTupleMap()
+    {
+    int capacity = HashJoinProps.getOffHeapCapacity( flowProcess );
+    int blockSize = HashJoinProps.getOffHeapBlockSize( flowProcess );
+
+    return new HadoopOffHeapTupleMap( capacity, blockSize, new TupleSerialization( flowProcess ) );
+    }
+
   @Override
   protected void waitOnLatch()
     {
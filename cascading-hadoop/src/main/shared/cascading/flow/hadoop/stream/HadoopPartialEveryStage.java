@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.hadoop.stream;
+
+import cascading.CascadingException;
+import cascading.flow.FlowProcess;
+import cascading.flow.hadoop.util.PartialAggregate;
+import cascading.flow.stream.AggregatorEveryStage;
+import cascading.flow.stream.Duct;
+import cascading.flow.stream.Reducing;
+import cascading.pipe.Every;
+import cascading.pipe.OperatorException;
+import cascading.tuple.TupleEntry;
+
+/**
+ * Class HadoopPartialEveryStage completes the {@link PartialAggregate} of an {@link Every} on the reduce side, in place
+ * of its {@link cascading.operation.Aggregator}, when the values of the GroupBy were combined on the map side.
+ */
+public class HadoopPartialEveryStage extends AggregatorEveryStage
+  {
+  private final Every every;
+  private final PartialAggregate partial;
+  private Reducing reducing;
+
+  public HadoopPartialEveryStage( FlowProcess flowProcess, Every every, PartialAggregate partial )
+    {
+    super( flowProcess, every );
+    this.every = every;
+    this.partial = partial;
+    }
+
+  @Override
+  public void initialize()
+    {
+    super.initialize();
+
+    reducing = (Reducing) getNext();
+    }
+
+  @Override
+  public void startGroup( Duct previous, TupleEntry groupEntry )
+    {
+    partial.start();
+
+    reducing.startGroup( this, groupEntry );
+    }
+
+  @Override
+  public void receive( Duct previous, TupleEntry tupleEntry )
+    {
+    // the tuple holds the partials of all the Every pipes, not the declared values
+    try
+      {
+      partial.merge( tupleEntry.getTuple() );
+      }
+    catch( CascadingException exception )
+      {
+      handleException( exception, tupleEntry );
+      }
+    catch( Throwable throwable )
+      {
+      handleException( new OperatorException( every, "operator Every failed merging partial aggregate: " + every.getOperation(), throwable ), tupleEntry );
+      }
+
+    next.receive( this, tupleEntry );
+    }
+
+  @Override
+  public void completeGroup( Duct previous, TupleEntry incomingEntry )
+    {
+    this.incomingEntry = incomingEntry;
+
+    try
+      {
+      outputCollector.add( partial.complete() ); // collector calls next
+      }
+    catch( CascadingException exception )
+      {
+      handleException( exception, incomingEntry );
+      }
+    catch( Throwable throwable )
+      {
+      handleException( new OperatorException( every, "operator Every failed completing partial aggregate: " + every.getOperation(), throwable ), incomingEntry );
+      }
+    }
+  }
@@ -25,12 +25,15 @@ import java.util.List;
 import cascading.flow.FlowElement;
 import cascading.flow.hadoop.HadoopFlowProcess;
 import cascading.flow.hadoop.HadoopFlowStep;
+import cascading.flow.hadoop.HadoopGroupByProps;
+import cascading.flow.hadoop.util.PartialAggregate;
 import cascading.flow.stream.Duct;
 import cascading.flow.stream.Gate;
 import cascading.flow.stream.SinkStage;
 import cascading.flow.stream.SpliceGate;
 import cascading.flow.stream.StepStreamGraph;
 import cascading.pipe.CoGroup;
+import cascading.pipe.Every;
 import cascading.pipe.Group;
 import cascading.pipe.GroupBy;
 import cascading.pipe.HashJoin;
@@ -41,10 +44,19 @@ import cascading.tap.Tap;
  */
 public class HadoopReduceStreamGraph extends StepStreamGraph
   {
+  private List<Every> combinedEveries;
+  private List<PartialAggregate> partials;
+
   public HadoopReduceStreamGraph( HadoopFlowProcess flowProcess, HadoopFlowStep step )
     {
     super( flowProcess, step );
 
+    // see HadoopFlowStep, set when the values of the GroupBy are combined on the map side
+    partials = HadoopGroupByProps.getCombinerPartials( flowProcess.getJobConf() );
+
+    if( partials != null )
+      combinedEveries = PartialAggregate.getEveryChain( step.getGraph(), (GroupBy) step.getGroup() );
+
     buildGraph();
 
     setTraps();
@@ -71,6 +83,21 @@ public class HadoopReduceStreamGraph extends StepStreamGraph
     handleDuct( group, rhsDuct );
     }
 
+  @Override
+  protected Duct createAggregatorEveryStage( Every every )
+    {
+    if( partials == null )
+      return super.createAggregatorEveryStage( every );
+
+    for( int i = 0; i < combinedEveries.size(); i++ )
+      {
+      if( combinedEveries.get( i ) == every )
+        return new HadoopPartialEveryStage( flowProcess, every, partials.get( i ) );
+      }
+
+    throw new IllegalStateException( "no partial aggregate for: " + every );
+    }
+
   @Override
   protected SinkStage createSinkStage( Tap element )
     {
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.hadoop.stream;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import cascading.flow.stream.MemorySpliceGate;
+import cascading.tuple.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class JoinTableCache holds the accumulated tables of {@link HadoopMemoryJoinGate} instances across the tasks run by
+ * a reused JVM.
+ * <p/>
+ * Tables are reference counted, and only tables no task currently holds are evicted, as soon as a task of another
+ * step uses the cache. Evicted tables are released, see {@link MemorySpliceGate#releaseTable(java.util.Map)}.
+ */
+class JoinTableCache
+  {
+  private static final Logger LOG = LoggerFactory.getLogger( JoinTableCache.class );
+
+  private static class Entry
+    {
+    final String stepID;
+    final Map<Tuple, Collection<Tuple>> table;
+    int references = 1;
+
+    Entry( String stepID, Map<Tuple, Collection<Tuple>> table )
+      {
+      this.stepID = stepID;
+      this.table = table;
+      }
+    }
+
+  private static final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+  private JoinTableCache()
+    {
+    }
+
+  static synchronized Map<Tuple, Collection<Tuple>> acquire( String stepID, String key )
+    {
+    evictUnused( stepID );
+
+    Entry entry = entries.get( key );
+
+    if( entry == null )
+      return null;
+
+    entry.references++;
+
+    return entry.table;
+    }
+
+  static synchronized boolean put( String stepID, String key, Map<Tuple, Collection<Tuple>> table )
+    {
+    evictUnused( stepID );
+
+    if( entries.containsKey( key ) )
+      return false;
+
+    entries.put( key, new Entry( stepID, table ) );
+
+    return true;
+    }
+
+  static synchronized void release( String key )
+    {
+    Entry entry = entries.get( key );
+
+    if( entry != null && entry.references > 0 )
+      entry.references--;
+    }
+
+  private static void evictUnused( String stepID )
+    {
+    Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+
+    while( iterator.hasNext() )
+      {
+      Map.Entry<String, Entry> entry = iterator.next();
+
+      if( entry.getValue().references != 0 || entry.getValue().stepID.equals( stepID ) )
+        continue;
+
+      LOG.info( "evicting cached join table: {}", entry.getKey() );
+
+      iterator.remove();
+
+      MemorySpliceGate.releaseTable( entry.getValue().table );
+      }
+    }
+  }
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.hadoop.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hadoop.mapred.Counters;
+import org.apache.hadoop.mapred.InputSplit;
+import org.apache.hadoop.mapred.Reporter;
+
+/**
+ * Class BufferedReporter accumulates the counter increments made by a single thread, and adds them to the shared
+ * {@link Reporter} when {@link #flush()} is called. All other calls are forwarded to the shared Reporter.
+ * <p/>
+ * Instances are not thread safe, each thread must have its own.
+ */
+public class BufferedReporter implements Reporter
+  {
+  private final Reporter reporter;
+  private final Map<Enum, long[]> enumCounters = new HashMap<Enum, long[]>();
+  private final Map<String, Map<String, long[]>> groupCounters = new HashMap<String, Map<String, long[]>>();
+
+  public BufferedReporter( Reporter reporter )
+    {
+    this.reporter = reporter;
+    }
+
+  @Override
+  public void incrCounter( Enum<?> key, long amount )
+    {
+    long[] value = enumCounters.get( key );
+
+    if( value == null )
+      {
+      value = new long[ 1 ];
+      enumCounters.put( key, value );
+      }
+
+    value[ 0 ] += amount;
+    }
+
+  @Override
+  public void incrCounter( String group, String counter, long amount )
+    {
+    Map<String, long[]> counters = groupCounters.get( group );
+
+    if( counters == null )
+      {
+      counters = new HashMap<String, long[]>();
+      groupCounters.put( group, counters );
+      }
+
+    long[] value = counters.get( counter );
+
+    if( value == null )
+      {
+      value = new long[ 1 ];
+      counters.put( counter, value );
+      }
+
+    value[ 0 ] += amount;
+    }
+
+  /** Method flush adds the buffered counter increments to the shared Reporter, and resets them. */
+  public void flush()
+    {
+    synchronized( reporter )
+      {
+      for( Map.Entry<Enum, long[]> entry : enumCounters.entrySet() )
+        reporter.incrCounter( entry.getKey(), entry.getValue()[ 0 ] );
+
+      for( Map.Entry<String, Map<String, long[]>> group : groupCounters.entrySet() )
+        {
+        for( Map.Entry<String, long[]> entry : group.getValue().entrySet() )
+          reporter.incrCounter( group.getKey(), entry.getKey(), entry.getValue()[ 0 ] );
+        }
+      }
+
+    enumCounters.clear();
+    groupCounters.clear();
+    }
+
+  @Override
+  public Counters.Counter getCounter( Enum<?> name )
+    {
+    flush();
+
+    synchronized( reporter )
+      {
+      return reporter.getCounter( name );
+      }
+    }
+
+  @Override
+  public Counters.Counter getCounter( String group, String name )
+    {
+    flush();
+
+    synchronized( reporter )
+      {
+      return reporter.getCounter( group, name );
+      }
+    }
+
+  @Override
+  public void setStatus( String status )
+    {
+    synchronized( reporter )
+      {
+      reporter.setStatus( status );
+      }
+    }
+
+  @Override
+  public void progress()
+    {
+    reporter.progress();
+    }
+
+  @Override
+  public InputSplit getInputSplit() throws UnsupportedOperationException
+    {
+    return reporter.getInputSplit();
+    }
+
+  @Override
+  public float getProgress()
+    {
+    return reporter.getProgress();
+    }
+  }
@@ -20,11 +20,14 @@
 
 package cascading.flow.hadoop.util;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Field;
 import java.net.URI;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -39,12 +42,16 @@ import cascading.flow.hadoop.HadoopFlowProcess;
 import cascading.flow.planner.PlatformInfo;
 import cascading.scheme.hadoop.TextLine;
 import cascading.tap.SinkMode;
+import cascading.tap.Tap;
 import cascading.tap.hadoop.Hfs;
 import cascading.tap.hadoop.Lfs;
 import cascading.tuple.Fields;
 import cascading.tuple.Tuple;
 import cascading.tuple.TupleEntryCollector;
 import cascading.tuple.TupleEntryIterator;
+import cascading.tuple.hadoop.TupleSerialization;
+import cascading.tuple.util.CanonicalTupleHasher;
+import cascading.util.BloomFilter;
 import cascading.util.Util;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.hadoop.conf.Configurable;
@@ -53,7 +60,10 @@ import org.apache.hadoop.filecache.DistributedCache;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocalFileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.InputFormat;
+import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.Reporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -435,6 +445,144 @@ public class HadoopUtil
     return statePath;
     }
 
+  /**
+   * Method sampleKeys returns up to numSamples copies of the given key fields, read from the head of up to maxSplits
+   * evenly spaced input splits of the given tap.
+   *
+   * @param conf       of type JobConf
+   * @param tap        of type Tap
+   * @param keyFields  of type Fields
+   * @param numSamples of type int
+   * @param maxSplits  of type int
+   * @return List<Tuple>
+   * @throws IOException
+   */
+  public static List<Tuple> sampleKeys( JobConf conf, Tap tap, Fields keyFields, int numSamples, int maxSplits ) throws IOException
+    {
+    // drop the input paths of the step, only the given tap should be read
+    JobConf sourceConf = removePropertiesFrom( conf, "mapred.input.dir" );
+    HadoopFlowProcess flowProcess = new HadoopFlowProcess( sourceConf );
+
+    tap.sourceConfInit( flowProcess, sourceConf );
+
+    InputFormat inputFormat = sourceConf.getInputFormat();
+    InputSplit[] splits = inputFormat.getSplits( sourceConf, maxSplits );
+    List<Tuple> samples = new ArrayList<Tuple>( numSamples );
+
+    int numSplits = Math.min( splits.length, maxSplits );
+
+    for( int i = 0; i < numSplits && samples.size() < numSamples; i++ )
+      {
+      InputSplit split = splits[ (int) ( (long) i * splits.length / numSplits ) ];
+      int limit = Math.min( numSamples, samples.size() + numSamples / numSplits + 1 );
+      TupleEntryIterator iterator = tap.openForRead( flowProcess, inputFormat.getRecordReader( split, sourceConf, Reporter.NULL ) );
+
+      try
+        {
+        while( samples.size() < limit && iterator.hasNext() )
+          samples.add( iterator.next().selectTupleCopy( keyFields ) );
+        }
+      finally
+        {
+        iterator.close();
+        }
+      }
+
+    return samples;
+    }
+
+  /**
+   * Method createBloomFilter returns a new {@link BloomFilter} of the given key fields of every tuple in the given tap.
+   * <p/>
+   * Keys are hashed by a {@link CanonicalTupleHasher}, so the key fields must carry the same {@link cascading.tuple.Hasher}
+   * comparators as the grouping fields of the {@link cascading.pipe.CoGroup} the filter is used with.
+   *
+   * @param conf              of type JobConf
+   * @param tap               of type Tap
+   * @param keyFields         of type Fields
+   * @param expectedValues    of type long, the expected number of distinct keys
+   * @param falsePositiveRate of type double
+   * @return BloomFilter
+   * @throws IOException
+   */
+  public static BloomFilter createBloomFilter( JobConf conf, Tap tap, Fields keyFields, long expectedValues, double falsePositiveRate ) throws IOException
+    {
+    BloomFilter filter = BloomFilter.create( expectedValues, falsePositiveRate );
+    CanonicalTupleHasher hasher = new CanonicalTupleHasher( TupleSerialization.getDefaultComparator( conf ), keyFields );
+    TupleEntryIterator iterator = tap.openForRead( new HadoopFlowProcess( conf ) );
+
+    try
+      {
+      while( iterator.hasNext() )
+        filter.add( hasher.hashCode( iterator.next().selectTuple( keyFields ) ) );
+      }
+    finally
+      {
+      iterator.close();
+      }
+
+    return filter;
+    }
+
+  public static void writeBloomFilter( JobConf conf, BloomFilter filter, String path ) throws IOException
+    {
+    Path filterPath = new Path( path );
+    DataOutputStream output = filterPath.getFileSystem( conf ).create( filterPath, true );
+
+    try
+      {
+      filter.writeTo( output );
+      }
+    finally
+      {
+      output.close();
+      }
+
+    LOG.info( "wrote bloom filter to: {}, bits: {}", filterPath, filter.getNumBits() );
+    }
+
+  /**
+   * Method readBloomFilter reads a {@link BloomFilter} from the local copy in the distributed cache, if any,
+   * otherwise from the given path.
+   *
+   * @param conf of type JobConf
+   * @param path of type String
+   * @return BloomFilter
+   * @throws IOException
+   */
+  public static BloomFilter readBloomFilter( JobConf conf, String path ) throws IOException
+    {
+    Path filterPath = new Path( path );
+    FileSystem fileSystem = filterPath.getFileSystem( conf );
+    Path[] files = DistributedCache.getLocalCacheFiles( conf );
+
+    if( files != null )
+      {
+      for( Path file : files )
+        {
+        if( !file.getName().equals( filterPath.getName() ) )
+          continue;
+
+        filterPath = file;
+        fileSystem = FileSystem.getLocal( conf );
+        break;
+        }
+      }
+
+    LOG.info( "reading bloom filter from: {}", filterPath );
+
+    DataInputStream input = fileSystem.open( filterPath );
+
+    try
+      {
+      return BloomFilter.readFrom( input );
+      }
+    finally
+      {
+      input.close();
+      }
+    }
+
   public static String readStateFromDistCache( JobConf jobConf, String id ) throws IOException
     {
     Path[] files = DistributedCache.getLocalCacheFiles( jobConf );
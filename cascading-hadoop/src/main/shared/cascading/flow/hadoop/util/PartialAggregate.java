@@ -0,0 +1,539 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.hadoop.util;
+
+import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import cascading.flow.FlowElement;
+import cascading.flow.planner.Scope;
+import cascading.operation.Aggregator;
+import cascading.operation.aggregator.Average;
+import cascading.operation.aggregator.Count;
+import cascading.operation.aggregator.First;
+import cascading.operation.aggregator.Sum;
+import cascading.pipe.Every;
+import cascading.pipe.GroupBy;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import cascading.tuple.coerce.Coercions;
+import cascading.tuple.type.CoercibleType;
+import cascading.tuple.util.TupleViews;
+import org.jgrapht.graph.SimpleDirectedGraph;
+
+/**
+ * Class PartialAggregate holds the mergeable state of an algebraic {@link Aggregator} so the values of a
+ * {@link GroupBy} can be combined before they are shuffled, see {@link cascading.flow.hadoop.HadoopGroupByProps}.
+ * <p/>
+ * Every partial occupies {@link #getWidth()} positions, starting at its offset, of the value tuple emitted by the
+ * map side. The map side initializes a partial from the arguments of each incoming tuple, the
+ * {@link cascading.flow.hadoop.FlowCombiner} merges partials, and the reduce side completes them into the result the
+ * Aggregator would have returned.
+ * <p/>
+ * Only {@link Sum}, {@link Count}, {@link Average}, {@link cascading.operation.aggregator.Max},
+ * {@link cascading.operation.aggregator.Min} and {@link First} are supported, and only if
+ * they do not ignore values and First returns a single tuple.
+ */
+public abstract class PartialAggregate implements Serializable
+  {
+  protected final int[] argumentPos;
+  private final Fields argumentFields;
+  protected final int offset;
+
+  private transient TupleEntry argumentsEntry;
+  private transient Tuple argumentsView;
+
+  /**
+   * Method getEveryChain returns the {@link Every} pipes directly following the given GroupBy in the given graph.
+   *
+   * @param graph   of type SimpleDirectedGraph<FlowElement, Scope>
+   * @param groupBy of type GroupBy
+   * @return List<Every>
+   */
+  public static List<Every> getEveryChain( SimpleDirectedGraph<FlowElement, Scope> graph, GroupBy groupBy )
+    {
+    List<Every> everies = new ArrayList<Every>();
+    FlowElement element = groupBy;
+
+    while( true )
+      {
+      Set<Scope> outgoing = graph.outgoingEdgesOf( element );
+
+      if( outgoing.size() != 1 )
+        break;
+
+      element = graph.getEdgeTarget( outgoing.iterator().next() );
+
+      if( !( element instanceof Every ) )
+        break;
+
+      everies.add( (Every) element );
+      }
+
+    return everies;
+    }
+
+  /**
+   * Method createPartials returns a PartialAggregate for every {@link Every} following the given GroupBy, or null
+   * if any of them cannot be combined.
+   *
+   * @param graph       of type SimpleDirectedGraph<FlowElement, Scope>
+   * @param groupBy     of type GroupBy
+   * @param valueFields the incoming fields of the GroupBy
+   * @return List<PartialAggregate>
+   */
+  public static List<PartialAggregate> createPartials( SimpleDirectedGraph<FlowElement, Scope> graph, GroupBy groupBy, Fields valueFields )
+    {
+    // secondary sorting may change the result of First
+    if( groupBy.isSorted() || !valueFields.isDefined() )
+      return null;
+
+    List<Every> everies = getEveryChain( graph, groupBy );
+
+    if( everies.isEmpty() )
+      return null;
+
+    List<PartialAggregate> partials = new ArrayList<PartialAggregate>();
+    Fields declaration = Fields.asDeclaration( valueFields );
+    int offset = 0;
+
+    for( Every every : everies )
+      {
+      if( !every.isAggregator() )
+        return null;
+
+      Scope scope = graph.outgoingEdgesOf( every ).iterator().next();
+      Fields argumentsSelector = scope.getArgumentsSelector();
+      int[] argumentPos;
+
+      if( argumentsSelector.isAll() )
+        argumentPos = declaration.getPos( declaration );
+      else if( argumentsSelector.isNone() )
+        argumentPos = new int[ 0 ];
+      else
+        argumentPos = declaration.getPos( argumentsSelector );
+
+      PartialAggregate partial = createPartial( every.getAggregator(), argumentPos, scope.getArgumentsDeclarator(), offset );
+
+      if( partial == null )
+        return null;
+
+      partials.add( partial );
+      offset += partial.getWidth();
+      }
+
+    return partials;
+    }
+
+  /**
+   * Method createPartial returns a PartialAggregate for the given aggregator, or null if it cannot be combined.
+   *
+   * @param aggregator     of type Aggregator
+   * @param argumentPos    the positions of the arguments in the incoming tuple
+   * @param argumentFields the arguments declarator
+   * @param offset         the position of the partial in the values tuple
+   * @return PartialAggregate
+   */
+  @SuppressWarnings({"deprecation"})
+  public static PartialAggregate createPartial( Aggregator aggregator, int[] argumentPos, Fields argumentFields, int offset )
+    {
+    Class<? extends Aggregator> type = aggregator.getClass();
+
+    if( type == Sum.class )
+      return new SumPartial( argumentPos, argumentFields, offset, ( (Sum) aggregator ).getType() );
+
+    if( type == Count.class )
+      return new CountPartial( argumentPos, argumentFields, offset );
+
+    if( type == Average.class )
+      {
+      Fields declared = ( (Average) aggregator ).getFieldDeclaration();
+
+      return new AveragePartial( argumentPos, argumentFields, offset, declared.hasTypes() ? declared.getType( 0 ) : Double.class );
+      }
+
+    boolean isMax = type == cascading.operation.aggregator.Max.class;
+    boolean isMin = type == cascading.operation.aggregator.Min.class;
+
+    if( ( isMax || isMin ) && ( (cascading.operation.aggregator.ExtremaBase) aggregator ).getIgnoreValues().isEmpty() )
+      return new ExtremaPartial( argumentPos, argumentFields, offset, isMax );
+
+    if( type == First.class && ( (First) aggregator ).getFirstN() == 1 && ( (First) aggregator ).getIgnoreTuples().isEmpty() )
+      return new FirstPartial( argumentPos, argumentFields, offset );
+
+    return null;
+    }
+
+  /**
+   * Method getWidth returns the total width of the given partials.
+   *
+   * @param partials of type List<PartialAggregate>
+   * @return int
+   */
+  public static int getWidth( List<PartialAggregate> partials )
+    {
+    int width = 0;
+
+    for( PartialAggregate partial : partials )
+      width += partial.getWidth();
+
+    return width;
+    }
+
+  protected PartialAggregate( int[] argumentPos, Fields argumentFields, int offset )
+    {
+    this.argumentPos = argumentPos;
+    this.argumentFields = argumentFields;
+    this.offset = offset;
+    }
+
+  /**
+   * Method init sets the partial of the given incoming tuple into the given values tuple.
+   *
+   * @param incoming of type Tuple
+   * @param values   of type Tuple
+   */
+  public void init( Tuple incoming, Tuple values )
+    {
+    if( argumentsEntry == null )
+      {
+      argumentsEntry = new TupleEntry( argumentFields, true );
+      argumentsView = TupleViews.createNarrow( argumentPos );
+      }
+
+    argumentsEntry.setTuple( TupleViews.reset( argumentsView, incoming ) );
+
+    init( argumentsEntry, values );
+    }
+
+  public abstract int getWidth();
+
+  protected abstract void init( TupleEntry arguments, Tuple values );
+
+  /** Method start resets the merged state before a new group. */
+  public abstract void start();
+
+  /**
+   * Method merge merges the partial held by the given values tuple into the current state.
+   *
+   * @param values of type Tuple
+   */
+  public abstract void merge( Tuple values );
+
+  /**
+   * Method write sets the current state as a partial into the given values tuple.
+   *
+   * @param values of type Tuple
+   */
+  public abstract void write( Tuple values );
+
+  /**
+   * Method complete returns the result of the aggregator for the current state.
+   *
+   * @return Tuple
+   */
+  public abstract Tuple complete();
+
+  static class SumPartial extends PartialAggregate
+    {
+    private final Type type;
+    private transient CoercibleType canonical;
+    private transient Double sum;
+
+    SumPartial( int[] argumentPos, Fields argumentFields, int offset, Type type )
+      {
+      super( argumentPos, argumentFields, offset );
+      this.type = type;
+      }
+
+    @Override
+    public int getWidth()
+      {
+      return 1;
+      }
+
+    @Override
+    protected void init( TupleEntry arguments, Tuple values )
+      {
+      values.set( offset, arguments.getObject( 0 ) == null ? null : arguments.getDouble( 0 ) );
+      }
+
+    @Override
+    public void start()
+      {
+      sum = null;
+      }
+
+    @Override
+    public void merge( Tuple values )
+      {
+      Double value = (Double) values.getObject( offset );
+
+      if( value != null )
+        sum = sum == null ? value : sum + value;
+      }
+
+    @Override
+    public void write( Tuple values )
+      {
+      values.set( offset, sum );
+      }
+
+    @Override
+    public Tuple complete()
+      {
+      if( canonical == null )
+        canonical = Coercions.coercibleTypeFor( type );
+
+      return new Tuple( canonical.canonical( sum ) );
+      }
+    }
+
+  static class CountPartial extends PartialAggregate
+    {
+    private transient long count;
+
+    CountPartial( int[] argumentPos, Fields argumentFields, int offset )
+      {
+      super( argumentPos, argumentFields, offset );
+      }
+
+    @Override
+    public int getWidth()
+      {
+      return 1;
+      }
+
+    @Override
+    protected void init( TupleEntry arguments, Tuple values )
+      {
+      values.set( offset, 1L );
+      }
+
+    @Override
+    public void start()
+      {
+      count = 0;
+      }
+
+    @Override
+    public void merge( Tuple values )
+      {
+      count += (Long) values.getObject( offset );
+      }
+
+    @Override
+    public void write( Tuple values )
+      {
+      values.set( offset, count );
+      }
+
+    @Override
+    public Tuple complete()
+      {
+      return new Tuple( count );
+      }
+    }
+
+  static class AveragePartial extends PartialAggregate
+    {
+    private final Type type;
+    private transient CoercibleType canonical;
+    private transient double sum;
+    private transient long count;
+
+    AveragePartial( int[] argumentPos, Fields argumentFields, int offset, Type type )
+      {
+      super( argumentPos, argumentFields, offset );
+      this.type = type;
+      }
+
+    @Override
+    public int getWidth()
+      {
+      return 2;
+      }
+
+    @Override
+    protected void init( TupleEntry arguments, Tuple values )
+      {
+      values.set( offset, arguments.getDouble( 0 ) );
+      values.set( offset + 1, 1L );
+      }
+
+    @Override
+    public void start()
+      {
+      sum = 0.0D;
+      count = 0L;
+      }
+
+    @Override
+    public void merge( Tuple values )
+      {
+      sum += (Double) values.getObject( offset );
+      count += (Long) values.getObject( offset + 1 );
+      }
+
+    @Override
+    public void write( Tuple values )
+      {
+      values.set( offset, sum );
+      values.set( offset + 1, count );
+      }
+
+    @Override
+    public Tuple complete()
+      {
+      if( canonical == null )
+        canonical = Coercions.coercibleTypeFor( type );
+
+      return new Tuple( canonical.canonical( sum / count ) );
+      }
+    }
+
+  /**
+   * Keeps the original value along with the number it was compared by, as {@link cascading.operation.aggregator.Max}
+   * and {@link cascading.operation.aggregator.Min} do.
+   */
+  static class ExtremaPartial extends PartialAggregate
+    {
+    private final boolean max;
+    private transient Object value;
+    private transient double extrema;
+
+    ExtremaPartial( int[] argumentPos, Fields argumentFields, int offset, boolean max )
+      {
+      super( argumentPos, argumentFields, offset );
+      this.max = max;
+      }
+
+    @Override
+    public int getWidth()
+      {
+      return 2;
+      }
+
+    @Override
+    protected void init( TupleEntry arguments, Tuple values )
+      {
+      Object arg = arguments.getObject( 0 );
+
+      values.set( offset, arg );
+      values.set( offset + 1, arg instanceof Number ? ( (Number) arg ).doubleValue() : arguments.getDouble( 0 ) );
+      }
+
+    @Override
+    public void start()
+      {
+      value = null;
+      extrema = max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+      }
+
+    @Override
+    public void merge( Tuple values )
+      {
+      double rhs = (Double) values.getObject( offset + 1 );
+
+      if( max ? extrema < rhs : extrema > rhs )
+        {
+        value = values.getObject( offset );
+        extrema = rhs;
+        }
+      }
+
+    @Override
+    public void write( Tuple values )
+      {
+      values.set( offset, value );
+      values.set( offset + 1, extrema );
+      }
+
+    @Override
+    public Tuple complete()
+      {
+      return new Tuple( value );
+      }
+    }
+
+  static class FirstPartial extends PartialAggregate
+    {
+    private transient Tuple first;
+    private transient boolean seen;
+
+    FirstPartial( int[] argumentPos, Fields argumentFields, int offset )
+      {
+      super( argumentPos, argumentFields, offset );
+      }
+
+    @Override
+    public int getWidth()
+      {
+      return argumentPos.length;
+      }
+
+    @Override
+    protected void init( TupleEntry arguments, Tuple values )
+      {
+      for( int i = 0; i < getWidth(); i++ )
+        values.set( offset + i, arguments.getObject( i ) );
+      }
+
+    @Override
+    public void start()
+      {
+      seen = false;
+      }
+
+    @Override
+    public void merge( Tuple values )
+      {
+      if( seen )
+        return;
+
+      if( first == null )
+        first = Tuple.size( getWidth() );
+
+      // values may be reused, so copy them out
+      for( int i = 0; i < getWidth(); i++ )
+        first.set( i, values.getObject( offset + i ) );
+
+      seen = true;
+      }
+
+    @Override
+    public void write( Tuple values )
+      {
+      for( int i = 0; i < getWidth(); i++ )
+        values.set( offset + i, first.getObject( i ) );
+      }
+
+    @Override
+    public Tuple complete()
+      {
+      return new Tuple( first );
+      }
+    }
+  }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.hadoop.util;
+
+import java.io.IOException;
+
+import org.apache.hadoop.mapred.RecordReader;
+
+/**
+ * Class SharedRecordReader is a {@link RecordReader} allowing several threads to read from the given RecordReader,
+ * one record at a time. Each record is read straight into the key and value the calling thread passes to
+ * {@link #next(Object, Object)}, so records are neither copied nor handed between threads.
+ * <p/>
+ * Once {@link #stop()} is called, every thread reads no further records.
+ */
+public class SharedRecordReader implements RecordReader
+  {
+  private final RecordReader input;
+  private volatile boolean stopped = false;
+
+  public SharedRecordReader( RecordReader input )
+    {
+    this.input = input;
+    }
+
+  @Override
+  public boolean next( Object key, Object value ) throws IOException
+    {
+    synchronized( input )
+      {
+      return !stopped && input.next( key, value );
+      }
+    }
+
+  /** Method stop makes every following call to {@link #next(Object, Object)} return false. */
+  public void stop()
+    {
+    stopped = true;
+    }
+
+  @Override
+  public Object createKey()
+    {
+    synchronized( input )
+      {
+      return input.createKey();
+      }
+    }
+
+  @Override
+  public Object createValue()
+    {
+    synchronized( input )
+      {
+      return input.createValue();
+      }
+    }
+
+  @Override
+  public long getPos() throws IOException
+    {
+    synchronized( input )
+      {
+      return input.getPos();
+      }
+    }
+
+  @Override
+  public float getProgress() throws IOException
+    {
+    synchronized( input )
+      {
+      return input.getProgress();
+      }
+    }
+
+  /** The shared RecordReader is closed by its owner, this method does nothing. */
+  @Override
+  public void close() throws IOException
+    {
+    }
+  }
@@ -28,9 +28,13 @@ import cascading.flow.FlowProcess;
 import cascading.management.annotation.Property;
 import cascading.management.annotation.PropertyDescription;
 import cascading.management.annotation.Visibility;
+import cascading.operation.Filter;
+import cascading.scheme.FilterPushdown;
 import cascading.scheme.SinkCall;
 import cascading.scheme.SourceCall;
 import cascading.scheme.util.DelimitedParser;
+import cascading.scheme.util.ScanningDelimitedParser;
+import cascading.scheme.util.SourceFilters;
 import cascading.tap.CompositeTap;
 import cascading.tap.Tap;
 import cascading.tap.TapException;
@@ -93,6 +97,14 @@ import org.apache.hadoop.mapred.RecordReader;
  * To override field and line parsing behaviors, sub-class {@link DelimitedParser} or provide a
  * {@link cascading.scheme.util.FieldTypeResolver} implementation.
  * <p/>
+ * To parse lines without regular expressions, give a {@link ScanningDelimitedParser} instance on the constructor.
+ * Lines are then parsed directly from the bytes read, and {@link #makeEncodedString(Object[])} is not called.
+ * <p/>
+ * When sourcing within a Flow, fields not read downstream are left {@code null} without being cleaned or coerced,
+ * see {@link cascading.scheme.Scheme#getRequiredSourceFields(cascading.flow.FlowProcess)}. Filters pushed down by the
+ * planner, see {@link FilterPushdown}, are evaluated after parsing only their argument fields, and rejected lines are
+ * skipped without parsing the rest.
+ * <p/>
  * Note that there should be no expectation that TextDelimited, or specifically {@link DelimitedParser}, can handle
  * all delimited and quoted combinations reliably. Attempting to do so would impair its performance and maintainability.
  * <p/>
@@ -106,7 +118,7 @@ import org.apache.hadoop.mapred.RecordReader;
  *
  * @see TextLine
  */
-public class TextDelimited extends TextLine
+public class TextDelimited extends TextLine implements FilterPushdown
   {
   public static final String DEFAULT_CHARSET = "UTF-8";
 
@@ -992,8 +1004,24 @@ public class TextDelimited extends TextLine
   @Override
   public void sourcePrepare( FlowProcess<JobConf> flowProcess, SourceCall<Object[], RecordReader> sourceCall )
     {
+    if( sourceCall.getContext() == null || sourceCall.getContext().length < 6 )
+      sourceCall.setContext( new Object[ 6 ] );
+
     super.sourcePrepare( flowProcess, sourceCall );
 
+    Object[] context = sourceCall.getContext();
+    SourceFilters sourceFilters = getSourceFilters( flowProcess );
+
+    context[ 3 ] = delimitedParser.createRequired( getRequiredSourceFields( flowProcess ) );
+
+    if( sourceFilters != null )
+      {
+      sourceFilters.prepare( flowProcess );
+
+      context[ 4 ] = sourceFilters;
+      context[ 5 ] = delimitedParser.createRequired( sourceFilters.getArgumentPositions() );
+      }
+
     sourceCall.getIncomingEntry().setTuple( TupleViews.createObjectArray() );
     }
 
@@ -1001,18 +1029,23 @@ public class TextDelimited extends TextLine
   public boolean source( FlowProcess<JobConf> flowProcess, SourceCall<Object[], RecordReader> sourceCall ) throws IOException
     {
     Object[] context = sourceCall.getContext();
+    Object[] split;
 
-    if( !sourceCall.getInput().next( context[ 0 ], context[ 1 ] ) )
-      return false;
-
-    if( skipHeader && ( (LongWritable) context[ 0 ] ).get() == 0 )
+    do
       {
       if( !sourceCall.getInput().next( context[ 0 ], context[ 1 ] ) )
         return false;
+
+      if( skipHeader && ( (LongWritable) context[ 0 ] ).get() == 0 )
+        {
+        if( !sourceCall.getInput().next( context[ 0 ], context[ 1 ] ) )
+          return false;
+        }
+
+      split = parseRecord( flowProcess, context );
       }
+    while( split == null );
 
-    // delegate coercion to delimitedParser for robustness
-    Object[] split = delimitedParser.parseLine( makeEncodedString( context ) );
     Tuple tuple = sourceCall.getIncomingEntry().getTuple();
 
     TupleViews.reset( tuple, split );
@@ -1020,6 +1053,56 @@ public class TextDelimited extends TextLine
     return true;
     }
 
+  /** returns the parsed values of the current line, or null if removed by a pushed down filter */
+  private Object[] parseRecord( FlowProcess<JobConf> flowProcess, Object[] context )
+    {
+    boolean[] required = (boolean[]) context[ 3 ];
+    SourceFilters sourceFilters = (SourceFilters) context[ 4 ];
+    boolean[] filterRequired = (boolean[]) context[ 5 ];
+
+    // delegate coercion to delimitedParser for robustness
+    if( delimitedParser instanceof ScanningDelimitedParser )
+      {
+      ScanningDelimitedParser parser = (ScanningDelimitedParser) delimitedParser;
+      Text text = (Text) context[ 1 ];
+      Charset charset = (Charset) context[ 2 ];
+
+      int[] bounds = parser.scanLine( text.getBytes(), 0, text.getLength(), charset );
+
+      if( sourceFilters != null && sourceFilters.isRemove( flowProcess, parser.parseLine( text.getBytes(), 0, text.getLength(), charset, bounds, filterRequired ) ) )
+        return null;
+
+      return parser.parseLine( text.getBytes(), 0, text.getLength(), charset, bounds, required );
+      }
+
+    String line = makeEncodedString( context );
+
+    if( sourceFilters == null )
+      return delimitedParser.parseLine( line, required );
+
+    Object[] split = delimitedParser.splitLine( line );
+
+    if( sourceFilters.isRemove( flowProcess, delimitedParser.parseSplitLine( line, split.clone(), filterRequired ) ) )
+      return null;
+
+    return delimitedParser.parseSplitLine( line, split, required );
+    }
+
+  @Override
+  public void sourceCleanup( FlowProcess<JobConf> flowProcess, SourceCall<Object[], RecordReader> sourceCall )
+    {
+    if( sourceCall.getContext() != null && sourceCall.getContext()[ 4 ] != null )
+      ( (SourceFilters) sourceCall.getContext()[ 4 ] ).cleanup( flowProcess );
+
+    super.sourceCleanup( flowProcess, sourceCall );
+    }
+
+  @Override
+  public boolean acceptSourceFilter( Filter filter, Fields argumentFields )
+    {
+    return getSourceFields().isDefined() && getSourceFields().contains( argumentFields );
+    }
+
   @Override
   public void sinkPrepare( FlowProcess<JobConf> flowProcess, SinkCall<Object[], OutputCollector> sinkCall ) throws IOException
     {
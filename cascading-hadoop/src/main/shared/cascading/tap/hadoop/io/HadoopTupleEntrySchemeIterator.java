@@ -62,9 +62,26 @@ public class HadoopTupleEntrySchemeIterator extends TupleEntrySchemeIterator<Job
     {
     if( measuredRecordReader == null )
       measuredRecordReader = new MeasuredRecordReader( getFlowProcess(), SliceCounters.Read_Duration );
+    else
+      measuredRecordReader.flush(); // the previous reader is done
 
     measuredRecordReader.setRecordReader( recordReader );
 
     return measuredRecordReader;
     }
+
+  /** The wrapped readers are closed by the input iterator, so the measured durations are flushed here. */
+  @Override
+  public void close() throws IOException
+    {
+    try
+      {
+      super.close();
+      }
+    finally
+      {
+      if( measuredRecordReader != null )
+        measuredRecordReader.flush();
+      }
+    }
   }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tap.hadoop.util;
+
+import cascading.flow.FlowProcess;
+
+/**
+ * Class MeasuredDuration accumulates the durations timed by {@link MeasuredRecordReader} and
+ * {@link MeasuredOutputCollector} in nanoseconds, and adds them to the given counter in milliseconds, every
+ * {@link #FLUSH_INTERVAL} measurements and when flushed. The remainder below a millisecond is carried over.
+ * <p/>
+ * If {@link #MEASURE_INTERVAL} is greater than 1, only every Nth call is timed, and its duration is weighted by N.
+ */
+public class MeasuredDuration
+  {
+  /** Every how many calls are timed, 1 by default. */
+  public static final String MEASURE_INTERVAL = "cascading.tap.measure.interval";
+
+  public static final int DEFAULT_MEASURE_INTERVAL = 1;
+
+  /** The number of measurements accumulated before the counter is incremented. */
+  public static final int FLUSH_INTERVAL = 1024;
+
+  private static final long NOT_MEASURED = Long.MIN_VALUE;
+  private static final long NANOS_PER_MILLI = 1000000L;
+
+  private final FlowProcess flowProcess;
+  private final Enum counter;
+  private final int interval;
+
+  private int countdown = 1;
+  private int measurements = 0;
+  private long nanos = 0;
+
+  public static int getMeasureInterval( FlowProcess flowProcess )
+    {
+    String value = (String) flowProcess.getProperty( MEASURE_INTERVAL );
+
+    if( value == null || value.length() == 0 )
+      return DEFAULT_MEASURE_INTERVAL;
+
+    return Math.max( 1, Integer.parseInt( value ) );
+    }
+
+  public MeasuredDuration( FlowProcess flowProcess, Enum counter )
+    {
+    this.flowProcess = flowProcess;
+    this.counter = counter;
+    this.interval = getMeasureInterval( flowProcess );
+    }
+
+  /**
+   * Method start returns the value to pass to {@link #end(long)} once the measured call returns.
+   *
+   * @return long
+   */
+  public long start()
+    {
+    if( --countdown != 0 )
+      return NOT_MEASURED;
+
+    countdown = interval;
+
+    return nanoTime();
+    }
+
+  public void end( long start )
+    {
+    if( start == NOT_MEASURED )
+      return;
+
+    nanos += ( nanoTime() - start ) * interval;
+
+    if( ++measurements == FLUSH_INTERVAL )
+      flush();
+    }
+
+  protected long nanoTime()
+    {
+    return System.nanoTime();
+    }
+
+  /** Method flush adds the whole milliseconds accumulated so far to the counter. */
+  public void flush()
+    {
+    measurements = 0;
+
+    long millis = nanos / NANOS_PER_MILLI;
+
+    if( millis == 0 )
+      return;
+
+    nanos -= millis * NANOS_PER_MILLI;
+
+    flowProcess.increment( counter, millis );
+    }
+  }
@@ -21,31 +21,35 @@
 package cascading.tap.hadoop.util;
 
 import java.io.Closeable;
+import java.io.Flushable;
 import java.io.IOException;
 
 import cascading.flow.FlowProcess;
 import org.apache.hadoop.mapred.OutputCollector;
 
 /**
- *
+ * Class MeasuredOutputCollector adds the time spent in the wrapped {@link OutputCollector} to the given counter, see
+ * {@link MeasuredDuration}.
  */
-public class MeasuredOutputCollector implements OutputCollector, Closeable
+public class MeasuredOutputCollector implements OutputCollector, Closeable, Flushable
   {
-  private final FlowProcess flowProcess;
-  private final Enum counter;
+  private final MeasuredDuration duration;
 
   private OutputCollector outputCollector;
 
   public MeasuredOutputCollector( FlowProcess flowProcess, Enum counter )
     {
-    this.flowProcess = flowProcess;
-    this.counter = counter;
+    this.duration = new MeasuredDuration( flowProcess, counter );
     }
 
   public MeasuredOutputCollector( FlowProcess flowProcess, Enum counter, OutputCollector outputCollector )
     {
-    this.flowProcess = flowProcess;
-    this.counter = counter;
+    this( new MeasuredDuration( flowProcess, counter ), outputCollector );
+    }
+
+  MeasuredOutputCollector( MeasuredDuration duration, OutputCollector outputCollector )
+    {
+    this.duration = duration;
     this.outputCollector = outputCollector;
     }
 
@@ -62,7 +66,7 @@ public class MeasuredOutputCollector implements OutputCollector, Closeable
   @Override
   public void collect( Object key, Object value ) throws IOException
     {
-    long start = System.currentTimeMillis();
+    long start = duration.start();
 
     try
       {
@@ -70,13 +74,22 @@ public class MeasuredOutputCollector implements OutputCollector, Closeable
       }
     finally
       {
-      flowProcess.increment( counter, System.currentTimeMillis() - start );
+      duration.end( start );
       }
     }
 
+  /** Method flush adds the durations measured so far to the counter. */
+  @Override
+  public void flush()
+    {
+    duration.flush();
+    }
+
   @Override
   public void close() throws IOException
     {
+    flush();
+
     if( outputCollector instanceof Closeable )
       ( (Closeable) outputCollector ).close();
     }
@@ -20,25 +20,33 @@
 
 package cascading.tap.hadoop.util;
 
+import java.io.Flushable;
 import java.io.IOException;
 
 import cascading.flow.FlowProcess;
 import org.apache.hadoop.mapred.RecordReader;
 
 /**
- *
+ * Class MeasuredRecordReader adds the time spent in the wrapped {@link RecordReader} to the given counter, see
+ * {@link MeasuredDuration}.
+ * <p/>
+ * The wrapped RecordReader may be replaced, the durations measured are only added to the counter in full once
+ * {@link #flush()} or {@link #close()} is called.
  */
-public class MeasuredRecordReader implements RecordReader
+public class MeasuredRecordReader implements RecordReader, Flushable
   {
-  private final FlowProcess flowProcess;
-  private final Enum counter;
+  private final MeasuredDuration duration;
 
   private RecordReader recordReader;
 
   public MeasuredRecordReader( FlowProcess flowProcess, Enum counter )
     {
-    this.flowProcess = flowProcess;
-    this.counter = counter;
+    this( new MeasuredDuration( flowProcess, counter ) );
+    }
+
+  MeasuredRecordReader( MeasuredDuration duration )
+    {
+    this.duration = duration;
     }
 
   public RecordReader getRecordReader()
@@ -54,7 +62,7 @@ public class MeasuredRecordReader implements RecordReader
   @Override
   public boolean next( Object key, Object value ) throws IOException
     {
-    long start = System.currentTimeMillis();
+    long start = duration.start();
 
     try
       {
@@ -62,14 +70,14 @@ public class MeasuredRecordReader implements RecordReader
       }
     finally
       {
-      flowProcess.increment( counter, System.currentTimeMillis() - start );
+      duration.end( start );
       }
     }
 
   @Override
   public Object createKey()
     {
-    long start = System.currentTimeMillis();
+    long start = duration.start();
 
     try
       {
@@ -77,14 +85,14 @@ public class MeasuredRecordReader implements RecordReader
       }
     finally
       {
-      flowProcess.increment( counter, System.currentTimeMillis() - start );
+      duration.end( start );
       }
     }
 
   @Override
   public Object createValue()
     {
-    long start = System.currentTimeMillis();
+    long start = duration.start();
 
     try
       {
@@ -92,7 +100,7 @@ public class MeasuredRecordReader implements RecordReader
       }
     finally
       {
-      flowProcess.increment( counter, System.currentTimeMillis() - start );
+      duration.end( start );
       }
     }
 
@@ -105,7 +113,7 @@ public class MeasuredRecordReader implements RecordReader
   @Override
   public void close() throws IOException
     {
-    long start = System.currentTimeMillis();
+    long start = duration.start();
 
     try
       {
@@ -113,14 +121,22 @@ public class MeasuredRecordReader implements RecordReader
       }
     finally
       {
-      flowProcess.increment( counter, System.currentTimeMillis() - start );
+      duration.end( start );
+      flush();
       }
     }
 
+  /** Method flush adds the durations measured so far to the counter. */
+  @Override
+  public void flush()
+    {
+    duration.flush();
+    }
+
   @Override
   public float getProgress() throws IOException
     {
-    long start = System.currentTimeMillis();
+    long start = duration.start();
 
     try
       {
@@ -128,7 +144,7 @@ public class MeasuredRecordReader implements RecordReader
       }
     finally
       {
-      flowProcess.increment( counter, System.currentTimeMillis() - start );
+      duration.end( start );
       }
     }
   }
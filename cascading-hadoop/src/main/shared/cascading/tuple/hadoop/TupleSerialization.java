@@ -30,6 +30,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import cascading.CascadingException;
 import cascading.flow.FlowProcess;
@@ -40,14 +41,20 @@ import cascading.tuple.TupleException;
 import cascading.tuple.hadoop.io.HadoopTupleOutputStream;
 import cascading.tuple.hadoop.io.IndexTupleDeserializer;
 import cascading.tuple.hadoop.io.IndexTupleSerializer;
+import cascading.tuple.hadoop.io.OrderedTupleDeserializer;
+import cascading.tuple.hadoop.io.OrderedTupleSerializer;
 import cascading.tuple.hadoop.io.TupleDeserializer;
 import cascading.tuple.hadoop.io.TuplePairDeserializer;
 import cascading.tuple.hadoop.io.TuplePairSerializer;
 import cascading.tuple.hadoop.io.TupleSerializer;
+import cascading.tuple.hadoop.io.TypedTupleDeserializer;
+import cascading.tuple.hadoop.io.TypedTupleSerializer;
 import cascading.tuple.io.IndexTuple;
+import cascading.tuple.io.OrderedTuple;
 import cascading.tuple.io.TupleInputStream;
 import cascading.tuple.io.TupleOutputStream;
 import cascading.tuple.io.TuplePair;
+import cascading.tuple.io.TypedTuple;
 import cascading.util.Util;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.conf.Configured;
@@ -90,7 +97,7 @@ public class TupleSerialization extends Configured implements Serialization
   /** Field defaultComparator * */
   private Comparator defaultComparator;
   /** Field classCache */
-  private final Map<String, Class> classCache = new HashMap<String, Class>();
+  private final Map<String, Class> classCache = new ConcurrentHashMap<String, Class>(); // spills may be read ahead concurrently
   /** Field serializationFactory */
   private SerializationFactory serializationFactory;
 
@@ -488,7 +495,7 @@ public class TupleSerialization extends Configured implements Serialization
 
   TupleDeserializer getTupleDeserializer()
     {
-    return new TupleDeserializer( getElementReader() );
+    return new TupleDeserializer( getElementReader(), isReuseValues() );
     }
 
   private TuplePairSerializer getTuplePairSerializer()
@@ -498,7 +505,7 @@ public class TupleSerialization extends Configured implements Serialization
 
   IndexTupleDeserializer getIndexTupleDeserializer()
     {
-    return new IndexTupleDeserializer( getElementReader() );
+    return new IndexTupleDeserializer( getElementReader(), isReuseValues() );
     }
 
   /**
@@ -521,6 +528,49 @@ public class TupleSerialization extends Configured implements Serialization
     return new IndexTupleSerializer( getElementWriter() );
     }
 
+  /**
+   * Method isReuseValues returns true if deserialized tuples and their values should be reused, see
+   * {@link TupleSerializationProps#setReuseValues(boolean)}.
+   *
+   * @return boolean
+   */
+  boolean isReuseValues()
+    {
+    return getConf().getBoolean( TupleSerializationProps.REUSE_VALUES, false );
+    }
+
+  /**
+   * Method isStringDictionary returns true if String elements should be dictionary encoded when spilling tuples, see
+   * {@link TupleSerializationProps#setStringDictionary(boolean)}.
+   *
+   * @return boolean
+   */
+  public boolean isStringDictionary()
+    {
+    return getConf().getBoolean( TupleSerializationProps.STRING_DICTIONARY, false );
+    }
+
+  /**
+   * Method getValueTypes returns the schema of grouping value types negotiated for the current step.
+   *
+   * @return Class[]
+   */
+  Class[] getValueTypes()
+    {
+    String value = getConf().get( TupleSerializationProps.VALUE_TYPES );
+
+    if( value == null || value.isEmpty() )
+      throw new IllegalStateException( "no value types set for typed tuple serialization" );
+
+    String[] classNames = value.split( "," );
+    Class[] types = new Class[ classNames.length ];
+
+    for( int i = 0; i < classNames.length; i++ )
+      types[ i ] = getClass( classNames[ i ] );
+
+    return types;
+    }
+
   /**
    * Method accept implements {@link Serialization#accept(Class)}.
    *
@@ -529,7 +579,7 @@ public class TupleSerialization extends Configured implements Serialization
    */
   public boolean accept( Class c )
     {
-    return Tuple.class == c || TuplePair.class == c || IndexTuple.class == c;
+    return Tuple.class == c || TuplePair.class == c || IndexTuple.class == c || OrderedTuple.class == c || TypedTuple.class == c;
     }
 
   /**
@@ -546,6 +596,10 @@ public class TupleSerialization extends Configured implements Serialization
       return getTuplePairDeserializer();
     else if( c == IndexTuple.class )
       return getIndexTupleDeserializer();
+    else if( c == OrderedTuple.class )
+      return new OrderedTupleDeserializer();
+    else if( c == TypedTuple.class )
+      return new TypedTupleDeserializer( getElementReader(), getValueTypes() );
 
     throw new IllegalArgumentException( "unknown class, cannot deserialize: " + c.getName() );
     }
@@ -564,6 +618,10 @@ public class TupleSerialization extends Configured implements Serialization
       return getTuplePairSerializer();
     else if( c == IndexTuple.class )
       return getIndexTupleSerializer();
+    else if( c == OrderedTuple.class )
+      return new OrderedTupleSerializer();
+    else if( c == TypedTuple.class )
+      return new TypedTupleSerializer( getElementWriter(), getValueTypes() );
 
     throw new IllegalArgumentException( "unknown class, cannot serialize: " + c.getName() );
     }
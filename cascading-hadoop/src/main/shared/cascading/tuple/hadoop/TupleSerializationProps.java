@@ -41,9 +41,18 @@ public class TupleSerializationProps extends Props
   {
   public static final String SERIALIZATION_TOKENS = "cascading.serialization.tokens";
   public static final String HADOOP_IO_SERIALIZATIONS = "io.serializations";
+  public static final String ORDERED_KEYS = "cascading.serialization.keys.ordered";
+  public static final String TYPED_VALUES = "cascading.serialization.values.typed";
+  public static final String VALUE_TYPES = "cascading.serialization.values.types";
+  public static final String REUSE_VALUES = "cascading.serialization.values.reuse";
+  public static final String STRING_DICTIONARY = "cascading.serialization.strings.dictionary";
 
   Map<Integer, String> serializationTokens = new LinkedHashMap<Integer, String>();
   List<String> hadoopSerializations = new ArrayList<String>();
+  Boolean orderedKeys;
+  Boolean typedValues;
+  Boolean reuseValues;
+  Boolean stringDictionary;
 
   /**
    * Adds the given token and className pair as a serialization token property. During object serialization and deserialization,
@@ -196,6 +205,101 @@ public class TupleSerializationProps extends Props
     return this;
     }
 
+  public Boolean getOrderedKeys()
+    {
+    return orderedKeys;
+    }
+
+  /**
+   * Method setOrderedKeys sets whether the grouping keys of a {@link cascading.pipe.GroupBy} are serialized so their
+   * bytes sort in the same order as their values, allowing the shuffle to compare keys without deserializing them.
+   * <p/>
+   * Ordered keys are only used if the GroupBy has no secondary sort, is not reversed, and no custom comparators are
+   * set on the grouping fields or as the default comparator. Only Boolean, Short, Integer, Long, Float, Double, and
+   * String values are supported in grouping keys, any other type fails the job. Values of different types in the
+   * same key position are ordered by type.
+   *
+   * @param orderedKeys of type boolean
+   * @return this
+   */
+  public TupleSerializationProps setOrderedKeys( boolean orderedKeys )
+    {
+    this.orderedKeys = orderedKeys;
+
+    return this;
+    }
+
+  public Boolean getTypedValues()
+    {
+    return typedValues;
+    }
+
+  /**
+   * Method setTypedValues sets whether the grouping values of a {@link cascading.pipe.GroupBy} are serialized against
+   * the declared types of the incoming fields, dropping the type token written before every element.
+   * <p/>
+   * The schema is negotiated once per step by the planner, and is only used if every incoming field declares a
+   * Boolean, Short, Integer, Long, Float, Double, or String type. Values whose class does not match the declared
+   * type are written with tokens, as usual.
+   *
+   * @param typedValues of type boolean
+   * @return this
+   */
+  public TupleSerializationProps setTypedValues( boolean typedValues )
+    {
+    this.typedValues = typedValues;
+
+    return this;
+    }
+
+  public Boolean getReuseValues()
+    {
+    return reuseValues;
+    }
+
+  /**
+   * Method setReuseValues sets whether deserialized tuples and their values are reused while reading the grouping
+   * values of a {@link cascading.pipe.GroupBy} or {@link cascading.pipe.CoGroup}.
+   * <p/>
+   * When enabled, the Tuple of each incoming CoGroup value is refilled in place, and String and boxed primitive
+   * values equal to the value last read at the same position are returned as the same instance. Only enable when no
+   * downstream {@link cascading.operation.Buffer}, {@link cascading.operation.Aggregator}, or custom
+   * {@link cascading.tuple.collect.TupleCollectionFactory} retains a reference to an incoming value Tuple without
+   * copying it.
+   *
+   * @param reuseValues of type boolean
+   * @return this
+   */
+  public TupleSerializationProps setReuseValues( boolean reuseValues )
+    {
+    this.reuseValues = reuseValues;
+
+    return this;
+    }
+
+  public Boolean getStringDictionary()
+    {
+    return stringDictionary;
+    }
+
+  /**
+   * Method setStringDictionary sets whether String elements are dictionary encoded when tuples are spilled to disk,
+   * see {@link cascading.tuple.hadoop.collect.HadoopSpillableTupleList}.
+   * <p/>
+   * The first occurrence of a String in a spill block is written in full, every repeat is written as a small
+   * back-reference to it. This only benefits low cardinality String values, and is not applied to the map output, as
+   * the shuffle sorts and merges each record independently.
+   *
+   * @param stringDictionary of type boolean
+   * @return this
+   */
+  public TupleSerializationProps setStringDictionary( boolean stringDictionary )
+    {
+    this.stringDictionary = stringDictionary;
+
+    return this;
+    }
+
   @Override
   protected void addPropertiesTo( Properties properties )
     {
@@ -204,5 +308,17 @@ public class TupleSerializationProps extends Props
 
     for( String hadoopSerialization : hadoopSerializations )
       addSerialization( properties, hadoopSerialization );
+
+    if( orderedKeys != null )
+      properties.setProperty( ORDERED_KEYS, orderedKeys.toString() );
+
+    if( typedValues != null )
+      properties.setProperty( TYPED_VALUES, typedValues.toString() );
+
+    if( reuseValues != null )
+      properties.setProperty( REUSE_VALUES, reuseValues.toString() );
+
+    if( stringDictionary != null )
+      properties.setProperty( STRING_DICTIONARY, stringDictionary.toString() );
     }
   }
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tuple.hadoop.collect;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import cascading.tuple.collect.OffHeapTupleMap;
+import cascading.tuple.hadoop.TupleSerialization;
+import cascading.tuple.hadoop.io.HadoopTupleInputStream;
+import cascading.tuple.hadoop.io.HadoopTupleOutputStream;
+import cascading.tuple.io.TupleInputStream;
+import cascading.tuple.io.TupleOutputStream;
+
+/**
+ * HadoopOffHeapTupleMap is an {@link OffHeapTupleMap} serializing via the configured {@link TupleSerialization}.
+ */
+public class HadoopOffHeapTupleMap extends OffHeapTupleMap
+  {
+  private final TupleSerialization tupleSerialization;
+
+  public HadoopOffHeapTupleMap( int initialCapacity, int blockSize, TupleSerialization tupleSerialization )
+    {
+    super( initialCapacity, blockSize );
+    this.tupleSerialization = tupleSerialization;
+    }
+
+  @Override
+  protected TupleOutputStream createTupleOutputStream( OutputStream outputStream )
+    {
+    return new HadoopTupleOutputStream( outputStream, tupleSerialization.getElementWriter() );
+    }
+
+  @Override
+  protected TupleInputStream createTupleInputStream( InputStream inputStream )
+    {
+    return new HadoopTupleInputStream( inputStream, tupleSerialization.getElementReader() );
+    }
+  }
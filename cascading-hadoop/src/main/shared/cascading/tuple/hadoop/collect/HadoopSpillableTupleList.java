@@ -66,6 +66,8 @@ public class HadoopSpillableTupleList extends SpillableTupleList
   private final CompressionCodec codec;
   /** Field serializationElementWriter */
   private final TupleSerialization tupleSerialization;
+  /** Field stringDictionary */
+  private final boolean stringDictionary;
 
   public static synchronized CompressionCodec getCodec( FlowProcess flowProcess, String defaultCodecs )
     {
@@ -96,6 +98,8 @@ public class HadoopSpillableTupleList extends SpillableTupleList
       this.tupleSerialization = new TupleSerialization();
     else
       this.tupleSerialization = new TupleSerialization( jobConf );
+
+    this.stringDictionary = tupleSerialization.isStringDictionary();
     }
 
   public HadoopSpillableTupleList( int threshold, TupleSerialization tupleSerialization, CompressionCodec codec )
@@ -103,6 +107,7 @@ public class HadoopSpillableTupleList extends SpillableTupleList
     super( threshold );
     this.tupleSerialization = tupleSerialization;
     this.codec = codec;
+    this.stringDictionary = tupleSerialization.isStringDictionary();
     }
 
   @Override
@@ -124,7 +129,8 @@ public class HadoopSpillableTupleList extends SpillableTupleList
 
       final Compressor finalCompressor = compressor;
 
-      return new HadoopTupleOutputStream( outputStream, tupleSerialization.getElementWriter() )
+      // each spill file, or compact buffer copied into one, is read from the start, so may share a dictionary
+      return new HadoopTupleOutputStream( outputStream, tupleSerialization.getElementWriter(), stringDictionary )
       {
       @Override
       public void close() throws IOException
@@ -164,6 +170,18 @@ public class HadoopSpillableTupleList extends SpillableTupleList
       }
     }
 
+  @Override
+  protected TupleOutputStream createTupleOutputStream( OutputStream outputStream )
+    {
+    return new HadoopTupleOutputStream( outputStream, tupleSerialization.getElementWriter(), stringDictionary );
+    }
+
+  @Override
+  protected TupleInputStream createTupleInputStream( InputStream inputStream )
+    {
+    return new HadoopTupleInputStream( inputStream, tupleSerialization.getElementReader() );
+    }
+
   @Override
   protected TupleInputStream createTupleInputStream( File file )
     {
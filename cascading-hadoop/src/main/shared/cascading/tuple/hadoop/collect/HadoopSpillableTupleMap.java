@@ -25,6 +25,7 @@ import java.util.Collection;
 import cascading.flow.FlowProcess;
 import cascading.provider.FactoryLoader;
 import cascading.tuple.Tuple;
+import cascading.tuple.collect.MemorySpillStrategy;
 import cascading.tuple.collect.Spillable;
 import cascading.tuple.collect.SpillableTupleList;
 import cascading.tuple.collect.SpillableTupleMap;
@@ -73,11 +74,19 @@ public class HadoopSpillableTupleMap extends SpillableTupleMap
   /**
    * Method getSpillStrategy returns a SpillStrategy instance that is passed to the underlying Spillable
    * tuple collection.
+   * <p/>
+   * If a {@link MemorySpillStrategy} is configured, it is returned instead of the strategy dividing the map
+   * threshold across all keys.
    *
    * @return of type Spillable#SpillStrategy
    */
   protected Spillable.SpillStrategy getSpillStrategy()
     {
+    MemorySpillStrategy memorySpillStrategy = MemorySpillStrategy.getSpillStrategy( flowProcess );
+
+    if( memorySpillStrategy != null )
+      return memorySpillStrategy;
+
     return new Spillable.SpillStrategy()
     {
     int minThreshold = (int) ( getMapThreshold() * .05 );
@@ -24,6 +24,9 @@ import java.util.Collection;
 
 import cascading.flow.FlowProcess;
 import cascading.tuple.Tuple;
+import cascading.tuple.collect.MemorySpillStrategy;
+import cascading.tuple.collect.SpillableProps;
+import cascading.tuple.collect.SpillableTupleList;
 import cascading.tuple.collect.TupleCollectionFactory;
 import cascading.tuple.hadoop.TupleSerialization;
 import org.apache.hadoop.io.compress.CompressionCodec;
@@ -40,6 +43,9 @@ public class HadoopTupleCollectionFactory implements TupleCollectionFactory<JobC
   private int spillThreshold;
   private CompressionCodec codec;
   private TupleSerialization tupleSerialization;
+  private MemorySpillStrategy memorySpillStrategy;
+  private int asyncBuffers;
+  private boolean compact;
 
   @Override
   public void initialize( FlowProcess<JobConf> flowProcess )
@@ -48,11 +54,24 @@ public class HadoopTupleCollectionFactory implements TupleCollectionFactory<JobC
     this.codec = HadoopSpillableTupleList.getCodec( flowProcess, HadoopSpillableTupleList.defaultCodecs );
 
     this.tupleSerialization = new TupleSerialization( flowProcess );
+    this.memorySpillStrategy = MemorySpillStrategy.getSpillStrategy( flowProcess );
+    this.asyncBuffers = SpillableTupleList.getAsyncBuffers( flowProcess, SpillableProps.defaultSpillAsyncBuffers );
+    this.compact = SpillableTupleList.isCompact( flowProcess, SpillableProps.defaultListCompact );
     }
 
   @Override
   public Collection<Tuple> create( FlowProcess<JobConf> flowProcess )
     {
-    return new HadoopSpillableTupleList( spillThreshold, tupleSerialization, codec );
+    HadoopSpillableTupleList list = new HadoopSpillableTupleList( spillThreshold, tupleSerialization, codec );
+
+    list.setCompact( compact );
+
+    if( memorySpillStrategy != null )
+      list.setSpillStrategy( memorySpillStrategy );
+
+    if( asyncBuffers > 0 )
+      list.setAsyncSpill( asyncBuffers );
+
+    return list;
     }
   }
@@ -31,10 +31,17 @@ abstract class BaseDeserializer<T> implements Deserializer<T>
   {
   TupleInputStream inputStream;
   private final TupleSerialization.SerializationElementReader elementReader;
+  private final boolean reuseValues;
 
   protected BaseDeserializer( TupleSerialization.SerializationElementReader elementReader )
+    {
+    this( elementReader, false );
+    }
+
+  protected BaseDeserializer( TupleSerialization.SerializationElementReader elementReader, boolean reuseValues )
     {
     this.elementReader = elementReader;
+    this.reuseValues = reuseValues;
     }
 
   public void open( InputStream in )
@@ -42,7 +49,7 @@ abstract class BaseDeserializer<T> implements Deserializer<T>
     if( in instanceof TupleInputStream )
       inputStream = (TupleInputStream) in;
     else
-      inputStream = new HadoopTupleInputStream( in, elementReader );
+      inputStream = new HadoopTupleInputStream( in, elementReader, reuseValues );
     }
 
   public void close() throws IOException
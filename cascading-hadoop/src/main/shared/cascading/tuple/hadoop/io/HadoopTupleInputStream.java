@@ -22,7 +22,11 @@ package cascading.tuple.hadoop.io;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 
+import cascading.tuple.Tuple;
 import cascading.tuple.io.IndexTuple;
 import cascading.tuple.io.TupleInputStream;
 import org.apache.hadoop.io.WritableUtils;
@@ -32,9 +36,48 @@ import org.apache.hadoop.io.WritableUtils;
  */
 public class HadoopTupleInputStream extends TupleInputStream
   {
+  private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+  /** Field reuseValues */
+  private final boolean reuseValues;
+  /** Field reading is true while a top level tuple is being read in reuse mode */
+  private boolean reading = false;
+  /** Field lastElements holds the last value read at each top level position */
+  private Object[] lastElements = new Object[ 0 ];
+  /** Field lastBytes holds the encoded bytes of the last String read at each top level position */
+  private byte[][] lastBytes = new byte[ 0 ][];
+  /** Field lastLengths */
+  private int[] lastLengths = new int[ 0 ];
+  /** Field buffer */
+  private byte[] buffer = new byte[ 64 ];
+  /** Field dictionary holds the Strings defined so far, see HadoopTupleOutputStream#STRING_DEFINE_TOKEN */
+  private List<String> dictionary;
+
   public HadoopTupleInputStream( InputStream inputStream, ElementReader elementReader )
+    {
+    this( inputStream, elementReader, false );
+    }
+
+  /**
+   * Constructor HadoopTupleInputStream creates a new HadoopTupleInputStream instance.
+   * <p/>
+   * If reuseValues is true, the Tuple held by a given {@link IndexTuple} is refilled instead of replaced, and
+   * String and boxed primitive values equal to the value last read at the same position are returned as the
+   * same instance.
+   *
+   * @param inputStream   of type InputStream
+   * @param elementReader of type ElementReader
+   * @param reuseValues   of type boolean
+   */
+  public HadoopTupleInputStream( InputStream inputStream, ElementReader elementReader, boolean reuseValues )
     {
     super( inputStream, elementReader );
+    this.reuseValues = reuseValues;
+    }
+
+  public boolean isReuseValues()
+    {
+    return reuseValues;
     }
 
   public int getNumElements() throws IOException
@@ -55,11 +98,170 @@ public class HadoopTupleInputStream extends TupleInputStream
   public IndexTuple readIndexTuple( IndexTuple indexTuple ) throws IOException
     {
     indexTuple.setIndex( readVInt() );
-    indexTuple.setTuple( readTuple() );
+
+    Tuple tuple = reuseValues && !reading ? indexTuple.getTuple() : null;
+
+    if( tuple == null )
+      indexTuple.setTuple( readTuple() );
+    else
+      readTuple( tuple );
 
     return indexTuple;
     }
 
+  @Override
+  public Tuple readTuple( Tuple tuple ) throws IOException
+    {
+    if( !reuseValues || reading ) // nested tuples are always read as new instances
+      return super.readTuple( tuple );
+
+    List<Object> elements = Tuple.elements( tuple );
+
+    elements.clear();
+    int len = getNumElements();
+
+    ensurePositions( len );
+
+    reading = true;
+
+    try
+      {
+      for( int i = 0; i < len; i++ )
+        elements.add( readReused( readToken(), i ) );
+      }
+    finally
+      {
+      reading = false;
+      }
+
+    return tuple;
+    }
+
+  private void ensurePositions( int len )
+    {
+    if( lastElements.length >= len )
+      return;
+
+    Object[] elements = new Object[ len ];
+    byte[][] bytes = new byte[ len ][];
+    int[] lengths = new int[ len ];
+
+    System.arraycopy( lastElements, 0, elements, 0, lastElements.length );
+    System.arraycopy( lastBytes, 0, bytes, 0, lastBytes.length );
+    System.arraycopy( lastLengths, 0, lengths, 0, lastLengths.length );
+
+    lastElements = elements;
+    lastBytes = bytes;
+    lastLengths = lengths;
+    }
+
+  private Object readReused( int type, int pos ) throws IOException
+    {
+    Object last = lastElements[ pos ];
+    Object value;
+
+    switch( type )
+      {
+      case 1:
+        return readReusedString( pos );
+      case 2:
+        float floatValue = readFloat();
+
+        if( last instanceof Float && Float.floatToIntBits( (Float) last ) == Float.floatToIntBits( floatValue ) )
+          return last;
+
+        value = floatValue;
+        break;
+      case 3:
+        double doubleValue = readDouble();
+
+        if( last instanceof Double && Double.doubleToLongBits( (Double) last ) == Double.doubleToLongBits( doubleValue ) )
+          return last;
+
+        value = doubleValue;
+        break;
+      case 4:
+        int intValue = readVInt();
+
+        if( last instanceof Integer && (Integer) last == intValue )
+          return last;
+
+        value = intValue;
+        break;
+      case 5:
+        long longValue = readVLong();
+
+        if( last instanceof Long && (Long) last == longValue )
+          return last;
+
+        value = longValue;
+        break;
+      default:
+        return readType( type );
+      }
+
+    lastElements[ pos ] = value;
+
+    return value;
+    }
+
+  private String readReusedString( int pos ) throws IOException
+    {
+    int length = readInt();
+
+    if( length == -1 ) // see WritableUtils#readString
+      return null;
+
+    if( buffer.length < length )
+      buffer = new byte[ Math.max( length, buffer.length * 2 ) ];
+
+    readFully( buffer, 0, length );
+
+    Object last = lastElements[ pos ];
+    byte[] bytes = lastBytes[ pos ];
+
+    if( last instanceof String && lastLengths[ pos ] == length && equals( bytes, buffer, length ) )
+      return (String) last;
+
+    if( bytes == null || bytes.length < length )
+      {
+      bytes = new byte[ Math.max( length, 16 ) ];
+      lastBytes[ pos ] = bytes;
+      }
+
+    System.arraycopy( buffer, 0, bytes, 0, length );
+    lastLengths[ pos ] = length;
+
+    String value = new String( buffer, 0, length, UTF_8 );
+
+    lastElements[ pos ] = value;
+
+    return value;
+    }
+
+  private String defineString() throws IOException
+    {
+    String value = readString();
+
+    if( dictionary == null )
+      dictionary = new ArrayList<String>();
+
+    dictionary.add( value );
+
+    return value;
+    }
+
+  private static boolean equals( byte[] lhs, byte[] rhs, int length )
+    {
+    for( int i = 0; i < length; i++ )
+      {
+      if( lhs[ i ] != rhs[ i ] )
+        return false;
+      }
+
+    return true;
+    }
+
   public long readVLong() throws IOException
     {
     return WritableUtils.readVLong( this );
@@ -101,6 +303,10 @@ public class HadoopTupleInputStream extends TupleInputStream
         return readTuplePair();
       case 10:
         return readIndexTuple();
+      case HadoopTupleOutputStream.STRING_DEFINE_TOKEN:
+        return defineString();
+      case HadoopTupleOutputStream.STRING_REFERENCE_TOKEN:
+        return dictionary.get( readVInt() );
       default:
         return elementReader.read( type, this );
       }
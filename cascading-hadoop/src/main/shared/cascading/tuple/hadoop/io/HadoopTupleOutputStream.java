@@ -22,6 +22,7 @@ package cascading.tuple.hadoop.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
 
@@ -38,8 +39,18 @@ public class HadoopTupleOutputStream extends TupleOutputStream
   {
   /** Field WRITABLE_TOKEN */
   public static final int WRITABLE_TOKEN = 32;
+  /** Field STRING_DEFINE_TOKEN denotes a String written in full and added to the stream dictionary */
+  public static final int STRING_DEFINE_TOKEN = 11;
+  /** Field STRING_REFERENCE_TOKEN denotes a String written as its index in the stream dictionary */
+  public static final int STRING_REFERENCE_TOKEN = 12;
+
+  /** Field MAX_DICTIONARY_SIZE is the maximum number of Strings held by a stream dictionary */
+  static final int MAX_DICTIONARY_SIZE = 8 * 1024;
+  /** Field MAX_DICTIONARY_LENGTH is the maximum length of a String added to a stream dictionary */
+  static final int MAX_DICTIONARY_LENGTH = 256;
 
   private static final Map<Class, TupleElementWriter> staticTupleElementWriters = new IdentityHashMap<Class, TupleElementWriter>();
+  private static final Map<Class, TupleElementWriter> dictionaryTupleElementWriters = new IdentityHashMap<Class, TupleElementWriter>();
 
   static
     {
@@ -142,13 +153,70 @@ public class HadoopTupleOutputStream extends TupleOutputStream
       stream.writeIndexTuple( (IndexTuple) element );
       }
     } );
+
+    dictionaryTupleElementWriters.putAll( staticTupleElementWriters );
+
+    dictionaryTupleElementWriters.put( String.class, new TupleElementWriter()
+    {
+    @Override
+    public void write( TupleOutputStream stream, Object element ) throws IOException
+      {
+      ( (HadoopTupleOutputStream) stream ).writeDictionaryString( (String) element );
+      }
+    } );
     }
 
+  /** Field dictionary maps each String written so far to its index, if enabled */
+  private Map<String, Integer> dictionary;
+
   public HadoopTupleOutputStream( OutputStream outputStream, ElementWriter elementWriter )
     {
     super( staticTupleElementWriters, outputStream, elementWriter );
     }
 
+  /**
+   * Constructor HadoopTupleOutputStream creates a new HadoopTupleOutputStream instance.
+   * <p/>
+   * If stringDictionary is true, repeated String elements are written as back-references to their first occurrence
+   * in this stream. The resulting bytes can only be read sequentially from the beginning of the stream by a single
+   * {@link HadoopTupleInputStream}, so must not be used where tuples are sorted, merged, or read at random.
+   *
+   * @param outputStream     of type OutputStream
+   * @param elementWriter    of type ElementWriter
+   * @param stringDictionary of type boolean
+   */
+  public HadoopTupleOutputStream( OutputStream outputStream, ElementWriter elementWriter, boolean stringDictionary )
+    {
+    super( stringDictionary ? dictionaryTupleElementWriters : staticTupleElementWriters, outputStream, elementWriter );
+
+    if( stringDictionary )
+      dictionary = new HashMap<String, Integer>();
+    }
+
+  private void writeDictionaryString( String value ) throws IOException
+    {
+    Integer index = dictionary.get( value );
+
+    if( index != null )
+      {
+      WritableUtils.writeVInt( this, STRING_REFERENCE_TOKEN );
+      WritableUtils.writeVInt( this, index );
+      return;
+      }
+
+    if( dictionary.size() < MAX_DICTIONARY_SIZE && value.length() <= MAX_DICTIONARY_LENGTH )
+      {
+      dictionary.put( value, dictionary.size() );
+      WritableUtils.writeVInt( this, STRING_DEFINE_TOKEN );
+      }
+    else
+      {
+      WritableUtils.writeVInt( this, 1 );
+      }
+
+    WritableUtils.writeString( this, value );
+    }
+
   @Override
   protected void writeIntInternal( int value ) throws IOException
     {
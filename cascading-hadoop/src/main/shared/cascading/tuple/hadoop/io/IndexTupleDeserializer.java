@@ -32,6 +32,11 @@ public class IndexTupleDeserializer extends BaseDeserializer<IndexTuple>
     super( elementReader );
     }
 
+  public IndexTupleDeserializer( TupleSerialization.SerializationElementReader elementReader, boolean reuseValues )
+    {
+    super( elementReader, reuseValues );
+    }
+
   public IndexTuple deserialize( IndexTuple indexTuple ) throws IOException
     {
     if( indexTuple == null )
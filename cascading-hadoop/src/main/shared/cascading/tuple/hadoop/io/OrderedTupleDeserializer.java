@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tuple.hadoop.io;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import cascading.CascadingException;
+import cascading.tuple.Tuple;
+import cascading.tuple.io.OrderedTuple;
+import org.apache.hadoop.io.serializer.Deserializer;
+
+import static cascading.tuple.hadoop.io.OrderedTupleSerializer.*;
+
+/** Class OrderedTupleDeserializer reads grouping keys written by {@link OrderedTupleSerializer}. */
+public class OrderedTupleDeserializer implements Deserializer<Tuple>
+  {
+  private final StringBuilder builder = new StringBuilder();
+  private DataInputStream inputStream;
+
+  public void open( InputStream in )
+    {
+    if( in instanceof DataInputStream )
+      inputStream = (DataInputStream) in;
+    else
+      inputStream = new DataInputStream( in );
+    }
+
+  public Tuple deserialize( Tuple tuple ) throws IOException
+    {
+    if( tuple == null )
+      tuple = new OrderedTuple();
+    else
+      tuple.clear();
+
+    int size = inputStream.readUnsignedByte();
+
+    if( size == LARGE_SIZE )
+      size = inputStream.readInt();
+
+    for( int i = 0; i < size; i++ )
+      tuple.add( readElement() );
+
+    return tuple;
+    }
+
+  private Object readElement() throws IOException
+    {
+    int type = inputStream.readUnsignedByte();
+
+    switch( type )
+      {
+      case NULL:
+        return null;
+      case STRING:
+        return readString();
+      case LONG:
+        return inputStream.readLong() ^ Long.MIN_VALUE;
+      case INTEGER:
+        return inputStream.readInt() ^ Integer.MIN_VALUE;
+      case DOUBLE:
+        long longBits = inputStream.readLong();
+        return Double.longBitsToDouble( longBits < 0 ? longBits ^ Long.MIN_VALUE : ~longBits );
+      case FLOAT:
+        int intBits = inputStream.readInt();
+        return Float.intBitsToFloat( intBits < 0 ? intBits ^ Integer.MIN_VALUE : ~intBits );
+      case SHORT:
+        return (short) ( inputStream.readShort() ^ Short.MIN_VALUE );
+      case BOOLEAN:
+        return inputStream.readByte() != 0;
+      default:
+        throw new CascadingException( "unknown ordered key type marker: " + type );
+      }
+    }
+
+  private String readString() throws IOException
+    {
+    builder.setLength( 0 );
+
+    int b;
+
+    while( ( b = inputStream.readUnsignedByte() ) != 0 )
+      {
+      int c;
+
+      if( b < 0x80 )
+        c = b;
+      else if( b < 0xE0 )
+        c = ( b & 0x1F ) << 6 | inputStream.readUnsignedByte() & 0x3F;
+      else if( b < 0xF0 )
+        c = ( b & 0x0F ) << 12 | ( inputStream.readUnsignedByte() & 0x3F ) << 6 | inputStream.readUnsignedByte() & 0x3F;
+      else
+        c = ( b & 0x07 ) << 18 | ( inputStream.readUnsignedByte() & 0x3F ) << 12 | ( inputStream.readUnsignedByte() & 0x3F ) << 6 | inputStream.readUnsignedByte() & 0x3F;
+
+      builder.append( (char) ( c - 1 ) );
+      }
+
+    return builder.toString();
+    }
+
+  public void close() throws IOException
+    {
+    try
+      {
+      if( inputStream != null )
+        inputStream.close();
+      }
+    finally
+      {
+      inputStream = null;
+      }
+    }
+  }
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tuple.hadoop.io;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import cascading.CascadingException;
+import cascading.tuple.Tuple;
+import org.apache.hadoop.io.serializer.Serializer;
+
+/**
+ * Class OrderedTupleSerializer writes grouping keys so that comparing the serialized bytes as unsigned bytes yields
+ * the same order as comparing the Tuple values.
+ * <p/>
+ * The element count is written first, then every element as a null marker, or a type marker followed by an order
+ * preserving value. Integral values are written big-endian with the sign bit flipped, floating point values with
+ * the sign bit flipped, or all bits flipped if negative, and Strings as the UTF-8 bytes of each char shifted by one,
+ * terminated by a zero byte.
+ * <p/>
+ * Only Boolean, Short, Integer, Long, Float, Double, and String values are supported. Values of different types in
+ * the same position are ordered by type.
+ */
+public class OrderedTupleSerializer implements Serializer<Tuple>
+  {
+  static final int NULL = 0x00;
+  static final int BOOLEAN = 0x10;
+  static final int SHORT = 0x20;
+  static final int INTEGER = 0x21;
+  static final int LONG = 0x22;
+  static final int FLOAT = 0x30;
+  static final int DOUBLE = 0x31;
+  static final int STRING = 0x40;
+
+  static final int LARGE_SIZE = 0xFF;
+
+  private DataOutputStream outputStream;
+
+  public void open( OutputStream out )
+    {
+    if( out instanceof DataOutputStream )
+      outputStream = (DataOutputStream) out;
+    else
+      outputStream = new DataOutputStream( out );
+    }
+
+  public void serialize( Tuple tuple ) throws IOException
+    {
+    int size = tuple.size();
+
+    if( size < LARGE_SIZE )
+      {
+      outputStream.writeByte( size );
+      }
+    else
+      {
+      outputStream.writeByte( LARGE_SIZE );
+      outputStream.writeInt( size );
+      }
+
+    for( int i = 0; i < size; i++ )
+      writeElement( tuple.getObject( i ) );
+    }
+
+  private void writeElement( Object value ) throws IOException
+    {
+    if( value == null )
+      {
+      outputStream.writeByte( NULL );
+      }
+    else if( value instanceof String )
+      {
+      outputStream.writeByte( STRING );
+      writeString( (String) value );
+      }
+    else if( value instanceof Long )
+      {
+      outputStream.writeByte( LONG );
+      outputStream.writeLong( (Long) value ^ Long.MIN_VALUE );
+      }
+    else if( value instanceof Integer )
+      {
+      outputStream.writeByte( INTEGER );
+      outputStream.writeInt( (Integer) value ^ Integer.MIN_VALUE );
+      }
+    else if( value instanceof Double )
+      {
+      long bits = Double.doubleToLongBits( (Double) value );
+
+      outputStream.writeByte( DOUBLE );
+      outputStream.writeLong( bits < 0 ? ~bits : bits ^ Long.MIN_VALUE );
+      }
+    else if( value instanceof Float )
+      {
+      int bits = Float.floatToIntBits( (Float) value );
+
+      outputStream.writeByte( FLOAT );
+      outputStream.writeInt( bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE );
+      }
+    else if( value instanceof Short )
+      {
+      outputStream.writeByte( SHORT );
+      outputStream.writeShort( (Short) value ^ Short.MIN_VALUE );
+      }
+    else if( value instanceof Boolean )
+      {
+      outputStream.writeByte( BOOLEAN );
+      outputStream.writeByte( (Boolean) value ? 1 : 0 );
+      }
+    else
+      {
+      throw new CascadingException( "ordered keys do not support values of type: " + value.getClass().getName() );
+      }
+    }
+
+  private void writeString( String value ) throws IOException
+    {
+    int length = value.length();
+
+    for( int i = 0; i < length; i++ )
+      {
+      // shift so no byte of a char is zero, the terminator
+      int c = value.charAt( i ) + 1;
+
+      if( c < 0x80 )
+        {
+        outputStream.writeByte( c );
+        }
+      else if( c < 0x800 )
+        {
+        outputStream.writeByte( 0xC0 | c >> 6 );
+        outputStream.writeByte( 0x80 | c & 0x3F );
+        }
+      else if( c < 0x10000 )
+        {
+        outputStream.writeByte( 0xE0 | c >> 12 );
+        outputStream.writeByte( 0x80 | c >> 6 & 0x3F );
+        outputStream.writeByte( 0x80 | c & 0x3F );
+        }
+      else
+        {
+        outputStream.writeByte( 0xF0 | c >> 18 );
+        outputStream.writeByte( 0x80 | c >> 12 & 0x3F );
+        outputStream.writeByte( 0x80 | c >> 6 & 0x3F );
+        outputStream.writeByte( 0x80 | c & 0x3F );
+        }
+      }
+
+    outputStream.writeByte( 0 );
+    }
+
+  public void close() throws IOException
+    {
+    try
+      {
+      if( outputStream != null )
+        outputStream.close();
+      }
+    finally
+      {
+      outputStream = null;
+      }
+    }
+  }
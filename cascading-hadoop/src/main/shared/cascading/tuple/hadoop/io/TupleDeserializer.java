@@ -32,6 +32,11 @@ public class TupleDeserializer extends BaseDeserializer<Tuple>
     super( elementReader );
     }
 
+  public TupleDeserializer( TupleSerialization.SerializationElementReader elementReader, boolean reuseValues )
+    {
+    super( elementReader, reuseValues );
+    }
+
   public Tuple deserialize( Tuple tuple ) throws IOException
     {
     if( tuple == null )
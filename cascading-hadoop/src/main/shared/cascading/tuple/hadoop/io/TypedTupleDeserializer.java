@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tuple.hadoop.io;
+
+import java.io.IOException;
+import java.util.List;
+
+import cascading.CascadingException;
+import cascading.tuple.Tuple;
+import cascading.tuple.hadoop.TupleSerialization;
+import cascading.tuple.io.TypedTuple;
+import org.apache.hadoop.io.WritableUtils;
+
+import static cascading.tuple.hadoop.io.TypedTupleSerializer.*;
+
+/** Class TypedTupleDeserializer reads Tuples written by {@link TypedTupleSerializer} against the same schema. */
+public class TypedTupleDeserializer extends BaseDeserializer<Tuple>
+  {
+  private final Class[] types;
+  private final byte[] nulls;
+  private byte[] buffer = new byte[ 64 ];
+
+  public TypedTupleDeserializer( TupleSerialization.SerializationElementReader elementReader, Class[] types )
+    {
+    super( elementReader );
+    this.types = types;
+    this.nulls = new byte[ ( types.length + 7 ) / 8 ];
+    }
+
+  public Tuple deserialize( Tuple tuple ) throws IOException
+    {
+    if( tuple == null )
+      tuple = new TypedTuple();
+
+    int marker = inputStream.readUnsignedByte();
+
+    if( marker == UNTYPED )
+      return inputStream.readTuple( tuple );
+
+    if( marker != TYPED )
+      throw new CascadingException( "unknown typed tuple marker: " + marker );
+
+    List<Object> elements = Tuple.elements( tuple );
+
+    elements.clear();
+
+    inputStream.readFully( nulls );
+
+    for( int i = 0; i < types.length; i++ )
+      {
+      if( ( nulls[ i >>> 3 ] & 1 << ( i & 7 ) ) != 0 )
+        elements.add( null );
+      else
+        elements.add( readElement( types[ i ] ) );
+      }
+
+    return tuple;
+    }
+
+  private Object readElement( Class type ) throws IOException
+    {
+    if( type == String.class )
+      return readString();
+    else if( type == Long.class )
+      return WritableUtils.readVLong( inputStream );
+    else if( type == Integer.class )
+      return WritableUtils.readVInt( inputStream );
+    else if( type == Double.class )
+      return inputStream.readDouble();
+    else if( type == Float.class )
+      return inputStream.readFloat();
+    else if( type == Short.class )
+      return inputStream.readShort();
+    else if( type == Boolean.class )
+      return inputStream.readBoolean();
+
+    throw new IllegalStateException( "unsupported schema type: " + type.getName() );
+    }
+
+  private String readString() throws IOException
+    {
+    int length = WritableUtils.readVInt( inputStream );
+
+    if( buffer.length < length )
+      buffer = new byte[ Math.max( length, buffer.length * 2 ) ];
+
+    inputStream.readFully( buffer, 0, length );
+
+    return new String( buffer, 0, length, UTF8 );
+    }
+  }
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tuple.hadoop.io;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import cascading.tuple.Tuple;
+import cascading.tuple.hadoop.TupleSerialization;
+import org.apache.hadoop.io.WritableUtils;
+
+/**
+ * Class TypedTupleSerializer writes Tuples against a fixed schema of element types, see
+ * {@link cascading.tuple.hadoop.TupleSerializationProps#setTypedValues(boolean)}.
+ * <p/>
+ * Every Tuple starts with a marker byte. A typed Tuple is followed by a null bitmap, then every non-null element
+ * packed without a type token. A Tuple whose size or element classes do not match the schema is written in full,
+ * tokens included, as the untyped serializer would.
+ */
+public class TypedTupleSerializer extends BaseSerializer<Tuple>
+  {
+  static final Charset UTF8 = Charset.forName( "UTF-8" );
+
+  static final int TYPED = 0;
+  static final int UNTYPED = 1;
+
+  private final Class[] types;
+  private final byte[] nulls;
+  private byte[] buffer = new byte[ 64 ];
+
+  public TypedTupleSerializer( TupleSerialization.SerializationElementWriter elementWriter, Class[] types )
+    {
+    super( elementWriter );
+    this.types = types;
+    this.nulls = new byte[ ( types.length + 7 ) / 8 ];
+    }
+
+  public void serialize( Tuple tuple ) throws IOException
+    {
+    if( !matchesSchema( tuple ) )
+      {
+      outputStream.writeByte( UNTYPED );
+      outputStream.writeTuple( tuple );
+      return;
+      }
+
+    outputStream.writeByte( TYPED );
+    outputStream.write( nulls );
+
+    for( int i = 0; i < types.length; i++ )
+      {
+      Object value = tuple.getObject( i );
+
+      if( value != null )
+        writeElement( types[ i ], value );
+      }
+    }
+
+  private boolean matchesSchema( Tuple tuple )
+    {
+    if( tuple.size() != types.length )
+      return false;
+
+    for( int i = 0; i < nulls.length; i++ )
+      nulls[ i ] = 0;
+
+    for( int i = 0; i < types.length; i++ )
+      {
+      Object value = tuple.getObject( i );
+
+      if( value == null )
+        nulls[ i >>> 3 ] |= 1 << ( i & 7 );
+      else if( value.getClass() != types[ i ] )
+        return false;
+      }
+
+    return true;
+    }
+
+  private void writeElement( Class type, Object value ) throws IOException
+    {
+    if( type == String.class )
+      writeString( (String) value );
+    else if( type == Long.class )
+      WritableUtils.writeVLong( outputStream, (Long) value );
+    else if( type == Integer.class )
+      WritableUtils.writeVInt( outputStream, (Integer) value );
+    else if( type == Double.class )
+      outputStream.writeDouble( (Double) value );
+    else if( type == Float.class )
+      outputStream.writeFloat( (Float) value );
+    else if( type == Short.class )
+      outputStream.writeShort( (Short) value );
+    else if( type == Boolean.class )
+      outputStream.writeBoolean( (Boolean) value );
+    else
+      throw new IllegalStateException( "unsupported schema type: " + type.getName() );
+    }
+
+  private void writeString( String value ) throws IOException
+    {
+    int length = value.length();
+
+    if( buffer.length < length )
+      buffer = new byte[ Math.max( length, buffer.length * 2 ) ];
+
+    int i = 0;
+
+    for( char c; i < length && ( c = value.charAt( i ) ) < 0x80; i++ )
+      buffer[ i ] = (byte) c;
+
+    if( i == length ) // all ascii
+      {
+      WritableUtils.writeVInt( outputStream, length );
+      outputStream.write( buffer, 0, length );
+      return;
+      }
+
+    byte[] bytes = value.getBytes( UTF8 );
+
+    WritableUtils.writeVInt( outputStream, bytes.length );
+    outputStream.write( bytes );
+    }
+
+  /**
+   * Method isSupported returns true if values of the given type can be written by this serializer.
+   *
+   * @param type of type Class
+   * @return boolean
+   */
+  public static boolean isSupported( Class type )
+    {
+    return type == String.class || type == Long.class || type == Integer.class || type == Double.class ||
+      type == Float.class || type == Short.class || type == Boolean.class;
+    }
+  }
@@ -24,11 +24,25 @@ import cascading.tuple.Tuple;
 import cascading.tuple.io.IndexTuple;
 import org.apache.hadoop.mapred.Partitioner;
 
-/** Class GroupingPartitioner is an implementation of {@link org.apache.hadoop.mapred.Partitioner}. */
+/**
+ * Class GroupingPartitioner is an implementation of {@link org.apache.hadoop.mapred.Partitioner}.
+ * <p/>
+ * Keys of skewed groups carry a salt above {@link #SALT_SHIFT} in their index, see
+ * {@link cascading.flow.hadoop.HadoopCoGroupProps}. A salted key is sent to the partition of its group offset by its
+ * salt, so each salt of a group lands on a distinct reducer.
+ */
 public class CoGroupingPartitioner extends HasherPartitioner implements Partitioner<IndexTuple, Tuple>
   {
+  public static final int SALT_SHIFT = 16;
+
   public int getPartition( IndexTuple key, Tuple value, int numReduceTasks )
     {
-    return ( hashCode( key.getTuple() ) & Integer.MAX_VALUE ) % numReduceTasks;
+    int partition = ( hashCode( key.getTuple() ) & Integer.MAX_VALUE ) % numReduceTasks;
+    int salt = key.getIndex() >>> SALT_SHIFT;
+
+    if( salt == 0 )
+      return partition;
+
+    return ( partition + salt - 1 ) % numReduceTasks;
     }
   }
\ No newline at end of file
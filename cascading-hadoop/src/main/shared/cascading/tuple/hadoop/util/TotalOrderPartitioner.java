@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tuple.hadoop.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import cascading.CascadingException;
+import cascading.flow.hadoop.util.HadoopUtil;
+import cascading.tuple.Tuple;
+import cascading.tuple.hadoop.TupleSerialization;
+import cascading.tuple.io.TuplePair;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.Partitioner;
+
+/**
+ * Class TotalOrderPartitioner is a Partitioner that assigns contiguous ranges of grouping keys to each reducer,
+ * bounded by split points sampled before the job is submitted, see {@link cascading.flow.hadoop.HadoopGroupByProps}.
+ * <p/>
+ * Keys are compared with the grouping comparators, and ranges are assigned in descending order if the GroupBy
+ * sort is reversed. If no split points were set, all keys go to the first reducer.
+ */
+public class TotalOrderPartitioner implements Partitioner<Tuple, Tuple>
+  {
+  public static final String SPLIT_POINTS = "cascading.groupby.totalorder.splitpoints";
+  public static final String REVERSED = "cascading.groupby.totalorder.reversed";
+
+  private Tuple[] splitPoints = new Tuple[ 0 ];
+  private Comparator<Tuple> comparator;
+  private boolean reversed;
+
+  public void configure( JobConf jobConf )
+    {
+    comparator = createComparator( jobConf );
+    reversed = jobConf.getBoolean( REVERSED, false );
+
+    try
+      {
+      List<Tuple> points = HadoopUtil.deserializeBase64( jobConf.get( SPLIT_POINTS ), jobConf, ArrayList.class );
+
+      if( points != null )
+        splitPoints = points.toArray( new Tuple[ points.size() ] );
+      }
+    catch( IOException exception )
+      {
+      throw new CascadingException( "unable to deserialize total order split points", exception );
+      }
+    }
+
+  @Override
+  public int getPartition( Tuple key, Tuple value, int numReduceTasks )
+    {
+    if( key instanceof TuplePair )
+      key = ( (TuplePair) key ).getLhs();
+
+    int low = 0;
+    int high = splitPoints.length;
+
+    // find the number of split points less than or equal to the key
+    while( low < high )
+      {
+      int mid = ( low + high ) >>> 1;
+
+      if( comparator.compare( splitPoints[ mid ], key ) <= 0 )
+        low = mid + 1;
+      else
+        high = mid;
+      }
+
+    int partition = Math.min( low, numReduceTasks - 1 );
+
+    return reversed ? numReduceTasks - 1 - partition : partition;
+    }
+
+  /**
+   * Method setSplitPoints sorts the given sampled keys and sets up to numPartitions - 1 evenly spaced distinct keys
+   * as the split points in the given jobConf.
+   *
+   * @param jobConf       of type JobConf
+   * @param samples       of type List<Tuple>
+   * @param numPartitions of type int
+   * @return the number of split points
+   * @throws IOException
+   */
+  public static int setSplitPoints( JobConf jobConf, List<Tuple> samples, int numPartitions ) throws IOException
+    {
+    Comparator<Tuple> comparator = createComparator( jobConf );
+
+    Collections.sort( samples, comparator );
+
+    ArrayList<Tuple> points = new ArrayList<Tuple>();
+
+    for( int i = 1; i < numPartitions && !samples.isEmpty(); i++ )
+      {
+      Tuple point = samples.get( (int) ( (long) i * samples.size() / numPartitions ) );
+
+      if( points.isEmpty() || comparator.compare( points.get( points.size() - 1 ), point ) < 0 )
+        points.add( point );
+      }
+
+    jobConf.set( SPLIT_POINTS, HadoopUtil.serializeBase64( points, jobConf ) );
+
+    return points.size();
+    }
+
+  private static Comparator<Tuple> createComparator( JobConf jobConf )
+    {
+    final Comparator defaultComparator = TupleSerialization.getDefaultComparator( jobConf );
+    final Comparator[] comparators = DeserializerComparator.getFieldComparatorsFrom( jobConf, "cascading.group.comparator" );
+
+    return new Comparator<Tuple>()
+    {
+    @Override
+    public int compare( Tuple lhs, Tuple rhs )
+      {
+      int c = lhs.size() - rhs.size();
+
+      if( c != 0 )
+        return c;
+
+      for( int i = 0; i < lhs.size(); i++ )
+        {
+        Comparator comparator = comparators[ i % comparators.length ];
+
+        if( comparator == null )
+          comparator = defaultComparator;
+
+        c = compareElements( comparator, lhs.getObject( i ), rhs.getObject( i ) );
+
+        if( c != 0 )
+          return c;
+        }
+
+      return 0;
+      }
+    };
+    }
+
+  private static int compareElements( Comparator comparator, Object lhs, Object rhs )
+    {
+    if( comparator != null )
+      return comparator.compare( lhs, rhs );
+
+    if( lhs == null )
+      return rhs == null ? 0 : -1;
+
+    if( rhs == null )
+      return 1;
+
+    return ( (Comparable) lhs ).compareTo( rhs );
+    }
+  }
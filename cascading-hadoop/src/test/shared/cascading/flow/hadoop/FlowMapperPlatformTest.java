@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.hadoop;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import cascading.PlatformTestCase;
+import cascading.flow.Flow;
+import cascading.operation.aggregator.Count;
+import cascading.operation.regex.RegexParser;
+import cascading.operation.regex.RegexSplitter;
+import cascading.pipe.Each;
+import cascading.pipe.Every;
+import cascading.pipe.GroupBy;
+import cascading.pipe.HashJoin;
+import cascading.pipe.Pipe;
+import cascading.pipe.joiner.InnerJoin;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+import cascading.tap.partition.DelimitedPartition;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import org.junit.Test;
+
+import static data.InputData.inputFileApache200;
+import static data.InputData.inputFileLower;
+import static data.InputData.inputFileLowerOffset;
+import static data.InputData.inputFileUpper;
+
+/**
+ * Verifies the multi-threaded map side, see {@link HadoopMapperProps}, gives the same results as a single thread.
+ */
+public class FlowMapperPlatformTest extends PlatformTestCase
+  {
+  public FlowMapperPlatformTest()
+    {
+    }
+
+  @Test
+  public void testThreadedGroupBy() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileApache200 );
+
+    Tap source = getPlatform().getTextFile( inputFileApache200 );
+
+    Pipe pipe = new Each( new Pipe( "apache" ), new Fields( "line" ), new RegexParser( new Fields( "ip" ), "^[^ ]*" ) );
+    pipe = new GroupBy( pipe, new Fields( "ip" ) );
+    pipe = new Every( pipe, new Count() );
+
+    Properties single = HadoopMapperProps.hadoopMapperProps().buildProperties( getProperties() );
+    Properties threaded = HadoopMapperProps.hadoopMapperProps().setMapperThreads( 3 ).buildProperties( getProperties() );
+
+    List<Tuple> expected = run( single, source, getOutputPath( "groupby/single" ), pipe );
+    List<Tuple> actual = run( threaded, source, getOutputPath( "groupby/threaded" ), pipe );
+
+    assertFalse( expected.isEmpty() );
+    assertEquals( expected, actual );
+    }
+
+  /** Map only steps run single threaded, as every copy of the stream graph would open the same part files. */
+  @Test
+  public void testThreadedMapOnly() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileApache200 );
+
+    Tap source = getPlatform().getTextFile( inputFileApache200 );
+
+    Pipe pipe = new Each( new Pipe( "apache" ), new Fields( "line" ), new RegexParser( new Fields( "ip" ), "^[^ ]*" ) );
+
+    Properties single = HadoopMapperProps.hadoopMapperProps().buildProperties( getProperties() );
+    Properties threaded = HadoopMapperProps.hadoopMapperProps().setMapperThreads( 3 ).buildProperties( getProperties() );
+
+    List<Tuple> expected = runPartitioned( single, source, getOutputPath( "maponly/single" ), pipe );
+    List<Tuple> actual = runPartitioned( threaded, source, getOutputPath( "maponly/threaded" ), pipe );
+
+    assertEquals( 200, expected.size() );
+    assertEquals( expected, actual );
+    }
+
+  @Test
+  public void testConcurrentAccumulation() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLower );
+    getPlatform().copyFromLocal( inputFileUpper );
+    getPlatform().copyFromLocal( inputFileLowerOffset );
+
+    Map sources = new HashMap();
+
+    sources.put( "lower", getPlatform().getTextFile( new Fields( "offset", "line" ), inputFileLower ) );
+    sources.put( "upper", getPlatform().getTextFile( new Fields( "offset", "line" ), inputFileUpper ) );
+    sources.put( "offset", getPlatform().getTextFile( new Fields( "offset", "line" ), inputFileLowerOffset ) );
+
+    Fields num = new Fields( "num" );
+    RegexSplitter splitter = new RegexSplitter( new Fields( "num", "char" ), " " );
+
+    Pipe pipeLower = new Each( new Pipe( "lower" ), new Fields( "line" ), splitter );
+    Pipe pipeUpper = new Each( new Pipe( "upper" ), new Fields( "line" ), splitter );
+    Pipe pipeOffset = new Each( new Pipe( "offset" ), new Fields( "line" ), splitter );
+
+    // the accumulated sides are read by different threads
+    Pipe splice = new HashJoin( Pipe.pipes( pipeLower, pipeUpper, pipeOffset ), Fields.fields( num, num, num ), Fields.size( 6 ), new InnerJoin() );
+
+    Properties single = HadoopMapperProps.hadoopMapperProps().setAccumulatedThreads( 1 ).buildProperties( getProperties() );
+    Properties concurrent = HadoopMapperProps.hadoopMapperProps().setAccumulatedThreads( 2 ).buildProperties( getProperties() );
+
+    List<Tuple> expected = run( single, sources, getOutputPath( "accumulated/single" ), splice );
+    List<Tuple> actual = run( concurrent, sources, getOutputPath( "accumulated/concurrent" ), splice );
+
+    assertEquals( 3, expected.size() );
+    assertTrue( expected.contains( new Tuple( "1\ta\t1\tA\t1\ta" ) ) );
+    assertEquals( expected, actual );
+    }
+
+  /** A partition tap opens its own part files instead of writing to the task output collector. */
+  private List<Tuple> runPartitioned( Properties properties, Tap source, String path, Pipe pipe ) throws Exception
+    {
+    Tap parent = getPlatform().getTextFile( new Fields( "ip" ), path, SinkMode.REPLACE );
+    Tap sink = getPlatform().getPartitionTap( parent, new DelimitedPartition( new Fields( "ip" ) ), 1 );
+
+    Flow flow = getPlatform().getFlowConnector( properties ).connect( source, sink, pipe );
+
+    flow.complete();
+
+    return sorted( getSinkAsList( flow ) );
+    }
+
+  private List<Tuple> run( Properties properties, Tap source, String path, Pipe pipe ) throws Exception
+    {
+    return run( properties, Collections.singletonMap( pipe.getHeads()[ 0 ].getName(), source ), path, pipe );
+    }
+
+  private List<Tuple> run( Properties properties, Map sources, String path, Pipe pipe ) throws Exception
+    {
+    Tap sink = getPlatform().getTextFile( new Fields( "line" ), path, SinkMode.REPLACE );
+
+    Flow flow = getPlatform().getFlowConnector( properties ).connect( sources, sink, pipe );
+
+    flow.complete();
+
+    return sorted( getSinkAsList( flow ) );
+    }
+
+  private static List<Tuple> sorted( List<Tuple> values )
+    {
+    Collections.sort( values );
+
+    return values;
+    }
+  }
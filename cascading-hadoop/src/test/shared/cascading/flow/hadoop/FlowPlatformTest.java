@@ -20,6 +20,10 @@
 
 package cascading.flow.hadoop;
 
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,7 +33,9 @@ import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
+import cascading.FieldedPipesPlatformTest;
 import cascading.PlatformTestCase;
+import cascading.flow.BloomFilterCounters;
 import cascading.flow.FailingFlowListener;
 import cascading.flow.Flow;
 import cascading.flow.FlowProcess;
@@ -45,11 +51,13 @@ import cascading.operation.Debug;
 import cascading.operation.Filter;
 import cascading.operation.FilterCall;
 import cascading.operation.Function;
+import cascading.operation.Identity;
 import cascading.operation.regex.RegexSplitter;
 import cascading.pipe.CoGroup;
 import cascading.pipe.Each;
 import cascading.pipe.GroupBy;
 import cascading.pipe.Pipe;
+import cascading.pipe.joiner.InnerJoin;
 import cascading.platform.hadoop.BaseHadoopPlatform;
 import cascading.property.AppProps;
 import cascading.scheme.hadoop.TextLine;
@@ -59,12 +67,15 @@ import cascading.tap.Tap;
 import cascading.tap.hadoop.Hfs;
 import cascading.tap.hadoop.Lfs;
 import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.hadoop.util.TotalOrderPartitioner;
 import org.apache.hadoop.mapred.JobConf;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static data.InputData.inputFileLower;
+import static data.InputData.inputFileLowerOffset;
 import static data.InputData.inputFileUpper;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 
@@ -474,4 +485,126 @@ public class FlowPlatformTest extends PlatformTestCase
     assertEquals( "testname", flow.getProperty( AppProps.APP_NAME ) );
     assertEquals( "1.2.3", flow.getProperty( AppProps.APP_VERSION ) );
     }
+  
+
+  @Test
+  public void testTotalOrderSampling() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLower );
+
+    Tap source = getPlatform().getDelimitedFile( new Fields( "num", "char" ), " ", inputFileLower );
+
+    Pipe plain = new GroupBy( new Pipe( "plain" ), new Fields( "num" ) );
+
+    Pipe coerced = new Each( new Pipe( "coerced" ), new Fields( "num" ), new Identity( Integer.class ), Fields.REPLACE );
+    coerced = new GroupBy( coerced, new Fields( "num" ) );
+
+    assertNotNull( "keys not sampled", getTotalOrderSplitPoints( source, plain ) );
+    assertNull( "keys changed by a function were sampled", getTotalOrderSplitPoints( source, coerced ) );
+    }
+
+  private String getTotalOrderSplitPoints( Tap source, Pipe pipe ) throws IOException
+    {
+    Tap sink = getPlatform().getTextFile( getOutputPath( "totalorder/" + pipe.getName() ), SinkMode.REPLACE );
+
+    Map<Object, Object> props = HadoopGroupByProps.hadoopGroupByProps().setTotalOrder( true ).buildProperties( getProperties() );
+    Flow flow = getPlatform().getFlowConnector( props ).connect( source, sink, pipe );
+
+    HadoopFlowStep step = (HadoopFlowStep) flow.getFlowSteps().get( 0 );
+    JobConf conf = step.getInitializedConfig( flow.getFlowProcess(), HadoopPlanner.createJobConf( props ) );
+
+    conf.setNumReduceTasks( 4 );
+    step.initTotalOrder( conf );
+
+    return conf.get( TotalOrderPartitioner.SPLIT_POINTS );
+    }
+
+  @Test
+  public void testCoGroupBloomFilterMixedTypes() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLowerOffset );
+    getPlatform().copyFromLocal( inputFileUpper );
+
+    Fields fields = new Fields( "num", "char" );
+    Tap lhs = getPlatform().getDelimitedFile( fields, " ", new Class[]{Long.class, String.class}, inputFileLowerOffset, SinkMode.KEEP );
+    Tap rhs = getPlatform().getDelimitedFile( fields, " ", new Class[]{Double.class, String.class}, inputFileUpper, SinkMode.KEEP );
+
+    Fields key = new Fields( "num" );
+
+    key.setComparator( "num", new NumberComparator() );
+
+    // the filter holds the Long keys 1, 5 and 6, so only the Double keys 2.0, 3.0 and 4.0 may be dropped
+    List<Tuple> expected = runBloomFilterJoin( "mixed", lhs, rhs, key, 3 );
+
+    assertEquals( 3, expected.size() );
+    }
+
+  /** Compares numbers by value, but leaves their hashing to the default. */
+  public static class NumberComparator implements Comparator<Number>, Serializable
+    {
+    @Override
+    public int compare( Number lhs, Number rhs )
+      {
+      return Double.compare( lhs.doubleValue(), rhs.doubleValue() );
+      }
+    }
+
+  @Test
+  public void testCoGroupBloomFilterHasher() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLowerOffset );
+    getPlatform().copyFromLocal( inputFileUpper );
+
+    Fields fields = new Fields( "num", "char" );
+    Tap lhs = getPlatform().getDelimitedFile( fields, " ", inputFileLowerOffset );
+    Tap rhs = getPlatform().getDelimitedFile( fields, " ", inputFileUpper );
+
+    Fields key = new Fields( "char" );
+
+    key.setComparator( "char", new FieldedPipesPlatformTest.LowerComparator() );
+
+    // the filter holds the keys a, b, c and e, only D of the upper case side may be dropped
+    List<Tuple> expected = runBloomFilterJoin( "hasher", lhs, rhs, key, 1 );
+
+    assertEquals( 4, expected.size() );
+    }
+
+  /** Joins the given taps with and without a bloom filter of the lhs keys, and returns the results if they agree. */
+  private List<Tuple> runBloomFilterJoin( String name, Tap lhs, Tap rhs, Fields key, int filtered ) throws Exception
+    {
+    String filterPath = getOutputPath( "bloomfilter/" + name + "/filter" );
+    JobConf conf = HadoopPlanner.createJobConf( getProperties() );
+
+    HadoopUtil.writeBloomFilter( conf, HadoopUtil.createBloomFilter( conf, lhs, key, 10, 0.0001 ), filterPath );
+
+    Map<String, Tap> sources = new HashMap<String, Tap>();
+
+    sources.put( "lhs", lhs );
+    sources.put( "rhs", rhs );
+
+    Fields declared = new Fields( "num1", "char1", "num2", "char2" );
+    Pipe splice = new CoGroup( new Pipe( "lhs" ), key, new Pipe( "rhs" ), key, declared, new InnerJoin() );
+
+    Tap plainSink = getPlatform().getTextFile( getOutputPath( "bloomfilter/" + name + "/plain" ), SinkMode.REPLACE );
+    Flow plain = getPlatform().getFlowConnector().connect( sources, plainSink, splice );
+
+    plain.complete();
+
+    Properties properties = HadoopCoGroupProps.hadoopCoGroupProps().setBloomFilterPath( filterPath ).buildProperties( getProperties() );
+    Tap filteredSink = getPlatform().getTextFile( getOutputPath( "bloomfilter/" + name + "/filtered" ), SinkMode.REPLACE );
+    Flow filteredFlow = getPlatform().getFlowConnector( properties ).connect( sources, filteredSink, splice );
+
+    filteredFlow.complete();
+
+    List<Tuple> expected = getSinkAsList( plain );
+    List<Tuple> actual = getSinkAsList( filteredFlow );
+
+    Collections.sort( expected );
+    Collections.sort( actual );
+
+    assertEquals( expected, actual );
+    assertEquals( filtered, filteredFlow.getFlowStats().getCounterValue( BloomFilterCounters.Tuples_Filtered ) );
+
+    return expected;
+    }
   }
@@ -20,12 +20,40 @@
 
 package cascading.flow.hadoop;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import cascading.flow.hadoop.util.HadoopUtil;
+import cascading.flow.hadoop.util.PartialAggregate;
+import cascading.operation.Aggregator;
+import cascading.operation.aggregator.Average;
+import cascading.operation.aggregator.Count;
+import cascading.operation.aggregator.First;
+import cascading.operation.aggregator.Last;
+import cascading.operation.aggregator.Max;
+import cascading.operation.aggregator.Min;
+import cascading.operation.aggregator.Sum;
+import cascading.scheme.hadoop.TextDelimited;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+import cascading.tap.hadoop.Hfs;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntryCollector;
+import cascading.tuple.hadoop.util.CoGroupingPartitioner;
+import cascading.tuple.hadoop.util.TotalOrderPartitioner;
+import cascading.tuple.io.IndexTuple;
 import cascading.util.Util;
 import org.apache.hadoop.mapred.JobConf;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  *
@@ -52,4 +80,159 @@ public class UtilHadoopTest
 
     assertEquals( levelObject, returnedLevel );
     }
+
+  @Test
+  public void testSampleKeys() throws IOException
+    {
+    JobConf jobConf = new JobConf();
+    String path = new File( System.getProperty( "java.io.tmpdir" ), "sample-keys-" + System.nanoTime() ).getAbsolutePath();
+    Tap tap = new Hfs( new TextDelimited( new Fields( "num", "name" ), "\t" ), path, SinkMode.REPLACE );
+
+    TupleEntryCollector collector = tap.openForWrite( new HadoopFlowProcess( jobConf ) );
+
+    for( int i = 0; i < 1000; i++ )
+      collector.add( new Tuple( i, "name" + i ) );
+
+    collector.close();
+
+    try
+      {
+      List<Tuple> samples = HadoopUtil.sampleKeys( jobConf, tap, new Fields( "num" ), 100, 10 );
+
+      assertEquals( 100, samples.size() );
+      assertEquals( 1, samples.get( 0 ).size() );
+      }
+    finally
+      {
+      tap.deleteResource( jobConf );
+      }
+    }
+
+  @Test
+  public void testTotalOrderPartitioner() throws IOException
+    {
+    JobConf jobConf = new JobConf();
+    List<Tuple> samples = new ArrayList<Tuple>();
+
+    for( int i = 999; i >= 0; i-- )
+      samples.add( new Tuple( i ) );
+
+    assertEquals( 3, TotalOrderPartitioner.setSplitPoints( jobConf, samples, 4 ) );
+
+    TotalOrderPartitioner partitioner = new TotalOrderPartitioner();
+    partitioner.configure( jobConf );
+
+    int previous = 0;
+
+    for( int i = -10; i < 1010; i++ )
+      {
+      int partition = partitioner.getPartition( new Tuple( i ), null, 4 );
+
+      assertTrue( "not ordered at: " + i, partition >= previous );
+      previous = partition;
+      }
+
+    assertEquals( 0, partitioner.getPartition( new Tuple( 0 ), null, 4 ) );
+    assertEquals( 1, partitioner.getPartition( new Tuple( 250 ), null, 4 ) );
+    assertEquals( 3, partitioner.getPartition( new Tuple( 999 ), null, 4 ) );
+
+    jobConf.setBoolean( TotalOrderPartitioner.REVERSED, true );
+    partitioner.configure( jobConf );
+
+    assertEquals( 3, partitioner.getPartition( new Tuple( 0 ), null, 4 ) );
+    assertEquals( 0, partitioner.getPartition( new Tuple( 999 ), null, 4 ) );
+    }
+
+  @Test
+  public void testCoGroupingPartitionerSalt() throws IOException
+    {
+    CoGroupingPartitioner partitioner = new CoGroupingPartitioner();
+    partitioner.configure( new JobConf() );
+
+    Tuple key = new Tuple( "hot" );
+    int partition = partitioner.getPartition( new IndexTuple( 1, key ), null, 8 );
+
+    assertEquals( partition, partitioner.getPartition( new IndexTuple( 0, key ), null, 8 ) );
+
+    Set<Integer> partitions = new HashSet<Integer>();
+
+    for( int salt = 1; salt <= 8; salt++ )
+      {
+      int saltedLeft = partitioner.getPartition( new IndexTuple( 0 | salt << CoGroupingPartitioner.SALT_SHIFT, key ), null, 8 );
+      int saltedRight = partitioner.getPartition( new IndexTuple( 1 | salt << CoGroupingPartitioner.SALT_SHIFT, key ), null, 8 );
+
+      assertEquals( saltedLeft, saltedRight );
+      partitions.add( saltedLeft );
+      }
+
+    assertEquals( 8, partitions.size() );
+
+    List<Tuple> keys = new ArrayList<Tuple>();
+    keys.add( key );
+    keys.add( new Tuple( 1, "a" ) );
+
+    assertEquals( keys, HadoopCoGroupProps.decodeKeys( HadoopCoGroupProps.encodeKeys( keys ) ) );
+    assertTrue( HadoopCoGroupProps.decodeKeys( null ).isEmpty() );
+    }
+
+  @Test
+  public void testPartialAggregates()
+    {
+    Aggregator[] aggregators = new Aggregator[]{new Sum(), new Count(), new Average(), new Max(), new Min(), new First( new Fields( "v" ) )};
+    List<PartialAggregate> partials = new ArrayList<PartialAggregate>();
+    int offset = 0;
+
+    for( Aggregator aggregator : aggregators )
+      {
+      PartialAggregate partial = PartialAggregate.createPartial( aggregator, new int[]{1}, new Fields( "v" ), offset );
+
+      partials.add( partial );
+      offset += partial.getWidth();
+      }
+
+    assertNull( PartialAggregate.createPartial( new First( new Fields( "v" ), 2 ), new int[]{1}, new Fields( "v" ), 0 ) );
+    assertNull( PartialAggregate.createPartial( new Last( new Fields( "v" ) ), new int[]{1}, new Fields( "v" ), 0 ) );
+
+    // two map side spills of the same key, combined separately
+    Tuple lhs = combine( partials, offset, 3, 1, 4 );
+    Tuple rhs = combine( partials, offset, 1, 5 );
+
+    for( PartialAggregate partial : partials )
+      {
+      partial.start();
+      partial.merge( lhs );
+      partial.merge( rhs );
+      }
+
+    assertEquals( new Tuple( 14.0D ), partials.get( 0 ).complete() );
+    assertEquals( new Tuple( 5L ), partials.get( 1 ).complete() );
+    assertEquals( new Tuple( 2.8D ), partials.get( 2 ).complete() );
+    assertEquals( new Tuple( 5 ), partials.get( 3 ).complete() );
+    assertEquals( new Tuple( 1 ), partials.get( 4 ).complete() );
+    assertEquals( new Tuple( 3 ), partials.get( 5 ).complete() );
+    }
+
+  private Tuple combine( List<PartialAggregate> partials, int width, int... values )
+    {
+    for( PartialAggregate partial : partials )
+      partial.start();
+
+    for( int value : values )
+      {
+      Tuple partialValues = Tuple.size( width );
+
+      for( PartialAggregate partial : partials )
+        partial.init( new Tuple( "key", value ), partialValues );
+
+      for( PartialAggregate partial : partials )
+        partial.merge( partialValues );
+      }
+
+    Tuple result = Tuple.size( width );
+
+    for( PartialAggregate partial : partials )
+      partial.write( result );
+
+    return result;
+    }
   }
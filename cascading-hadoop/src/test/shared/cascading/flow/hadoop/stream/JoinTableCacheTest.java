@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.hadoop.stream;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import cascading.CascadingTestCase;
+import cascading.tuple.Tuple;
+import cascading.tuple.hadoop.collect.HadoopSpillableTupleList;
+import org.apache.hadoop.mapred.JobConf;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class JoinTableCacheTest extends CascadingTestCase
+  {
+  public JoinTableCacheTest()
+    {
+    }
+
+  private static Map<Tuple, Collection<Tuple>> createTable()
+    {
+    Map<Tuple, Collection<Tuple>> table = new HashMap<Tuple, Collection<Tuple>>();
+    HadoopSpillableTupleList values = new HadoopSpillableTupleList( Integer.MAX_VALUE, null, new JobConf() );
+
+    values.add( new Tuple( "a", 1 ) );
+    values.add( new Tuple( "a", 2 ) );
+    table.put( new Tuple( "a" ), values );
+
+    return table;
+    }
+
+  @Test
+  public void testAcquireRelease()
+    {
+    Map<Tuple, Collection<Tuple>> table = createTable();
+
+    assertNull( JoinTableCache.acquire( "acquire-step", "acquire-key" ) );
+    assertTrue( JoinTableCache.put( "acquire-step", "acquire-key", table ) );
+    assertFalse( "replaced a cached table", JoinTableCache.put( "acquire-step", "acquire-key", createTable() ) );
+
+    assertSame( table, JoinTableCache.acquire( "acquire-step", "acquire-key" ) );
+
+    JoinTableCache.release( "acquire-key" );
+    JoinTableCache.release( "acquire-key" );
+    JoinTableCache.release( "acquire-key" ); // more releases than references are ignored
+
+    // unused, but tables of the same step are kept
+    assertSame( table, JoinTableCache.acquire( "acquire-step", "acquire-key" ) );
+    assertEquals( 2, table.get( new Tuple( "a" ) ).size() );
+
+    JoinTableCache.release( "acquire-key" );
+
+    JoinTableCache.acquire( "acquire-other-step", "acquire-other-key" ); // evicts
+    }
+
+  @Test
+  public void testEviction()
+    {
+    Map<Tuple, Collection<Tuple>> unused = createTable();
+    Map<Tuple, Collection<Tuple>> held = createTable();
+
+    JoinTableCache.put( "evict-step", "evict-unused", unused );
+    JoinTableCache.put( "evict-step", "evict-held", held );
+
+    JoinTableCache.release( "evict-unused" );
+
+    assertNull( JoinTableCache.acquire( "evict-other-step", "evict-other-key" ) );
+
+    assertEquals( "evicted table not released", 0, unused.get( new Tuple( "a" ) ).size() );
+    assertNull( JoinTableCache.acquire( "evict-step", "evict-unused" ) );
+
+    assertEquals( 2, held.get( new Tuple( "a" ) ).size() );
+    assertSame( held, JoinTableCache.acquire( "evict-step", "evict-held" ) );
+
+    JoinTableCache.release( "evict-held" );
+    JoinTableCache.release( "evict-held" );
+
+    JoinTableCache.put( "evict-other-step", "evict-other-key", createTable() );
+    JoinTableCache.release( "evict-other-key" );
+
+    assertEquals( "evicted table not released", 0, held.get( new Tuple( "a" ) ).size() );
+    assertNull( JoinTableCache.acquire( "evict-step", "evict-held" ) );
+    }
+  }
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.hadoop.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cascading.CascadingTestCase;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.RecordReader;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class SharedRecordReaderTest extends CascadingTestCase
+  {
+  public SharedRecordReaderTest()
+    {
+    }
+
+  @Test
+  public void testNext() throws Exception
+    {
+    SharedRecordReader reader = new SharedRecordReader( new CountingRecordReader( 2 ) );
+
+    LongWritable key = (LongWritable) reader.createKey();
+    Text value = (Text) reader.createValue();
+
+    assertTrue( reader.next( key, value ) );
+    assertEquals( 0, key.get() );
+    assertEquals( "0", value.toString() );
+
+    assertTrue( reader.next( key, value ) );
+    assertEquals( 1, key.get() );
+
+    assertFalse( reader.next( key, value ) );
+    }
+
+  @Test
+  public void testStop() throws Exception
+    {
+    SharedRecordReader reader = new SharedRecordReader( new CountingRecordReader( 10 ) );
+
+    LongWritable key = (LongWritable) reader.createKey();
+    Text value = (Text) reader.createValue();
+
+    assertTrue( reader.next( key, value ) );
+
+    reader.stop();
+
+    assertFalse( reader.next( key, value ) );
+    }
+
+  @Test
+  public void testConcurrentReaders() throws Exception
+    {
+    final int numReaders = 3;
+    final int numRecords = 10000;
+    final SharedRecordReader reader = new SharedRecordReader( new CountingRecordReader( numRecords ) );
+
+    ExecutorService executor = Executors.newFixedThreadPool( numReaders );
+    List<Future<List<Long>>> futures = new ArrayList<Future<List<Long>>>();
+
+    try
+      {
+      for( int i = 0; i < numReaders; i++ )
+        {
+        futures.add( executor.submit( new Callable<List<Long>>()
+        {
+        @Override
+        public List<Long> call() throws Exception
+          {
+          List<Long> keys = new ArrayList<Long>();
+          LongWritable key = (LongWritable) reader.createKey();
+          Text value = (Text) reader.createValue();
+
+          while( reader.next( key, value ) )
+            {
+            assertEquals( Long.toString( key.get() ), value.toString() );
+            keys.add( key.get() );
+            }
+
+          return keys;
+          }
+        } ) );
+        }
+
+      Set<Long> seen = new HashSet<Long>();
+      int count = 0;
+
+      for( Future<List<Long>> future : futures )
+        {
+        List<Long> keys = future.get();
+
+        count += keys.size();
+        seen.addAll( keys );
+        }
+
+      assertEquals( numRecords, count );
+      assertEquals( numRecords, seen.size() );
+      }
+    finally
+      {
+      executor.shutdownNow();
+      }
+    }
+
+  /** Returns the given number of records, each key and value holding the record number. */
+  private static class CountingRecordReader implements RecordReader<LongWritable, Text>
+    {
+    private final int numRecords;
+    private int count = 0;
+
+    CountingRecordReader( int numRecords )
+      {
+      this.numRecords = numRecords;
+      }
+
+    @Override
+    public boolean next( LongWritable key, Text value ) throws IOException
+      {
+      if( count == numRecords )
+        return false;
+
+      key.set( count );
+      value.set( Integer.toString( count ) );
+      count++;
+
+      return true;
+      }
+
+    @Override
+    public LongWritable createKey()
+      {
+      return new LongWritable();
+      }
+
+    @Override
+    public Text createValue()
+      {
+      return new Text();
+      }
+
+    @Override
+    public long getPos() throws IOException
+      {
+      return count;
+      }
+
+    @Override
+    public float getProgress() throws IOException
+      {
+      return (float) count / numRecords;
+      }
+
+    @Override
+    public void close() throws IOException
+      {
+      }
+    }
+  }
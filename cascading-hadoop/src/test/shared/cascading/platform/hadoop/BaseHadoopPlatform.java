@@ -234,6 +234,12 @@ public abstract class BaseHadoopPlatform extends TestPlatform
     return new Hfs( new TextDelimited( true, new DelimitedParser( delimiter, quote, fieldTypeResolver ) ), safeFileName( filename ), mode );
     }
 
+  @Override
+  public Tap getDelimitedFile( Fields fields, boolean skipHeader, boolean writeHeader, DelimitedParser delimitedParser, String filename, SinkMode mode )
+    {
+    return new Hfs( new TextDelimited( fields, skipHeader, writeHeader, delimitedParser ), safeFileName( filename ), mode );
+    }
+
   @Override
   public Tap getTemplateTap( Tap sink, String pathTemplate, int openThreshold )
     {
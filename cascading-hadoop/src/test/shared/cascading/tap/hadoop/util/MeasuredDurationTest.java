@@ -0,0 +1,402 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tap.hadoop.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import cascading.CascadingTestCase;
+import cascading.flow.SliceCounters;
+import cascading.flow.hadoop.HadoopFlowProcess;
+import cascading.scheme.hadoop.TextLine;
+import cascading.tap.hadoop.io.HadoopTupleEntrySchemeIterator;
+import cascading.tuple.Fields;
+import cascading.util.CloseableIterator;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.OutputCollector;
+import org.apache.hadoop.mapred.RecordReader;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class MeasuredDurationTest extends CascadingTestCase
+  {
+  private static final long MILLI = 1000000L;
+
+  /** A clock advanced by the measured calls only, so every call takes a known time */
+  private long now = 0;
+
+  private int increments = 0;
+  private long total = 0;
+
+  public MeasuredDurationTest()
+    {
+    }
+
+  private MeasuredDuration createDuration( int interval )
+    {
+    JobConf jobConf = new JobConf();
+
+    jobConf.setInt( MeasuredDuration.MEASURE_INTERVAL, interval );
+
+    HadoopFlowProcess flowProcess = new HadoopFlowProcess( jobConf )
+    {
+    @Override
+    public void increment( Enum counter, long amount )
+      {
+      assertEquals( SliceCounters.Write_Duration, counter );
+
+      increments++;
+      total += amount;
+      }
+    };
+
+    return new MeasuredDuration( flowProcess, SliceCounters.Write_Duration )
+    {
+    @Override
+    protected long nanoTime()
+      {
+      return now;
+      }
+    };
+    }
+
+  private void measure( MeasuredDuration duration, int calls, long nanos )
+    {
+    for( int i = 0; i < calls; i++ )
+      {
+      long start = duration.start();
+      now += nanos;
+      duration.end( start );
+      }
+    }
+
+  @Test
+  public void testFlushInterval()
+    {
+    MeasuredDuration duration = createDuration( 1 );
+
+    measure( duration, MeasuredDuration.FLUSH_INTERVAL - 1, MILLI );
+
+    assertEquals( 0, increments );
+
+    measure( duration, 1, MILLI );
+
+    assertEquals( 1, increments );
+    assertEquals( MeasuredDuration.FLUSH_INTERVAL, total );
+
+    measure( duration, 10, MILLI );
+    duration.flush();
+
+    assertEquals( 2, increments );
+    assertEquals( MeasuredDuration.FLUSH_INTERVAL + 10, total );
+    }
+
+  @Test
+  public void testRemainder()
+    {
+    MeasuredDuration duration = createDuration( 1 );
+
+    measure( duration, 3, MILLI / 2 );
+    duration.flush();
+
+    assertEquals( 1, total );
+
+    duration.flush();
+
+    assertEquals( 1, increments );
+
+    measure( duration, 1, MILLI / 2 );
+    duration.flush();
+
+    assertEquals( 2, increments );
+    assertEquals( 2, total );
+    }
+
+  @Test
+  public void testMeasureInterval()
+    {
+    final int interval = 4;
+    final int[] timed = new int[ 1 ];
+    final MeasuredDuration measured = createDuration( interval );
+
+    MeasuredDuration duration = new MeasuredDuration( new HadoopFlowProcess( new JobConf() ), SliceCounters.Write_Duration )
+    {
+    @Override
+    public long start()
+      {
+      long start = measured.start();
+
+      if( start != Long.MIN_VALUE )
+        timed[ 0 ]++;
+
+      return start;
+      }
+
+    @Override
+    public void end( long start )
+      {
+      measured.end( start );
+      }
+    };
+
+    measure( duration, interval * MeasuredDuration.FLUSH_INTERVAL, MILLI );
+
+    assertEquals( MeasuredDuration.FLUSH_INTERVAL, timed[ 0 ] );
+    assertEquals( 1, increments );
+    assertEquals( interval * MeasuredDuration.FLUSH_INTERVAL, total ); // each timed call is weighted by the interval
+    }
+
+  @Test
+  public void testOutputCollector() throws IOException
+    {
+    final boolean[] closed = new boolean[ 1 ];
+
+    class TimedCollector implements OutputCollector, Closeable
+      {
+      @Override
+      public void collect( Object key, Object value )
+        {
+        now += MILLI;
+        }
+
+      @Override
+      public void close()
+        {
+        closed[ 0 ] = true;
+        }
+      }
+
+    MeasuredOutputCollector collector = new MeasuredOutputCollector( createDuration( 1 ), new TimedCollector() );
+
+    for( int i = 0; i < MeasuredDuration.FLUSH_INTERVAL + 6; i++ )
+      collector.collect( null, null );
+
+    assertEquals( 1, increments );
+    assertEquals( MeasuredDuration.FLUSH_INTERVAL, total );
+
+    collector.close();
+
+    assertTrue( closed[ 0 ] );
+    assertEquals( 2, increments );
+    assertEquals( MeasuredDuration.FLUSH_INTERVAL + 6, total );
+    }
+
+  @Test
+  public void testRecordReader() throws IOException
+    {
+    final int[] remaining = {MeasuredDuration.FLUSH_INTERVAL + 6};
+
+    MeasuredRecordReader reader = new MeasuredRecordReader( createDuration( 1 ) );
+
+    reader.setRecordReader( new RecordReader()
+    {
+    @Override
+    public boolean next( Object key, Object value )
+      {
+      now += MILLI;
+
+      return remaining[ 0 ]-- > 0;
+      }
+
+    @Override
+    public Object createKey()
+      {
+      return null;
+      }
+
+    @Override
+    public Object createValue()
+      {
+      return null;
+      }
+
+    @Override
+    public long getPos()
+      {
+      return 0;
+      }
+
+    @Override
+    public void close()
+      {
+      now += MILLI;
+      }
+
+    @Override
+    public float getProgress()
+      {
+      return 0;
+      }
+    } );
+
+    int count = 0;
+
+    while( reader.next( null, null ) )
+      count++;
+
+    assertEquals( MeasuredDuration.FLUSH_INTERVAL + 6, count );
+    assertEquals( 1, increments );
+    assertEquals( MeasuredDuration.FLUSH_INTERVAL, total );
+
+    reader.close();
+
+    // the remaining reads, the final read returning false, and the close itself
+    assertEquals( 2, increments );
+    assertEquals( MeasuredDuration.FLUSH_INTERVAL + 6 + 1 + 1, total );
+    }
+
+  /** The scheme iterator closes the actual readers, not the measured one wrapping them, so it must flush itself. */
+  @Test
+  public void testSchemeIterator() throws IOException
+    {
+    final long[] read = new long[ 1 ];
+
+    HadoopFlowProcess flowProcess = new HadoopFlowProcess( new JobConf() )
+    {
+    @Override
+    public void increment( Enum counter, long amount )
+      {
+      assertEquals( SliceCounters.Read_Duration, counter );
+
+      read[ 0 ] += amount;
+      }
+    };
+
+    final Iterator<RecordReader> readers = Arrays.<RecordReader>asList( new SleepingRecordReader( 2 ), new SleepingRecordReader( 2 ) ).iterator();
+
+    CloseableIterator<RecordReader> input = new CloseableIterator<RecordReader>()
+    {
+    @Override
+    public boolean hasNext()
+      {
+      return readers.hasNext();
+      }
+
+    @Override
+    public RecordReader next()
+      {
+      return readers.next();
+      }
+
+    @Override
+    public void remove()
+      {
+      throw new UnsupportedOperationException();
+      }
+
+    @Override
+    public void close()
+      {
+      }
+    };
+
+    HadoopTupleEntrySchemeIterator iterator = new HadoopTupleEntrySchemeIterator( flowProcess, new TextLine( new Fields( "offset", "line" ) ), input );
+
+    iterator.next();
+    iterator.next();
+
+    assertEquals( 0, read[ 0 ] );
+
+    iterator.next(); // moves on to the second reader
+
+    long first = read[ 0 ];
+
+    assertTrue( "first reader not flushed: " + first, first >= 2 * SleepingRecordReader.SLEEP );
+
+    iterator.next();
+
+    assertFalse( iterator.hasNext() );
+    assertEquals( first, read[ 0 ] );
+
+    iterator.close();
+
+    assertTrue( "second reader not flushed: " + read[ 0 ], read[ 0 ] >= first + 2 * SleepingRecordReader.SLEEP );
+    }
+
+  /** Returns the given number of lines, each read taking a few milliseconds. */
+  private static class SleepingRecordReader implements RecordReader<LongWritable, Text>
+    {
+    static final long SLEEP = 3;
+
+    private int remaining;
+
+    SleepingRecordReader( int remaining )
+      {
+      this.remaining = remaining;
+      }
+
+    @Override
+    public boolean next( LongWritable key, Text value ) throws IOException
+      {
+      if( remaining == 0 )
+        return false;
+
+      try
+        {
+        Thread.sleep( SLEEP );
+        }
+      catch( InterruptedException exception )
+        {
+        throw new IOException( exception );
+        }
+
+      key.set( remaining );
+      value.set( "line " + remaining-- );
+
+      return true;
+      }
+
+    @Override
+    public LongWritable createKey()
+      {
+      return new LongWritable();
+      }
+
+    @Override
+    public Text createValue()
+      {
+      return new Text();
+      }
+
+    @Override
+    public long getPos()
+      {
+      return 0;
+      }
+
+    @Override
+    public void close()
+      {
+      }
+
+    @Override
+    public float getProgress()
+      {
+      return 0;
+      }
+    }
+  }
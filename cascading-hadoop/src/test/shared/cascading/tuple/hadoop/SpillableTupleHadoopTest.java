@@ -20,17 +20,24 @@
 
 package cascading.tuple.hadoop;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import cascading.CascadingTestCase;
 import cascading.flow.hadoop.HadoopFlowProcess;
 import cascading.tuple.Tuple;
+import cascading.tuple.collect.MemorySpillStrategy;
 import cascading.tuple.collect.SpillableProps;
+import cascading.tuple.hadoop.collect.HadoopOffHeapTupleMap;
 import cascading.tuple.hadoop.collect.HadoopSpillableTupleList;
 import cascading.tuple.hadoop.collect.HadoopSpillableTupleMap;
+import cascading.tuple.io.TupleOutputStream;
 import org.apache.hadoop.io.BooleanWritable;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.Text;
@@ -85,7 +92,79 @@ public class SpillableTupleHadoopTest extends CascadingTestCase
     System.out.println( "time = " + ( System.currentTimeMillis() - time ) );
     }
 
+  @Test
+  public void testSpillListAsync()
+    {
+    GzipCodec codec = ReflectionUtils.newInstance( GzipCodec.class, new JobConf() );
+
+    performListTest( 49, 50, null, 0, 2 );
+    performListTest( 51, 50, null, 1, 2 );
+    performListTest( 501, 50, null, 10, 1 );
+    performListTest( 501, 50, codec, 10, 2 );
+    performListTest( 501, 50, codec, 10, 4 );
+    }
+
+  @Test
+  public void testSpillListCompact()
+    {
+    GzipCodec codec = ReflectionUtils.newInstance( GzipCodec.class, new JobConf() );
+
+    performListTest( 49, 50, null, 0, 0, true );
+    performListTest( 501, 50, null, 10, 0, true );
+    performListTest( 501, 50, codec, 10, 0, true );
+    performListTest( 501, 50, codec, 10, 2, true );
+    }
+
+  @Test
+  public void testSpillListStringDictionary()
+    {
+    performDictionaryListTest( false );
+    performDictionaryListTest( true );
+    }
+
+  private void performDictionaryListTest( boolean compact )
+    {
+    JobConf jobConf = new JobConf();
+
+    jobConf.setBoolean( TupleSerializationProps.STRING_DICTIONARY, true );
+
+    HadoopSpillableTupleList list = new HadoopSpillableTupleList( 50, null, jobConf );
+
+    list.setCompact( compact );
+
+    String large = String.format( "%300s", "large" ); // not added to the dictionary
+
+    for( int i = 0; i < 501; i++ )
+      list.add( new Tuple( "country " + i % 7, i, large, new Tuple( "device " + i % 3, "country " + i % 7 ) ) );
+
+    assertEquals( "not equal: list.getNumFiles()", 10, list.spillCount() );
+
+    int count = 0;
+
+    for( Tuple tuple : list )
+      {
+      assertEquals( "wrong value", "country " + count % 7, tuple.getObject( 0 ) );
+      assertEquals( "wrong value", count, tuple.getInteger( 1 ) );
+      assertEquals( "wrong value", large, tuple.getObject( 2 ) );
+      assertEquals( "wrong value", new Tuple( "device " + count % 3, "country " + count % 7 ), tuple.getObject( 3 ) );
+
+      count++;
+      }
+
+    assertEquals( "not equal: list.size();", 501, count );
+    }
+
   private void performListTest( int size, int threshold, CompressionCodec codec, int spills )
+    {
+    performListTest( size, threshold, codec, spills, 0, false );
+    }
+
+  private void performListTest( int size, int threshold, CompressionCodec codec, int spills, int asyncBuffers )
+    {
+    performListTest( size, threshold, codec, spills, asyncBuffers, false );
+    }
+
+  private void performListTest( int size, int threshold, CompressionCodec codec, int spills, int asyncBuffers, boolean compact )
     {
     JobConf jobConf = new JobConf();
 
@@ -94,6 +173,11 @@ public class SpillableTupleHadoopTest extends CascadingTestCase
 
     HadoopSpillableTupleList list = new HadoopSpillableTupleList( threshold, codec, jobConf );
 
+    list.setAsyncSpill( asyncBuffers );
+    list.setCompact( compact );
+
+    assertEquals( "not compact", compact, list.isCompact() );
+
     for( int i = 0; i < size; i++ )
       {
       String aString = "string number " + i;
@@ -134,6 +218,174 @@ public class SpillableTupleHadoopTest extends CascadingTestCase
     assertEquals( "not equal: iterator.next().get(1)", "string number 1", iterator.next().getObject( 1 ) );
     }
 
+  @Test
+  public void testSpillListMemory()
+    {
+    JobConf jobConf = new JobConf();
+
+    long retained = MemorySpillStrategy.getGlobalRetained();
+    long tupleSize = MemorySpillStrategy.estimateSize( new Object[]{0, "string 1000"} );
+
+    HadoopSpillableTupleList list = new HadoopSpillableTupleList( Integer.MAX_VALUE, null, jobConf );
+
+    list.setSpillStrategy( new MemorySpillStrategy( 0, tupleSize * 10 ) );
+
+    for( int i = 0; i < 95; i++ )
+      list.add( new Tuple( i, "string " + ( 1000 + i ) ) ); // fixed size
+
+    assertEquals( "not equal: list.getNumFiles()", 9, list.spillCount() );
+    assertTrue( "retained too large", list.getRetainedSize() < tupleSize * 10 );
+    assertEquals( "not equal: global retained", retained + list.getRetainedSize(), MemorySpillStrategy.getGlobalRetained() );
+
+    int count = 0;
+
+    for( Tuple tuple : list )
+      assertEquals( "wrong value", count++, tuple.getInteger( 0 ) );
+
+    assertEquals( "not equal: list.size();", 95, count );
+
+    list.clear();
+
+    assertEquals( "not equal: global retained", retained, MemorySpillStrategy.getGlobalRetained() );
+    }
+
+  @Test
+  public void testSpillListCompactMemory()
+    {
+    JobConf jobConf = new JobConf();
+
+    long retained = MemorySpillStrategy.getGlobalRetained();
+
+    HadoopSpillableTupleList list = new HadoopSpillableTupleList( Integer.MAX_VALUE, null, jobConf );
+
+    list.setCompact( true );
+    list.setSpillStrategy( new MemorySpillStrategy( 0, 1024 * 1024 ) );
+
+    list.add( new Tuple( 0, "string 1000" ) );
+
+    // the first chunk is small, not a full 64KB chunk
+    assertEquals( "not equal: first chunk retained", 256, list.getRetainedSize() );
+
+    for( int i = 1; i < 1000; i++ )
+      list.add( new Tuple( i, "string " + ( 1000 + i ) ) );
+
+    // chunks double in size, the allocated capacity is charged
+    long capacity = list.getRetainedSize();
+
+    assertEquals( "not a sum of doubling chunks", 0, ( capacity / 256 + 1 ) & ( capacity / 256 ) );
+    assertTrue( "capacity too large", capacity < 64 * 1024 );
+    assertEquals( "not equal: global retained", retained + capacity, MemorySpillStrategy.getGlobalRetained() );
+
+    int count = 0;
+
+    for( Tuple tuple : list )
+      {
+      assertEquals( "wrong value", count, tuple.getInteger( 0 ) );
+      assertEquals( "wrong value", "string " + ( 1000 + count++ ), tuple.getString( 1 ) );
+      }
+
+    assertEquals( "not equal: list.size();", 1000, count );
+
+    list.clear();
+
+    assertEquals( "not equal: global retained", retained, MemorySpillStrategy.getGlobalRetained() );
+    }
+
+  @Test
+  public void testSpillListClearDeletesFiles()
+    {
+    JobConf jobConf = new JobConf();
+    final Set<File> files = new HashSet<File>();
+
+    HadoopSpillableTupleList list = new HadoopSpillableTupleList( 10, null, jobConf )
+    {
+    @Override
+    protected TupleOutputStream createTupleOutputStream( File file )
+      {
+      files.add( file );
+
+      return super.createTupleOutputStream( file );
+      }
+    };
+
+    for( int i = 0; i < 35; i++ )
+      list.add( new Tuple( i, "string " + i ) );
+
+    assertEquals( "not equal: list.getNumFiles()", 3, list.spillCount() );
+    assertEquals( "not equal: files", 3, files.size() );
+
+    for( File file : files )
+      assertTrue( "spill file missing: " + file, file.exists() );
+
+    list.clear();
+
+    for( File file : files )
+      assertFalse( "spill file not deleted: " + file, file.exists() );
+    }
+
+  @Test
+  public void testSpillListAsyncMemory() throws Exception
+    {
+    JobConf jobConf = new JobConf();
+
+    long retained = MemorySpillStrategy.getGlobalRetained();
+    char[] chars = new char[ 2000 ];
+
+    Arrays.fill( chars, 'x' );
+
+    final String padding = new String( chars ); // spill files are many read ahead blocks long
+    long tupleSize = MemorySpillStrategy.estimateSize( new Object[]{0, padding} );
+    final CountDownLatch writing = new CountDownLatch( 1 );
+
+    HadoopSpillableTupleList list = new HadoopSpillableTupleList( Integer.MAX_VALUE, null, jobConf )
+    {
+    @Override
+    protected TupleOutputStream createTupleOutputStream( File file )
+      {
+      try
+        {
+        writing.await(); // hold the first background write
+        }
+      catch( InterruptedException exception )
+        {
+        throw new RuntimeException( exception );
+        }
+
+      return super.createTupleOutputStream( file );
+      }
+    };
+
+    list.setSpillStrategy( new MemorySpillStrategy( 0, tupleSize * 100 ) );
+    list.setAsyncSpill( 2 );
+
+    for( int i = 0; i < 150; i++ )
+      list.add( new Tuple( i, padding ) );
+
+    assertEquals( "not equal: list.getNumFiles()", 1, list.spillCount() );
+    assertEquals( "not equal: list retained", tupleSize * 50, list.getRetainedSize() );
+    assertEquals( "buffer being written not retained", retained + tupleSize * 150, MemorySpillStrategy.getGlobalRetained() );
+
+    writing.countDown();
+
+    for( int i = 150; i < 1050; i++ )
+      list.add( new Tuple( i, padding ) );
+
+    int count = 0;
+
+    for( Tuple tuple : list )
+      {
+      assertEquals( "wrong value", count++, tuple.getInteger( 0 ) );
+      assertEquals( "wrong value", padding, tuple.getString( 1 ) );
+      }
+
+    assertEquals( "not equal: list.size();", 1050, count );
+    assertEquals( "not equal: global retained", retained + list.getRetainedSize(), MemorySpillStrategy.getGlobalRetained() );
+
+    list.clear();
+
+    assertEquals( "not equal: global retained", retained, MemorySpillStrategy.getGlobalRetained() );
+    }
+
   @Test
   public void testSpillMap()
     {
@@ -195,4 +447,70 @@ public class SpillableTupleHadoopTest extends CascadingTestCase
     // the list test above verifies the contents are being serialized, the Map is just a container of lists.
     assertEquals( "not equal: map.size();", keySet.size(), map.size() );
     }
+  
+  @Test
+  public void testOffHeapMap()
+    {
+    JobConf jobConf = new JobConf();
+
+    jobConf.set( "io.serializations", TestSerialization.class.getName() + "," + WritableSerialization.class.getName() ); // disable/replace WritableSerialization class
+
+    HadoopFlowProcess flowProcess = new HadoopFlowProcess( jobConf );
+
+    // a tiny index and small blocks force index resizing and many block allocations
+    HadoopOffHeapTupleMap map = new HadoopOffHeapTupleMap( 1, 1024, new TupleSerialization( flowProcess ) );
+
+    int numKeys = 5000;
+
+    for( int i = 0; i < numKeys * 3; i++ )
+      {
+      String aString = "string number " + i;
+      Tuple tuple = new Tuple( i, aString, new Text( aString ), new TestText( aString ), new Tuple( "inner tuple", new BytesWritable( aString.getBytes() ) ) );
+
+      map.get( new Tuple( i % numKeys, "key" ) ).add( tuple );
+      }
+
+    assertEquals( "not equal: map.size();", numKeys, map.size() );
+    assertEquals( "not equal: map.getNumValues();", numKeys * 3, map.getNumValues() );
+    assertFalse( "contains key", map.containsKey( new Tuple( numKeys, "key" ) ) );
+    assertNull( "probed missing key", map.probe( new Tuple( numKeys, "key" ) ) );
+
+    // probe every even key
+    for( int i = 0; i < numKeys; i += 2 )
+      {
+      Collection<Tuple> values = map.probe( new Tuple( i, "key" ) );
+
+      assertEquals( "not equal: values.size();", 3, values.size() );
+
+      int count = 0;
+
+      for( Tuple value : values )
+        {
+        assertEquals( "not equal: value", i + numKeys * count, value.getInteger( 0 ) );
+        assertEquals( "not equal: value", new Text( "string number " + value.getInteger( 0 ) ), value.getObject( 2 ) );
+        count++;
+        }
+
+      assertEquals( "not equal: count", 3, count );
+      }
+
+    int unmatched = 0;
+    Iterator<Tuple> iterator = map.unmatchedKeys();
+
+    while( iterator.hasNext() )
+      {
+      Tuple key = iterator.next();
+
+      assertEquals( "not equal: unmatched key", unmatched * 2 + 1, key.getInteger( 0 ) );
+      unmatched++;
+      }
+
+    assertEquals( "not equal: unmatched", numKeys / 2, unmatched );
+    assertEquals( "not equal: map.entrySet().size();", numKeys, map.entrySet().size() );
+
+    map.clear();
+
+    assertEquals( "not equal: map.size();", 0, map.size() );
+    assertFalse( "contains key", map.containsKey( new Tuple( 0, "key" ) ) );
+    }
   }
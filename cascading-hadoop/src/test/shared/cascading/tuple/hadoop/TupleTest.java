@@ -23,11 +23,21 @@ package cascading.tuple.hadoop;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import cascading.CascadingTestCase;
 import cascading.tuple.Tuple;
 import cascading.tuple.hadoop.io.HadoopTupleInputStream;
+import cascading.tuple.hadoop.io.IndexTupleDeserializer;
 import cascading.tuple.hadoop.io.HadoopTupleOutputStream;
+import cascading.tuple.hadoop.io.OrderedTupleDeserializer;
+import cascading.tuple.hadoop.io.OrderedTupleSerializer;
+import cascading.tuple.hadoop.io.TypedTupleDeserializer;
+import cascading.tuple.hadoop.io.TypedTupleSerializer;
+import cascading.tuple.hadoop.util.OrderedTupleComparator;
+import cascading.tuple.io.IndexTuple;
 import cascading.tuple.io.TupleInputStream;
 import cascading.tuple.io.TupleOutputStream;
 
@@ -70,4 +80,163 @@ public class TupleTest extends CascadingTestCase
 
     assertTrue( "not less than: aTuple < bTuple", aTuple.compareTo( bTuple ) > 0 );
     }
+
+  public void testOrderedKeysReadWrite() throws IOException
+    {
+    Tuple aTuple = new Tuple( "", "\u0000a\uFFFF\uD83D\uDE00", null, true, (short) -3, -1, Long.MIN_VALUE, -0.0f, Double.NaN );
+
+    assertEquals( aTuple, readOrdered( writeOrdered( aTuple ) ) );
+    }
+
+  public void testOrderedKeysCompare() throws IOException
+    {
+    Random random = new Random( 1 );
+    String chars = "\u0000\u0001a\u007F\u0080\u07FF\u0800\uD83D\uDE00\uE000\uFFFF";
+    List<Tuple> tuples = new ArrayList<Tuple>();
+
+    for( int i = 0; i < 200; i++ )
+      {
+      StringBuilder builder = new StringBuilder();
+
+      for( int j = random.nextInt( 4 ); j > 0; j-- )
+        builder.append( chars.charAt( random.nextInt( chars.length() ) ) );
+
+      long number = random.nextInt( 5 ) - 2;
+      double real = random.nextBoolean() ? number / 3.0 : -0.0;
+
+      tuples.add( new Tuple( random.nextInt( 10 ) == 0 ? null : builder.toString(), number * Long.MAX_VALUE / 2, real ) );
+      }
+
+    OrderedTupleComparator comparator = new OrderedTupleComparator();
+
+    for( Tuple lhs : tuples )
+      {
+      byte[] lhsBytes = writeOrdered( lhs );
+
+      for( Tuple rhs : tuples )
+        {
+        byte[] rhsBytes = writeOrdered( rhs );
+        int expected = Integer.signum( lhs.compareTo( rhs ) );
+        int result = Integer.signum( comparator.compare( lhsBytes, 0, lhsBytes.length, rhsBytes, 0, rhsBytes.length ) );
+
+        assertEquals( lhs.print() + " " + rhs.print(), expected, result );
+        }
+      }
+    }
+
+  private byte[] writeOrdered( Tuple tuple ) throws IOException
+    {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    OrderedTupleSerializer serializer = new OrderedTupleSerializer();
+
+    serializer.open( outputStream );
+    serializer.serialize( tuple );
+    serializer.close();
+
+    return outputStream.toByteArray();
+    }
+
+  private Tuple readOrdered( byte[] bytes ) throws IOException
+    {
+    OrderedTupleDeserializer deserializer = new OrderedTupleDeserializer();
+
+    deserializer.open( new ByteArrayInputStream( bytes ) );
+
+    try
+      {
+      return deserializer.deserialize( null );
+      }
+    finally
+      {
+      deserializer.close();
+      }
+    }
+
+  public void testTypedReadWrite() throws IOException
+    {
+    TupleSerialization serialization = new TupleSerialization();
+    Class[] types = {String.class, Long.class, Integer.class, Double.class, Boolean.class, Short.class, Float.class};
+
+    TypedTupleSerializer serializer = new TypedTupleSerializer( serialization.getElementWriter(), types );
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    Tuple typed = new Tuple( "\u00e9t\u00e9", -1L, null, 1.5d, true, (short) 2, null );
+    Tuple ascii = new Tuple( "a", Long.MAX_VALUE, Integer.MIN_VALUE, null, null, null, 0.5f );
+    Tuple mismatched = new Tuple( "a", 1, 1, 1.5d, true, (short) 2, 0.5f ); // Integer declared Long
+    Tuple wrongSize = new Tuple( "a" );
+
+    serializer.open( outputStream );
+    serializer.serialize( typed );
+    int typedLength = outputStream.size();
+    serializer.serialize( ascii );
+    serializer.serialize( mismatched );
+    serializer.serialize( wrongSize );
+    serializer.close();
+
+    TypedTupleDeserializer deserializer = new TypedTupleDeserializer( serialization.getElementReader(), types );
+
+    deserializer.open( new ByteArrayInputStream( outputStream.toByteArray() ) );
+
+    assertEquals( typed, deserializer.deserialize( null ) );
+
+    Tuple reuse = deserializer.deserialize( null );
+    assertEquals( ascii, reuse );
+    assertEquals( mismatched, deserializer.deserialize( reuse ) );
+    assertEquals( wrongSize, deserializer.deserialize( reuse ) );
+
+    deserializer.close();
+
+    ByteArrayOutputStream untyped = new ByteArrayOutputStream();
+    TupleOutputStream tupleOutputStream = new HadoopTupleOutputStream( untyped, serialization.getElementWriter() );
+
+    tupleOutputStream.writeTuple( typed );
+    tupleOutputStream.flush();
+
+    assertTrue( "typed not smaller: " + typedLength, typedLength < untyped.size() );
+    }
+  
+  public void testReuseValuesReadWrite() throws IOException
+    {
+    TupleSerialization serialization = new TupleSerialization();
+
+    Tuple first = new Tuple( "\u00e9t\u00e9", 1000L, 1000, 1.5d, new Tuple( "nested" ), 0.5f );
+    Tuple second = new Tuple( "\u00e9t\u00e9", 1000L, 2000, 1.5d, new Tuple( "nested" ), null );
+    Tuple third = new Tuple( "summer", null, 2000 );
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    TupleOutputStream tupleOutputStream = new HadoopTupleOutputStream( outputStream, serialization.getElementWriter() );
+
+    tupleOutputStream.writeIndexTuple( new IndexTuple( 0, first ) );
+    tupleOutputStream.writeIndexTuple( new IndexTuple( 1, second ) );
+    tupleOutputStream.writeIndexTuple( new IndexTuple( 0, third ) );
+    tupleOutputStream.flush();
+
+    IndexTupleDeserializer deserializer = new IndexTupleDeserializer( serialization.getElementReader(), true );
+
+    deserializer.open( new ByteArrayInputStream( outputStream.toByteArray() ) );
+
+    IndexTuple indexTuple = deserializer.deserialize( null );
+    Tuple tuple = indexTuple.getTuple();
+
+    assertEquals( first, tuple );
+
+    Object string = tuple.getObject( 0 );
+    Object boxed = tuple.getObject( 1 );
+    Object nested = tuple.getObject( 4 );
+
+    assertSame( indexTuple, deserializer.deserialize( indexTuple ) );
+    assertSame( tuple, indexTuple.getTuple() );
+    assertEquals( 1, indexTuple.getIndex() );
+    assertEquals( second, tuple );
+    assertSame( string, tuple.getObject( 0 ) );
+    assertSame( boxed, tuple.getObject( 1 ) );
+    assertNotSame( nested, tuple.getObject( 4 ) );
+
+    deserializer.deserialize( indexTuple );
+
+    assertSame( tuple, indexTuple.getTuple() );
+    assertEquals( third, tuple );
+
+    deserializer.close();
+    }
   }
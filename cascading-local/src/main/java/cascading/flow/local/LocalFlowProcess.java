@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.Properties;
 
 import cascading.CascadingException;
+import cascading.flow.BatchedCounters;
 import cascading.flow.FlowProcess;
 import cascading.flow.FlowSession;
 import cascading.stats.local.LocalStepStats;
@@ -39,6 +40,7 @@ public class LocalFlowProcess extends FlowProcess<Properties>
   {
   private final Properties config;
   private LocalStepStats stepStats;
+  private BatchedCounters counters;
 
   public LocalFlowProcess()
     {
@@ -61,6 +63,7 @@ public class LocalFlowProcess extends FlowProcess<Properties>
     super( flowProcess.getCurrentSession() );
     this.config = properties;
     this.stepStats = flowProcess.stepStats;
+    this.counters = flowProcess.counters;
     }
 
   public void setStepStats( LocalStepStats stepStats )
@@ -68,6 +71,34 @@ public class LocalFlowProcess extends FlowProcess<Properties>
     this.stepStats = stepStats;
     }
 
+  /**
+   * Method enableCounterBatching makes this instance, and the instances later copied from it, batch their counter
+   * increments per thread if {@link BatchedCounters#COUNTER_BATCH_SIZE} is set above 1. {@link #flushCounters()} must be called once the step is done.
+   */
+  public void enableCounterBatching()
+    {
+    int batchSize = BatchedCounters.getCounterBatchSize( this );
+
+    if( batchSize <= 1 )
+      return;
+
+    counters = new BatchedCounters( batchSize )
+    {
+    @Override
+    protected void flushIncrement( Enum counter, long amount )
+      {
+      stepStats.increment( counter, amount );
+      }
+    };
+    }
+
+  /** Method flushCounters adds all the batched counter increments to the step stats, if batching is enabled. */
+  public void flushCounters()
+    {
+    if( counters != null )
+      counters.flush();
+    }
+
   @Override
   public int getNumProcessSlices()
     {
@@ -126,7 +157,10 @@ public class LocalFlowProcess extends FlowProcess<Properties>
   @Override
   public void increment( Enum counter, long amount )
     {
-    stepStats.increment( counter, amount );
+    if( counters != null )
+      counters.increment( counter, amount );
+    else
+      stepStats.increment( counter, amount );
     }
 
   @Override
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.local;
+
+import java.util.Properties;
+
+import cascading.flow.FlowProcess;
+import cascading.property.Props;
+
+/**
+ * Class LocalFlowProps is a fluent helper class for setting local mode specific properties through
+ * a {@link LocalFlowConnector}.
+ * <p/>
+ * By default all {@link cascading.pipe.GroupBy} and {@link cascading.pipe.CoGroup} pipes are accumulated and emitted
+ * on a single thread. Setting the number of gate partitions above 1 will hash partition each grouping key into that
+ * many independent in-memory partitions, where each partition is sorted in parallel once all incoming data has arrived.
+ * <p/>
+ * Groups are then emitted downstream on a single thread, either in global key order (the default), or partition
+ * by partition if global ordering across partitions is not required.
+ * <p/>
+ * Alternatively, setting a gate spill threshold will cause every GroupBy and CoGroup to perform an external sort,
+ * spilling sorted runs to disk whenever the approximate size of the buffered tuples exceeds the threshold. This
+ * allows local mode to process more data than fits in memory, and takes precedence over partitioning.
+ *
+ * @see cascading.flow.local.stream.LocalPartitionedSpliceGate
+ * @see cascading.flow.local.stream.LocalSpillingSpliceGate
+ */
+public class LocalFlowProps extends Props
+  {
+  /** The number of partitions to hash grouping keys into. A value of 1 (the default) disables partitioning. */
+  public static final String GATE_PARTITIONS = "cascading.local.gate.partitions";
+
+  /** The number of threads used to sort partitions, defaults to the number of available processors. */
+  public static final String GATE_THREADS = "cascading.local.gate.threads";
+
+  /**
+   * Whether groups are emitted in global key order, merged across all partitions, or partition by partition.
+   * Defaults to {@code true}.
+   *
+   * @see Boolean#parseBoolean(String)
+   */
+  public static final String GATE_ORDERED = "cascading.local.gate.ordered";
+
+  /**
+   * The approximate number of bytes of tuples to buffer in memory in each GroupBy and CoGroup before spilling a
+   * sorted run to disk. A value of 0 (the default) disables spilling.
+   */
+  public static final String GATE_SPILL_THRESHOLD = "cascading.local.gate.spill.threshold";
+
+  public static final int defaultGatePartitions = 1;
+  public static final long defaultGateSpillThreshold = 0;
+
+  int gatePartitions = defaultGatePartitions;
+  int gateThreads = Runtime.getRuntime().availableProcessors();
+  boolean gateOrdered = true;
+  long gateSpillThreshold = defaultGateSpillThreshold;
+
+  public static int getGatePartitions( FlowProcess flowProcess )
+    {
+    return getInt( flowProcess, GATE_PARTITIONS, defaultGatePartitions );
+    }
+
+  public static int getGateThreads( FlowProcess flowProcess )
+    {
+    return getInt( flowProcess, GATE_THREADS, Runtime.getRuntime().availableProcessors() );
+    }
+
+  public static boolean isGateOrdered( FlowProcess flowProcess )
+    {
+    String value = (String) flowProcess.getProperty( GATE_ORDERED );
+
+    if( value == null || value.length() == 0 )
+      return true;
+
+    return Boolean.parseBoolean( value );
+    }
+
+  public static long getGateSpillThreshold( FlowProcess flowProcess )
+    {
+    String value = (String) flowProcess.getProperty( GATE_SPILL_THRESHOLD );
+
+    if( value == null || value.length() == 0 )
+      return defaultGateSpillThreshold;
+
+    return Long.parseLong( value );
+    }
+
+  private static int getInt( FlowProcess flowProcess, String key, int defaultValue )
+    {
+    String value = (String) flowProcess.getProperty( key );
+
+    if( value == null || value.length() == 0 )
+      return defaultValue;
+
+    return Integer.parseInt( value );
+    }
+
+  /**
+   * Creates a new LocalFlowProps instance.
+   *
+   * @return LocalFlowProps instance
+   */
+  public static LocalFlowProps localFlowProps()
+    {
+    return new LocalFlowProps();
+    }
+
+  public LocalFlowProps()
+    {
+    }
+
+  public int getGatePartitions()
+    {
+    return gatePartitions;
+    }
+
+  /**
+   * Method setGatePartitions sets the number of partitions grouping keys are hashed into by each GroupBy and CoGroup.
+   * <p/>
+   * A value of 1 retains the single threaded behavior.
+   *
+   * @param gatePartitions of type int
+   * @return this
+   */
+  public LocalFlowProps setGatePartitions( int gatePartitions )
+    {
+    this.gatePartitions = gatePartitions;
+
+    return this;
+    }
+
+  public int getGateThreads()
+    {
+    return gateThreads;
+    }
+
+  /**
+   * Method setGateThreads sets the number of threads used to sort the partitions of each GroupBy and CoGroup.
+   *
+   * @param gateThreads of type int
+   * @return this
+   */
+  public LocalFlowProps setGateThreads( int gateThreads )
+    {
+    this.gateThreads = gateThreads;
+
+    return this;
+    }
+
+  public boolean isGateOrdered()
+    {
+    return gateOrdered;
+    }
+
+  /**
+   * Method setGateOrdered sets whether groups are emitted in global key order, or partition by partition.
+   * <p/>
+   * If false, keys are only sorted within each partition, saving the cost of merging all the partitions.
+   *
+   * @param gateOrdered of type boolean
+   * @return this
+   */
+  public LocalFlowProps setGateOrdered( boolean gateOrdered )
+    {
+    this.gateOrdered = gateOrdered;
+
+    return this;
+    }
+
+  public long getGateSpillThreshold()
+    {
+    return gateSpillThreshold;
+    }
+
+  /**
+   * Method setGateSpillThreshold sets the approximate number of bytes of tuples each GroupBy and CoGroup will buffer
+   * in memory before spilling a sorted run to disk.
+   * <p/>
+   * A value of 0 retains the in-memory behavior.
+   *
+   * @param gateSpillThreshold of type long
+   * @return this
+   */
+  public LocalFlowProps setGateSpillThreshold( long gateSpillThreshold )
+    {
+    this.gateSpillThreshold = gateSpillThreshold;
+
+    return this;
+    }
+
+  @Override
+  protected void addPropertiesTo( Properties properties )
+    {
+    properties.setProperty( GATE_PARTITIONS, Integer.toString( gatePartitions ) );
+    properties.setProperty( GATE_THREADS, Integer.toString( gateThreads ) );
+    properties.setProperty( GATE_ORDERED, Boolean.toString( gateOrdered ) );
+    properties.setProperty( GATE_SPILL_THRESHOLD, Long.toString( gateSpillThreshold ) );
+    }
+  }
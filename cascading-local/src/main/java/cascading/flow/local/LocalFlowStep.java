@@ -32,6 +32,7 @@ import cascading.flow.local.planner.LocalFlowStepJob;
 import cascading.flow.planner.BaseFlowStep;
 import cascading.flow.planner.FlowStepJob;
 import cascading.property.ConfigDef;
+import cascading.scheme.Scheme;
 import cascading.tap.Tap;
 
 /** Class LocalFlowStep is the local mode implementation of {@link cascading.flow.FlowStep}. */
@@ -74,7 +75,11 @@ public class LocalFlowStep extends BaseFlowStep<Properties>
         if( isSink )
           tap.sinkConfInit( flowProcess, confCopy );
         else
+          {
+          confCopy.setProperty( Scheme.REQUIRED_SOURCE_FIELDS, getRequiredSourcePositions( tap ) );
+          confCopy.setProperty( Scheme.SOURCE_FILTERS, getSourceFilters( tap ) );
           tap.sourceConfInit( flowProcess, confCopy );
+          }
         }
       }
     }
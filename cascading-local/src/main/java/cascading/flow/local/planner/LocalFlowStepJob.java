@@ -49,6 +49,7 @@ public class LocalFlowStepJob extends FlowStepJob<Properties>
     {
     super( clientState, flowStep, 200, 1000 );
     flowProcess.setStepStats( (LocalStepStats) this.flowStepStats );
+    flowProcess.enableCounterBatching();
     this.stackRunner = new LocalStepRunner( flowProcess, flowStep );
     }
 
@@ -30,6 +30,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import cascading.flow.FlowProcess;
+import cascading.flow.local.LocalFlowProcess;
 import cascading.flow.local.LocalFlowStep;
 import cascading.flow.local.stream.LocalStepStreamGraph;
 import cascading.flow.stream.Duct;
@@ -96,6 +97,8 @@ public class LocalStepRunner implements Callable<Throwable>
         if( !( currentThrowable instanceof OutOfMemoryError ) )
           LOG.error( "unable to prepare operation graph", currentThrowable );
 
+        flushCounters();
+
         complete = true;
         successful = false;
         throwable = currentThrowable;
@@ -139,6 +142,8 @@ public class LocalStepRunner implements Callable<Throwable>
           throwable = currentThrowable;
         }
 
+      flushCounters();
+
       complete = true;
       successful = throwable == null;
 
@@ -164,6 +169,12 @@ public class LocalStepRunner implements Callable<Throwable>
       }
     }
 
+  private void flushCounters()
+    {
+    if( flowProcess instanceof LocalFlowProcess )
+      ( (LocalFlowProcess) flowProcess ).flushCounters();
+    }
+
   private List<Future<Throwable>> spawnHeads()
     {
     // todo: consider a CyclicBarrier to syn all threads after the openForRead
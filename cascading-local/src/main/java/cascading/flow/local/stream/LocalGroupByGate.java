@@ -21,7 +21,6 @@
 package cascading.flow.local.stream;
 
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 
 import cascading.flow.FlowProcess;
@@ -92,14 +91,14 @@ public class LocalGroupByGate extends MemorySpliceGate
     next.start( this );
 
     // drain the keys and keyValues collections to preserve memory
-    Iterator<Tuple> iterator = keys.iterator();
-
     // no need to synchronize here as we are guaranteed all writer threads are completed
-    while( iterator.hasNext() )
+    Tuple[] sortedKeys = drainSortedKeys();
+
+    for( int i = 0; i < sortedKeys.length; i++ )
       {
-      Tuple groupTuple = iterator.next();
+      Tuple groupTuple = sortedKeys[ i ];
 
-      iterator.remove();
+      sortedKeys[ i ] = null;
 
       keyEntry.setTuple( groupTuple );
 
@@ -115,7 +114,6 @@ public class LocalGroupByGate extends MemorySpliceGate
       tuples.clear();
       }
 
-    keys = createKeySet();
     valueMap = initNewValueMap();
     count.set( numIncomingPaths );
 
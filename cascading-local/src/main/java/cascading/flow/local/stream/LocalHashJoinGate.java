@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.local.stream;
+
+import java.util.Collection;
+
+import cascading.flow.FlowProcess;
+import cascading.flow.stream.MemoryHashJoinGate;
+import cascading.pipe.HashJoin;
+import cascading.pipe.HashJoinProps;
+import cascading.tuple.Tuple;
+import cascading.tuple.collect.OffHeapTupleMap;
+import cascading.tuple.collect.SpillableProps;
+import cascading.tuple.collect.SpillableTupleList;
+import cascading.tuple.local.collect.LocalOffHeapTupleMap;
+import cascading.tuple.local.collect.LocalSpillableTupleList;
+
+/**
+ * LocalHashJoinGate is a {@link MemoryHashJoinGate} that supports off heap join tables and spilling in local mode.
+ */
+public class LocalHashJoinGate extends MemoryHashJoinGate
+  {
+  public LocalHashJoinGate( FlowProcess flowProcess, HashJoin join )
+    {
+    super( flowProcess, join );
+    }
+
+  @Override
+  public boolean isOffHeapSupported()
+    {
+    return true;
+    }
+
+  @Override
+  public boolean isSpillSupported()
+    {
+    return true;
+    }
+
+  @Override
+  protected OffHeapTupleMap createOffHeapTupleMap()
+    {
+    return new LocalOffHeapTupleMap( HashJoinProps.getOffHeapCapacity( flowProcess ), HashJoinProps.getOffHeapBlockSize( flowProcess ) );
+    }
+  
+  @Override
+  protected Collection<Tuple> createSpillCollection()
+    {
+    LocalSpillableTupleList list = new LocalSpillableTupleList( SpillableTupleList.getThreshold( flowProcess, SpillableProps.defaultListThreshold ) );
+
+    list.setCompact( SpillableTupleList.isCompact( flowProcess, SpillableProps.defaultListCompact ) );
+
+    return list;
+    }
+  }
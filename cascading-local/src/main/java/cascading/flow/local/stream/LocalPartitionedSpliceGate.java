@@ -0,0 +1,358 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.local.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import cascading.flow.FlowProcess;
+import cascading.flow.stream.Duct;
+import cascading.flow.stream.DuctException;
+import cascading.flow.stream.MemorySpliceGate;
+import cascading.pipe.Splice;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class LocalPartitionedSpliceGate is the base class for local mode GroupBy and CoGroup gates that hash partition
+ * incoming grouping keys across a number of independent in-memory partitions.
+ * <p/>
+ * Each partition is guarded by its own lock so concurrent upstream heads rarely contend. Once all incoming paths
+ * have completed, every partition is sorted in parallel, and the groups are then emitted downstream on the
+ * calling thread, either merged into global key order or partition by partition.
+ *
+ * @see cascading.flow.local.LocalFlowProps
+ */
+public abstract class LocalPartitionedSpliceGate extends MemorySpliceGate
+  {
+  private static final Logger LOG = LoggerFactory.getLogger( LocalPartitionedSpliceGate.class );
+
+  protected final int numPartitions;
+  protected final int numThreads;
+  protected final boolean isOrdered;
+
+  protected Partition[] partitions;
+  protected int numSlots;
+
+  private ExecutorService executor;
+
+  public LocalPartitionedSpliceGate( FlowProcess flowProcess, Splice splice, int numPartitions, int numThreads, boolean isOrdered )
+    {
+    super( flowProcess, splice );
+    this.numPartitions = Math.max( 1, numPartitions );
+    this.numThreads = Math.max( 1, Math.min( numThreads, this.numPartitions ) );
+    this.isOrdered = isOrdered;
+    }
+
+  @Override
+  protected boolean isBlockingStreamed()
+    {
+    return true;
+    }
+
+  @Override
+  public void prepare()
+    {
+    super.prepare();
+
+    numSlots = splice.isGroupBy() ? 1 : orderedPrevious.length;
+    partitions = createPartitions();
+
+    executor = Executors.newFixedThreadPool( numThreads, new ThreadFactory()
+    {
+    int count = 0;
+
+    @Override
+    public synchronized Thread newThread( Runnable runnable )
+      {
+      Thread thread = new Thread( runnable, "local-gate-" + splice.getName() + "-" + count++ );
+
+      thread.setDaemon( true );
+
+      return thread;
+      }
+    } );
+
+    LOG.info( "partitioning {} into {} partitions, sorting on {} threads, ordered: {}", splice, numPartitions, numThreads, isOrdered );
+    }
+
+  private Partition[] createPartitions()
+    {
+    Partition[] partitions = new Partition[ numPartitions ];
+
+    for( int i = 0; i < numPartitions; i++ )
+      partitions[ i ] = new Partition();
+
+    return partitions;
+    }
+
+  @Override
+  public void start( Duct previous )
+    {
+    // chained below in #complete()
+    }
+
+  @Override
+  public void receive( Duct previous, TupleEntry incomingEntry )
+    {
+    int pos = splice.isGroupBy() ? 0 : posMap.get( previous );
+
+    Tuple valuesTuple = incomingEntry.getTupleCopy();
+    Tuple groupTuple = keyBuilder[ pos ].makeResult( valuesTuple, null ); // view on valuesTuple
+
+    groupTuple = getDelegatedTuple( groupTuple ); // wrap so hasher/comparator is honored
+
+    Partition partition = partitions[ partitionFor( groupTuple ) ];
+
+    synchronized( partition )
+      {
+      partition.add( groupTuple, pos, valuesTuple );
+      }
+    }
+
+  private int partitionFor( Tuple groupTuple )
+    {
+    int hash = groupTuple.hashCode();
+
+    hash ^= ( hash >>> 16 ); // spread the high bits, tuple hashes are often clustered
+
+    return ( hash & Integer.MAX_VALUE ) % numPartitions;
+    }
+
+  @Override
+  public void complete( Duct previous )
+    {
+    if( count.decrementAndGet() != 0 )
+      return;
+
+    next.start( this );
+
+    sortPartitions();
+
+    if( isOrdered && numPartitions > 1 )
+      emitMerged();
+    else
+      emitPartitioned();
+
+    partitions = createPartitions();
+    count.set( numIncomingPaths );
+
+    next.complete( this );
+    }
+
+  private void sortPartitions()
+    {
+    final Comparator<Tuple> keyComparator = getKeyComparator();
+    List<Future<Void>> futures = new ArrayList<Future<Void>>( numPartitions );
+
+    for( final Partition partition : partitions )
+      {
+      futures.add( executor.submit( new Callable<Void>()
+      {
+      @Override
+      public Void call() throws Exception
+        {
+        partition.sort( keyComparator, valueComparators );
+
+        return null;
+        }
+      } ) );
+      }
+
+    try
+      {
+      for( Future<Void> future : futures )
+        future.get();
+      }
+    catch( InterruptedException exception )
+      {
+      throw new DuctException( "interrupted while sorting partitions", exception );
+      }
+    catch( ExecutionException exception )
+      {
+      throw new DuctException( "failed sorting partitions", exception.getCause() );
+      }
+    }
+
+  private void emitPartitioned()
+    {
+    for( Partition partition : partitions )
+      {
+      while( partition.hasNext() )
+        emit( partition.next() );
+      }
+    }
+
+  private void emitMerged()
+    {
+    final Comparator<Tuple> keyComparator = getKeyComparator();
+
+    PriorityQueue<Partition> queue = new PriorityQueue<Partition>( numPartitions, new Comparator<Partition>()
+    {
+    @Override
+    public int compare( Partition lhs, Partition rhs )
+      {
+      return keyComparator.compare( lhs.peek().getKey(), rhs.peek().getKey() );
+      }
+    } );
+
+    for( Partition partition : partitions )
+      {
+      if( partition.hasNext() )
+        queue.add( partition );
+      }
+
+    while( !queue.isEmpty() )
+      {
+      Partition partition = queue.poll();
+
+      emit( partition.next() );
+
+      if( partition.hasNext() )
+        queue.add( partition );
+      }
+    }
+
+  private void emit( Map.Entry<Tuple, Collection<Tuple>[]> group )
+    {
+    Collection<Tuple>[] collections = group.getValue();
+
+    for( int i = 0; i < collections.length; i++ )
+      {
+      if( collections[ i ] == null )
+        collections[ i ] = Collections.EMPTY_LIST;
+      }
+
+    emitGroup( group.getKey(), collections );
+    }
+
+  /**
+   * Method emitGroup is called once for every unique grouping key, in key order within a partition.
+   *
+   * @param groupTuple  the grouping key
+   * @param collections the values for each incoming slot, never null
+   */
+  protected abstract void emitGroup( Tuple groupTuple, Collection<Tuple>[] collections );
+
+  @Override
+  public void cleanup()
+    {
+    try
+      {
+      if( executor != null )
+        executor.shutdownNow();
+      }
+    finally
+      {
+      super.cleanup();
+      }
+    }
+
+  /**
+   * Class Partition holds all the groups hashed to it. Groups are accumulated in a HashMap, and once all data has
+   * arrived, are sorted into an array that is drained as the groups are emitted.
+   */
+  protected class Partition
+    {
+    private Map<Tuple, Collection<Tuple>[]> groups = new HashMap<Tuple, Collection<Tuple>[]>();
+    private Map.Entry<Tuple, Collection<Tuple>[]>[] sorted;
+    private int index = 0;
+
+    void add( Tuple groupTuple, int pos, Tuple valuesTuple )
+      {
+      Collection<Tuple>[] collections = groups.get( groupTuple );
+
+      if( collections == null )
+        {
+        collections = new Collection[ numSlots ];
+        groups.put( groupTuple, collections );
+        }
+
+      if( collections[ pos ] == null )
+        collections[ pos ] = new ArrayList<Tuple>();
+
+      collections[ pos ].add( valuesTuple );
+      }
+
+    void sort( final Comparator<Tuple> keyComparator, Comparator<Tuple>[] valueComparators )
+      {
+      sorted = groups.entrySet().toArray( new Map.Entry[ groups.size() ] );
+      groups = null; // the entries retain the data
+
+      Arrays.sort( sorted, new Comparator<Map.Entry<Tuple, Collection<Tuple>[]>>()
+      {
+      @Override
+      public int compare( Map.Entry<Tuple, Collection<Tuple>[]> lhs, Map.Entry<Tuple, Collection<Tuple>[]> rhs )
+        {
+        return keyComparator.compare( lhs.getKey(), rhs.getKey() );
+        }
+      } );
+
+      if( valueComparators == null )
+        return;
+
+      for( Map.Entry<Tuple, Collection<Tuple>[]> entry : sorted )
+        {
+        Collection<Tuple>[] collections = entry.getValue();
+
+        for( int i = 0; i < collections.length; i++ )
+          {
+          if( collections[ i ] != null && valueComparators[ i ] != null )
+            Collections.sort( (List<Tuple>) collections[ i ], valueComparators[ i ] );
+          }
+        }
+      }
+
+    boolean hasNext()
+      {
+      return index < sorted.length;
+      }
+
+    Map.Entry<Tuple, Collection<Tuple>[]> peek()
+      {
+      return sorted[ index ];
+      }
+
+    Map.Entry<Tuple, Collection<Tuple>[]> next()
+      {
+      Map.Entry<Tuple, Collection<Tuple>[]> entry = sorted[ index ];
+
+      sorted[ index++ ] = null; // release as we go to preserve memory
+
+      return entry;
+      }
+    }
+  }
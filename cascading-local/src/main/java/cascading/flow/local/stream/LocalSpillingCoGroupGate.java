@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.local.stream;
+
+import java.util.Collection;
+
+import cascading.flow.FlowProcess;
+import cascading.pipe.Splice;
+import cascading.tuple.Tuple;
+
+/**
+ * Class LocalSpillingCoGroupGate is an external sorting alternative to {@link cascading.flow.stream.MemoryCoGroupGate}.
+ * <p/>
+ * As with the MemoryCoGroupGate, if null key values are not treated as equal, the values from each side of a key
+ * containing a null are joined independently, see {@link cascading.flow.stream.MemorySpliceGate#joinGroup}.
+ *
+ * @see LocalSpillingSpliceGate
+ */
+public class LocalSpillingCoGroupGate extends LocalSpillingSpliceGate
+  {
+  public LocalSpillingCoGroupGate( FlowProcess flowProcess, Splice splice, long spillThreshold )
+    {
+    super( flowProcess, splice, spillThreshold );
+    }
+
+  @Override
+  protected void emitGroup( Tuple groupTuple, Collection<Tuple>[] collections )
+    {
+    joinGroup( groupTuple, collections );
+    }
+  }
@@ -0,0 +1,477 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.local.stream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import cascading.flow.FlowProcess;
+import cascading.flow.stream.Duct;
+import cascading.flow.stream.DuctException;
+import cascading.flow.stream.MemorySpliceGate;
+import cascading.pipe.Splice;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import cascading.tuple.collect.MemorySpillStrategy;
+import cascading.tuple.collect.SpillableProps;
+import cascading.tuple.collect.SpillableTupleList;
+import cascading.tuple.local.collect.LocalSpillableTupleList;
+import cascading.tuple.local.io.LocalTupleInputStream;
+import cascading.tuple.local.io.LocalTupleOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class LocalSpillingSpliceGate is the base class for local mode GroupBy and CoGroup gates that perform an
+ * external sort, allowing local mode to group more data than fits in memory.
+ * <p/>
+ * Incoming tuples are buffered until their estimated size exceeds the spill threshold, at which point the buffer
+ * is sorted and written to a temporary file as a sorted run. Once all incoming paths have completed, all runs and
+ * the remaining buffer are merged, and each group is collected into {@link LocalSpillableTupleList} instances so
+ * very large groups may also spill.
+ *
+ * @see cascading.flow.local.LocalFlowProps#GATE_SPILL_THRESHOLD
+ */
+public abstract class LocalSpillingSpliceGate extends MemorySpliceGate
+  {
+  private static final Logger LOG = LoggerFactory.getLogger( LocalSpillingSpliceGate.class );
+
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  protected final long spillThreshold;
+  protected final int listThreshold;
+  protected final MemorySpillStrategy memorySpillStrategy;
+  protected final int asyncBuffers;
+  protected final boolean compact;
+
+  protected int numSlots;
+
+  private List<Record> buffer;
+  private long bufferSize;
+  private List<File> runs;
+  private Comparator<Record> recordComparator;
+
+  public LocalSpillingSpliceGate( FlowProcess flowProcess, Splice splice, long spillThreshold )
+    {
+    super( flowProcess, splice );
+    this.spillThreshold = spillThreshold;
+    this.listThreshold = SpillableTupleList.getThreshold( flowProcess, SpillableProps.defaultListThreshold );
+    this.memorySpillStrategy = MemorySpillStrategy.getSpillStrategy( flowProcess );
+    this.asyncBuffers = SpillableTupleList.getAsyncBuffers( flowProcess, SpillableProps.defaultSpillAsyncBuffers );
+    this.compact = SpillableTupleList.isCompact( flowProcess, SpillableProps.defaultListCompact );
+    }
+
+  @Override
+  protected boolean isBlockingStreamed()
+    {
+    return true;
+    }
+
+  @Override
+  public void prepare()
+    {
+    super.prepare();
+
+    numSlots = splice.isGroupBy() ? 1 : orderedPrevious.length;
+    buffer = new ArrayList<Record>();
+    runs = new ArrayList<File>();
+    recordComparator = createRecordComparator();
+    }
+
+  private Comparator<Record> createRecordComparator()
+    {
+    final Comparator<Tuple> keyComparator = getKeyComparator();
+
+    return new Comparator<Record>()
+    {
+    @Override
+    public int compare( Record lhs, Record rhs )
+      {
+      int c = keyComparator.compare( lhs.key, rhs.key );
+
+      if( c != 0 )
+        return c;
+
+      c = lhs.pos - rhs.pos;
+
+      if( c != 0 || valueComparators == null || valueComparators[ lhs.pos ] == null )
+        return c;
+
+      return valueComparators[ lhs.pos ].compare( lhs.values, rhs.values );
+      }
+    };
+    }
+
+  @Override
+  public void start( Duct previous )
+    {
+    // chained below in #complete()
+    }
+
+  @Override
+  public void receive( Duct previous, TupleEntry incomingEntry )
+    {
+    int pos = splice.isGroupBy() ? 0 : posMap.get( previous );
+
+    Tuple valuesTuple = incomingEntry.getTupleCopy();
+
+    synchronized( this )
+      {
+      buffer.add( new Record( pos, valuesTuple ) );
+      bufferSize += MemorySpillStrategy.estimateSize( valuesTuple );
+
+      if( bufferSize >= spillThreshold )
+        spill();
+      }
+    }
+
+  private void spill()
+    {
+    long start = System.currentTimeMillis();
+
+    Collections.sort( buffer, recordComparator );
+
+    File file = createTempFile();
+
+    try
+      {
+      LocalTupleOutputStream outputStream = new LocalTupleOutputStream( new BufferedOutputStream( new FileOutputStream( file ), BUFFER_SIZE ) );
+
+      try
+        {
+        outputStream.writeLong( buffer.size() );
+
+        for( Record record : buffer )
+          {
+          outputStream.writeInt( record.pos );
+          outputStream.writeTuple( record.values );
+          }
+        }
+      finally
+        {
+        outputStream.close();
+        }
+      }
+    catch( IOException exception )
+      {
+      throw new DuctException( "unable to spill sorted run to: " + file, exception );
+      }
+
+    runs.add( file );
+
+    LOG.info( "spilled run {} of {} tuples, approximately {} bytes, in {} ms", runs.size(), buffer.size(), bufferSize, System.currentTimeMillis() - start );
+
+    buffer = new ArrayList<Record>();
+    bufferSize = 0;
+    }
+
+  private File createTempFile()
+    {
+    try
+      {
+      File file = File.createTempFile( "cascading-gate-run", null );
+      file.deleteOnExit();
+
+      return file;
+      }
+    catch( IOException exception )
+      {
+      throw new DuctException( "unable to create temporary file", exception );
+      }
+    }
+
+  @Override
+  public void complete( Duct previous )
+    {
+    if( count.decrementAndGet() != 0 )
+      return;
+
+    next.start( this );
+
+    Collections.sort( buffer, recordComparator );
+
+    List<RunIterator> iterators = new ArrayList<RunIterator>( runs.size() + 1 );
+
+    try
+      {
+      for( File run : runs )
+        iterators.add( new FileRunIterator( iterators.size(), run ) );
+
+      iterators.add( new RunIterator( iterators.size(), buffer.iterator() ) );
+
+      emitMerged( iterators );
+      }
+    finally
+      {
+      for( RunIterator iterator : iterators )
+        iterator.close();
+
+      buffer = new ArrayList<Record>();
+      bufferSize = 0;
+      runs = new ArrayList<File>();
+      count.set( numIncomingPaths );
+      }
+
+    next.complete( this );
+    }
+
+  private void emitMerged( List<RunIterator> iterators )
+    {
+    final Comparator<Tuple> keyComparator = getKeyComparator();
+
+    PriorityQueue<RunIterator> queue = new PriorityQueue<RunIterator>( iterators.size(), new Comparator<RunIterator>()
+    {
+    @Override
+    public int compare( RunIterator lhs, RunIterator rhs )
+      {
+      int c = recordComparator.compare( lhs.peek(), rhs.peek() );
+
+      // runs were spilled in arrival order, so equal records are merged in that order
+      return c != 0 ? c : lhs.index - rhs.index;
+      }
+    } );
+
+    for( RunIterator iterator : iterators )
+      {
+      if( iterator.hasNext() )
+        queue.add( iterator );
+      }
+
+    Tuple groupTuple = null;
+    Collection<Tuple>[] collections = null;
+
+    while( !queue.isEmpty() )
+      {
+      RunIterator iterator = queue.poll();
+      Record record = iterator.next();
+
+      if( iterator.hasNext() )
+        queue.add( iterator );
+
+      if( groupTuple == null || keyComparator.compare( groupTuple, record.key ) != 0 )
+        {
+        if( groupTuple != null )
+          emit( groupTuple, collections );
+
+        groupTuple = record.key;
+        collections = createCollections();
+        }
+
+      collections[ record.pos ].add( record.values );
+      }
+
+    if( groupTuple != null )
+      emit( groupTuple, collections );
+    }
+
+  private Collection<Tuple>[] createCollections()
+    {
+    Collection<Tuple>[] collections = new Collection[ numSlots ];
+
+    for( int i = 0; i < numSlots; i++ )
+      {
+      LocalSpillableTupleList list = new LocalSpillableTupleList( listThreshold );
+
+      list.setCompact( compact );
+
+      if( memorySpillStrategy != null )
+        list.setSpillStrategy( memorySpillStrategy );
+
+      if( asyncBuffers > 0 )
+        list.setAsyncSpill( asyncBuffers );
+
+      collections[ i ] = list;
+      }
+
+    return collections;
+    }
+
+  private void emit( Tuple groupTuple, Collection<Tuple>[] collections )
+    {
+    emitGroup( groupTuple, collections );
+
+    for( Collection<Tuple> collection : collections )
+      collection.clear();
+    }
+
+  /**
+   * Method emitGroup is called once for every unique grouping key, in key order.
+   *
+   * @param groupTuple  the grouping key
+   * @param collections the values for each incoming slot, never null
+   */
+  protected abstract void emitGroup( Tuple groupTuple, Collection<Tuple>[] collections );
+
+  @Override
+  public void cleanup()
+    {
+    try
+      {
+      if( runs != null )
+        {
+        for( File run : runs )
+          run.delete();
+        }
+      }
+    finally
+      {
+      super.cleanup();
+      }
+    }
+
+  private class Record
+    {
+    final int pos;
+    final Tuple values;
+    final Tuple key;
+
+    Record( int pos, Tuple values )
+      {
+      this.pos = pos;
+      this.values = values;
+      this.key = keyBuilder[ pos ].makeResult( values, null ); // view on values
+      }
+    }
+
+  private class RunIterator
+    {
+    final int index;
+    private final Iterator<Record> iterator;
+    private Record next;
+
+    RunIterator( int index, Iterator<Record> iterator )
+      {
+      this.index = index;
+      this.iterator = iterator;
+      advance();
+      }
+
+    RunIterator( int index )
+      {
+      this.index = index;
+      this.iterator = null;
+      }
+
+    protected Record read()
+      {
+      return iterator.hasNext() ? iterator.next() : null;
+      }
+
+    protected void advance()
+      {
+      next = read();
+      }
+
+    boolean hasNext()
+      {
+      return next != null;
+      }
+
+    Record peek()
+      {
+      return next;
+      }
+
+    Record next()
+      {
+      Record current = next;
+
+      advance();
+
+      return current;
+      }
+
+    void close()
+      {
+      }
+    }
+
+  private class FileRunIterator extends RunIterator
+    {
+    private final File file;
+    private final LocalTupleInputStream inputStream;
+    private long remaining;
+
+    FileRunIterator( int index, File file )
+      {
+      super( index );
+      this.file = file;
+
+      try
+        {
+        inputStream = new LocalTupleInputStream( new BufferedInputStream( new FileInputStream( file ), BUFFER_SIZE ) );
+        remaining = inputStream.readLong();
+        }
+      catch( IOException exception )
+        {
+        throw new DuctException( "unable to open sorted run: " + file, exception );
+        }
+
+      advance();
+      }
+
+    @Override
+    protected Record read()
+      {
+      if( remaining == 0 )
+        return null;
+
+      remaining--;
+
+      try
+        {
+        int pos = inputStream.readInt();
+
+        return new Record( pos, inputStream.readTuple() );
+        }
+      catch( IOException exception )
+        {
+        throw new DuctException( "unable to read sorted run: " + file, exception );
+        }
+      }
+
+    @Override
+    void close()
+      {
+      try
+        {
+        inputStream.close();
+        }
+      catch( IOException exception )
+        {
+        LOG.warn( "unable to close sorted run: {}", file, exception );
+        }
+
+      file.delete();
+      }
+    }
+  }
@@ -26,15 +26,18 @@ import java.util.Properties;
 import cascading.flow.FlowElement;
 import cascading.flow.FlowProcess;
 import cascading.flow.local.LocalFlowProcess;
+import cascading.flow.local.LocalFlowProps;
 import cascading.flow.local.LocalFlowStep;
 import cascading.flow.stream.Duct;
 import cascading.flow.stream.Gate;
 import cascading.flow.stream.MemoryCoGroupGate;
+import cascading.flow.stream.MemoryHashJoinGate;
 import cascading.flow.stream.SinkStage;
 import cascading.flow.stream.SourceStage;
 import cascading.flow.stream.StepStreamGraph;
 import cascading.pipe.CoGroup;
 import cascading.pipe.GroupBy;
+import cascading.pipe.HashJoin;
 import cascading.pipe.Merge;
 import cascading.property.PropertyUtil;
 import cascading.tap.Tap;
@@ -71,14 +74,40 @@ public class LocalStepStreamGraph extends StepStreamGraph
 
   protected Gate createCoGroupGate( CoGroup element )
     {
+    long spillThreshold = LocalFlowProps.getGateSpillThreshold( flowProcess );
+
+    if( spillThreshold > 0 )
+      return new LocalSpillingCoGroupGate( flowProcess, element, spillThreshold );
+
+    int numPartitions = LocalFlowProps.getGatePartitions( flowProcess );
+
+    if( numPartitions > 1 )
+      return new LocalPartitionedCoGroupGate( flowProcess, element, numPartitions, LocalFlowProps.getGateThreads( flowProcess ), LocalFlowProps.isGateOrdered( flowProcess ) );
+
     return new MemoryCoGroupGate( flowProcess, element );
     }
 
   protected Gate createGroupByGate( GroupBy element )
     {
+    long spillThreshold = LocalFlowProps.getGateSpillThreshold( flowProcess );
+
+    if( spillThreshold > 0 )
+      return new LocalSpillingGroupByGate( flowProcess, element, spillThreshold );
+
+    int numPartitions = LocalFlowProps.getGatePartitions( flowProcess );
+
+    if( numPartitions > 1 )
+      return new LocalPartitionedGroupByGate( flowProcess, element, numPartitions, LocalFlowProps.getGateThreads( flowProcess ), LocalFlowProps.isGateOrdered( flowProcess ) );
+
     return new LocalGroupByGate( flowProcess, element );
     }
 
+  @Override
+  protected MemoryHashJoinGate createNonBlockingJoinGate( HashJoin join )
+    {
+    return new LocalHashJoinGate( flowProcess, join );
+    }
+
   @Override
   protected Duct createMergeStage( Merge merge )
     {
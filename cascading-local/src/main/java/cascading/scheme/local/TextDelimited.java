@@ -36,10 +36,13 @@ import cascading.flow.FlowProcess;
 import cascading.management.annotation.Property;
 import cascading.management.annotation.PropertyDescription;
 import cascading.management.annotation.Visibility;
+import cascading.operation.Filter;
+import cascading.scheme.FilterPushdown;
 import cascading.scheme.Scheme;
 import cascading.scheme.SinkCall;
 import cascading.scheme.SourceCall;
 import cascading.scheme.util.DelimitedParser;
+import cascading.scheme.util.SourceFilters;
 import cascading.tap.CompositeTap;
 import cascading.tap.Tap;
 import cascading.tap.TapException;
@@ -97,6 +100,14 @@ import cascading.tuple.util.TupleViews;
  * To override field and line parsing behaviors, sub-class {@link DelimitedParser} or provide a
  * {@link cascading.scheme.util.FieldTypeResolver} implementation.
  * <p/>
+ * To parse lines without regular expressions, give a {@link cascading.scheme.util.ScanningDelimitedParser} instance
+ * on the constructor.
+ * <p/>
+ * When sourcing within a Flow, fields not read downstream are left {@code null} without being cleaned or coerced,
+ * see {@link Scheme#getRequiredSourceFields(cascading.flow.FlowProcess)}. Filters pushed down by the planner, see
+ * {@link FilterPushdown}, are evaluated after parsing only their argument fields, and rejected lines are skipped
+ * without parsing the rest.
+ * <p/>
  * Note that there should be no expectation that TextDelimited, or specifically {@link DelimitedParser}, can handle
  * all delimited and quoted combinations reliably. Attempting to do so would impair its performance and maintainability.
  * <p/>
@@ -110,7 +121,7 @@ import cascading.tuple.util.TupleViews;
  *
  * @see TextLine
  */
-public class TextDelimited extends Scheme<Properties, InputStream, OutputStream, LineNumberReader, PrintWriter>
+public class TextDelimited extends Scheme<Properties, InputStream, OutputStream, LineNumberReader, PrintWriter> implements FilterPushdown
   {
   public static final String DEFAULT_CHARSET = "UTF-8";
 
@@ -119,6 +130,13 @@ public class TextDelimited extends Scheme<Properties, InputStream, OutputStream,
   private final DelimitedParser delimitedParser;
   private String charsetName = DEFAULT_CHARSET;
 
+  /** the source field positions read downstream, or null if all are, set by sourcePrepare */
+  private transient boolean[] sourceRequired;
+  /** any filters pushed down into this scheme, set by sourcePrepare */
+  private transient SourceFilters sourceFilters;
+  /** the source field positions read by the pushed down filters */
+  private transient boolean[] filterRequired;
+
   /**
    * Constructor TextDelimited creates a new TextDelimited instance sourcing {@link Fields#UNKNOWN}, sinking
    * {@link Fields#ALL} and using TAB as the default delimiter.
@@ -653,6 +671,16 @@ public class TextDelimited extends Scheme<Properties, InputStream, OutputStream,
   @Override
   public void sourcePrepare( FlowProcess<Properties> flowProcess, SourceCall<LineNumberReader, InputStream> sourceCall ) throws IOException
     {
+    sourceRequired = delimitedParser.createRequired( getRequiredSourceFields( flowProcess ) );
+    sourceFilters = getSourceFilters( flowProcess );
+    filterRequired = null;
+
+    if( sourceFilters != null )
+      {
+      sourceFilters.prepare( flowProcess );
+      filterRequired = delimitedParser.createRequired( sourceFilters.getArgumentPositions() );
+      }
+
     sourceCall.setContext( createInput( sourceCall.getInput() ) );
 
     sourceCall.getIncomingEntry().setTuple( TupleViews.createObjectArray() );
@@ -661,18 +689,24 @@ public class TextDelimited extends Scheme<Properties, InputStream, OutputStream,
   @Override
   public boolean source( FlowProcess<Properties> flowProcess, SourceCall<LineNumberReader, InputStream> sourceCall ) throws IOException
     {
-    String line = sourceCall.getContext().readLine();
+    Object[] split;
 
-    if( line == null )
-      return false;
+    do
+      {
+      String line = sourceCall.getContext().readLine();
 
-    if( skipHeader && sourceCall.getContext().getLineNumber() == 1 ) // todo: optimize this away
-      line = sourceCall.getContext().readLine();
+      if( line == null )
+        return false;
 
-    if( line == null )
-      return false;
+      if( skipHeader && sourceCall.getContext().getLineNumber() == 1 ) // todo: optimize this away
+        line = sourceCall.getContext().readLine();
 
-    Object[] split = delimitedParser.parseLine( line );
+      if( line == null )
+        return false;
+
+      split = parseLine( flowProcess, line );
+      }
+    while( split == null );
 
     // assumption it is better to re-use than to construct new
     Tuple tuple = sourceCall.getIncomingEntry().getTuple();
@@ -685,9 +719,19 @@ public class TextDelimited extends Scheme<Properties, InputStream, OutputStream,
   @Override
   public void sourceCleanup( FlowProcess<Properties> flowProcess, SourceCall<LineNumberReader, InputStream> sourceCall ) throws IOException
     {
+    if( sourceFilters != null )
+      sourceFilters.cleanup( flowProcess );
+
+    sourceFilters = null;
     sourceCall.setContext( null );
     }
 
+  @Override
+  public boolean acceptSourceFilter( Filter filter, Fields argumentFields )
+    {
+    return getSourceFields().isDefined() && getSourceFields().contains( argumentFields );
+    }
+
   @Override
   public void sinkConfInit( FlowProcess<Properties> flowProcess, Tap<Properties, InputStream, OutputStream> tap, Properties conf )
     {
@@ -725,4 +769,18 @@ public class TextDelimited extends Scheme<Properties, InputStream, OutputStream,
     sinkCall.getContext().flush();
     sinkCall.setContext( null );
     }
+
+  /** returns the parsed values of the given line, or null if removed by a pushed down filter */
+  private Object[] parseLine( FlowProcess<Properties> flowProcess, String line )
+    {
+    if( sourceFilters == null )
+      return delimitedParser.parseLine( line, sourceRequired );
+
+    Object[] split = delimitedParser.splitLine( line );
+
+    if( sourceFilters.isRemove( flowProcess, delimitedParser.parseSplitLine( line, split.clone(), filterRequired ) ) )
+      return null;
+
+    return delimitedParser.parseSplitLine( line, split, sourceRequired );
+    }
   }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tuple.local.collect;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import cascading.tuple.TupleException;
+import cascading.tuple.collect.SpillableTupleList;
+import cascading.tuple.io.TupleInputStream;
+import cascading.tuple.io.TupleOutputStream;
+import cascading.tuple.local.io.LocalTupleInputStream;
+import cascading.tuple.local.io.LocalTupleOutputStream;
+
+/**
+ * LocalSpillableTupleList is a {@link SpillableTupleList} for local mode, spilling to uncompressed temporary files
+ * via a {@link LocalTupleOutputStream}.
+ */
+public class LocalSpillableTupleList extends SpillableTupleList
+  {
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  public LocalSpillableTupleList( int threshold )
+    {
+    super( threshold );
+    }
+
+  @Override
+  protected TupleOutputStream createTupleOutputStream( File file )
+    {
+    try
+      {
+      return new LocalTupleOutputStream( new BufferedOutputStream( new FileOutputStream( file ), BUFFER_SIZE ) );
+      }
+    catch( IOException exception )
+      {
+      throw new TupleException( "unable to create temporary file output stream", exception );
+      }
+    }
+
+  @Override
+  protected TupleOutputStream createTupleOutputStream( OutputStream outputStream )
+    {
+    return new LocalTupleOutputStream( outputStream );
+    }
+
+  @Override
+  protected TupleInputStream createTupleInputStream( InputStream inputStream )
+    {
+    return new LocalTupleInputStream( inputStream );
+    }
+
+  @Override
+  protected TupleInputStream createTupleInputStream( File file )
+    {
+    try
+      {
+      return new LocalTupleInputStream( new BufferedInputStream( new FileInputStream( file ), BUFFER_SIZE ) );
+      }
+    catch( IOException exception )
+      {
+      throw new TupleException( "unable to create temporary file input stream", exception );
+      }
+    }
+  }
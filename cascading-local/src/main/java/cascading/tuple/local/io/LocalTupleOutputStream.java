@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.tuple.local.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleException;
+import cascading.tuple.io.IndexTuple;
+import cascading.tuple.io.TupleOutputStream;
+import cascading.tuple.io.TuplePair;
+
+/**
+ * Class LocalTupleOutputStream writes Tuples to local storage, for example when spilling, without relying on any
+ * Hadoop serialization.
+ * <p/>
+ * Common JDK types are written with a compact token, all other element types must implement {@link Serializable}
+ * and are written with Java serialization, see {@link SerializableElementWriter}.
+ *
+ * @see LocalTupleInputStream
+ */
+public class LocalTupleOutputStream extends TupleOutputStream
+  {
+  /** Field SERIALIZABLE_TOKEN */
+  public static final int SERIALIZABLE_TOKEN = 32;
+
+  static final Charset UTF8 = Charset.forName( "UTF-8" );
+
+  private static final Map<Class, TupleElementWriter> staticTupleElementWriters = new IdentityHashMap<Class, TupleElementWriter>();
+
+  static
+    {
+    staticTupleElementWriters.put( String.class, new TupleElementWriter()
+    {
+    @Override
+    public void write( TupleOutputStream stream, Object element ) throws IOException
+      {
+      byte[] bytes = ( (String) element ).getBytes( UTF8 );
+
+      stream.writeInt( 1 );
+      stream.writeInt( bytes.length );
+      stream.write( bytes );
+      }
+    } );
+
+    staticTupleElementWriters.put( Float.class, new TupleElementWriter()
+    {
+    @Override
+    public void write( TupleOutputStream stream, Object element ) throws IOException
+      {
+      stream.writeInt( 2 );
+      stream.writeFloat( (Float) element );
+      }
+    } );
+
+    staticTupleElementWriters.put( Double.class, new TupleElementWriter()
+    {
+    @Override
+    public void write( TupleOutputStream stream, Object element ) throws IOException
+      {
+      stream.writeInt( 3 );
+      stream.writeDouble( (Double) element );
+      }
+    } );
+
+    staticTupleElementWriters.put( Integer.class, new TupleElementWriter()
+    {
+    @Override
+    public void write( TupleOutputStream stream, Object element ) throws IOException
+      {
+      stream.writeInt( 4 );
+      stream.writeInt( (Integer) element );
+      }
+    } );
+
+    staticTupleElementWriters.put( Long.class, new TupleElementWriter()
+    {
+    @Override
+    public void write( TupleOutputStream stream, Object element ) throws IOException
+      {
+      stream.writeInt( 5 );
+      stream.writeLong( (Long) element );
+      }
+    } );
+
+    staticTupleElementWriters.put( Boolean.class, new TupleElementWriter()
+    {
+    @Override
+    public void write( TupleOutputStream stream, Object element ) throws IOException
+      {
+      stream.writeInt( 6 );
+      stream.writeBoolean( (Boolean) element );
+      }
+    } );
+
+    staticTupleElementWriters.put( Short.class, new TupleElementWriter()
+    {
+    @Override
+    public void write( TupleOutputStream stream, Object element ) throws IOException
+      {
+      stream.writeInt( 7 );
+      stream.writeShort( (Short) element );
+      }
+    } );
+
+    staticTupleElementWriters.put( Tuple.class, new TupleElementWriter()
+    {
+    @Override
+    public void write( TupleOutputStream stream, Object element ) throws IOException
+      {
+      stream.writeInt( 8 );
+      stream.writeTuple( (Tuple) element );
+      }
+    } );
+
+    staticTupleElementWriters.put( TuplePair.class, new TupleElementWriter()
+    {
+    @Override
+    public void write( TupleOutputStream stream, Object element ) throws IOException
+      {
+      stream.writeInt( 9 );
+      stream.writeTuplePair( (TuplePair) element );
+      }
+    } );
+
+    staticTupleElementWriters.put( IndexTuple.class, new TupleElementWriter()
+    {
+    @Override
+    public void write( TupleOutputStream stream, Object element ) throws IOException
+      {
+      stream.writeInt( 10 );
+      stream.writeIndexTuple( (IndexTuple) element );
+      }
+    } );
+    }
+
+  public LocalTupleOutputStream( OutputStream outputStream )
+    {
+    this( outputStream, new SerializableElementWriter() );
+    }
+
+  public LocalTupleOutputStream( OutputStream outputStream, ElementWriter elementWriter )
+    {
+    super( staticTupleElementWriters, outputStream, elementWriter );
+    }
+
+  @Override
+  protected void writeIntInternal( int value ) throws IOException
+    {
+    writeInt( value );
+    }
+
+  public void writeIndexTuple( IndexTuple indexTuple ) throws IOException
+    {
+    writeIntInternal( indexTuple.getIndex() );
+    writeTuple( indexTuple.getTuple() );
+    }
+
+  /** Class SerializableElementWriter writes any {@link Serializable} element using Java serialization. */
+  public static class SerializableElementWriter implements ElementWriter
+    {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    @Override
+    public void write( DataOutputStream outputStream, Object object ) throws IOException
+      {
+      if( !( object instanceof Serializable ) )
+        throw new TupleException( "unable to write element, type is not Serializable: " + object.getClass().getName() );
+
+      bytes.reset();
+
+      ObjectOutputStream objectOutputStream = new ObjectOutputStream( bytes );
+
+      objectOutputStream.writeObject( object );
+      objectOutputStream.close();
+
+      outputStream.writeInt( SERIALIZABLE_TOKEN );
+      outputStream.writeInt( bytes.size() );
+      bytes.writeTo( outputStream );
+      }
+
+    @Override
+    public void close()
+      {
+      }
+    }
+  }
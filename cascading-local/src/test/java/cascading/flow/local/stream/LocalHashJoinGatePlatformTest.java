@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.local.stream;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import cascading.PlatformTestCase;
+import cascading.flow.BloomFilterCounters;
+import cascading.flow.Flow;
+import cascading.flow.stream.MemoryHashJoinGate;
+import cascading.operation.Function;
+import cascading.operation.regex.RegexSplitter;
+import cascading.pipe.Each;
+import cascading.pipe.HashJoin;
+import cascading.pipe.HashJoinProps;
+import cascading.pipe.Pipe;
+import cascading.pipe.joiner.InnerJoin;
+import cascading.pipe.joiner.Joiner;
+import cascading.pipe.joiner.OuterJoin;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import org.junit.Test;
+
+import static data.InputData.*;
+
+public class LocalHashJoinGatePlatformTest extends PlatformTestCase
+  {
+  public LocalHashJoinGatePlatformTest()
+    {
+    }
+
+  @Test
+  public void testOffHeapInnerJoin() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLhs );
+    getPlatform().copyFromLocal( inputFileRhs );
+
+    List<Tuple> expected = runHashJoin( "inner-default", inputFileLhs, inputFileRhs, new InnerJoin(), 37, null );
+    List<Tuple> offHeap = runHashJoin( "inner-offheap", inputFileLhs, inputFileRhs, new InnerJoin(), 37, offHeapProps() );
+
+    assertEquals( expected, offHeap );
+    }
+
+  @Test
+  public void testOffHeapOuterJoin() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLowerOffset );
+    getPlatform().copyFromLocal( inputFileUpper );
+
+    // keys 2, 3, and 4 are only found on the accumulated side, and are emitted on completion
+    List<Tuple> expected = runHashJoin( "outer-default", inputFileLowerOffset, inputFileUpper, new OuterJoin(), 7, null );
+    List<Tuple> offHeap = runHashJoin( "outer-offheap", inputFileLowerOffset, inputFileUpper, new OuterJoin(), 7, offHeapProps() );
+
+    assertEquals( expected, offHeap );
+    }
+
+  @Test
+  public void testSpillingInnerJoin() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLhs );
+    getPlatform().copyFromLocal( inputFileRhs );
+
+    List<Tuple> expected = runHashJoin( "inner-spill-default", inputFileLhs, inputFileRhs, new InnerJoin(), 37, null );
+    List<Tuple> spilled = runHashJoin( "inner-spilled", inputFileLhs, inputFileRhs, new InnerJoin(), 37, spillProps() );
+
+    assertEquals( expected, spilled );
+    }
+
+  @Test
+  public void testSpillingOuterJoin() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLowerOffset );
+    getPlatform().copyFromLocal( inputFileUpper );
+
+    List<Tuple> expected = runHashJoin( "outer-spill-default", inputFileLowerOffset, inputFileUpper, new OuterJoin(), 7, null );
+    List<Tuple> spilled = runHashJoin( "outer-spilled", inputFileLowerOffset, inputFileUpper, new OuterJoin(), 7, spillProps() );
+
+    assertEquals( expected, spilled );
+    }
+
+  @Test
+  public void testSpillingRepartitionJoin() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLhs );
+    getPlatform().copyFromLocal( inputFileRhs );
+
+    List<Tuple> expected = runHashJoin( "repartition-default", inputFileLhs, inputFileRhs, new OuterJoin(), 37, null );
+    List<Tuple> spilled = runHashJoin( "repartitioned", inputFileLhs, inputFileRhs, new OuterJoin(), 37, spillProps() );
+
+    assertEquals( expected, spilled );
+    }
+
+  @Test
+  public void testBloomFilterInnerJoin() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLowerOffset );
+    getPlatform().copyFromLocal( inputFileUpper );
+
+    // key 6 on the streamed side has no match
+    List<Tuple> expected = runHashJoin( "inner-bloom-default", inputFileLowerOffset, inputFileUpper, new InnerJoin(), 3, null );
+    List<Tuple> filtered = runHashJoin( "inner-bloom", inputFileLowerOffset, inputFileUpper, new InnerJoin(), 3, bloomProps() );
+
+    assertEquals( expected, filtered );
+    }
+
+  @Test
+  public void testBloomFilterOuterJoin() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLowerOffset );
+    getPlatform().copyFromLocal( inputFileUpper );
+
+    List<Tuple> expected = runHashJoin( "outer-bloom-default", inputFileLowerOffset, inputFileUpper, new OuterJoin(), 7, null );
+    List<Tuple> filtered = runHashJoin( "outer-bloom", inputFileLowerOffset, inputFileUpper, new OuterJoin(), 7, bloomProps() );
+
+    assertEquals( expected, filtered );
+    }
+
+  private HashJoinProps bloomProps()
+    {
+    return HashJoinProps.hashJoinProps().setBloomFilter( true ).setBloomFilterFPP( 0.0001 );
+    }
+
+  // tiny blocks and index force many allocations
+  private HashJoinProps offHeapProps()
+    {
+    return HashJoinProps.hashJoinProps().setOffHeap( true ).setOffHeapBlockSize( 64 ).setOffHeapCapacity( 1 );
+    }
+
+  // a tiny threshold spills all but the last partition to receive a tuple
+  private HashJoinProps spillProps()
+    {
+    return HashJoinProps.hashJoinProps().setSpillThreshold( 1 ).setSpillPartitions( 3 );
+    }
+
+  private List<Tuple> runHashJoin( String path, String lhsFile, String rhsFile, Joiner joiner, int length, HashJoinProps props ) throws Exception
+    {
+    Tap sourceLhs = getPlatform().getTextFile( new Fields( "offset", "line" ), lhsFile );
+    Tap sourceRhs = getPlatform().getTextFile( new Fields( "offset", "line" ), rhsFile );
+
+    Map sources = new HashMap();
+
+    sources.put( "lhs", sourceLhs );
+    sources.put( "rhs", sourceRhs );
+
+    Tap sink = getPlatform().getTextFile( new Fields( "line" ), getOutputPath( path ), SinkMode.REPLACE );
+
+    Function splitter = new RegexSplitter( new Fields( "num", "char" ), " " );
+
+    Pipe pipeLhs = new Each( new Pipe( "lhs" ), new Fields( "line" ), splitter );
+    Pipe pipeRhs = new Each( new Pipe( "rhs" ), new Fields( "line" ), splitter );
+
+    Pipe join = new HashJoin( pipeLhs, new Fields( "num" ), pipeRhs, new Fields( "num" ), Fields.size( 4 ), joiner );
+
+    if( props != null )
+      props.setProperties( join.getConfigDef() );
+
+    Flow flow = getPlatform().getFlowConnector().connect( sources, sink, join );
+
+    flow.complete();
+
+    validateLength( flow, length );
+
+    if( props != null && props.getSpillThreshold() > 0 )
+      {
+      assertTrue( "no partitions spilled", flow.getFlowStats().getCounterValue( MemoryHashJoinGate.HybridSpill.Num_Partitions_Spilled ) > 0 );
+
+      // every spilled partition exceeds the tiny threshold, and is split again until loaded at the maximum depth
+      assertTrue( "no partitions re-partitioned", flow.getFlowStats().getCounterValue( MemoryHashJoinGate.HybridSpill.Num_Partitions_Repartitioned ) > 0 );
+      }
+
+    if( props != null && props.isBloomFilter() )
+      assertEquals( "not filtered", 1, flow.getFlowStats().getCounterValue( BloomFilterCounters.Tuples_Filtered ) );
+
+    List<Tuple> results = getSinkAsList( flow );
+
+    // keys only found on the accumulated side are not emitted in a defined order
+    Collections.sort( results, new Comparator<Tuple>()
+    {
+    @Override
+    public int compare( Tuple lhs, Tuple rhs )
+      {
+      return lhs.getString( 0 ).compareTo( rhs.getString( 0 ) );
+      }
+    } );
+
+    return results;
+    }
+  }
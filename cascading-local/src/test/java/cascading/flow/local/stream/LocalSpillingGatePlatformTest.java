@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2007-2014 Concurrent, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.flow.local.stream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import cascading.PlatformTestCase;
+import cascading.flow.Flow;
+import cascading.flow.local.LocalFlowProps;
+import cascading.operation.Function;
+import cascading.operation.aggregator.Count;
+import cascading.operation.regex.RegexParser;
+import cascading.operation.regex.RegexSplitter;
+import cascading.pipe.CoGroup;
+import cascading.pipe.Each;
+import cascading.pipe.Every;
+import cascading.pipe.GroupBy;
+import cascading.pipe.Pipe;
+import cascading.pipe.joiner.OuterJoin;
+import cascading.property.Props;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+import cascading.tuple.Fields;
+import cascading.tuple.collect.SpillableProps;
+import cascading.tuple.Tuple;
+import cascading.util.NullNotEquivalentComparator;
+import org.junit.Test;
+
+import static data.InputData.*;
+
+public class LocalSpillingGatePlatformTest extends PlatformTestCase
+  {
+  public LocalSpillingGatePlatformTest()
+    {
+    }
+
+  @Test
+  public void testSpillingGroupBy() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileApache );
+
+    List<Tuple> expected = runGroupBy( "groupby-default" );
+
+    // small enough to force a spill every few tuples
+    List<Tuple> spilled = runGroupBy( "groupby-spilled", LocalFlowProps.localFlowProps().setGateSpillThreshold( 512 ) );
+
+    assertEquals( expected, spilled );
+
+    // also spill each group, held compact, in the background
+    SpillableProps spillableProps = SpillableProps.spillableProps().setListSpillThreshold( 1 ).setListCompact( true ).setSpillAsyncBuffers( 2 );
+
+    List<Tuple> compact = runGroupBy( "groupby-compact", LocalFlowProps.localFlowProps().setGateSpillThreshold( 512 ), spillableProps );
+
+    assertEquals( expected, compact );
+    }
+
+  private List<Tuple> runGroupBy( String path, Props... props ) throws Exception
+    {
+    Tap source = getPlatform().getTextFile( new Fields( "offset", "line" ), inputFileApache );
+    Tap sink = getPlatform().getTextFile( new Fields( "line" ), getOutputPath( path ), SinkMode.REPLACE );
+
+    Pipe pipe = new Pipe( "apache" );
+
+    pipe = new Each( pipe, new Fields( "line" ), new RegexParser( new Fields( "ip" ), "^[^ ]*" ), new Fields( "ip" ) );
+    pipe = new GroupBy( pipe, new Fields( "ip" ) );
+    pipe = new Every( pipe, new Count(), new Fields( "ip", "count" ) );
+
+    Flow flow = getPlatform().getFlowConnector( buildProperties( props ) ).connect( source, sink, pipe );
+
+    flow.complete();
+
+    validateLength( flow, 8 );
+
+    return getSinkAsList( flow );
+    }
+
+  @Test
+  public void testSpillingCoGroup() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLowerOffset );
+    getPlatform().copyFromLocal( inputFileUpper );
+
+    List<Tuple> expected = runCoGroup( "cogroup-default" );
+
+    List<Tuple> spilled = runCoGroup( "cogroup-spilled", LocalFlowProps.localFlowProps().setGateSpillThreshold( 256 ) );
+
+    assertEquals( expected, spilled );
+    }
+
+  private List<Tuple> runCoGroup( String path, Props... props ) throws Exception
+    {
+    Tap sourceLower = getPlatform().getTextFile( new Fields( "offset", "line" ), inputFileLowerOffset );
+    Tap sourceUpper = getPlatform().getTextFile( new Fields( "offset", "line" ), inputFileUpper );
+
+    Map sources = new HashMap();
+
+    sources.put( "lower", sourceLower );
+    sources.put( "upper", sourceUpper );
+
+    Tap sink = getPlatform().getTextFile( new Fields( "line" ), getOutputPath( path ), SinkMode.REPLACE );
+
+    Function splitter = new RegexSplitter( new Fields( "num", "char" ), " " );
+
+    Pipe pipeLower = new Each( new Pipe( "lower" ), new Fields( "line" ), splitter );
+    Pipe pipeUpper = new Each( new Pipe( "upper" ), new Fields( "line" ), splitter );
+
+    Pipe splice = new CoGroup( pipeLower, new Fields( "num" ), pipeUpper, new Fields( "num" ), new OuterJoin( Fields.size( 4 ) ) );
+
+    Flow flow = getPlatform().getFlowConnector( buildProperties( props ) ).connect( sources, sink, splice );
+
+    flow.complete();
+
+    validateLength( flow, 7 );
+
+    return getSinkAsList( flow );
+    }
+
+  @Test
+  public void testSpillingCoGroupNulls() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLhsSparse );
+    getPlatform().copyFromLocal( inputFileRhsSparse );
+
+    List<Tuple> expected = runNullCoGroup( "cogroup-nulls-default", null );
+
+    List<Tuple> actual = runNullCoGroup( "cogroup-nulls-spilling", LocalFlowProps.localFlowProps().setGateSpillThreshold( 64 ) );
+
+    assertEquals( sorted( expected ), sorted( actual ) );
+    }
+
+  private List<Tuple> runNullCoGroup( String path, LocalFlowProps props ) throws Exception
+    {
+    Fields fields = new Fields( "num", "char" ).applyTypes( Integer.class, String.class );
+
+    Map sources = new HashMap();
+
+    sources.put( "lower", getPlatform().getDelimitedFile( fields, " ", inputFileLhsSparse ) );
+    sources.put( "upper", getPlatform().getDelimitedFile( fields, " ", inputFileRhsSparse ) );
+
+    Tap sink = getPlatform().getDelimitedFile( Fields.size( 4, String.class ), "\t", getOutputPath( path ), SinkMode.REPLACE );
+
+    Fields groupFields = new Fields( "num" );
+
+    groupFields.setComparator( 0, new NullNotEquivalentComparator() ); // keys with nulls are joined per side
+
+    Pipe splice = new CoGroup( new Pipe( "lower" ), groupFields, new Pipe( "upper" ), groupFields, new Fields( "num", "char", "num2", "char2" ), new OuterJoin() );
+
+    Flow flow = getPlatform().getFlowConnector( props == null ? getProperties() : buildProperties( props ) ).connect( sources, sink, splice );
+
+    flow.complete();
+
+    return getSinkAsList( flow );
+    }
+
+  private Map<Object, Object> buildProperties( Props... props )
+    {
+    Map<Object, Object> properties = getProperties();
+
+    for( Props prop : props )
+      properties = new HashMap<Object, Object>( prop.buildProperties( properties ) );
+
+    return properties;
+    }
+
+  private List<Tuple> sorted( List<Tuple> tuples )
+    {
+    List<Tuple> result = new ArrayList<Tuple>( tuples );
+
+    Collections.sort( result );
+
+    return result;
+    }
+  }
@@ -158,6 +158,12 @@ public class LocalPlatform extends TestPlatform
     return new FileTap( new TextDelimited( true, new DelimitedParser( delimiter, quote, fieldTypeResolver ) ), filename, mode );
     }
 
+  @Override
+  public Tap getDelimitedFile( Fields fields, boolean skipHeader, boolean writeHeader, DelimitedParser delimitedParser, String filename, SinkMode mode )
+    {
+    return new FileTap( new TextDelimited( fields, skipHeader, writeHeader, delimitedParser ), filename, mode );
+    }
+
   @Override
   public Tap getTemplateTap( Tap sink, String pathTemplate, int openThreshold )
     {
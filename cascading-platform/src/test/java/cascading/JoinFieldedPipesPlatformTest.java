@@ -58,6 +58,8 @@ import cascading.tap.Tap;
 import cascading.tuple.Fields;
 import cascading.tuple.Hasher;
 import cascading.tuple.Tuple;
+import cascading.tuple.collect.MemorySpillStrategy;
+import cascading.tuple.collect.SpillableProps;
 import org.junit.Test;
 
 import static data.InputData.*;
@@ -137,6 +139,50 @@ public class JoinFieldedPipesPlatformTest extends PlatformTestCase
     assertTrue( values.contains( new Tuple( "2\tb\t2\tB" ) ) );
     }
 
+  /**
+   * Verifies the join tables release the bytes they retain, so later flows in the same JVM see the full memory budget.
+   */
+  @Test
+  public void testJoinReleasesRetainedMemory() throws Exception
+    {
+    getPlatform().copyFromLocal( inputFileLower );
+    getPlatform().copyFromLocal( inputFileUpper );
+
+    Tap sourceLower = getPlatform().getTextFile( new Fields( "offset", "line" ), inputFileLower );
+    Tap sourceUpper = getPlatform().getTextFile( new Fields( "offset", "line" ), inputFileUpper );
+
+    Map sources = new HashMap();
+
+    sources.put( "lower", sourceLower );
+    sources.put( "upper", sourceUpper );
+
+    Function splitter = new RegexSplitter( new Fields( "num", "char" ), " " );
+
+    Pipe pipeLower = new Each( new Pipe( "lower" ), new Fields( "line" ), splitter );
+    Pipe pipeUpper = new Each( new Pipe( "upper" ), new Fields( "line" ), splitter );
+
+    Pipe splice = new HashJoin( pipeLower, new Fields( "num" ), pipeUpper, new Fields( "num" ), Fields.size( 4 ) );
+
+    Map<Object, Object> properties = SpillableProps.spillableProps()
+      .setSpillMemoryFraction( 0.5f )
+      .buildProperties( getProperties() );
+
+    long retained = MemorySpillStrategy.getGlobalRetained();
+
+    for( int i = 0; i < 2; i++ )
+      {
+      Tap sink = getPlatform().getTextFile( new Fields( "line" ), getOutputPath( "joinretained" + i ), SinkMode.REPLACE );
+
+      Flow flow = getPlatform().getFlowConnector( properties ).connect( sources, sink, splice );
+
+      flow.complete();
+
+      validateLength( flow, 5 );
+
+      assertEquals( "retained bytes not released", retained, MemorySpillStrategy.getGlobalRetained() );
+      }
+    }
+
   @Test
   public void testJoinSamePipeName() throws Exception
     {
@@ -28,6 +28,7 @@ import java.util.Map;
 import cascading.flow.FlowConnector;
 import cascading.flow.FlowProcess;
 import cascading.scheme.Scheme;
+import cascading.scheme.util.DelimitedParser;
 import cascading.scheme.util.FieldTypeResolver;
 import cascading.tap.SinkMode;
 import cascading.tap.Tap;
@@ -239,6 +240,8 @@ public abstract class TestPlatform
 
   public abstract Tap getDelimitedFile( String delimiter, String quote, FieldTypeResolver fieldTypeResolver, String filename, SinkMode mode );
 
+  public abstract Tap getDelimitedFile( Fields fields, boolean skipHeader, boolean writeHeader, DelimitedParser delimitedParser, String filename, SinkMode mode );
+
   public abstract Tap getTemplateTap( Tap sink, String pathTemplate, int openThreshold );
 
   public abstract Tap getTemplateTap( Tap sink, String pathTemplate, Fields fields, int openThreshold );
@@ -22,15 +22,26 @@ package cascading.scheme;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.List;
 
 import cascading.ComparePlatformsTest;
 import cascading.PlatformTestCase;
 import cascading.TestConstants;
 import cascading.flow.Flow;
+import cascading.flow.StepCounters;
+import cascading.flow.planner.BaseFlowStep;
+import cascading.flow.planner.ElementGraphs;
 import cascading.operation.AssertionLevel;
+import cascading.operation.Identity;
+import cascading.operation.aggregator.Sum;
 import cascading.operation.assertion.AssertExpression;
+import cascading.operation.expression.ExpressionFilter;
+import cascading.operation.regex.RegexFilter;
 import cascading.pipe.Each;
+import cascading.pipe.Every;
+import cascading.pipe.GroupBy;
 import cascading.pipe.Pipe;
+import cascading.scheme.util.ScanningDelimitedParser;
 import cascading.tap.MultiSinkTap;
 import cascading.tap.SinkMode;
 import cascading.tap.Tap;
@@ -276,4 +287,116 @@ public class TextDelimitedPlatformTest extends PlatformTestCase
 
     validateLength( flow, 9, 10 );
     }
+
+  @Test
+  public void testRequiredSourceFields() throws IOException
+    {
+    Class[] types = new Class[]{String.class, String.class, String.class, String.class, long.class};
+    Fields fields = new Fields( "first", "second", "third", "fourth", "fifth" );
+
+    Tap input = getPlatform().getDelimitedFile( fields, true, true, ",", "\"", types, testDelimited, SinkMode.KEEP );
+    Tap output = getPlatform().getDelimitedFile( new Fields( "second", "fifth" ), true, true, ",", "\"", null, getOutputPath( "required" ), SinkMode.REPLACE );
+
+    Pipe pipe = new Pipe( "pipe" );
+
+    pipe = new Each( pipe, new Fields( "second", "fifth" ), new Identity() );
+
+    Flow flow = getPlatform().getFlowConnector().connect( input, output, pipe );
+
+    BaseFlowStep step = (BaseFlowStep) flow.getFlowSteps().get( 0 );
+
+    assertEquals( new Fields( "second", "fifth" ), ElementGraphs.findRequiredSourceFields( step.getGraph(), input ) );
+
+    flow.complete();
+
+    validateLength( flow, 11, 2 );
+
+    TupleEntryIterator iterator = flow.openSink();
+
+    assertEquals( new Tuple( "bar", "2" ), iterator.next().getTuple() );
+
+    iterator.close();
+    }
+
+  @Test
+  public void testSourceFilterPushdown() throws IOException
+    {
+    Class[] types = new Class[]{String.class, String.class, String.class, String.class, long.class};
+    Fields fields = new Fields( "first", "second", "third", "fourth", "fifth" );
+
+    Tap input = getPlatform().getDelimitedFile( fields, true, true, ",", "\"", types, testDelimited, SinkMode.KEEP );
+
+    runSourceFilterPushdown( input, "pushdown" );
+    }
+
+  @Test
+  public void testSourceFilterPushdownScanning() throws IOException
+    {
+    Class[] types = new Class[]{String.class, String.class, String.class, String.class, long.class};
+    Fields fields = new Fields( "first", "second", "third", "fourth", "fifth" );
+
+    Tap input = getPlatform().getDelimitedFile( fields, true, true, new ScanningDelimitedParser( ",", "\"", types ), testDelimited, SinkMode.KEEP );
+
+    runSourceFilterPushdown( input, "pushdownscanning" );
+    }
+
+  private void runSourceFilterPushdown( Tap input, String path ) throws IOException
+    {
+    Tap output = getPlatform().getDelimitedFile( new Fields( "first", "fifth" ), true, true, ",", "\"", null, getOutputPath( path ), SinkMode.REPLACE );
+
+    Pipe pipe = new Pipe( "pipe" );
+
+    pipe = new Each( pipe, new Fields( "first" ), new RegexFilter( "^f$" ) );
+    pipe = new Each( pipe, new Fields( "fifth" ), new ExpressionFilter( "fifth > 10", long.class ) );
+    pipe = new Each( pipe, new Fields( "first", "fifth" ), new Identity() );
+
+    Flow flow = getPlatform().getFlowConnector().connect( input, output, pipe );
+
+    BaseFlowStep step = (BaseFlowStep) flow.getFlowSteps().get( 0 );
+
+    assertEquals( 2, ElementGraphs.findSourceFilters( step.getGraph(), input ).size() );
+
+    flow.complete();
+
+    validateLength( flow, 1, 2 );
+
+    // only the one line kept by both filters may leave the scheme, not all eleven
+    assertEquals( 1, flow.getFlowStats().getCounterValue( StepCounters.Tuples_Read ) );
+
+    TupleEntryIterator iterator = flow.openSink();
+
+    assertEquals( new Tuple( "f", "10" ), iterator.next().getTuple() );
+
+    iterator.close();
+    }
+
+  @Test
+  public void testRequiredSourceFieldsGroupBy() throws IOException
+    {
+    Class[] types = new Class[]{String.class, String.class, String.class, String.class, long.class};
+    Fields fields = new Fields( "first", "second", "third", "fourth", "fifth" );
+
+    Tap input = getPlatform().getDelimitedFile( fields, true, true, ",", "\"", types, testDelimited, SinkMode.KEEP );
+    Tap output = getPlatform().getDelimitedFile( new Fields( "third", "sum" ), true, true, ",", "\"", null, getOutputPath( "requiredgroupby" ), SinkMode.REPLACE );
+
+    Pipe pipe = new Pipe( "pipe" );
+
+    pipe = new GroupBy( pipe, new Fields( "third" ) );
+    pipe = new Every( pipe, new Fields( "fifth" ), new Sum( new Fields( "sum" ), long.class ) );
+
+    Flow flow = getPlatform().getFlowConnector().connect( input, output, pipe );
+
+    BaseFlowStep step = (BaseFlowStep) flow.getFlowSteps().get( 0 );
+
+    assertEquals( new Fields( "third", "fifth" ), ElementGraphs.findRequiredSourceFields( step.getGraph(), input ) );
+
+    flow.complete();
+
+    validateLength( flow, 2, 2 );
+
+    List<Tuple> results = asList( flow, output );
+
+    assertTrue( results.contains( new Tuple( "baz", "20" ) ) );
+    assertTrue( results.contains( new Tuple( null, "56" ) ) );
+    }
   }